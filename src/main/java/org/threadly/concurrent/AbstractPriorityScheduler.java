@@ -8,14 +8,15 @@ import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.threadly.concurrent.collections.ConcurrentArrayList;
 import org.threadly.concurrent.future.ListenableFuture;
 import org.threadly.concurrent.future.ListenableFutureTask;
-import org.threadly.concurrent.future.ListenableRunnableFuture;
 import org.threadly.util.ArgumentVerifier;
 import org.threadly.util.Clock;
 import org.threadly.util.ExceptionUtils;
+import org.threadly.util.TimeSource;
 
 /**
  * <p>Abstract implementation for implementations of {@link PrioritySchedulerService}.  In 
@@ -38,12 +39,41 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
   protected static final int QUEUE_REAR_PADDING = 2;
 
   protected final TaskPriority defaultPriority;
+  protected final TimeSource timeSource;
   
   protected AbstractPriorityScheduler(TaskPriority defaultPriority) {
+    this(defaultPriority, null);
+  }
+  
+  /**
+   * Constructs a new scheduler which will reference the provided {@link TimeSource} from 
+   * {@link #nowInMillis(boolean)}.  If {@code null} is provided then time will be read from 
+   * {@link Clock}.
+   * 
+   * @since 4.6.0
+   * @param defaultPriority Default priority for tasks which are submitted without any specified priority
+   * @param timeSource Source for time, or {@code null} to use {@link Clock}
+   */
+  protected AbstractPriorityScheduler(TaskPriority defaultPriority, TimeSource timeSource) {
     if (defaultPriority == null) {
       defaultPriority = DEFAULT_PRIORITY;
     }
     this.defaultPriority = defaultPriority;
+    this.timeSource = timeSource;
+  }
+
+  /**
+   * Abstract call to get the value the scheduler should use to represent the current time.  This 
+   * can be overridden if someone wanted to artificially change the time.  By default this reads 
+   * from the {@link TimeSource} provided at construction, or from {@link Clock} if none was 
+   * provided.
+   * 
+   * @since 4.6.0 (existed since 2.0.0 in NoThreadScheduler)
+   * @param accurate If {@code true} then time estimates are not acceptable
+   * @return current time in milliseconds
+   */
+  protected long nowInMillis(boolean accurate) {
+    return Clock.forwardProgressingMillis(timeSource, accurate);
   }
   
   /**
@@ -110,6 +140,16 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
     schedule(task, 0, priority);
   }
 
+  @Override
+  public <T> ListenableFuture<T> submit(Callable<T> task) {
+    return submitScheduled(task, 0, defaultPriority);
+  }
+
+  @Override
+  public <T> ListenableFuture<T> submitScheduled(Callable<T> task, long delayInMs) {
+    return submitScheduled(task, delayInMs, defaultPriority);
+  }
+
   @Override
   public ListenableFuture<?> submit(Runnable task, TaskPriority priority) {
     return submitScheduled(task, null, 0, priority);
@@ -157,8 +197,8 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
       priority = defaultPriority;
     }
 
-    ListenableRunnableFuture<T> rf = new ListenableFutureTask<T>(false, task);
-    doSchedule(rf, delayInMs, priority);
+    QueuedListenableFutureTask<T> rf = new QueuedListenableFutureTask<T>(task);
+    rf.setQueuedTask(doSchedule(rf, delayInMs, priority), getQueueManager().getQueueSet(priority));
     
     return rf;
   }
@@ -207,8 +247,8 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
         // At this point there may or may not have been a single clock invocation to check if the 
         // high priority task was ready (if it was known ready, none was invoked)
         // because of that we _may_ have to invoke the clock here
-        Clock.lastKnownForwardProgressingMillis() - nextLowPriorityTask.getRunTime() > maxWaitForLowPriorityInMs || 
-        Clock.accurateForwardProgressingMillis() - nextLowPriorityTask.getRunTime() > maxWaitForLowPriorityInMs) {
+        nextLowPriorityTask.nowInMillis(false) - nextLowPriorityTask.getRunTime() > maxWaitForLowPriorityInMs || 
+        nextLowPriorityTask.nowInMillis(true) - nextLowPriorityTask.getRunTime() > maxWaitForLowPriorityInMs) {
       return nextLowPriorityTask;
     } else {
       // task is ready to run, low priority is also ready, but has not been waiting long enough
@@ -302,15 +342,23 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
    * @since 4.0.0
    */
   protected static class QueueSet {
+    protected static final int MIN_CANCELED_TASKS_BEFORE_COMPACT = 64;
+    
     protected final QueueSetListener queueListener;
     protected final ConcurrentLinkedQueue<OneTimeTaskWrapper> executeQueue;
     protected final ConcurrentArrayList<TaskWrapper> scheduleQueue;
+    private final AtomicInteger canceledTaskCount;
+    private volatile int compactCanceledThreshold;
     
     public QueueSet(QueueSetListener queueListener) {
       this.queueListener = queueListener;
       this.executeQueue = new ConcurrentLinkedQueue<OneTimeTaskWrapper>();
       this.scheduleQueue = new ConcurrentArrayList<TaskWrapper>(QUEUE_FRONT_PADDING, 
                                                                 QUEUE_REAR_PADDING);
+      // queue size may spike during bursts, allow the memory to be returned once drained
+      this.scheduleQueue.setAdaptivePadding(true);
+      this.canceledTaskCount = new AtomicInteger(0);
+      this.compactCanceledThreshold = MIN_CANCELED_TASKS_BEFORE_COMPACT;
     }
 
     /**
@@ -376,6 +424,57 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
       }
     }
 
+    /**
+     * Invalidates a one time task which was canceled before it started.  Removing a single task 
+     * from the queues requires a linear search (and a copy of the schedule queue), so instead the 
+     * task is left to be skipped once it is reached.  Once the number of canceled tasks is large 
+     * relative to the queue size, all invalidated tasks are removed in a single pass.  This keeps 
+     * canceling many queued tasks linear, while still releasing abandoned tasks from deep queues.
+     * 
+     * @param task Task which was canceled
+     */
+    public void cancelTask(OneTimeTaskWrapper task) {
+      task.invalidate();
+      
+      int canceled = canceledTaskCount.incrementAndGet();
+      if (canceled >= compactCanceledThreshold && canceledTaskCount.compareAndSet(canceled, 0)) {
+        compactCanceledTasks();
+      }
+    }
+    
+    /**
+     * Removes all invalidated one time tasks from the queues.  A task removed here may have 
+     * already been selected by a consumer, in which case it will just fail to execute (or 
+     * execute as a no-op since it is invalidated).
+     */
+    protected void compactCanceledTasks() {
+      int remaining = 0;
+      Iterator<OneTimeTaskWrapper> it = executeQueue.iterator();
+      while (it.hasNext()) {
+        if (it.next().invalidated) {
+          it.remove();
+        } else {
+          remaining++;
+        }
+      }
+      scheduleQueue.batchModify(new ConcurrentArrayList.BatchModifier<TaskWrapper>() {
+        @Override
+        public void modify(List<TaskWrapper> items) {
+          Iterator<TaskWrapper> scheduleIt = items.iterator();
+          while (scheduleIt.hasNext()) {
+            TaskWrapper tw = scheduleIt.next();
+            if (tw.invalidated && tw instanceof OneTimeTaskWrapper) {
+              scheduleIt.remove();
+            }
+          }
+        }
+      });
+      remaining += scheduleQueue.size();
+      
+      // wait for more cancels as the queue grows, so compaction cost stays amortized
+      compactCanceledThreshold = Math.max(MIN_CANCELED_TASKS_BEFORE_COMPACT, remaining / 2);
+    }
+
     /**
      * Removes a given callable from the internal queues (if it exists).
      * 
@@ -720,13 +819,25 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
      * @return delay in milliseconds till task can be run
      */
     public long getScheduleDelay() {
-      if (getRunTime() > Clock.lastKnownForwardProgressingMillis()) {
-        return getRunTime() - Clock.accurateForwardProgressingMillis();
+      if (getRunTime() > nowInMillis(false)) {
+        return getRunTime() - nowInMillis(true);
       } else {
         return 0;
       }
     }
     
+    /**
+     * Returns the current time in milliseconds, in the same time base the run time of this task 
+     * was produced from.  By default this reads from {@link Clock}, wrappers for schedulers 
+     * which use a different {@link TimeSource} must override this.
+     * 
+     * @param accurate If {@code true} then time estimates are not acceptable
+     * @return current time in milliseconds
+     */
+    protected long nowInMillis(boolean accurate) {
+      return Clock.forwardProgressingMillis(null, accurate);
+    }
+    
     @Override
     public String toString() {
       return task.toString();
@@ -738,6 +849,61 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
     }
   }
   
+  /**
+   * <p>Future returned from the submit functions.  If the future is canceled before it has 
+   * started its queued task is invalidated, and once enough tasks have been canceled they are 
+   * removed from the queue in bulk (see {@link QueueSet#cancelTask(OneTimeTaskWrapper)}).  This 
+   * is important when cancellation is propagated from dependent futures, as many abandoned tasks 
+   * may otherwise accumulate in the queue.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> The result object type returned by this future
+   */
+  protected static class QueuedListenableFutureTask<T> extends ListenableFutureTask<T> {
+    private volatile OneTimeTaskWrapper queuedTask;
+    private volatile QueueSet queueSet;
+    
+    protected QueuedListenableFutureTask(Callable<T> task) {
+      super(false, task);
+      
+      queuedTask = null;
+      queueSet = null;
+    }
+    
+    /**
+     * Sets the wrapper which was queued for this task.  If the task was canceled while it was 
+     * being queued it will be invalidated at this point.
+     * 
+     * @param queuedTask Wrapper which contains this task in the queue
+     * @param queueSet Queue set the wrapper was added to
+     */
+    protected void setQueuedTask(OneTimeTaskWrapper queuedTask, QueueSet queueSet) {
+      this.queueSet = queueSet;
+      this.queuedTask = queuedTask;
+      if (isCancelled()) {
+        invalidateQueuedTask();
+      }
+    }
+    
+    private void invalidateQueuedTask() {
+      OneTimeTaskWrapper tw = queuedTask;
+      if (tw != null && ! tw.invalidated) {
+        queueSet.cancelTask(tw);
+      }
+    }
+    
+    @Override
+    public boolean cancel(boolean interruptThread) {
+      if (super.cancel(interruptThread)) {
+        invalidateQueuedTask();
+        return true;
+      } else {
+        return false;
+      }
+    }
+  }
+  
   /**
    * <p>Wrapper for tasks which only executes once.</p>
    * 
@@ -833,8 +999,8 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
       if (executing) {
         // this would only be likely if two threads were trying to run the same task
         return Long.MAX_VALUE;
-      } else if (nextRunTime > Clock.lastKnownForwardProgressingMillis()) {
-        return nextRunTime - Clock.accurateForwardProgressingMillis();
+      } else if (nextRunTime > nowInMillis(false)) {
+        return nextRunTime - nowInMillis(true);
       } else {
         return 0;
       }
@@ -909,7 +1075,7 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
     
     @Override
     protected void updateNextRunTime() {
-      nextRunTime = Clock.accurateForwardProgressingMillis() + recurringDelay;
+      nextRunTime = nowInMillis(true) + recurringDelay;
     }
   }
   
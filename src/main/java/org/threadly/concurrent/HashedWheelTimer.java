@@ -0,0 +1,372 @@
+package org.threadly.concurrent;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Clock;
+import org.threadly.util.ExceptionUtils;
+import org.threadly.util.TimeSource;
+
+/**
+ * <p>A timer designed for a very large number of timeouts, most of which are expected to be 
+ * canceled before they fire (for example a deadline attached to every request).  Adding and 
+ * canceling a timeout are both {@code O(1)} and lock free, requiring only a single object 
+ * allocation for the timeout handle.</p>
+ * 
+ * <p>Timeouts are kept in a wheel of buckets, each bucket representing one tick of time.  A 
+ * single task is scheduled on the provided {@link SubmitterScheduler} to advance the wheel one 
+ * tick at a time, expiring the timeouts in the buckets it passes.  This task only runs while 
+ * there are timeouts pending, so an idle timer costs nothing.  Because of the tick, timeouts 
+ * will fire up to one tick late (in addition to any delay in the scheduler running the tick 
+ * task).</p>
+ * 
+ * <p>New and canceled timeouts are pushed onto lock free stacks, which the tick task drains into 
+ * (or out of) the wheel.  Thus the wheel itself is only ever accessed by the tick task, which 
+ * never runs concurrently with itself.</p>
+ * 
+ * <p>Expired tasks are run on the thread running the tick task.  They should be quick (for 
+ * example completing or canceling a future), anything more significant should be handed off to 
+ * an executor.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ */
+public class HashedWheelTimer {
+  /**
+   * Default time in milliseconds each bucket in the wheel represents.
+   */
+  public static final int DEFAULT_TICK_MILLIS = 10;
+  /**
+   * Default number of buckets in the wheel.
+   */
+  public static final int DEFAULT_WHEEL_SIZE = 512;
+  
+  protected final SubmitterScheduler scheduler;
+  protected final TimeSource timeSource;
+  protected final long tickMillis;
+  protected final Timeout[] wheel;
+  protected final int wheelMask;
+  protected final AtomicReference<Timeout> addedStack;
+  protected final AtomicReference<Timeout> canceledStack;
+  protected final AtomicInteger pendingCount;
+  protected final AtomicBoolean tickScheduled;
+  protected final TickRunner tickRunner;
+  private long lastProcessedTick; // only accessed by tick runner
+  
+  /**
+   * Constructs a new timer with the default tick and wheel size.
+   * 
+   * @param scheduler Scheduler to run the tick task on
+   */
+  public HashedWheelTimer(SubmitterScheduler scheduler) {
+    this(scheduler, DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE, null);
+  }
+  
+  /**
+   * Constructs a new timer.  The wheel size will be rounded up to a power of two.  The wheel 
+   * size times the tick should ideally be larger than most timeouts, timeouts which are further 
+   * out will be inspected (but not expired) once each rotation of the wheel.
+   * 
+   * @param scheduler Scheduler to run the tick task on
+   * @param tickMillis Time in milliseconds each bucket in the wheel represents
+   * @param wheelSize Number of buckets in the wheel
+   * @param timeSource Source for time, or {@code null} to use {@link Clock}
+   */
+  public HashedWheelTimer(SubmitterScheduler scheduler, long tickMillis, 
+                          int wheelSize, TimeSource timeSource) {
+    ArgumentVerifier.assertNotNull(scheduler, "scheduler");
+    ArgumentVerifier.assertGreaterThanZero(tickMillis, "tickMillis");
+    ArgumentVerifier.assertGreaterThanZero(wheelSize, "wheelSize");
+    
+    int size = Integer.highestOneBit(wheelSize);
+    if (size < wheelSize) {
+      size <<= 1;
+    }
+    this.scheduler = scheduler;
+    this.timeSource = timeSource;
+    this.tickMillis = tickMillis;
+    this.wheel = new Timeout[size];
+    this.wheelMask = size - 1;
+    this.addedStack = new AtomicReference<Timeout>(null);
+    this.canceledStack = new AtomicReference<Timeout>(null);
+    this.pendingCount = new AtomicInteger(0);
+    this.tickScheduled = new AtomicBoolean(false);
+    this.tickRunner = new TickRunner();
+    this.lastProcessedTick = nowInMillis() / tickMillis;
+  }
+  
+  /**
+   * Returns the current forward progressing time in milliseconds from the {@link TimeSource} 
+   * provided at construction, or from {@link Clock} if none was provided.
+   * 
+   * @return current time in milliseconds
+   */
+  protected long nowInMillis() {
+    return Clock.forwardProgressingMillis(timeSource, true);
+  }
+  
+  /**
+   * Returns the number of timeouts which have not yet expired or been canceled.
+   * 
+   * @return Quantity of pending timeouts
+   */
+  public int getPendingCount() {
+    return pendingCount.get();
+  }
+  
+  /**
+   * Schedules a task to run once the delay has elapsed.  The returned {@link Timeout} can be used 
+   * to cancel the task.
+   * 
+   * @param task Task to be run once the delay has elapsed
+   * @param delayInMillis Delay in milliseconds before running the task
+   * @return Handle which can be used to cancel the timeout
+   */
+  public Timeout schedule(Runnable task, long delayInMillis) {
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(delayInMillis, "delayInMillis");
+    
+    Timeout timeout = new Timeout(this, task, nowInMillis() + delayInMillis);
+    pendingCount.incrementAndGet();
+    push(addedStack, timeout, true);
+    ensureTickScheduled();
+    
+    return timeout;
+  }
+  
+  private static void push(AtomicReference<Timeout> stack, Timeout timeout, boolean addStack) {
+    while (true) {
+      Timeout head = stack.get();
+      if (addStack) {
+        timeout.nextAdded = head;
+      } else {
+        timeout.nextCanceled = head;
+      }
+      if (stack.compareAndSet(head, timeout)) {
+        return;
+      }
+    }
+  }
+  
+  /**
+   * Invoked when a timeout is canceled, so that it can be removed from the wheel on the next 
+   * tick.
+   * 
+   * @param timeout Timeout which has been canceled
+   */
+  protected void handleCanceled(Timeout timeout) {
+    pendingCount.decrementAndGet();
+    push(canceledStack, timeout, false);
+  }
+  
+  private void ensureTickScheduled() {
+    if (! tickScheduled.get() && tickScheduled.compareAndSet(false, true)) {
+      scheduler.schedule(tickRunner, tickMillis);
+    }
+  }
+  
+  /**
+   * Check if the tick task needs to continue running.  Canceled timeouts waiting for removal 
+   * will keep it running so that they are removed from the wheel promptly.
+   * 
+   * @return {@code true} if there is work remaining for the tick task
+   */
+  private boolean hasWork() {
+    return pendingCount.get() > 0 || addedStack.get() != null || canceledStack.get() != null;
+  }
+  
+  /**
+   * Advances the wheel to the current time, expiring any timeouts which have been passed.  This 
+   * must only be invoked by the tick runner.
+   * 
+   * @return The time used for this tick
+   */
+  private long processTick() {
+    long now = nowInMillis();
+    long currentTick = now / tickMillis;
+    
+    drainAdded(now);
+    drainCanceled();
+    
+    long ticksToProcess = Math.min(currentTick - lastProcessedTick, wheel.length);
+    for (long i = 1; i <= ticksToProcess; i++) {
+      expireBucket((int)((lastProcessedTick + i) & wheelMask), now);
+    }
+    lastProcessedTick = currentTick;
+    
+    return now;
+  }
+  
+  private void drainAdded(long now) {
+    Timeout timeout = addedStack.getAndSet(null);
+    while (timeout != null) {
+      Timeout next = timeout.nextAdded;
+      timeout.nextAdded = null;
+      if (timeout.state == Timeout.STATE_PENDING) {
+        if (timeout.deadline <= now) {
+          expire(timeout);
+        } else {
+          // round up so the bucket is not processed before the deadline
+          long tick = (timeout.deadline + tickMillis - 1) / tickMillis;
+          int bucket = (int)(tick & wheelMask);
+          timeout.bucket = bucket;
+          timeout.next = wheel[bucket];
+          if (timeout.next != null) {
+            timeout.next.previous = timeout;
+          }
+          wheel[bucket] = timeout;
+        }
+      }
+      timeout = next;
+    }
+  }
+  
+  private void drainCanceled() {
+    Timeout timeout = canceledStack.getAndSet(null);
+    while (timeout != null) {
+      Timeout next = timeout.nextCanceled;
+      timeout.nextCanceled = null;
+      unlink(timeout);
+      timeout = next;
+    }
+  }
+  
+  private void expireBucket(int bucket, long now) {
+    Timeout timeout = wheel[bucket];
+    while (timeout != null) {
+      Timeout next = timeout.next;
+      if (timeout.deadline <= now) {
+        unlink(timeout);
+        expire(timeout);
+      }
+      timeout = next;
+    }
+  }
+  
+  private void unlink(Timeout timeout) {
+    if (timeout.bucket < 0) {
+      // never added, or already removed
+      return;
+    }
+    
+    if (timeout.previous == null) {
+      wheel[timeout.bucket] = timeout.next;
+    } else {
+      timeout.previous.next = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.previous = timeout.previous;
+    }
+    timeout.bucket = -1;
+    timeout.previous = null;
+    timeout.next = null;
+  }
+  
+  private void expire(Timeout timeout) {
+    if (Timeout.STATE_UPDATER.compareAndSet(timeout, Timeout.STATE_PENDING, Timeout.STATE_EXPIRED)) {
+      pendingCount.decrementAndGet();
+      Runnable task = timeout.task;
+      timeout.task = null;
+      try {
+        task.run();
+      } catch (Throwable t) {
+        ExceptionUtils.handleException(t);
+      }
+    }
+  }
+  
+  /**
+   * <p>Task which advances the wheel, rescheduling itself while there is work remaining.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  protected class TickRunner implements Runnable {
+    @Override
+    public void run() {
+      long now = processTick();
+      
+      if (! hasWork()) {
+        tickScheduled.set(false);
+        // verify nothing was added after we checked, and before the flag was cleared
+        if (! hasWork() || ! tickScheduled.compareAndSet(false, true)) {
+          return;
+        }
+      }
+      
+      scheduler.schedule(this, tickMillis - (now % tickMillis));
+    }
+  }
+  
+  /**
+   * <p>Handle for a task scheduled on the {@link HashedWheelTimer}.  This can be used to cancel 
+   * the task before it runs.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  public static class Timeout {
+    protected static final int STATE_PENDING = 0;
+    protected static final int STATE_CANCELED = 1;
+    protected static final int STATE_EXPIRED = 2;
+    protected static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER = 
+        AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+    
+    protected final HashedWheelTimer timer;
+    protected final long deadline;
+    protected volatile int state;
+    protected volatile Runnable task;
+    // linkage for stacks, only modified before push or by the tick runner
+    protected Timeout nextAdded;
+    protected Timeout nextCanceled;
+    // linkage in wheel bucket, only accessed by the tick runner
+    protected int bucket;
+    protected Timeout previous;
+    protected Timeout next;
+    
+    protected Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+      this.timer = timer;
+      this.deadline = deadline;
+      this.state = STATE_PENDING;
+      this.task = task;
+      this.bucket = -1;
+    }
+    
+    /**
+     * Attempts to cancel the timeout.  This will only succeed if the task has not already been 
+     * run (or started running) and has not already been canceled.
+     * 
+     * @return {@code true} if the timeout was canceled and the task will not run
+     */
+    public boolean cancel() {
+      if (state == STATE_PENDING && STATE_UPDATER.compareAndSet(this, STATE_PENDING, STATE_CANCELED)) {
+        task = null;
+        timer.handleCanceled(this);
+        return true;
+      } else {
+        return false;
+      }
+    }
+    
+    /**
+     * Check if this timeout was canceled.
+     * 
+     * @return {@code true} if {@link #cancel()} succeeded
+     */
+    public boolean isCanceled() {
+      return state == STATE_CANCELED;
+    }
+    
+    /**
+     * Check if this timeout has expired, and thus its task has been run (or is running).
+     * 
+     * @return {@code true} if the timeout has expired
+     */
+    public boolean isExpired() {
+      return state == STATE_EXPIRED;
+    }
+  }
+}
@@ -9,6 +9,7 @@ import org.threadly.util.ArgumentVerifier;
 import org.threadly.util.Clock;
 import org.threadly.util.ExceptionHandler;
 import org.threadly.util.ExceptionUtils;
+import org.threadly.util.TimeSource;
 
 /**
  * <p>Executor which has no threads itself.  This allows you to have the same scheduler abilities 
@@ -47,7 +48,26 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
    * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
    */
   public NoThreadScheduler(TaskPriority defaultPriority, long maxWaitForLowPriorityInMs) {
-    super(defaultPriority);
+    this(defaultPriority, maxWaitForLowPriorityInMs, null);
+  }
+  
+  /**
+   * Constructs a new {@link NoThreadScheduler} scheduler which uses the provided 
+   * {@link TimeSource} to determine when scheduled tasks are ready to run.  Providing a source 
+   * which is manually advanced (for example 
+   * {@link org.threadly.test.concurrent.TestableTimeSource}) allows tasks to be run 
+   * deterministically, without waiting for real time to pass.  Note that 
+   * {@link #blockingTick(ExceptionHandler)} still waits in real time for the next task, so when 
+   * the source is manually advanced {@link #tick(ExceptionHandler)} should be used instead.
+   * 
+   * @since 4.6.0
+   * @param defaultPriority Default priority for tasks which are submitted without any specified priority
+   * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+   * @param timeSource Source for time, or {@code null} to use {@link Clock}
+   */
+  public NoThreadScheduler(TaskPriority defaultPriority, long maxWaitForLowPriorityInMs, 
+                           TimeSource timeSource) {
+    super(defaultPriority, timeSource);
     
     queueManager = new QueueManager(queueListener = new QueueSetListener() {
       @Override
@@ -65,21 +85,6 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
     // call to verify and set values
     setMaxWaitForLowPriority(maxWaitForLowPriorityInMs);
   }
-
-  /**
-   * Abstract call to get the value the scheduler should use to represent the current time.  This 
-   * can be overridden if someone wanted to artificially change the time.
-   * 
-   * @param accurate If {@code true} then time estimates are not acceptable
-   * @return current time in milliseconds
-   */
-  protected long nowInMillis(boolean accurate) {
-    if (accurate) {
-      return Clock.accurateForwardProgressingMillis();
-    } else {
-      return Clock.lastKnownForwardProgressingMillis();
-    }
-  }
   
   /**
    * Call to cancel current or the next tick call.  If currently in a 
@@ -430,12 +435,8 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
     }
     
     @Override
-    public long getScheduleDelay() {
-      if (getRunTime() > nowInMillis(false)) {
-        return getRunTime() - nowInMillis(true);
-      } else {
-        return 0;
-      }
+    protected long nowInMillis(boolean accurate) {
+      return NoThreadScheduler.this.nowInMillis(accurate);
     }
 
     @Override
@@ -458,6 +459,11 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
       super(task, queueSet, firstRunTime);
     }
     
+    @Override
+    protected long nowInMillis(boolean accurate) {
+      return NoThreadScheduler.this.nowInMillis(accurate);
+    }
+    
     @Override
     public long getScheduleDelay() {
       if (getRunTime() > nowInMillis(false)) {
@@ -0,0 +1,702 @@
+package org.threadly.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.threadly.concurrent.future.ImmediateResultListenableFuture;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.concurrent.future.SettableListenableFuture;
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
+import org.threadly.util.Predicate;
+
+/**
+ * <p>A push based pipeline for processing a stream of items asynchronously.  A pipeline is 
+ * started with {@link #source(int)}, stages are added with functions like 
+ * {@link #map(Executor, Function)} or {@link #flatMapAsync(Executor, int, Function)}, and it is 
+ * ended with {@link #consume(Executor, Consumer)}.  Items are then provided with 
+ * {@link Source#push(Object)}, and once all items have been pushed {@link Source#complete()} 
+ * should be invoked.  For example:</p>
+ * 
+ * <pre>{@code 
+ * Pipeline.Source<Request> source = Pipeline.source(1024); 
+ * ListenableFuture<?> done = source.map(scheduler, parseFunction) 
+ *                                  .flatMapAsync(scheduler, 16, lookupFunction) 
+ *                                  .batch(scheduler, 100, 10) 
+ *                                  .consume(scheduler, writeConsumer); 
+ * }</pre>
+ * 
+ * <p>Each stage has its own bounded buffer, and processes items on the {@link Executor} provided 
+ * for that stage.  A stage only ever has a single task on its executor, which drains items 
+ * serially (similar to {@link org.threadly.concurrent.wrapper.KeyDistributedExecutor}).  Because 
+ * of that stage functions do not need to be thread safe, and parallelism comes from separate 
+ * stages running concurrently or from {@link #flatMapAsync(Executor, int, Function)}.  Items are 
+ * stored without per item futures or wrapping tasks.</p>
+ * 
+ * <p>Backpressure is provided with futures.  Once a stage's buffer is full, pushing into it 
+ * returns a future which will complete once there is room.  An upstream stage will wait on this 
+ * future before processing its next item, causing its own buffer to fill, until eventually the 
+ * future from {@link Source#push(Object)} will not be done.  Producers should wait for that 
+ * future before pushing more items.  No threads are blocked while waiting.</p>
+ * 
+ * <p>If any stage function throws an exception the future returned from 
+ * {@link #consume(Executor, Consumer)} will fail with that exception, and any remaining items 
+ * are dropped.  Canceling that future will likewise stop the pipeline.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ * @param <T> Type of item output from this point in the pipeline
+ */
+public abstract class Pipeline<T> {
+  /**
+   * Starts a new pipeline.  The buffer size is used for every stage added to the pipeline.
+   * 
+   * @param <T> Type of item to be pushed into the pipeline
+   * @param bufferSize Maximum items each stage should buffer before applying backpressure
+   * @return A source to add stages to, and push items into
+   */
+  public static <T> Source<T> source(int bufferSize) {
+    ArgumentVerifier.assertGreaterThanZero(bufferSize, "bufferSize");
+    
+    return new Source<T>(new PipelineState(bufferSize));
+  }
+  
+  protected final PipelineState state;
+  private final AtomicReference<Stage<? super T, ?>> downstream;
+  
+  protected Pipeline(PipelineState state) {
+    this.state = state;
+    this.downstream = new AtomicReference<Stage<? super T, ?>>(null);
+  }
+  
+  /**
+   * Sets the stage which will receive items from this point in the pipeline.
+   * 
+   * @param <O> Type of item output from the stage
+   * @param stage Stage to receive output
+   * @return The provided stage
+   * @throws IllegalStateException Thrown if this point in the pipeline already has a stage added
+   */
+  protected <O> Pipeline<O> addStage(Stage<? super T, O> stage) {
+    if (state.terminated) {
+      throw new IllegalStateException("Pipeline has already been ended");
+    } else if (! downstream.compareAndSet(null, stage)) {
+      throw new IllegalStateException("Stage already added at this point of the pipeline");
+    }
+    return stage;
+  }
+  
+  /**
+   * Provides an item to the next stage in the pipeline.
+   * 
+   * @param item Item to provide
+   * @return Future which will complete once the next stage has room for more items
+   */
+  protected ListenableFuture<?> emit(T item) {
+    return downstream.get().accept(item);
+  }
+  
+  /**
+   * Indicates to the next stage that no more items will be provided.
+   */
+  protected void emitComplete() {
+    downstream.get().inputComplete();
+  }
+  
+  /**
+   * Adds a stage which transforms each item with the provided function.
+   * 
+   * @param <R> Type of item output from the function
+   * @param executor Executor to run the function on
+   * @param mapper Function to apply to each item
+   * @return The pipeline to add further stages to
+   */
+  public <R> Pipeline<R> map(Executor executor, Function<? super T, ? extends R> mapper) {
+    return addStage(new MapStage<T, R>(state, executor, mapper));
+  }
+  
+  /**
+   * Adds a stage which only passes on items which match the provided predicate.
+   * 
+   * @param executor Executor to run the predicate on
+   * @param predicate Test which must pass for an item to continue through the pipeline
+   * @return The pipeline to add further stages to
+   */
+  public Pipeline<T> filter(Executor executor, Predicate<? super T> predicate) {
+    return addStage(new FilterStage<T>(state, executor, predicate));
+  }
+  
+  /**
+   * Adds a stage which starts an asynchronous operation for each item, providing the result of 
+   * the returned future to the next stage.  At most {@code maxConcurrency} operations will be 
+   * outstanding at once, once that limit is reached no further items will be started until one 
+   * completes.  Results are provided in the order the operations complete, not the order items 
+   * were received.
+   * 
+   * @param <R> Type of item output from the returned futures
+   * @param executor Executor to invoke the function on
+   * @param maxConcurrency Maximum number of operations outstanding at once
+   * @param mapper Function to start the operation for each item
+   * @return The pipeline to add further stages to
+   */
+  public <R> Pipeline<R> flatMapAsync(Executor executor, int maxConcurrency, 
+                                      Function<? super T, ? extends ListenableFuture<? extends R>> mapper) {
+    return addStage(new FlatMapAsyncStage<T, R>(state, executor, maxConcurrency, mapper));
+  }
+  
+  /**
+   * Adds a stage which groups items into lists.  A batch is provided once it reaches the max 
+   * batch size, or once the max delay has passed since the first item was added to it, whichever 
+   * happens first.  Any partial batch will be provided when the pipeline completes.
+   * 
+   * @param scheduler Scheduler to run the stage on, and to schedule the max delay
+   * @param maxBatchSize Maximum items to include in a single batch
+   * @param maxDelayInMillis Maximum time in milliseconds to hold items waiting for a full batch
+   * @return The pipeline to add further stages to
+   */
+  public Pipeline<List<T>> batch(SubmitterScheduler scheduler, int maxBatchSize, long maxDelayInMillis) {
+    return addStage(new BatchStage<T>(state, scheduler, maxBatchSize, maxDelayInMillis));
+  }
+  
+  /**
+   * Ends the pipeline with a stage which provides each item to the consumer.  The returned future 
+   * will complete once {@link Source#complete()} has been invoked and all items have been 
+   * consumed.  If any stage fails, the returned future will fail with that cause.  Canceling the 
+   * returned future will stop the pipeline.
+   * 
+   * @param executor Executor to invoke the consumer on
+   * @param consumer Consumer to accept each item
+   * @return Future which will complete once the pipeline has processed all items
+   */
+  public ListenableFuture<?> consume(Executor executor, Consumer<? super T> consumer) {
+    addStage(new ConsumeStage<T>(state, executor, consumer));
+    state.terminated = true;
+    return state.completion;
+  }
+  
+  /**
+   * <p>State shared by every stage of a pipeline.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  protected static class PipelineState {
+    protected final int bufferSize;
+    protected final SettableListenableFuture<Void> completion;
+    protected volatile boolean terminated;
+    
+    protected PipelineState(int bufferSize) {
+      this.bufferSize = bufferSize;
+      this.completion = new SettableListenableFuture<Void>(false);
+      this.terminated = false;
+    }
+    
+    /**
+     * Fails the pipeline, causing any further items to be dropped.
+     * 
+     * @param t Cause of the failure
+     */
+    protected void fail(Throwable t) {
+      completion.setFailure(t);
+    }
+  }
+  
+  /**
+   * <p>The start of a pipeline, which items are pushed into.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> Type of item to be pushed into the pipeline
+   */
+  public static class Source<T> extends Pipeline<T> {
+    protected Source(PipelineState state) {
+      super(state);
+    }
+    
+    /**
+     * Pushes an item into the pipeline.  The returned future will be done if the pipeline can 
+     * accept more items.  If it is not done, the producer should wait for it to complete before 
+     * pushing more items.  If the pipeline has failed or been canceled the returned future will 
+     * be the completion future from {@link #consume(Executor, Consumer)}.
+     * 
+     * @param item Item to push, may be {@code null}
+     * @return Future which will complete once the pipeline has room for more items
+     * @throws IllegalStateException Thrown if the pipeline was not ended with {@link #consume(Executor, Consumer)}
+     */
+    public ListenableFuture<?> push(T item) {
+      if (! state.terminated) {
+        throw new IllegalStateException("Pipeline must be ended before pushing items");
+      } else if (state.completion.isDone()) {
+        return state.completion;
+      }
+      
+      return emit(item);
+    }
+    
+    /**
+     * Indicates that no more items will be pushed.  Once all pushed items have been processed the 
+     * completion future from {@link #consume(Executor, Consumer)} will complete.
+     */
+    public void complete() {
+      if (! state.terminated) {
+        throw new IllegalStateException("Pipeline must be ended before being completed");
+      }
+      
+      emitComplete();
+    }
+    
+    /**
+     * Stops the pipeline, causing the completion future to fail with the provided cause.  Any 
+     * items still being processed will be dropped.
+     * 
+     * @param cause Reason the pipeline is being failed
+     */
+    public void fail(Throwable cause) {
+      state.fail(cause);
+    }
+  }
+  
+  /**
+   * <p>Base class for a stage of the pipeline.  Items are buffered into a queue, which is drained 
+   * serially by a single task on the stage's executor.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <I> Type of item accepted into this stage
+   * @param <O> Type of item output from this stage
+   */
+  protected abstract static class Stage<I, O> extends Pipeline<O> implements Runnable {
+    private static final Object NULL_ITEM = new Object();
+    
+    protected final Executor executor;
+    private final Queue<Object> queue;
+    private final AtomicInteger queuedCount;
+    private final AtomicBoolean drainRunning;
+    private final AtomicBoolean completeHandled;
+    private final Object capacityLock;
+    private volatile SettableListenableFuture<Void> capacityFuture;
+    private volatile boolean inputComplete;
+    
+    protected Stage(PipelineState state, Executor executor) {
+      super(state);
+      
+      ArgumentVerifier.assertNotNull(executor, "executor");
+      
+      this.executor = executor;
+      this.queue = new ConcurrentLinkedQueue<Object>();
+      this.queuedCount = new AtomicInteger(0);
+      this.drainRunning = new AtomicBoolean(false);
+      this.completeHandled = new AtomicBoolean(false);
+      this.capacityLock = new Object();
+      this.capacityFuture = null;
+      this.inputComplete = false;
+    }
+    
+    /**
+     * Accepts an item into this stage's buffer.
+     * 
+     * @param item Item to accept
+     * @return Future which will complete once there is room for more items
+     */
+    protected ListenableFuture<?> accept(I item) {
+      queue.add(item == null ? NULL_ITEM : item);
+      ListenableFuture<?> result = ImmediateResultListenableFuture.NULL_RESULT;
+      if (queuedCount.incrementAndGet() >= state.bufferSize) {
+        SettableListenableFuture<Void> releaseFuture = null;
+        synchronized (capacityLock) {
+          if (capacityFuture == null) {
+            capacityFuture = new SettableListenableFuture<Void>(false);
+          }
+          // check again now that the future is visible, in case the drain missed it
+          if (queuedCount.get() < state.bufferSize) {
+            releaseFuture = capacityFuture;
+            capacityFuture = null;
+          } else {
+            result = capacityFuture;
+          }
+        }
+        if (releaseFuture != null) {
+          releaseFuture.setResult(null);
+        }
+      }
+      signalDrain();
+      
+      return result;
+    }
+    
+    /**
+     * Indicates no more items will be accepted into this stage.
+     */
+    protected void inputComplete() {
+      inputComplete = true;
+      signalDrain();
+    }
+    
+    private void signalDrain() {
+      if (! drainRunning.get() && drainRunning.compareAndSet(false, true)) {
+        try {
+          executor.execute(this);
+        } catch (Throwable t) {
+          drainRunning.set(false);
+          state.fail(t);
+        }
+      }
+    }
+    
+    private void releaseCapacity() {
+      if (queuedCount.decrementAndGet() < state.bufferSize && capacityFuture != null) {
+        SettableListenableFuture<Void> releaseFuture;
+        synchronized (capacityLock) {
+          releaseFuture = capacityFuture;
+          capacityFuture = null;
+        }
+        if (releaseFuture != null) {
+          releaseFuture.setResult(null);
+        }
+      }
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public void run() {
+      while (true) {
+        Object item = queue.poll();
+        if (item == null) {
+          drainRunning.set(false);
+          // verify nothing was added after we checked, and before the flag was cleared
+          if (queue.isEmpty() || ! drainRunning.compareAndSet(false, true)) {
+            checkComplete();
+            return;
+          }
+          continue;
+        }
+        
+        ListenableFuture<?> waitFuture = null;
+        if (! state.completion.isDone()) {
+          try {
+            waitFuture = process(item == NULL_ITEM ? null : (I)item);
+          } catch (Throwable t) {
+            state.fail(t);
+          }
+        } // else pipeline has failed, drop the item
+        // count is only reduced after processing so an item in progress prevents completion
+        releaseCapacity();
+        
+        if (waitFuture != null && ! waitFuture.isDone()) {
+          // continue draining once ready, the drain is still considered running till then
+          waitFuture.addListener(this, executor);
+          return;
+        }
+      }
+    }
+    
+    /**
+     * Checks if all input has been processed, and if so invokes {@link #handleInputComplete()}. 
+     * This will only invoke {@link #handleInputComplete()} once.
+     */
+    protected void checkComplete() {
+      if (inputComplete && queuedCount.get() == 0 && canComplete() && 
+          completeHandled.compareAndSet(false, true)) {
+        try {
+          handleInputComplete();
+        } catch (Throwable t) {
+          state.fail(t);
+        }
+      }
+    }
+    
+    /**
+     * Check if any outstanding work prevents this stage from completing once its buffer is empty.
+     * 
+     * @return {@code true} if the stage can complete
+     */
+    protected boolean canComplete() {
+      return true;
+    }
+    
+    /**
+     * Invoked once all input has been accepted and processed.  By default this indicates 
+     * completion to the next stage.
+     */
+    protected void handleInputComplete() {
+      emitComplete();
+    }
+    
+    /**
+     * Process a single item from the buffer.  This is never invoked concurrently.
+     * 
+     * @param item Item to process
+     * @return A future which must complete before the next item is processed, or {@code null}
+     */
+    protected abstract ListenableFuture<?> process(I item);
+  }
+  
+  /**
+   * <p>Stage for {@link Pipeline#map(Executor, Function)}.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <I> Type of item accepted into this stage
+   * @param <O> Type of item output from this stage
+   */
+  protected static class MapStage<I, O> extends Stage<I, O> {
+    private final Function<? super I, ? extends O> mapper;
+    
+    protected MapStage(PipelineState state, Executor executor, 
+                       Function<? super I, ? extends O> mapper) {
+      super(state, executor);
+      
+      ArgumentVerifier.assertNotNull(mapper, "mapper");
+      
+      this.mapper = mapper;
+    }
+    
+    @Override
+    protected ListenableFuture<?> process(I item) {
+      return emit(mapper.apply(item));
+    }
+  }
+  
+  /**
+   * <p>Stage for {@link Pipeline#filter(Executor, Predicate)}.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> Type of item accepted into and output from this stage
+   */
+  protected static class FilterStage<T> extends Stage<T, T> {
+    private final Predicate<? super T> predicate;
+    
+    protected FilterStage(PipelineState state, Executor executor, Predicate<? super T> predicate) {
+      super(state, executor);
+      
+      ArgumentVerifier.assertNotNull(predicate, "predicate");
+      
+      this.predicate = predicate;
+    }
+    
+    @Override
+    protected ListenableFuture<?> process(T item) {
+      if (predicate.test(item)) {
+        return emit(item);
+      } else {
+        return null;
+      }
+    }
+  }
+  
+  /**
+   * <p>Stage for {@link Pipeline#flatMapAsync(Executor, int, Function)}.  Results are provided to 
+   * the next stage from the thread which completes the returned future, even if the next stage's 
+   * buffer is full.  An operation's concurrency slot is not released until the next stage has 
+   * room for its result, so the next stage's buffer may be exceeded by at most the max 
+   * concurrency.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <I> Type of item accepted into this stage
+   * @param <O> Type of item output from this stage
+   */
+  protected static class FlatMapAsyncStage<I, O> extends Stage<I, O> {
+    private final int maxConcurrency;
+    private final Function<? super I, ? extends ListenableFuture<? extends O>> mapper;
+    private final AtomicInteger inFlight;
+    private volatile SettableListenableFuture<Void> slotFuture;
+    
+    protected FlatMapAsyncStage(PipelineState state, Executor executor, int maxConcurrency, 
+                                Function<? super I, ? extends ListenableFuture<? extends O>> mapper) {
+      super(state, executor);
+      
+      ArgumentVerifier.assertGreaterThanZero(maxConcurrency, "maxConcurrency");
+      ArgumentVerifier.assertNotNull(mapper, "mapper");
+      
+      this.maxConcurrency = maxConcurrency;
+      this.mapper = mapper;
+      this.inFlight = new AtomicInteger(0);
+      this.slotFuture = null;
+    }
+    
+    @Override
+    protected ListenableFuture<?> process(I item) {
+      final ListenableFuture<? extends O> future = mapper.apply(item);
+      if (future == null) {
+        throw new NullPointerException("Function returned null future");
+      }
+      
+      int running = inFlight.incrementAndGet();
+      future.addListener(new Runnable() {
+        @Override
+        public void run() {
+          handleFutureDone(future);
+        }
+      });
+      
+      if (running >= maxConcurrency) {
+        SettableListenableFuture<Void> slot = new SettableListenableFuture<Void>(false);
+        slotFuture = slot;
+        // check again now that the future is visible, in case a completion missed it
+        if (inFlight.get() < maxConcurrency) {
+          return null;
+        }
+        return slot;
+      }
+      return null;
+    }
+    
+    private void handleFutureDone(ListenableFuture<? extends O> future) {
+      ListenableFuture<?> acceptFuture = null;
+      try {
+        if (! state.completion.isDone()) {
+          acceptFuture = emit(future.get());
+        }
+      } catch (ExecutionException e) {
+        state.fail(e.getCause());
+      } catch (Throwable t) {
+        // can be a CancellationException, or an interrupt which is not possible since future is done
+        state.fail(t);
+      } finally {
+        if (acceptFuture == null || acceptFuture.isDone()) {
+          releaseSlot();
+        } else {
+          // hold the slot until the next stage has room, so no new operations are started
+          acceptFuture.addListener(new Runnable() {
+            @Override
+            public void run() {
+              releaseSlot();
+            }
+          });
+        }
+      }
+    }
+    
+    private void releaseSlot() {
+      inFlight.decrementAndGet();
+      SettableListenableFuture<Void> slot = slotFuture;
+      if (slot != null) {
+        slot.setResult(null);
+      }
+      checkComplete();
+    }
+    
+    @Override
+    protected boolean canComplete() {
+      return inFlight.get() == 0;
+    }
+  }
+  
+  /**
+   * <p>Stage for {@link Pipeline#batch(SubmitterScheduler, int, long)}.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> Type of item accepted into this stage
+   */
+  protected static class BatchStage<T> extends Stage<T, List<T>> {
+    private final SubmitterScheduler scheduler;
+    private final int maxBatchSize;
+    private final long maxDelayInMillis;
+    private final Object batchLock;
+    private List<T> currentBatch; // guarded by batchLock
+    
+    protected BatchStage(PipelineState state, SubmitterScheduler scheduler, 
+                         int maxBatchSize, long maxDelayInMillis) {
+      super(state, scheduler);
+      
+      ArgumentVerifier.assertGreaterThanZero(maxBatchSize, "maxBatchSize");
+      ArgumentVerifier.assertNotNegative(maxDelayInMillis, "maxDelayInMillis");
+      
+      this.scheduler = scheduler;
+      this.maxBatchSize = maxBatchSize;
+      this.maxDelayInMillis = maxDelayInMillis;
+      this.batchLock = new Object();
+      this.currentBatch = null;
+    }
+    
+    @Override
+    protected ListenableFuture<?> process(T item) {
+      final List<T> batch;
+      synchronized (batchLock) {
+        if (currentBatch == null) {
+          currentBatch = new ArrayList<T>(maxBatchSize);
+        }
+        batch = currentBatch;
+        batch.add(item);
+        if (batch.size() >= maxBatchSize) {
+          currentBatch = null;
+          // emit while holding the lock so batches can not be reordered with the timer
+          return emit(batch);
+        } else if (batch.size() > 1) {
+          return null;
+        }
+      }
+      // first item of a new batch, so start the delay
+      scheduler.schedule(new Runnable() {
+        @Override
+        public void run() {
+          flush(batch);
+        }
+      }, maxDelayInMillis);
+      return null;
+    }
+    
+    private void flush(List<T> batch) {
+      synchronized (batchLock) {
+        if (currentBatch == batch) {
+          currentBatch = null;
+          if (! state.completion.isDone()) {
+            emit(batch);
+          }
+        } // else batch was already provided
+      }
+    }
+    
+    @Override
+    protected void handleInputComplete() {
+      synchronized (batchLock) {
+        if (currentBatch != null) {
+          flush(currentBatch);
+        }
+      }
+      
+      super.handleInputComplete();
+    }
+  }
+  
+  /**
+   * <p>Stage for {@link Pipeline#consume(Executor, Consumer)}, which ends the pipeline.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> Type of item accepted into this stage
+   */
+  protected static class ConsumeStage<T> extends Stage<T, Void> {
+    private final Consumer<? super T> consumer;
+    
+    protected ConsumeStage(PipelineState state, Executor executor, Consumer<? super T> consumer) {
+      super(state, executor);
+      
+      ArgumentVerifier.assertNotNull(consumer, "consumer");
+      
+      this.consumer = consumer;
+    }
+    
+    @Override
+    protected ListenableFuture<?> process(T item) {
+      consumer.accept(item);
+      return null;
+    }
+    
+    @Override
+    protected void handleInputComplete() {
+      state.completion.setResult(null);
+    }
+  }
+}
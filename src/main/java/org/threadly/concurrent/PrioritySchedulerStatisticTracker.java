@@ -2,7 +2,6 @@ package org.threadly.concurrent;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
@@ -11,7 +10,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.threadly.concurrent.collections.ConcurrentArrayList;
+import org.threadly.concurrent.collections.ConcurrentLongRingBuffer;
 import org.threadly.concurrent.future.ListenableFuture;
 import org.threadly.util.ArgumentVerifier;
 import org.threadly.util.Clock;
@@ -301,7 +300,7 @@ public class PrioritySchedulerStatisticTracker extends PriorityScheduler {
    * @return median time in milliseconds tasks run
    */
   public long getMedianTaskRunTime() {
-    List<Long> times = new ArrayList<Long>(statsManager.runTimes);
+    List<Long> times = getRunTimes();
     if (times.isEmpty()) {
       return -1;
     }
@@ -318,9 +317,9 @@ public class PrioritySchedulerStatisticTracker extends PriorityScheduler {
    * @return average delay for tasks to be executed
    */
   public long getAvgExecutionDelay() {
-    List<Long> resultList = new ArrayList<Long>(statsManager.highPriorityExecutionDelay);
-    resultList.addAll(statsManager.lowPriorityExecutionDelay);
-    resultList.addAll(statsManager.starvablePriorityExecutionDelay);
+    List<Long> resultList = StatsManager.collectSamples(statsManager.highPriorityExecutionDelay, 
+                                                        statsManager.lowPriorityExecutionDelay, 
+                                                        statsManager.starvablePriorityExecutionDelay);
     
     if (resultList.isEmpty()) {
       return -1;
@@ -424,7 +423,7 @@ public class PrioritySchedulerStatisticTracker extends PriorityScheduler {
   public List<Long> getExecutionDelays(TaskPriority priority) {
     ArgumentVerifier.assertNotNull(priority, "priority");
 
-    List<Long> sourceList;
+    ConcurrentLongRingBuffer sourceList;
     switch (priority) {
       case High:
         sourceList = statsManager.highPriorityExecutionDelay;
@@ -439,8 +438,7 @@ public class PrioritySchedulerStatisticTracker extends PriorityScheduler {
         throw new UnsupportedOperationException();
     }
     
-    
-    return new ArrayList<Long>(sourceList);
+    return StatsManager.collectSamples(sourceList);
   }
   
   /**
@@ -479,7 +477,7 @@ public class PrioritySchedulerStatisticTracker extends PriorityScheduler {
    * @return the list of currently recorded run times for tasks
    */
   public List<Long> getRunTimes() {
-    return new ArrayList<Long>(statsManager.runTimes);
+    return StatsManager.collectSamples(statsManager.runTimes);
   }
   
   /**
@@ -659,20 +657,20 @@ public class PrioritySchedulerStatisticTracker extends PriorityScheduler {
     protected final AtomicInteger totalLowPriorityExecutions;
     protected final AtomicInteger totalStarvablePriorityExecutions;
     protected final ConcurrentHashMap<Wrapper, Long> runningTasks;
-    protected final ConcurrentArrayList<Long> runTimes;
-    protected final ConcurrentArrayList<Long> starvablePriorityExecutionDelay;
-    protected final ConcurrentArrayList<Long> lowPriorityExecutionDelay;
-    protected final ConcurrentArrayList<Long> highPriorityExecutionDelay;
+    protected final ConcurrentLongRingBuffer runTimes;
+    protected final ConcurrentLongRingBuffer starvablePriorityExecutionDelay;
+    protected final ConcurrentLongRingBuffer lowPriorityExecutionDelay;
+    protected final ConcurrentLongRingBuffer highPriorityExecutionDelay;
     
     protected StatsManager() {
       totalHighPriorityExecutions = new AtomicInteger(0);
       totalLowPriorityExecutions = new AtomicInteger(0);
       totalStarvablePriorityExecutions = new AtomicInteger(0);
       runningTasks = new ConcurrentHashMap<Wrapper, Long>();
-      runTimes = new ConcurrentArrayList<Long>(0, MAX_WINDOW_SIZE);
-      starvablePriorityExecutionDelay = new ConcurrentArrayList<Long>(0, MAX_WINDOW_SIZE);
-      lowPriorityExecutionDelay = new ConcurrentArrayList<Long>(0, MAX_WINDOW_SIZE);
-      highPriorityExecutionDelay = new ConcurrentArrayList<Long>(0, MAX_WINDOW_SIZE);
+      runTimes = new ConcurrentLongRingBuffer(MAX_WINDOW_SIZE);
+      starvablePriorityExecutionDelay = new ConcurrentLongRingBuffer(MAX_WINDOW_SIZE);
+      lowPriorityExecutionDelay = new ConcurrentLongRingBuffer(MAX_WINDOW_SIZE);
+      highPriorityExecutionDelay = new ConcurrentLongRingBuffer(MAX_WINDOW_SIZE);
     }
 
     /**
@@ -705,25 +703,24 @@ public class PrioritySchedulerStatisticTracker extends PriorityScheduler {
      */
     protected void trackTaskFinish(Wrapper taskWrapper) {
       long finishTime = Clock.accurateForwardProgressingMillis();
-      synchronized (runTimes.getModificationLock()) {
-        runTimes.add(finishTime - taskWrapper.startTime);
-        trimWindow(runTimes);
-      }
+      runTimes.add(finishTime - taskWrapper.startTime);
       runningTasks.remove(taskWrapper);
     }
     
     /**
-     * Reduces the list size to be within the max window size.
-     * 
-     * Should have the list synchronized/locked before calling.
+     * Copies the samples from the provided buffers into a single new list.
      * 
-     * @param list Collection to check size of and ensure is under max size
+     * @param buffers Sample buffers to copy from
+     * @return New list containing all samples from the provided buffers
      */
-    @SuppressWarnings("rawtypes")
-    protected static void trimWindow(Deque window) {
-      while (window.size() > MAX_WINDOW_SIZE) {
-        window.removeFirst();
+    protected static List<Long> collectSamples(ConcurrentLongRingBuffer ... buffers) {
+      List<Long> result = new ArrayList<Long>();
+      for (ConcurrentLongRingBuffer b : buffers) {
+        for (long sample : b.toArray()) {
+          result.add(sample);
+        }
       }
+      return result;
     }
   }
   
@@ -754,7 +751,7 @@ public class PrioritySchedulerStatisticTracker extends PriorityScheduler {
       if (result != null && result.task instanceof Wrapper) {
         long taskDelay = result.getPureRunTime() - Clock.lastKnownForwardProgressingMillis();
         Wrapper statWrapper = (Wrapper)result.task;
-        ConcurrentArrayList<Long> priorityStats;
+        ConcurrentLongRingBuffer priorityStats;
         switch (statWrapper.priority) {
           case High:
             priorityStats = statsManager.highPriorityExecutionDelay;
@@ -769,10 +766,7 @@ public class PrioritySchedulerStatisticTracker extends PriorityScheduler {
             throw new UnsupportedOperationException();
         }
   
-        synchronized (priorityStats.getModificationLock()) {
-          priorityStats.add(taskDelay);
-          StatsManager.trimWindow(priorityStats);
-        }
+        priorityStats.add(taskDelay);
       }
       
       return result;
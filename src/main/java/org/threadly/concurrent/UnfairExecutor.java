@@ -7,17 +7,20 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 
+import org.threadly.concurrent.collections.ConcurrentRunTimeDeque;
 import org.threadly.util.AbstractService;
 import org.threadly.util.ArgumentVerifier;
 import org.threadly.util.Clock;
 import org.threadly.util.ExceptionUtils;
 
 /**
- * <p>A very high performance {@link SubmitterExecutor} implementation.  Though to get those 
+ * <p>A very high performance {@link SubmitterScheduler} implementation.  Though to get those 
  * performance gains, some guarantees are reduced.  Most prominently is execution order, this 
  * scheduler does not ensure that tasks are executed in the order they are submitted, but rather 
  * tasks are consumed however is fastest.</p>
@@ -25,8 +28,13 @@ import org.threadly.util.ExceptionUtils;
  * <p>This executor has an execution queue per thread.  That way each thread has a many producer, 
  * one consumer safety guarantees.  Compared to other pools which have to deal with a many to many 
  * thread safety issue.  Determining the thread queue may be based on a variety of information.  A 
- * couple built in distrubtion solutions are {@link TaskHashXorTimeStripeGenerator} (default) and 
- * {@link AtomicStripeGenerator}.</p>
+ * couple built in distrubtion solutions are {@link TaskHashXorTimeStripeGenerator} (default), 
+ * {@link AtomicStripeGenerator} and {@link LeastLoadedOfTwoStripeGenerator}.</p>
+ * 
+ * <p>Scheduled and recurring tasks are also distributed by the stripe generator.  Once a worker 
+ * receives a delayed task it is held in a timer queue which is local to that worker, and checked 
+ * between the execution of other tasks.  Recurring tasks will continue to be re-scheduled on the 
+ * worker which last executed them, allowing them to benefit from cache affinity.</p>
  * 
  * <p>This scheduler will work best when the following conditions are true.  First because a long 
  * running task can block other tasks from running (even when other threads are idle).  It is best 
@@ -38,7 +46,8 @@ import org.threadly.util.ExceptionUtils;
  * @author jent - Mike Jensen
  * @since 4.5.0
  */
-public class UnfairExecutor extends AbstractSubmitterExecutor {
+@SuppressWarnings("deprecation")
+public class UnfairExecutor extends AbstractSubmitterScheduler {
   /**
    * <p>Strategy for taking in a task and producing a long which will be translated to which 
    * thread the task should be distributed on to.  This number is only a guide for the scheduler, 
@@ -130,6 +139,83 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
     }
   }
   
+  /**
+   * Stripe generator which will take the current backlog of the worker threads into 
+   * consideration.  For each task two workers are sampled (based off the identity hash of the 
+   * runnable and {@link Clock#lastKnownTimeNanos()}), and the task is distributed to whichever 
+   * of the two has the shorter queue (often referred to as "the power of two choices").  This 
+   * helps prevent a long running task from causing a large queue to build up behind it, which can 
+   * be a significant improvement to the tail latency when tasks are not equally sized.
+   * 
+   * Queue sizes are tracked approximately, and not read atomically with the distribution of the 
+   * task.  Because of that this distribution is only a best effort balancing.
+   * 
+   * Since this generator must be aware of the workers of the executor, a given instance can only 
+   * be provided to a single {@link UnfairExecutor}.  An attempt to construct a second executor 
+   * with the same instance will result in an {@link IllegalStateException}.
+   * 
+   * This class should not be constructed, instead it should be provided via the static function 
+   * {@link LeastLoadedOfTwoStripeGenerator#instance()}.
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  public static class LeastLoadedOfTwoStripeGenerator implements TaskStripeGenerator {
+    /**
+     * Provides an instance which can be provided into the constructor of {@link UnfairExecutor}.
+     * 
+     * @return A new LeastLoadedOfTwoStripeGenerator instance
+     */
+    public static LeastLoadedOfTwoStripeGenerator instance() {
+      return new LeastLoadedOfTwoStripeGenerator();
+    }
+    
+    private volatile Worker[] workers;
+    
+    private LeastLoadedOfTwoStripeGenerator() {
+      // don't allow external construction
+      workers = null;
+    }
+    
+    /**
+     * Sets the workers which will be checked for their load.  This must only be invoked once, by 
+     * the {@link UnfairExecutor} which this generator was provided to.
+     * 
+     * @param workers Workers of the executor to distribute across
+     */
+    protected void setWorkers(Worker[] workers) {
+      synchronized (this) {
+        if (this.workers != null) {
+          throw new IllegalStateException("Stripe generator already in use by another executor");
+        }
+        this.workers = workers;
+      }
+    }
+    
+    @Override
+    public long getStripe(Runnable task) {
+      long hash = System.identityHashCode(task) ^ Clock.lastKnownTimeNanos();
+      Worker[] workers = this.workers;
+      if (workers == null || workers.length == 1) {
+        return hash;
+      }
+      int bits = (int)(hash ^ (hash >>> Integer.SIZE));
+      int first = (bits & Integer.MAX_VALUE) % workers.length;
+      // offset from first so we always compare two distinct workers
+      int second = (first + 1 + ((Integer.reverse(bits) & Integer.MAX_VALUE) % (workers.length - 1))) 
+                     % workers.length;
+      if (workers[second].getApproximateQueueSize() < workers[first].getApproximateQueueSize()) {
+        return second;
+      } else {
+        return first;
+      }
+    }
+  }
+  
+  protected static final int WORKER_STATE_RUNNING = 0;
+  protected static final int WORKER_STATE_PARKED = 1;
+  protected static final int WORKER_STATE_NOTIFIED = 2;
+  
   private final Worker[] schedulers;
   private final AtomicBoolean shutdownStarted;
   private final TaskStripeGenerator stripeGenerator;
@@ -148,8 +234,8 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
    * Constructs a new {@link UnfairExecutor} with a provided thread count.  This defaults to using 
    * daemon threads.  
    * 
-   * Possible built in stripe generators for use would be {@link AtomicStripeGenerator} or 
-   * {@link TaskHashXorTimeStripeGenerator}.
+   * Possible built in stripe generators for use would be {@link AtomicStripeGenerator}, 
+   * {@link TaskHashXorTimeStripeGenerator} or {@link LeastLoadedOfTwoStripeGenerator}.
    * 
    * @param threadCount Number of threads, recommended to be a prime number
    * @param stripeGenerator Generator for figuring out how a task is assigned to a thread
@@ -172,8 +258,8 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
   /**
    * Constructs a new {@link UnfairExecutor} with a provided thread count.  
    * 
-   * Possible built in stripe generators for use would be {@link AtomicStripeGenerator} or 
-   * {@link TaskHashXorTimeStripeGenerator}.
+   * Possible built in stripe generators for use would be {@link AtomicStripeGenerator}, 
+   * {@link TaskHashXorTimeStripeGenerator} or {@link LeastLoadedOfTwoStripeGenerator}.
    * 
    * @param threadCount Number of threads, recommended to be a prime number
    * @param useDaemonThreads {@code true} if created threads should be daemon
@@ -201,8 +287,8 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
   /**
    * Constructs a new {@link UnfairExecutor} with a provided thread count and factory.  
    * 
-   * Possible built in stripe generators for use would be {@link AtomicStripeGenerator} or 
-   * {@link TaskHashXorTimeStripeGenerator}.
+   * Possible built in stripe generators for use would be {@link AtomicStripeGenerator}, 
+   * {@link TaskHashXorTimeStripeGenerator} or {@link LeastLoadedOfTwoStripeGenerator}.
    * 
    * @param threadCount Number of threads, recommended to be a prime number
    * @param threadFactory thread factory for producing new threads within executor
@@ -224,6 +310,9 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
       }
     }
     schedulers[0].setNeighborWorker(schedulers[schedulers.length - 1]);
+    if (stripeGenerator instanceof LeastLoadedOfTwoStripeGenerator) {
+      ((LeastLoadedOfTwoStripeGenerator)stripeGenerator).setWorkers(schedulers);
+    }
     // can only start once full neighbor chain is established
     final Worker firstWorker = schedulers[0];
     // let first worker start all the other threads as soon as possible
@@ -246,7 +335,83 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
       throw new RejectedExecutionException("Pool is shutdown");
     }
     
-    schedulers[(int)(Math.abs(stripeGenerator.getStripe(task)) % schedulers.length)].addTask(task);
+    getWorker(task).addTask(task);
+  }
+  
+  @Override
+  protected void doSchedule(Runnable task, long delayInMillis) {
+    if (delayInMillis == 0) {
+      doExecute(task);
+    } else {
+      addDelayedTask(new DelayedTaskWrapper(task, 
+                                            Clock.accurateForwardProgressingMillis() + delayInMillis));
+    }
+  }
+
+  @Override
+  public void scheduleWithFixedDelay(Runnable task, long initialDelay, long recurringDelay) {
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(initialDelay, "initialDelay");
+    ArgumentVerifier.assertNotNegative(recurringDelay, "recurringDelay");
+    
+    addDelayedTask(new RecurringDelayedTaskWrapper(task, 
+                                                   Clock.accurateForwardProgressingMillis() + initialDelay, 
+                                                   recurringDelay, true, shutdownStarted));
+  }
+
+  @Override
+  public void scheduleAtFixedRate(Runnable task, long initialDelay, long period) {
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(initialDelay, "initialDelay");
+    ArgumentVerifier.assertGreaterThanZero(period, "period");
+    
+    addDelayedTask(new RecurringDelayedTaskWrapper(task, 
+                                                   Clock.accurateForwardProgressingMillis() + initialDelay, 
+                                                   period, false, shutdownStarted));
+  }
+  
+  private void addDelayedTask(DelayedTaskWrapper dtw) {
+    if (shutdownStarted.get()) {
+      throw new RejectedExecutionException("Pool is shutdown");
+    }
+    
+    getWorker(dtw.task).addTask(dtw);
+  }
+  
+  private Worker getWorker(Runnable task) {
+    return schedulers[(int)(Math.abs(stripeGenerator.getStripe(task)) % schedulers.length)];
+  }
+
+  /**
+   * Returns the total number of times worker threads have been unparked to handle newly 
+   * submitted tasks.  Compared against {@link #getExecutedTaskCount()} this can show how 
+   * effectively work is being handed off to already running threads.  Ideally a busy executor 
+   * will show very few unparks per executed task.
+   * 
+   * @since 4.6.0
+   * @return Total unparks issued to worker threads
+   */
+  public long getUnparkCount() {
+    long result = 0;
+    for (Worker w : schedulers) {
+      result += w.getUnparkCount();
+    }
+    return result;
+  }
+  
+  /**
+   * Returns the total number of tasks which have been executed by this pool.  This value is 
+   * updated without synchronization, so may slightly lag behind tasks which just completed.
+   * 
+   * @since 4.6.0
+   * @return Total tasks executed by worker threads
+   */
+  public long getExecutedTaskCount() {
+    long result = 0;
+    for (Worker w : schedulers) {
+      result += w.getExecutedTaskCount();
+    }
+    return result;
   }
 
   /**
@@ -277,8 +442,9 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
 
   /**
    * Stops any new tasks from being submitted to the pool.  If any tasks are waiting for execution 
-   * they will be prevented from being run.  If a task is currently running it will be allowed to 
-   * finish (though this call will not block waiting for it to finish).
+   * (including scheduled and recurring tasks) they will be prevented from being run.  If a task 
+   * is currently running it will be allowed to finish (though this call will not block waiting 
+   * for it to finish).
    * 
    * @return returns a list of runnables which were waiting in the queue to be run at time of shutdown
    */
@@ -292,10 +458,17 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
       while (it.hasNext()) {
         Runnable task = it.next();
         it.remove();
-        if (! (task instanceof ShutdownTask)) {
+        w.queueSize.decrementAndGet();
+        if (task instanceof DelayedTaskWrapper) {
+          result.add(((DelayedTaskWrapper)task).task);
+        } else if (! (task instanceof ShutdownTask)) {
           result.add(task);
         }
       }
+      ConcurrentRunTimeDeque.Entry<DelayedTaskWrapper> timer;
+      while ((timer = w.timers.pollFirst()) != null) {
+        result.add(timer.getValue().task);
+      }
     }
     return result;
   }
@@ -346,6 +519,15 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
    * <p>Worker task for executing tasks on the provided thread.  This worker maintains an internal 
    * queue for which tasks can be added on.  It will park itself once idle, and resume if tasks 
    * are later then added.</p>
+   * 
+   * <p>Tasks which are delayed are moved from the queue into a timer queue which is local to this 
+   * worker.  Ready timers are executed before checking the queue, and if idle the worker will 
+   * only park until the next timer is ready.</p>
+   * 
+   * <p>Parking is coordinated through a single state word.  Submitting threads only read this 
+   * state while the worker is busy, and will only unpark the worker if they are the one to 
+   * transition it from parked to notified.  This avoids redundant unparks when many threads are 
+   * submitting into an already busy executor.</p>
    *  
    * @author jent - Mike Jensen
    * @since 4.5.0
@@ -353,7 +535,11 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
   protected static class Worker extends AbstractService implements Runnable {
     protected final Thread thread;
     protected final Queue<Runnable> taskQueue;
-    private volatile boolean parked;
+    protected final AtomicInteger queueSize;
+    protected final ConcurrentRunTimeDeque<DelayedTaskWrapper> timers;
+    protected final AtomicInteger state;
+    protected final AtomicLong unparkCount;
+    protected final AtomicLong executedTaskCount;
     private Worker checkNeighborWorker;
     private Worker wakupNeighborWorker;
     
@@ -363,7 +549,35 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
         throw new IllegalThreadStateException();
       }
       taskQueue = new ConcurrentLinkedQueue<Runnable>();
-      parked = false;
+      queueSize = new AtomicInteger();
+      timers = new ConcurrentRunTimeDeque<DelayedTaskWrapper>();
+      state = new AtomicInteger(WORKER_STATE_RUNNING);
+      unparkCount = new AtomicLong();
+      executedTaskCount = new AtomicLong();
+    }
+    
+    /**
+     * Returns the approximate number of tasks waiting in this worker's queue.  This is tracked 
+     * with a counter rather than checking the queue, so it is cheap to call but may be briefly 
+     * inaccurate while tasks are concurrently being added or removed.
+     * 
+     * @return Approximate quantity of queued tasks
+     */
+    public int getApproximateQueueSize() {
+      return queueSize.get();
+    }
+    
+    /**
+     * Poll the next task from the queue, updating the queue size counter if a task was found.
+     * 
+     * @return Next task to execute, or {@code null} if the queue is empty
+     */
+    protected Runnable pollTask() {
+      Runnable task = taskQueue.poll();
+      if (task != null) {
+        queueSize.decrementAndGet();
+      }
+      return task;
     }
     
     /**
@@ -390,37 +604,150 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
     }
     
     public void addTask(Runnable task) {
+      queueSize.incrementAndGet();
       taskQueue.add(task);
-      if (parked) {
-        parked = false;
+      // while busy this is only a volatile read, we only write (and unpark) when actually parked
+      if (! notifyIfParked()) {
+        wakupNeighborWorker.notifyIfParked();
+      }
+    }
+    
+    /**
+     * Wakes up this worker if it is currently parked.  If multiple threads attempt to notify the 
+     * worker at the same time, only one of them will unpark the thread.
+     * 
+     * @return {@code true} if this worker was parked and has now been notified
+     */
+    protected boolean notifyIfParked() {
+      if (state.get() == WORKER_STATE_PARKED && 
+          state.compareAndSet(WORKER_STATE_PARKED, WORKER_STATE_NOTIFIED)) {
+        unparkCount.incrementAndGet();
         LockSupport.unpark(thread);
-      } else if (wakupNeighborWorker.parked) {
-        wakupNeighborWorker.parked = false;
-        LockSupport.unpark(wakupNeighborWorker.thread);
+        return true;
+      } else {
+        return false;
+      }
+    }
+    
+    /**
+     * Returns how many times this worker has been unparked in order to handle a newly added task.
+     * 
+     * @return Quantity of unparks issued to this worker
+     */
+    public long getUnparkCount() {
+      return unparkCount.get();
+    }
+    
+    /**
+     * Returns how many tasks have been executed by this worker's thread.
+     * 
+     * @return Quantity of executed tasks
+     */
+    public long getExecutedTaskCount() {
+      return executedTaskCount.get();
+    }
+    
+    private void incrementExecutedTaskCount() {
+      // only written by this worker's thread, so avoid the cost of an atomic increment
+      executedTaskCount.lazySet(executedTaskCount.get() + 1);
+    }
+    
+    /**
+     * Adds a delayed task into this worker's timer queue.  This should only be invoked from this 
+     * worker's thread.
+     * 
+     * @param dtw Delayed task to be executed once ready
+     */
+    protected void addTimer(DelayedTaskWrapper dtw) {
+      timers.add(dtw.runTime, dtw);
+    }
+    
+    /**
+     * Removes the next timer from the timer queue if its scheduled time has been reached.
+     * 
+     * @return Delayed task ready for execution, or {@code null} if none are ready
+     */
+    protected DelayedTaskWrapper pollReadyTimer() {
+      ConcurrentRunTimeDeque.Entry<DelayedTaskWrapper> timer = timers.peekFirst();
+      if (timer == null) {
+        // avoid reading the clock on every task when no timers are queued
+        return null;
+      }
+      
+      long now = Clock.lastKnownForwardProgressingMillis();
+      if (timer.getRunTime() > now) {
+        now = Clock.accurateForwardProgressingMillis();
+      }
+      timer = timers.pollFirst(now);
+      return timer == null ? null : timer.getValue();
+    }
+    
+    /**
+     * Parks this thread till it is unparked, or till the next timer is ready to execute.
+     */
+    protected void parkTillNextTimer() {
+      ConcurrentRunTimeDeque.Entry<DelayedTaskWrapper> timer = timers.peekFirst();
+      if (timer == null) {
+        LockSupport.park();
+      } else {
+        long delay = timer.getRunTime() - Clock.accurateForwardProgressingMillis();
+        if (delay > 0) {
+          LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delay));
+        }
+      }
+    }
+    
+    /**
+     * Execute a task from the queue.  If the task is a delayed task it will be moved to this 
+     * worker's timer queue instead.
+     * 
+     * @param task Task which was removed from the queue
+     */
+    protected void runQueuedTask(Runnable task) {
+      if (task instanceof DelayedTaskWrapper) {
+        // even if ready, go through the timer queue so ordering with other timers is maintained
+        addTimer((DelayedTaskWrapper)task);
+      } else {
+        incrementExecutedTaskCount();
+        ExceptionUtils.runRunnable(task);
       }
     }
     
     @Override
     public void run() {
       while (isRunning()) {
-        Runnable task = taskQueue.poll();
         // just reset status, we should only shutdown by having the service stopped
         Thread.interrupted();
+        boolean ranTask = false;
+        // alternate between timers and the queue so that neither can starve the other
+        DelayedTaskWrapper dtw = pollReadyTimer();
+        if (dtw != null) {
+          ranTask = true;
+          incrementExecutedTaskCount();
+          if (dtw.runTask()) {
+            addTimer(dtw);
+          }
+        }
+        Runnable task = pollTask();
         if (task != null) {
-          if (parked) {
-            parked = false;
+          ranTask = true;
+          runQueuedTask(task);
+        }
+        if (ranTask) {
+          if (state.get() != WORKER_STATE_RUNNING) {
+            state.set(WORKER_STATE_RUNNING);
           }
-          ExceptionUtils.runRunnable(task);
-        } else if (! parked) {
+        } else if (state.get() != WORKER_STATE_PARKED) {
           // check neighbor worker to see if they need help
-          task = checkNeighborWorker.taskQueue.poll();
+          task = checkNeighborWorker.pollTask();
           if (task != null) {
-            ExceptionUtils.runRunnable(task);
+            runQueuedTask(task);
           } else {
-            parked = true;
+            // must set state before we check the queue one last time before parking
+            state.set(WORKER_STATE_PARKED);
           }
         } else {
-          LockSupport.park();
+          parkTillNextTimer();
         }
       }
     }
@@ -443,6 +770,81 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
     public void run() {
       w.stopIfRunning();
       w.taskQueue.clear();
+      w.queueSize.set(0);
+      w.timers.clear();
+    }
+  }
+  
+  /**
+   * <p>Wrapper for a task which should not execute until a future point in time.  Once consumed 
+   * from a worker's queue this will be stored in that worker's timer queue.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  protected static class DelayedTaskWrapper implements RunnableContainer, Runnable {
+    protected final Runnable task;
+    protected long runTime;
+    
+    public DelayedTaskWrapper(Runnable task, long runTime) {
+      this.task = task;
+      this.runTime = runTime;
+    }
+    
+    @Override
+    public Runnable getContainedRunnable() {
+      return task;
+    }
+    
+    @Override
+    public void run() {
+      runTask();
+    }
+    
+    /**
+     * Executes the contained task.
+     * 
+     * @return {@code true} if the task should be added back into the timer queue
+     */
+    protected boolean runTask() {
+      ExceptionUtils.runRunnable(task);
+      return false;
+    }
+  }
+  
+  /**
+   * <p>Wrapper for a recurring task.  After each execution this task will update its run time 
+   * and be returned to the timer queue of the worker which executed it.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  protected static class RecurringDelayedTaskWrapper extends DelayedTaskWrapper {
+    protected final long recurringTime;
+    protected final boolean fixedDelay;
+    protected final AtomicBoolean shutdownStarted;
+    
+    public RecurringDelayedTaskWrapper(Runnable task, long firstRunTime, long recurringTime, 
+                                       boolean fixedDelay, AtomicBoolean shutdownStarted) {
+      super(task, firstRunTime);
+      
+      this.recurringTime = recurringTime;
+      this.fixedDelay = fixedDelay;
+      this.shutdownStarted = shutdownStarted;
+    }
+    
+    @Override
+    protected boolean runTask() {
+      ExceptionUtils.runRunnable(task);
+      if (shutdownStarted.get()) {
+        return false;
+      }
+      if (fixedDelay) {
+        runTime = Clock.accurateForwardProgressingMillis() + recurringTime;
+      } else {
+        runTime += recurringTime;
+      }
+      return true;
     }
   }
 }
@@ -1,7 +1,10 @@
 package org.threadly.concurrent.collections;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
@@ -41,6 +44,27 @@ import org.threadly.util.ArgumentVerifier;
  * iterators, once an Iterator is created it will never see updates to the structure.  For that 
  * reason it is impossible to have a ConcurrentModificationExcception.</p>
  * 
+ * <p>For very large lists which are modified in the middle (or have items repositioned) the full 
+ * array copy can become expensive.  For those cases the list can be constructed with segmented 
+ * storage (see {@link #ConcurrentArrayList(boolean)}).  In that mode the items are stored in 
+ * many smaller immutable segments, and a modification only needs to copy the segment which was 
+ * modified (and the much smaller segment index).  Reads still operate on an immutable snapshot, 
+ * though random access requires a binary search to find the segment.</p>
+ * 
+ * <p>When many modifications need to be made at once, the bulk operations 
+ * ({@link #removeFirst(int)}, {@link #removeRange(int, int)}, 
+ * {@link #addAllSorted(Collection, Comparator)} and {@link #batchModify(BatchModifier)}) should 
+ * be preferred over calling the single item operations in a loop.  They acquire the modification 
+ * lock once, and produce at most one new backing array (removals from the ends still avoid a 
+ * copy entirely).</p>
+ * 
+ * <p>Padding is normally a fixed amount set by the user.  For lists whose size varies greatly 
+ * over time (for example a queue which receives a burst of items and then drains) adaptive 
+ * padding can be enabled with {@link #setAdaptivePadding(boolean)}.  In that mode the padding 
+ * grows geometrically on the side items are being added to, and the backing array is compacted 
+ * once it becomes mostly unused.  {@link #getCapacity()} can be compared against 
+ * {@link #size()} to see how much of the backing storage is in use.</p>
+ * 
  * @author jent - Mike Jensen
  * @since 1.0.0
  * @param <T> type of object to retain
@@ -48,6 +72,8 @@ import org.threadly.util.ArgumentVerifier;
 public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
   private static final short HASH_CODE_PRIME_NUMBER = 31;
   private static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
+  private static final int MIN_ADAPTIVE_PADDING = 8;
+  private static final int MIN_SHRINK_CAPACITY = 64;
   
   protected static <E> DataSet<E> makeEmptyDataSet(int frontPadding, int rearPadding) {
     ArgumentVerifier.assertNotNegative(frontPadding, "frontPadding");
@@ -58,6 +84,9 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
   
   protected final Object modificationLock;
   protected volatile DataSet<T> currentData;
+  protected boolean adaptivePadding;  // locked around modificationLock
+  protected int minFrontPadding;  // locked around modificationLock
+  protected int minRearPadding;  // locked around modificationLock
   
   /**
    * Constructs a new {@link ConcurrentArrayList} with a new internal NativeLock implementation.
@@ -66,6 +95,24 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
     this(0, 0);
   }
   
+  /**
+   * Constructs a new {@link ConcurrentArrayList} with the option to use segmented storage.  With 
+   * segmented storage modifications only copy the segment of the list which was modified, rather 
+   * than the entire backing array.  This is ideal for large lists which have items added, removed 
+   * or repositioned anywhere other than the ends of the list.  For small lists, or lists only 
+   * modified at the ends, the default storage (with padding) is generally faster.  
+   * 
+   * When using segmented storage the front and rear padding values have no effect.
+   * 
+   * @since 4.6.0
+   * @param segmentedStorage {@code true} to store items in segments rather than a single array
+   */
+  public ConcurrentArrayList(boolean segmentedStorage) {
+    this(segmentedStorage ? 
+           SegmentedDataSet.<T>makeEmptySegmentedDataSet() : ConcurrentArrayList.<T>makeEmptyDataSet(0, 0), 
+         null);
+  }
+  
   /**
    * Constructs a new {@link ConcurrentArrayList} with specific padding.  Specifying the padding 
    * amounts can optimize this implementation more for the specific use case.  If there is space 
@@ -118,6 +165,9 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
     
     this.modificationLock = modificationLock;
     currentData = startSet;
+    adaptivePadding = false;
+    minFrontPadding = startSet.frontPadding;
+    minRearPadding = startSet.rearPadding;
   }
   
   /**
@@ -143,6 +193,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
     
     synchronized (modificationLock) {
       currentData.frontPadding = frontPadding;
+      minFrontPadding = frontPadding;
     }
   }
 
@@ -156,6 +207,109 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
 
     synchronized (modificationLock) {
       currentData.rearPadding = rearPadding;
+      minRearPadding = rearPadding;
+    }
+  }
+  
+  /**
+   * Enables or disables adaptive padding.  When enabled the padding on a side of the list will 
+   * grow geometrically (up to the size of the list) each time an add to that side requires the 
+   * backing array to be copied.  In addition, once removals leave the backing array less than 
+   * half used the array will be compacted, and the padding reduced to no more than the list size. 
+   * This allows a list which spiked in size to return that memory once it has drained.  
+   * 
+   * The padding values set with {@link #setFrontPadding(int)} and {@link #setRearPadding(int)} 
+   * act as the minimum padding while adaptive padding is enabled.  This has no effect for lists 
+   * constructed with segmented storage.
+   * 
+   * @since 4.6.0
+   * @param adaptivePadding {@code true} to adjust padding based off how the list is modified
+   */
+  public void setAdaptivePadding(boolean adaptivePadding) {
+    synchronized (modificationLock) {
+      this.adaptivePadding = adaptivePadding;
+      if (adaptivePadding) {
+        shrinkIfSparse();
+      } else {
+        currentData.frontPadding = minFrontPadding;
+        currentData.rearPadding = minRearPadding;
+      }
+    }
+  }
+  
+  /**
+   * Check if adaptive padding is enabled.  See {@link #setAdaptivePadding(boolean)}.
+   * 
+   * @since 4.6.0
+   * @return {@code true} if the padding is being adjusted based off how the list is modified
+   */
+  public boolean isAdaptivePadding() {
+    return adaptivePadding;
+  }
+  
+  /**
+   * Returns the number of items the current backing storage can hold.  Comparing this with 
+   * {@link #size()} shows how much storage is being held for padding, or was left behind by 
+   * removals which did not require a copy.  For segmented storage this is always equal to the 
+   * size.
+   * 
+   * @since 4.6.0
+   * @return Number of item slots in the current backing storage
+   */
+  public int getCapacity() {
+    return currentData.getCapacity();
+  }
+  
+  /**
+   * Invoked while holding the modification lock before items are added to one end of the list. 
+   * If adaptive padding is enabled and the add would require an array copy, the padding for that 
+   * side is grown so that future adds to the same side can avoid the copy.
+   * 
+   * @param front {@code true} if items are being added to the front of the list
+   * @param count Number of items being added
+   */
+  private void prepareForAdd(boolean front, int count) {
+    if (! adaptivePadding) {
+      return;
+    }
+    
+    DataSet<T> ds = currentData;
+    if (front) {
+      if (! ds.hasFrontCapacity(count)) {
+        ds.frontPadding = grownPadding(ds.frontPadding, ds.size);
+      }
+    } else if (! ds.hasRearCapacity(count)) {
+      ds.rearPadding = grownPadding(ds.rearPadding, ds.size);
+    }
+  }
+  
+  private static int grownPadding(int currentPadding, int size) {
+    int padding = Math.min(Math.max(currentPadding * 2, MIN_ADAPTIVE_PADDING), size);
+    return Math.max(padding, currentPadding);
+  }
+  
+  /**
+   * Invoked while holding the modification lock after items have been removed from the list.  If 
+   * adaptive padding is enabled and less than half of the backing array would be retained after 
+   * a compaction, then the padding is reduced to no more than the list size and the array is 
+   * copied into a smaller array.
+   */
+  private void shrinkIfSparse() {
+    if (! adaptivePadding) {
+      return;
+    }
+    
+    DataSet<T> ds = currentData;
+    int capacity = ds.getCapacity();
+    if (capacity < MIN_SHRINK_CAPACITY) {
+      return;
+    }
+    int frontPadding = Math.max(minFrontPadding, Math.min(ds.frontPadding, ds.size));
+    int rearPadding = Math.max(minRearPadding, Math.min(ds.rearPadding, ds.size));
+    if (capacity / 2 > ds.size + frontPadding + rearPadding) {
+      ds.frontPadding = frontPadding;
+      ds.rearPadding = rearPadding;
+      currentData = ds.compact();
     }
   }
   
@@ -246,9 +400,11 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
   @Override
   public Object[] toArray() {
     DataSet<T> workingSet = currentData;
-
-    return Arrays.copyOfRange(workingSet.dataArray, 
-                              workingSet.dataStartIndex, workingSet.dataEndIndex);
+    
+    Object[] result = new Object[workingSet.size];
+    workingSet.copyInto(result);
+    
+    return result;
   }
 
   @SuppressWarnings("unchecked")
@@ -257,15 +413,11 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
     DataSet<T> workingSet = currentData;
     
     if (a.length < workingSet.size) {
-      return (E[])Arrays.copyOfRange(workingSet.dataArray, 
-                                     workingSet.dataStartIndex, 
-                                     workingSet.dataEndIndex, 
-                                     a.getClass());
-    } else {
-      System.arraycopy(workingSet.dataArray, workingSet.dataStartIndex, a, 0, workingSet.size);
-      
-      return a;
+      a = (E[])Array.newInstance(a.getClass().getComponentType(), workingSet.size);
     }
+    workingSet.copyInto(a);
+    
+    return a;
   }
 
   @Override
@@ -275,6 +427,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
     }
     
     synchronized (modificationLock) {
+      prepareForAdd(false, 1);
       currentData = currentData.addToEnd(e);
     }
     
@@ -298,6 +451,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
     }
 
     synchronized (modificationLock) {
+      prepareForAdd(false, c.size());
       currentData = currentData.addAll(c);
     }
     
@@ -327,6 +481,9 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
         throw new IndexOutOfBoundsException("Index is beyond the array size: " + index);
       }
       
+      if (index == 0 || index == currentData.size) {
+        prepareForAdd(index == 0, c.size());
+      }
       currentData = currentData.addAll(index, c);
     }
     
@@ -352,6 +509,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
     synchronized (modificationLock) {
       originalSet = currentData;
       currentData = resultSet = currentData.retainAll(c);
+      shrinkIfSparse();
     }
     
     return ! resultSet.equalsExactly(originalSet);
@@ -360,7 +518,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
   @Override
   public void clear() {
     synchronized (modificationLock) {
-      currentData = makeEmptyDataSet(currentData.frontPadding, currentData.rearPadding);
+      currentData = currentData.makeEmptyCopy();
     }
   }
   
@@ -372,6 +530,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
     }
     
     synchronized (modificationLock) {
+      prepareForAdd(true, 1);
       currentData = currentData.addToFront(e);
     }
   }
@@ -384,6 +543,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
     }
     
     synchronized (modificationLock) {
+      prepareForAdd(false, 1);
       currentData = currentData.addToEnd(e);
     }
   }
@@ -430,6 +590,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
       T result = peekFirst();
       if (result != null) {
         currentData = currentData.remove(0);
+        shrinkIfSparse();
       }
       
       return result;
@@ -442,11 +603,134 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
       T result = peekLast();
       if (result != null) {
         currentData = currentData.remove(currentData.size - 1);
+        shrinkIfSparse();
       }
       
       return result;
     }
   }
+  
+  /**
+   * Removes up to the provided number of items from the front of the list.  This is equivalent 
+   * to calling {@link #pollFirst()} {@code count} times, except that the modification lock is 
+   * only acquired once, and no array copy is needed to produce the resulting list.
+   * 
+   * @param count Maximum number of items to remove
+   * @return List of removed items in their original order, empty if the list was empty
+   */
+  public List<T> removeFirst(int count) {
+    ArgumentVerifier.assertNotNegative(count, "count");
+    
+    DataSet<T> originalSet;
+    int removedCount;
+    synchronized (modificationLock) {
+      originalSet = currentData;
+      removedCount = Math.min(count, originalSet.size);
+      currentData = originalSet.removeRange(0, removedCount);
+      shrinkIfSparse();
+    }
+    
+    return originalSet.subSet(0, removedCount).toList();
+  }
+  
+  /**
+   * Removes all items from {@code fromIndex} (inclusive) to {@code toIndex} (exclusive).  If the 
+   * range is at either end of the list no array copy is needed, otherwise a single array copy 
+   * will occur no matter how many items are removed.
+   * 
+   * @param fromIndex start index (inclusive) of items to remove
+   * @param toIndex end index (exclusive) of items to remove
+   */
+  public void removeRange(int fromIndex, int toIndex) {
+    if (fromIndex < 0) {
+      throw new IndexOutOfBoundsException("from index can not be negative");
+    } else if (toIndex < fromIndex) {
+      throw new IndexOutOfBoundsException("fromIndex must be <= toIndex");
+    }
+    
+    synchronized (modificationLock) {
+      if (toIndex > currentData.size) {
+        throw new IndexOutOfBoundsException("to index must be <= size: " + currentData.size);
+      }
+      
+      currentData = currentData.removeRange(fromIndex, toIndex);
+      shrinkIfSparse();
+    }
+  }
+  
+  /**
+   * Adds all the items from the provided collection so that the list remains sorted.  This list 
+   * must already be sorted according to the provided comparator.  The provided items do not need 
+   * to be sorted, they will be sorted before being merged in.  Items which compare equal to an 
+   * item already in the list will be placed after the existing item.
+   * 
+   * Unlike adding each item with {@link #add(int, Object)} at a searched index, this only 
+   * acquires the modification lock once and produces a single new array.  As with 
+   * {@link #addAll(Collection)}, {@code null} items are ignored.
+   * 
+   * @param c Collection of items to add
+   * @param comparator Comparator the list is sorted by
+   * @return {@code true} if any items were added
+   */
+  @SuppressWarnings("unchecked")
+  public boolean addAllSorted(Collection<? extends T> c, Comparator<? super T> comparator) {
+    ArgumentVerifier.assertNotNull(comparator, "comparator");
+    if (c == null || c.isEmpty()) {
+      return false;
+    }
+    
+    Object[] toAdd = c.toArray();
+    int addCount = 0;
+    for (Object item : toAdd) {
+      if (item != null) {
+        toAdd[addCount++] = item;
+      }
+    }
+    if (addCount == 0) {
+      return false;
+    } else if (addCount != toAdd.length) {
+      toAdd = Arrays.copyOf(toAdd, addCount);
+    }
+    Arrays.sort(toAdd, (Comparator<Object>)comparator);
+    
+    synchronized (modificationLock) {
+      currentData = currentData.mergeSorted(toAdd, comparator);
+    }
+    
+    return true;
+  }
+  
+  /**
+   * Applies an arbitrary set of modifications as a single update to the list.  While holding the 
+   * modification lock the current items are copied into a temporary mutable list which is 
+   * provided to the {@link BatchModifier}.  Once the modifier returns the resulting items replace 
+   * the contents of this list.  Readers will either see the list before or after all the 
+   * modifications, never a partial state.
+   * 
+   * The modifier is invoked while holding the modification lock, so it should be quick and must 
+   * not block on other threads which may attempt to modify this list.  If the modifier throws an 
+   * exception this list is left unmodified and the exception is thrown from this call.  
+   * {@code null} items can not be stored, and will result in a 
+   * {@link UnsupportedOperationException} (again leaving the list unmodified).
+   * 
+   * @param modifier Modifier to manipulate the list contents
+   */
+  public void batchModify(BatchModifier<T> modifier) {
+    ArgumentVerifier.assertNotNull(modifier, "modifier");
+    
+    synchronized (modificationLock) {
+      List<T> workingList = new ArrayList<T>(currentData.toList());
+      modifier.modify(workingList);
+      
+      Object[] result = workingList.toArray();
+      for (Object item : result) {
+        if (item == null) {
+          throw new UnsupportedOperationException("This structure can not accept nulls");
+        }
+      }
+      currentData = currentData.replaceAll(result);
+    }
+  }
 
   @Override
   public T getFirst() {
@@ -504,6 +788,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
     synchronized (modificationLock) {
       originalSet = currentData;
       currentData = resultSet = currentData.removeAll(c);
+      shrinkIfSparse();
     }
     
     return ! resultSet.equalsExactly(originalSet);
@@ -525,6 +810,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
         return false;
       } else {
         currentData = currentData.remove(index);
+        shrinkIfSparse();
         return true;
       }
     }
@@ -559,6 +845,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
       
       originalSet = currentData;
       currentData = currentData.remove(index);
+      shrinkIfSparse();
     }
     
     return originalSet.get(index);
@@ -624,6 +911,9 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
         throw new IndexOutOfBoundsException("Index is beyond the array size: " + index);
       }
       
+      if (index == 0 || index == currentData.size) {
+        prepareForAdd(index == 0, 1);
+      }
       currentData = currentData.add(index, element);
     }
   }
@@ -771,13 +1061,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
       throw new IndexOutOfBoundsException("fromIndex must be < toIndex");
     }
     
-    DataSet<T> newSet = new DataSet<T>(workingData.dataArray, 
-                                       workingData.dataStartIndex + fromIndex, 
-                                       workingData.dataEndIndex - 
-                                         (workingData.dataEndIndex - toIndex), 
-                                       currentData.frontPadding, currentData.rearPadding);
-    
-    return new ConcurrentArrayList<T>(newSet, modificationLock);
+    return new ConcurrentArrayList<T>(workingData.subSet(fromIndex, toIndex), modificationLock);
   }
   
   @Override
@@ -947,8 +1231,8 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
     protected final int dataStartIndex; // inclusive
     protected final int dataEndIndex;   // exclusive
     protected final int size;
-    private int frontPadding; // locked around modificationLock
-    private int rearPadding; // locked around modificationLock
+    protected int frontPadding; // locked around modificationLock
+    protected int rearPadding; // locked around modificationLock
     
     protected DataSet(Object[] dataArray, int frontPadding, int rearPadding) {
       this(dataArray, frontPadding, dataArray.length - rearPadding, frontPadding, rearPadding);
@@ -965,6 +1249,108 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
       this.rearPadding = rearPadding;
     }
     
+    /**
+     * Returns a new empty {@link DataSet} which uses the same storage type and padding as this 
+     * set.
+     * 
+     * @return New empty {@link DataSet}
+     */
+    public DataSet<T> makeEmptyCopy() {
+      return makeEmptyDataSet(frontPadding, rearPadding);
+    }
+    
+    /**
+     * Returns a {@link DataSet} which only contains a range of items from this set.  Since the 
+     * set is immutable the backing storage will be shared when possible.
+     * 
+     * @param fromIndex start index (inclusive) of items to include
+     * @param toIndex end index (exclusive) of items to include
+     * @return A {@link DataSet} representing the range
+     */
+    public DataSet<T> subSet(int fromIndex, int toIndex) {
+      return new DataSet<T>(dataArray, 
+                            dataStartIndex + fromIndex, 
+                            dataStartIndex + toIndex, 
+                            frontPadding, rearPadding);
+    }
+    
+    /**
+     * Returns the number of items the backing storage can hold, including unused space.
+     * 
+     * @return Length of the backing storage
+     */
+    public int getCapacity() {
+      return dataArray.length;
+    }
+    
+    /**
+     * Check if the provided number of items can be added to the front without an array copy.
+     * 
+     * @param count Number of items to be added
+     * @return {@code true} if there is unused space at the front of the backing array
+     */
+    public boolean hasFrontCapacity(int count) {
+      // if previous one is null, all previous ones are null
+      return count <= dataStartIndex && dataArray[dataStartIndex - 1] == null;
+    }
+    
+    /**
+     * Check if the provided number of items can be added to the end without an array copy.
+     * 
+     * @param count Number of items to be added
+     * @return {@code true} if there is unused space at the end of the backing array
+     */
+    public boolean hasRearCapacity(int count) {
+      // if next one is null, all future ones should be
+      return dataEndIndex + count <= dataArray.length && dataArray[dataEndIndex] == null;
+    }
+    
+    /**
+     * Returns a new {@link DataSet} with the items copied into a new array sized for the items 
+     * and the currently set padding.  Unlike {@link #trimToSize()} this always copies, and the 
+     * padding is retained in the new array.
+     * 
+     * @return New compacted {@link DataSet}
+     */
+    public DataSet<T> compact() {
+      return new DataSet<T>(getArrayCopy(size), frontPadding, rearPadding);
+    }
+    
+    /**
+     * Returns a {@link DataSet} which contains the provided items (and nothing else).  The 
+     * provided array is used directly, so it must not be modified after this call.  The returned 
+     * set has the same front and rear padding as this set.
+     * 
+     * @param items Items the new set should contain
+     * @return A new {@link DataSet} containing the items
+     */
+    public DataSet<T> replaceAll(Object[] items) {
+      return new DataSet<T>(items, 0, items.length, frontPadding, rearPadding);
+    }
+    
+    /**
+     * Copies the items in this set into a new list.  The returned list is fixed size, but can 
+     * otherwise be modified without impacting this set.
+     * 
+     * @return A new list containing the items in this set
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+      Object[] result = new Object[size];
+      copyInto(result);
+      return (List<T>)Arrays.asList(result);
+    }
+    
+    /**
+     * Copies all items in this set into the start of the provided array.  The array must be at 
+     * least the size of this set.
+     * 
+     * @param destination Array to copy items into
+     */
+    public void copyInto(Object[] destination) {
+      System.arraycopy(dataArray, dataStartIndex, destination, 0, size);
+    }
+    
     /**
      * Returns a new {@link DataSet} that contains only relevant and active items in the data 
      * array.  The returned DataSet has the same set front and rear padding, so additional 
@@ -1179,7 +1565,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
      * @return a new {@link DataSet} which represents the change
      */
     public DataSet<T> addToFront(T e) {
-      if (dataStartIndex > 0 && dataArray[dataStartIndex - 1] == null) {
+      if (hasFrontCapacity(1)) {
         // there is space in the current array
         dataArray[dataStartIndex - 1] = e;
         
@@ -1203,7 +1589,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
      * @return a new {@link DataSet} which represents the change
      */
     public DataSet<T> addToEnd(T e) {
-      if (dataArray.length - 1 >= dataEndIndex && dataArray[dataEndIndex] == null) {
+      if (hasRearCapacity(1)) {
         // there is space in the current array
         dataArray[dataEndIndex] = e;
         
@@ -1266,8 +1652,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
       Object[] toAdd = c.toArray();
       if (origIndex == 0) {
         // add to front
-        if (toAdd.length <= dataStartIndex && 
-            dataArray[dataStartIndex - 1] == null) {  // if previous one is null, all previous ones are null
+        if (hasFrontCapacity(toAdd.length)) {
           // we can copy the new items in, without copying our existing array
           System.arraycopy(toAdd, 0, dataArray, dataStartIndex - toAdd.length, toAdd.length);
           
@@ -1286,8 +1671,7 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
         }
       } else if (origIndex == size) {
         // add to end
-        if (dataEndIndex + toAdd.length <= dataArray.length && 
-            dataArray[dataEndIndex] == null) {  // if next one is null, all future ones should be
+        if (hasRearCapacity(toAdd.length)) {
           // we can copy the new items in, without copying our existing array
           System.arraycopy(toAdd, 0, dataArray, dataEndIndex, toAdd.length);
 
@@ -1343,6 +1727,78 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
       }
     }
 
+    /**
+     * Removes a range of items from the collection.  If the range includes either the first or 
+     * last item no copy is necessary, otherwise a single copy of the remaining items is made.
+     * 
+     * @param fromIndex start index (inclusive) of items to remove
+     * @param toIndex end index (exclusive) of items to remove
+     * @return a new {@link DataSet} which represents the change, or this reference if the range is empty
+     */
+    public DataSet<T> removeRange(int fromIndex, int toIndex) {
+      if (fromIndex == toIndex) {
+        return this;
+      } else if (fromIndex == 0 || toIndex == size) {  // remove from an end without copy
+        return new DataSet<T>(dataArray, 
+                              dataStartIndex + (fromIndex == 0 ? toIndex : 0), 
+                              fromIndex == 0 ? dataEndIndex : dataStartIndex + fromIndex, 
+                              frontPadding, rearPadding);
+      } else {  // remove from middle
+        int removedCount = toIndex - fromIndex;
+        Object[] newData = new Object[size - removedCount + frontPadding + rearPadding];
+        
+        System.arraycopy(dataArray, dataStartIndex, newData, frontPadding, fromIndex);
+        System.arraycopy(dataArray, dataStartIndex + toIndex, 
+                         newData, frontPadding + fromIndex, size - toIndex);
+        
+        return new DataSet<T>(newData, frontPadding, rearPadding);
+      }
+    }
+    
+    /**
+     * Merges already sorted items into this set, which must also be sorted by the same 
+     * comparator.  New items are placed after existing items which they compare equal to.
+     * 
+     * @param sortedToAdd Sorted items to add, must not be empty
+     * @param comparator Comparator both this set and the items are sorted by
+     * @return a new {@link DataSet} which represents the change
+     */
+    public DataSet<T> mergeSorted(Object[] sortedToAdd, Comparator<? super T> comparator) {
+      Object[] newData = new Object[size + sortedToAdd.length + frontPadding + rearPadding];
+      mergeSortedInto(sortedToAdd, comparator, newData, frontPadding);
+      
+      return new DataSet<T>(newData, frontPadding, rearPadding);
+    }
+    
+    /**
+     * Merges the items of this set and the provided sorted items into a destination array.
+     * 
+     * @param sortedToAdd Sorted items to merge with this set
+     * @param comparator Comparator both this set and the items are sorted by
+     * @param destination Array to merge the items into
+     * @param destinationOffset Index in the destination to start at
+     */
+    @SuppressWarnings("unchecked")
+    protected void mergeSortedInto(Object[] sortedToAdd, Comparator<? super T> comparator, 
+                                   Object[] destination, int destinationOffset) {
+      int i = 0;
+      int j = 0;
+      int d = destinationOffset;
+      while (i < size && j < sortedToAdd.length) {
+        T existing = get(i);
+        if (comparator.compare((T)sortedToAdd[j], existing) < 0) {
+          destination[d++] = sortedToAdd[j++];
+        } else {
+          destination[d++] = existing;
+          i++;
+        }
+      }
+      while (i < size) {
+        destination[d++] = get(i++);
+      }
+      System.arraycopy(sortedToAdd, j, destination, d, sortedToAdd.length - j);
+    }
+
     /**
      * Removes a specific index from the collection.
      * 
@@ -1515,4 +1971,22 @@ public class ConcurrentArrayList<T> implements List<T>, Deque<T>, RandomAccess {
       return result.toString();
     }
   }
+  
+  /**
+   * <p>Interface for applying a batch of modifications to a {@link ConcurrentArrayList} as a 
+   * single update.  See {@link ConcurrentArrayList#batchModify(BatchModifier)}.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> type of object retained in the list
+   */
+  public interface BatchModifier<T> {
+    /**
+     * Invoked with a mutable copy of the list contents.  Any modifications made to the provided 
+     * list will be applied to the {@link ConcurrentArrayList} once this returns.
+     * 
+     * @param items Mutable copy of the current list contents
+     */
+    public void modify(List<T> items);
+  }
 }
@@ -0,0 +1,168 @@
+package org.threadly.concurrent.collections;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.threadly.util.ArgumentVerifier;
+
+/**
+ * <p>A lock free, fixed size, window of primitive {@code long} values.  Once the buffer has 
+ * reached its capacity each newly added value replaces the oldest value.  This is designed for 
+ * collecting samples (for example statistics on task execution), where adding a value must be as 
+ * cheap as possible, and reading the values is comparatively rare.</p>
+ * 
+ * <p>Adding a value will never block, never box the value, and never allocate memory.  It is 
+ * just an atomic increment to claim a slot followed by an ordered write into that slot.</p>
+ * 
+ * <p>Because writers never wait on readers, reads (for example {@link #toArray()}) are a best 
+ * effort snapshot.  A value which is being added concurrently with the read may be missing from 
+ * the result, or if the buffer has wrapped, be represented by the older value it is replacing. 
+ * Every value returned was at some point added to the buffer.  For statistics collection this 
+ * is an acceptable trade off, but if stronger consistency is needed a structure like 
+ * {@link ConcurrentArrayList} should be used instead.</p>
+ * 
+ * <p>{@link Long#MIN_VALUE} is used internally to identify slots which have not been written to 
+ * yet, and thus can not be added to the buffer.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ */
+public class ConcurrentLongRingBuffer {
+  private static final long UNSET_VALUE = Long.MIN_VALUE;
+  private static final long[] EMPTY_ARRAY = new long[0];
+  private static final int MAX_CAPACITY = 1 << (Integer.SIZE - 2);
+  
+  protected final int capacity;
+  protected final int slotMask;
+  protected final AtomicLongArray slots;
+  protected final AtomicLong nextPosition;
+  protected final AtomicLong clearedPosition;
+  
+  /**
+   * Constructs a new ring buffer which will retain at most the provided number of values.
+   * 
+   * @param capacity Maximum number of values to retain, zero to retain no values
+   */
+  public ConcurrentLongRingBuffer(int capacity) {
+    ArgumentVerifier.assertNotNegative(capacity, "capacity");
+    if (capacity > MAX_CAPACITY) {
+      throw new IllegalArgumentException("capacity can not be greater than: " + MAX_CAPACITY);
+    }
+    
+    this.capacity = capacity;
+    // slot count is rounded to a power of two so that the position can be masked
+    int slotCount = capacity <= 1 ? capacity : Integer.highestOneBit(capacity - 1) << 1;
+    this.slotMask = slotCount - 1;
+    this.slots = new AtomicLongArray(slotCount);
+    for (int i = 0; i < slotCount; i++) {
+      slots.lazySet(i, UNSET_VALUE);
+    }
+    this.nextPosition = new AtomicLong(0);
+    this.clearedPosition = new AtomicLong(0);
+  }
+  
+  /**
+   * Returns the maximum number of values this buffer will retain.
+   * 
+   * @return The capacity provided at construction
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+  
+  /**
+   * Adds a value to the buffer.  If the buffer is at capacity the oldest value will be removed.
+   * 
+   * @param value Value to add, can not be {@link Long#MIN_VALUE}
+   */
+  public void add(long value) {
+    if (value == UNSET_VALUE) {
+      throw new IllegalArgumentException("Long.MIN_VALUE can not be stored");
+    }
+    
+    long position = nextPosition.getAndIncrement();
+    if (capacity > 0) {
+      slots.lazySet((int)(position & slotMask), value);
+    }
+  }
+  
+  /**
+   * Returns the total number of values which have been added to this buffer since construction. 
+   * This value is not affected by {@link #clear()}, or by values being removed once the buffer 
+   * is at capacity.
+   * 
+   * @return Total quantity of values ever added
+   */
+  public long getTotalAddedCount() {
+    return nextPosition.get();
+  }
+  
+  /**
+   * Returns the number of values currently retained in the buffer.  This will never be greater 
+   * than {@link #getCapacity()}.
+   * 
+   * @return Number of values currently retained
+   */
+  public int size() {
+    return (int)Math.min(capacity, nextPosition.get() - clearedPosition.get());
+  }
+  
+  /**
+   * Check if there are any values currently retained in the buffer.
+   * 
+   * @return {@code true} if no values are retained
+   */
+  public boolean isEmpty() {
+    return capacity == 0 || nextPosition.get() == clearedPosition.get();
+  }
+  
+  /**
+   * Removes all values currently retained in the buffer.  Values added concurrently with this 
+   * call may or may not be retained.
+   */
+  public void clear() {
+    long position = nextPosition.get();
+    while (true) {
+      long cleared = clearedPosition.get();
+      if (cleared >= position || clearedPosition.compareAndSet(cleared, position)) {
+        return;
+      }
+    }
+  }
+  
+  /**
+   * Copies the currently retained values into a new array.  The values are ordered from the 
+   * oldest value to the most recently added value.  The returned array is a copy, and thus can 
+   * be modified freely.
+   * 
+   * @return A new array containing the retained values
+   */
+  public long[] toArray() {
+    long endPosition = nextPosition.get();
+    long startPosition = Math.max(endPosition - capacity, clearedPosition.get());
+    if (startPosition >= endPosition) {
+      return EMPTY_ARRAY;
+    }
+    
+    long[] result = new long[(int)(endPosition - startPosition)];
+    int resultIndex = 0;
+    for (long position = startPosition; position < endPosition; position++) {
+      long value = slots.get((int)(position & slotMask));
+      if (value != UNSET_VALUE) {
+        result[resultIndex++] = value;
+      }
+    }
+    
+    if (resultIndex < result.length) {
+      return Arrays.copyOf(result, resultIndex);
+    } else {
+      return result;
+    }
+  }
+  
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+}
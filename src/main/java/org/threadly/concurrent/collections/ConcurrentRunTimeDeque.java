@@ -0,0 +1,279 @@
+package org.threadly.concurrent.collections;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.threadly.util.ArgumentVerifier;
+
+/**
+ * <p>A concurrent collection which keeps values sorted by a primitive {@code long} run time. 
+ * Values with the same run time are kept in the order they were added (or last repositioned). 
+ * This matches the ordering that is achieved by inserting into a {@link ConcurrentArrayList} at 
+ * the index from a {@code getInsertionEndIndex} search, but without needing to hold the 
+ * modification lock.</p>
+ * 
+ * <p>Inspecting or removing the first value ({@link #peekFirst()}, {@link #pollFirst()}, 
+ * {@link #pollFirst(long)}) are lock free.  Adding, removing, and repositioning a value are 
+ * O(log n) and also lock free.  In order to provide cheap removals and repositions, adding a 
+ * value returns an {@link Entry} which should be used as the handle for that value.  Removing by 
+ * the value itself ({@link #removeValue(Object)}) is possible, but requires an O(n) search.</p>
+ * 
+ * <p>Because no lock is held, a sequence of operations is not atomic.  For example, while a 
+ * value is being repositioned it is briefly not contained in the collection.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ * @param <T> type of object to retain
+ */
+public class ConcurrentRunTimeDeque<T> implements Iterable<T> {
+  protected final ConcurrentSkipListMap<Entry<T>, Boolean> entries;
+  protected final AtomicLong sequence;
+  protected final AtomicInteger size;
+  
+  /**
+   * Constructs a new empty deque.
+   */
+  public ConcurrentRunTimeDeque() {
+    entries = new ConcurrentSkipListMap<Entry<T>, Boolean>();
+    sequence = new AtomicLong(Long.MIN_VALUE);
+    size = new AtomicInteger(0);
+  }
+  
+  /**
+   * Returns the number of values in the deque.  While modifications are in progress this may 
+   * briefly include values which are not yet visible.
+   * 
+   * @return Quantity of values in the deque
+   */
+  public int size() {
+    return size.get();
+  }
+  
+  /**
+   * Check if there are any values in the deque.
+   * 
+   * @return {@code true} if the deque has no values
+   */
+  public boolean isEmpty() {
+    return entries.isEmpty();
+  }
+  
+  /**
+   * Adds a value into the deque.  The value will be positioned after any values with an equal or 
+   * lesser run time.
+   * 
+   * @param runTime Run time used to sort the value
+   * @param value Value to be added, can not be {@code null}
+   * @return Entry which can be used to remove or reposition the value
+   */
+  public Entry<T> add(long runTime, T value) {
+    ArgumentVerifier.assertNotNull(value, "value");
+    
+    Entry<T> result = new Entry<T>(runTime, sequence.getAndIncrement(), value);
+    size.incrementAndGet();
+    entries.put(result, Boolean.TRUE);
+    return result;
+  }
+  
+  /**
+   * Removes an entry from the deque.
+   * 
+   * @param entry Entry returned from {@link #add(long, Object)} or 
+   *                {@link #reposition(Entry, long)}
+   * @return {@code true} if the entry was found and removed
+   */
+  public boolean remove(Entry<T> entry) {
+    if (entries.remove(entry) != null) {
+      size.decrementAndGet();
+      return true;
+    } else {
+      return false;
+    }
+  }
+  
+  /**
+   * Searches for the first entry which contains a value equal to the provided one, and removes 
+   * it.  This requires a search through the deque, so {@link #remove(Entry)} should be used when 
+   * possible.
+   * 
+   * @param value Value to search for
+   * @return {@code true} if a matching value was found and removed
+   */
+  public boolean removeValue(Object value) {
+    Iterator<Entry<T>> it = entries.keySet().iterator();
+    while (it.hasNext()) {
+      Entry<T> e = it.next();
+      if (e.value.equals(value) && remove(e)) {
+        return true;
+      }
+    }
+    return false;
+  }
+  
+  /**
+   * Moves a value to a new run time.  The value will be positioned after any values with an equal 
+   * or lesser run time.  The provided entry is no longer valid after this call, the returned 
+   * entry should be used instead.
+   * 
+   * @param entry Entry which should be repositioned
+   * @param newRunTime New run time for the entry's value
+   * @return A new entry for the value, or {@code null} if the entry was not in the deque
+   */
+  public Entry<T> reposition(Entry<T> entry, long newRunTime) {
+    if (remove(entry)) {
+      return add(newRunTime, entry.value);
+    } else {
+      return null;
+    }
+  }
+  
+  /**
+   * Returns the entry with the lowest run time without removing it.
+   * 
+   * @return The first entry, or {@code null} if the deque is empty
+   */
+  public Entry<T> peekFirst() {
+    Map.Entry<Entry<T>, Boolean> first = entries.firstEntry();
+    return first == null ? null : first.getKey();
+  }
+  
+  /**
+   * Removes and returns the entry with the lowest run time.
+   * 
+   * @return The removed entry, or {@code null} if the deque is empty
+   */
+  public Entry<T> pollFirst() {
+    Map.Entry<Entry<T>, Boolean> first = entries.pollFirstEntry();
+    if (first == null) {
+      return null;
+    }
+    size.decrementAndGet();
+    return first.getKey();
+  }
+  
+  /**
+   * Removes and returns the entry with the lowest run time, but only if that run time is less 
+   * than or equal to the provided maximum.  This is useful for taking the next task only once it 
+   * is ready to execute.
+   * 
+   * @param maxRunTime Maximum run time to allow for the first entry
+   * @return The removed entry, or {@code null} if there is no entry at or before {@code maxRunTime}
+   */
+  public Entry<T> pollFirst(long maxRunTime) {
+    while (true) {
+      Map.Entry<Entry<T>, Boolean> first = entries.firstEntry();
+      if (first == null || first.getKey().runTime > maxRunTime) {
+        return null;
+      } else if (remove(first.getKey())) {
+        return first.getKey();
+      }
+      // lost race with another remove, try again
+    }
+  }
+  
+  /**
+   * Removes all values from the deque.  Values added concurrently with this call may or may not 
+   * be removed.
+   */
+  public void clear() {
+    while (pollFirst() != null) {
+      // remove till empty
+    }
+  }
+  
+  /**
+   * Returns an iterator over the values in run time order.  The iterator is weakly consistent, it 
+   * will never throw a {@link java.util.ConcurrentModificationException}.  Removal through the 
+   * iterator is supported.
+   * 
+   * @return Iterator over the deque's values
+   */
+  @Override
+  public Iterator<T> iterator() {
+    final Iterator<Entry<T>> it = entries.keySet().iterator();
+    return new Iterator<T>() {
+      private Entry<T> current = null;
+      
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
+      }
+      
+      @Override
+      public T next() {
+        current = it.next();
+        return current.value;
+      }
+      
+      @Override
+      public void remove() {
+        if (current == null) {
+          throw new IllegalStateException();
+        }
+        ConcurrentRunTimeDeque.this.remove(current);
+        current = null;
+      }
+    };
+  }
+  
+  /**
+   * <p>A value contained in the deque, along with its run time.  This is returned when a value 
+   * is added so that it can be cheaply removed or repositioned.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> type of value contained
+   */
+  public static class Entry<T> implements Comparable<Entry<T>> {
+    protected final long runTime;
+    protected final long sequence;
+    protected final T value;
+    
+    protected Entry(long runTime, long sequence, T value) {
+      this.runTime = runTime;
+      this.sequence = sequence;
+      this.value = value;
+    }
+    
+    /**
+     * Returns the run time this entry is sorted by.
+     * 
+     * @return Run time of the entry
+     */
+    public long getRunTime() {
+      return runTime;
+    }
+    
+    /**
+     * Returns the value contained in this entry.
+     * 
+     * @return The contained value
+     */
+    public T getValue() {
+      return value;
+    }
+    
+    @Override
+    public int compareTo(Entry<T> o) {
+      if (runTime < o.runTime) {
+        return -1;
+      } else if (runTime > o.runTime) {
+        return 1;
+      } else if (sequence < o.sequence) {
+        return -1;
+      } else if (sequence > o.sequence) {
+        return 1;
+      } else {
+        return 0;
+      }
+    }
+    
+    @Override
+    public String toString() {
+      return runTime + "=" + value;
+    }
+  }
+}
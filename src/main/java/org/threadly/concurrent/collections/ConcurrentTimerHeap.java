@@ -0,0 +1,522 @@
+package org.threadly.concurrent.collections;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.threadly.util.ArgumentVerifier;
+
+/**
+ * <p>A thread safe store for a large number of pending timers, ordered by a primitive 
+ * {@code long} deadline.  Timers with the same deadline are kept in the order they were added (or 
+ * last rescheduled).</p>
+ * 
+ * <p>Structures like {@link ConcurrentRunTimeDeque} need a node object (and often a wrapper 
+ * object) for every entry, which for millions of pending timers adds a lot of objects for the 
+ * garbage collector to trace.  This structure instead keeps the deadline, sequence and position 
+ * of each timer in primitive arrays, only the task itself is stored as an object reference.  The 
+ * heap is stored as parallel arrays, so the comparisons needed to maintain it read densely packed 
+ * {@code long} values rather than following references.</p>
+ * 
+ * <p>Adding a timer returns a {@code long} handle.  That handle can be used to cheaply 
+ * ({@code O(log n)}) remove or reschedule the timer.  Once a timer has been removed (including by 
+ * being polled) its handle is no longer valid, and operations using it will return 
+ * {@code false}.  Handles are not reused for a different timer until 2^32 additional timers have 
+ * been added.</p>
+ * 
+ * <p>All operations synchronize on {@link #getModificationLock()}.  Similar to 
+ * {@link ConcurrentArrayList}, that lock can be held to perform several operations atomically. 
+ * The backing arrays grow as needed, and shrink once the store becomes mostly empty, so memory 
+ * is returned after a burst of timers has completed.  The exception is the handle index (two 
+ * {@code int}s per timer), which can only shrink past slots which are no longer in use.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ * @param <T> type of task to retain
+ */
+public class ConcurrentTimerHeap<T> {
+  private static final int DEFAULT_INITIAL_CAPACITY = 16;
+  private static final int MIN_SHRINK_CAPACITY = 64;
+  private static final int SHRINK_OCCUPANCY_DIVISOR = 4;
+  private static final long SLOT_MASK = 0xFFFFFFFFL;
+  private static final int FREE_SLOT = -1;
+  
+  protected final Object modificationLock;
+  protected final int minimumCapacity;
+  // heap storage, indexed by heap position
+  protected long[] heapDeadlines;
+  protected long[] heapSequences;
+  protected int[] heapSlots;
+  protected Object[] heapTasks;
+  protected int size;
+  // handle index, indexed by slot which is encoded in the handle
+  protected int[] slotHeapPositions;  // FREE_SLOT if not in use
+  protected int[] slotStamps;
+  protected int usedSlotCount;  // all slots at or above this index are free
+  protected int[] freeSlots;  // may contain stale entries which are verified when popped
+  protected int freeSlotCount;
+  protected long nextSequence;
+  protected int nextStamp;
+  
+  /**
+   * Constructs a new empty timer heap with a default initial capacity.
+   */
+  public ConcurrentTimerHeap() {
+    this(DEFAULT_INITIAL_CAPACITY);
+  }
+  
+  /**
+   * Constructs a new empty timer heap.  The store will never shrink below the initial capacity.
+   * 
+   * @param initialCapacity Number of timers which can be held before the arrays need to grow
+   */
+  public ConcurrentTimerHeap(int initialCapacity) {
+    ArgumentVerifier.assertGreaterThanZero(initialCapacity, "initialCapacity");
+    
+    modificationLock = new Object();
+    minimumCapacity = initialCapacity;
+    allocate(initialCapacity);
+    nextSequence = Long.MIN_VALUE;
+    nextStamp = 0;
+  }
+  
+  private void allocate(int capacity) {
+    heapDeadlines = new long[capacity];
+    heapSequences = new long[capacity];
+    heapSlots = new int[capacity];
+    heapTasks = new Object[capacity];
+    size = 0;
+    slotHeapPositions = new int[capacity];
+    slotStamps = new int[capacity];
+    usedSlotCount = 0;
+    freeSlots = new int[capacity];
+    freeSlotCount = 0;
+  }
+  
+  /**
+   * Returns the lock which is held for every modification.  This can be synchronized on in order 
+   * to perform multiple operations atomically.
+   * 
+   * @return Lock used internally
+   */
+  public Object getModificationLock() {
+    return modificationLock;
+  }
+  
+  /**
+   * Returns the number of timers currently stored.
+   * 
+   * @return Quantity of pending timers
+   */
+  public int size() {
+    synchronized (modificationLock) {
+      return size;
+    }
+  }
+  
+  /**
+   * Check if there are any timers stored.
+   * 
+   * @return {@code true} if there are no pending timers
+   */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+  
+  /**
+   * Returns the number of timers which can be stored before the heap arrays need to grow.
+   * 
+   * @return Current capacity of the heap arrays
+   */
+  public int getCapacity() {
+    synchronized (modificationLock) {
+      return heapDeadlines.length;
+    }
+  }
+  
+  /**
+   * Adds a timer into the store.  The timer will be positioned after any timers with an equal or 
+   * earlier deadline.
+   * 
+   * @param deadline Deadline used to order the timer
+   * @param task Task to be stored, can not be {@code null}
+   * @return Handle which can be used to remove or reschedule the timer
+   */
+  public long add(long deadline, T task) {
+    ArgumentVerifier.assertNotNull(task, "task");
+    
+    synchronized (modificationLock) {
+      int slot = allocateSlot();
+      int stamp = nextStamp++;
+      slotStamps[slot] = stamp;
+      
+      if (size == heapDeadlines.length) {
+        resizeHeap(size * 2);
+      }
+      int position = size++;
+      heapDeadlines[position] = deadline;
+      heapSequences[position] = nextSequence++;
+      heapSlots[position] = slot;
+      heapTasks[position] = task;
+      slotHeapPositions[slot] = position;
+      siftUp(position);
+      
+      return ((long)stamp << Integer.SIZE) | slot;
+    }
+  }
+  
+  /**
+   * Removes a timer from the store.
+   * 
+   * @param handle Handle returned when the timer was added
+   * @return {@code true} if the timer was found and removed
+   */
+  public boolean remove(long handle) {
+    synchronized (modificationLock) {
+      int slot = validSlot(handle);
+      if (slot < 0) {
+        return false;
+      }
+      
+      removeAt(slotHeapPositions[slot]);
+      return true;
+    }
+  }
+  
+  /**
+   * Moves a timer to a new deadline.  The timer will be positioned after any timers with an equal 
+   * or earlier deadline.  The handle remains valid after this call.
+   * 
+   * @param handle Handle returned when the timer was added
+   * @param newDeadline New deadline for the timer
+   * @return {@code true} if the timer was found and rescheduled
+   */
+  public boolean reschedule(long handle, long newDeadline) {
+    synchronized (modificationLock) {
+      int slot = validSlot(handle);
+      if (slot < 0) {
+        return false;
+      }
+      
+      int position = slotHeapPositions[slot];
+      heapDeadlines[position] = newDeadline;
+      heapSequences[position] = nextSequence++;
+      // deadline may have moved in either direction
+      if (! siftUp(position)) {
+        siftDown(position);
+      }
+      return true;
+    }
+  }
+  
+  /**
+   * Check if the timer for the provided handle is still stored.
+   * 
+   * @param handle Handle returned when the timer was added
+   * @return {@code true} if the timer has not been removed
+   */
+  public boolean contains(long handle) {
+    synchronized (modificationLock) {
+      return validSlot(handle) >= 0;
+    }
+  }
+  
+  /**
+   * Returns the task with the earliest deadline without removing it.
+   * 
+   * @return The first task, or {@code null} if the store is empty
+   */
+  @SuppressWarnings("unchecked")
+  public T peekFirst() {
+    synchronized (modificationLock) {
+      return (T)heapTasks[0];
+    }
+  }
+  
+  /**
+   * Returns the earliest deadline in the store.
+   * 
+   * @return The first deadline, or {@link Long#MAX_VALUE} if the store is empty
+   */
+  public long peekFirstDeadline() {
+    synchronized (modificationLock) {
+      return size == 0 ? Long.MAX_VALUE : heapDeadlines[0];
+    }
+  }
+  
+  /**
+   * Removes and returns the task with the earliest deadline.
+   * 
+   * @return The removed task, or {@code null} if the store is empty
+   */
+  public T pollFirst() {
+    return pollFirst(Long.MAX_VALUE);
+  }
+  
+  /**
+   * Removes and returns the task with the earliest deadline, but only if that deadline is less 
+   * than or equal to the provided maximum.  This is useful for taking the next task only once it 
+   * is ready to execute.
+   * 
+   * @param maxDeadline Maximum deadline to allow for the first task
+   * @return The removed task, or {@code null} if there is no task at or before {@code maxDeadline}
+   */
+  @SuppressWarnings("unchecked")
+  public T pollFirst(long maxDeadline) {
+    synchronized (modificationLock) {
+      if (size == 0 || heapDeadlines[0] > maxDeadline) {
+        return null;
+      }
+      
+      T result = (T)heapTasks[0];
+      removeAt(0);
+      return result;
+    }
+  }
+  
+  /**
+   * Removes all tasks with a deadline less than or equal to the provided maximum, adding them to 
+   * the provided collection in deadline order.  This only acquires the lock once, so is cheaper 
+   * than calling {@link #pollFirst(long)} repeatedly.
+   * 
+   * @param maxDeadline Maximum deadline of tasks to remove
+   * @param destination Collection to add removed tasks to
+   * @return The number of tasks removed
+   */
+  @SuppressWarnings("unchecked")
+  public int drainTo(long maxDeadline, Collection<? super T> destination) {
+    int result = 0;
+    synchronized (modificationLock) {
+      while (size > 0 && heapDeadlines[0] <= maxDeadline) {
+        destination.add((T)heapTasks[0]);
+        removeAt(0);
+        result++;
+      }
+    }
+    return result;
+  }
+  
+  /**
+   * Removes all timers from the store.  All previously returned handles become invalid.
+   */
+  public void clear() {
+    synchronized (modificationLock) {
+      allocate(minimumCapacity);
+    }
+  }
+  
+  /**
+   * Decodes the slot from a handle, verifying that the handle is still valid.  Must be called 
+   * while holding the modification lock.
+   * 
+   * @param handle Handle to decode
+   * @return Slot for the handle, or {@code -1} if the handle is not valid
+   */
+  private int validSlot(long handle) {
+    int slot = (int)(handle & SLOT_MASK);
+    if (slot < 0 || slot >= usedSlotCount || slotHeapPositions[slot] == FREE_SLOT || 
+        slotStamps[slot] != (int)(handle >>> Integer.SIZE)) {
+      return -1;
+    }
+    return slot;
+  }
+  
+  /**
+   * Finds a free slot to store a new timer's handle index in.  Lower slots are reused when 
+   * possible so that the handle index can shrink.  Must be called while holding the 
+   * modification lock.
+   * 
+   * @return Slot which is now reserved for the caller
+   */
+  private int allocateSlot() {
+    while (freeSlotCount > 0) {
+      int slot = freeSlots[--freeSlotCount];
+      // entries may be stale if the slot was trimmed off the top and then used again
+      if (slot < usedSlotCount && slotHeapPositions[slot] == FREE_SLOT) {
+        return slot;
+      }
+    }
+    
+    if (usedSlotCount == slotHeapPositions.length) {
+      resizeSlots(usedSlotCount * 2);
+    }
+    return usedSlotCount++;
+  }
+  
+  /**
+   * Releases a slot so it may be reused.  Must be called while holding the modification lock.
+   * 
+   * @param slot Slot to be released
+   */
+  private void freeSlot(int slot) {
+    slotHeapPositions[slot] = FREE_SLOT;
+    if (slot == usedSlotCount - 1) {
+      // trim free slots off the top so that the slot arrays can shrink
+      do {
+        usedSlotCount--;
+      } while (usedSlotCount > 0 && slotHeapPositions[usedSlotCount - 1] == FREE_SLOT);
+      if (usedSlotCount == 0) {
+        freeSlotCount = 0;
+      }
+    } else if (freeSlotCount < freeSlots.length) {
+      freeSlots[freeSlotCount++] = slot;
+    } else {
+      // stack is full of stale entries, rebuild it from the actual free slots
+      freeSlotCount = 0;
+      for (int i = 0; i < usedSlotCount; i++) {
+        if (slotHeapPositions[i] == FREE_SLOT) {
+          freeSlots[freeSlotCount++] = i;
+        }
+      }
+    }
+  }
+  
+  /**
+   * Removes the timer at the given heap position, freeing its slot.  Must be called while holding 
+   * the modification lock.
+   * 
+   * @param position Heap position to remove
+   */
+  private void removeAt(int position) {
+    freeSlot(heapSlots[position]);
+    
+    int last = --size;
+    if (position != last) {
+      moveTo(last, position);
+    }
+    heapTasks[last] = null;
+    if (position != last && ! siftUp(position)) {
+      siftDown(position);
+    }
+    
+    int heapCapacity = shrunkCapacity(heapDeadlines.length, size);
+    if (heapCapacity != heapDeadlines.length) {
+      resizeHeap(heapCapacity);
+    }
+    int slotCapacity = shrunkCapacity(slotHeapPositions.length, usedSlotCount);
+    if (slotCapacity != slotHeapPositions.length) {
+      resizeSlots(slotCapacity);
+    }
+  }
+  
+  /**
+   * Calculates the capacity arrays should be shrunk to.  Arrays are halved until at least a 
+   * quarter of the capacity is in use.
+   * 
+   * @param capacity Current capacity of the arrays
+   * @param used Number of array positions which are in use
+   * @return Capacity the arrays should have, or {@code capacity} if no shrink should occur
+   */
+  private int shrunkCapacity(int capacity, int used) {
+    while (capacity >= MIN_SHRINK_CAPACITY && capacity > minimumCapacity && 
+           used < capacity / SHRINK_OCCUPANCY_DIVISOR) {
+      capacity = Math.max(minimumCapacity, capacity / 2);
+    }
+    return capacity;
+  }
+  
+  private void moveTo(int from, int to) {
+    heapDeadlines[to] = heapDeadlines[from];
+    heapSequences[to] = heapSequences[from];
+    heapSlots[to] = heapSlots[from];
+    heapTasks[to] = heapTasks[from];
+    slotHeapPositions[heapSlots[to]] = to;
+  }
+  
+  private boolean isBefore(int position1, int position2) {
+    if (heapDeadlines[position1] != heapDeadlines[position2]) {
+      return heapDeadlines[position1] < heapDeadlines[position2];
+    } else {
+      return heapSequences[position1] < heapSequences[position2];
+    }
+  }
+  
+  private void swap(int position1, int position2) {
+    long deadline = heapDeadlines[position1];
+    long sequence = heapSequences[position1];
+    int slot = heapSlots[position1];
+    Object task = heapTasks[position1];
+    moveTo(position2, position1);
+    heapDeadlines[position2] = deadline;
+    heapSequences[position2] = sequence;
+    heapSlots[position2] = slot;
+    heapTasks[position2] = task;
+    slotHeapPositions[slot] = position2;
+  }
+  
+  /**
+   * Moves the timer at the provided position towards the root until the heap order is restored.
+   * 
+   * @param position Heap position to start from
+   * @return {@code true} if the timer was moved
+   */
+  private boolean siftUp(int position) {
+    int start = position;
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      if (isBefore(position, parent)) {
+        swap(position, parent);
+        position = parent;
+      } else {
+        break;
+      }
+    }
+    return position != start;
+  }
+  
+  private void siftDown(int position) {
+    while (true) {
+      int child = (position << 1) + 1;
+      if (child >= size) {
+        return;
+      }
+      if (child + 1 < size && isBefore(child + 1, child)) {
+        child++;
+      }
+      if (isBefore(child, position)) {
+        swap(position, child);
+        position = child;
+      } else {
+        return;
+      }
+    }
+  }
+  
+  private void resizeHeap(int newCapacity) {
+    heapDeadlines = Arrays.copyOf(heapDeadlines, newCapacity);
+    heapSequences = Arrays.copyOf(heapSequences, newCapacity);
+    heapSlots = Arrays.copyOf(heapSlots, newCapacity);
+    heapTasks = Arrays.copyOf(heapTasks, newCapacity);
+  }
+  
+  private void resizeSlots(int newCapacity) {
+    slotHeapPositions = Arrays.copyOf(slotHeapPositions, newCapacity);
+    slotStamps = Arrays.copyOf(slotStamps, newCapacity);
+    if (newCapacity < freeSlots.length) {
+      // drop free slots which are beyond the new capacity
+      int keptCount = 0;
+      for (int i = 0; i < freeSlotCount; i++) {
+        if (freeSlots[i] < newCapacity) {
+          freeSlots[keptCount++] = freeSlots[i];
+        }
+      }
+      freeSlotCount = keptCount;
+    }
+    freeSlots = Arrays.copyOf(freeSlots, newCapacity);
+  }
+  
+  @Override
+  public String toString() {
+    synchronized (modificationLock) {
+      StringBuilder result = new StringBuilder();
+      result.append('[');
+      for (int i = 0; i < size; i++) {
+        if (i > 0) {
+          result.append(", ");
+        }
+        result.append(heapDeadlines[i]).append('=').append(heapTasks[i]);
+      }
+      result.append(']');
+      return result.toString();
+    }
+  }
+}
@@ -0,0 +1,484 @@
+package org.threadly.concurrent.collections;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import org.threadly.concurrent.collections.ConcurrentArrayList.DataSet;
+
+/**
+ * <p>A {@link DataSet} implementation which stores the items in many smaller arrays (segments) 
+ * rather than a single backing array.  Just like {@link DataSet}, this is immutable, and 
+ * modifiable actions will return a new instance.  But because the segments themselves are never 
+ * modified once created, a new instance can share every segment which was not impacted by the 
+ * modification.  That means a modification only needs to copy the single segment which was 
+ * changed, as well as the index of segments (which is much smaller than the total item count).</p>
+ * 
+ * <p>Segments are split once they grow beyond {@link #MAX_SEGMENT_SIZE}, and merged with a 
+ * neighbor if removals cause them to become small.  The front and rear padding has no impact on 
+ * this implementation, they are only retained so that the values are not lost for the 
+ * {@link ConcurrentArrayList}.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ * @param <T> type of object that is held
+ */
+class SegmentedDataSet<T> extends DataSet<T> {
+  protected static final int MAX_SEGMENT_SIZE = 512;
+  protected static final int MERGE_SEGMENT_SIZE = MAX_SEGMENT_SIZE / 4;
+  private static final short HASH_CODE_PRIME_NUMBER = 31;
+  private static final Object[] EMPTY_ARRAY = new Object[0];
+  private static final Object[][] EMPTY_SEGMENTS = new Object[0][];
+  private static final int[] EMPTY_SEGMENT_ENDS = new int[0];
+  
+  /**
+   * Constructs a new empty {@link SegmentedDataSet}.
+   * 
+   * @param <E> type of object that is held
+   * @return A new empty set
+   */
+  protected static <E> SegmentedDataSet<E> makeEmptySegmentedDataSet() {
+    return new SegmentedDataSet<E>(EMPTY_SEGMENTS, EMPTY_SEGMENT_ENDS, 0, 0);
+  }
+  
+  /**
+   * Splits the provided items into segments which are no larger than {@link #MAX_SEGMENT_SIZE}. 
+   * If the items must be split they will be distributed evenly across the resulting segments.
+   * 
+   * @param items Items to be segmented
+   * @return Array of segments, will be empty if there are no items
+   */
+  protected static Object[][] toSegments(Object[] items) {
+    if (items.length == 0) {
+      return EMPTY_SEGMENTS;
+    } else if (items.length <= MAX_SEGMENT_SIZE) {
+      return new Object[][] { items };
+    }
+    
+    int segmentCount = (items.length + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE;
+    Object[][] result = new Object[segmentCount][];
+    int position = 0;
+    for (int i = 0; i < segmentCount; i++) {
+      int length = (items.length - position) / (segmentCount - i);
+      result[i] = Arrays.copyOfRange(items, position, position + length);
+      position += length;
+    }
+    
+    return result;
+  }
+  
+  protected final Object[][] segments;
+  protected final int[] segmentEnds;  // exclusive end index for each segment
+  
+  protected SegmentedDataSet(Object[][] segments, int[] segmentEnds, 
+                             int frontPadding, int rearPadding) {
+    super(EMPTY_ARRAY, 0, segmentEnds.length == 0 ? 0 : segmentEnds[segmentEnds.length - 1], 
+          frontPadding, rearPadding);
+    
+    this.segments = segments;
+    this.segmentEnds = segmentEnds;
+  }
+  
+  /**
+   * Finds the segment which contains the provided index.
+   * 
+   * @param index Index of item within the set
+   * @return Index of the segment which contains the item
+   */
+  private int segmentIndex(int index) {
+    int low = 0;
+    int high = segmentEnds.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (segmentEnds[mid] > index) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    
+    return low;
+  }
+  
+  /**
+   * Returns the index of the first item within a segment.  Providing the segment count will 
+   * return the size of the set.
+   * 
+   * @param segment Index of segment
+   * @return Index of first item in the segment
+   */
+  private int segmentStart(int segment) {
+    return segment == 0 ? 0 : segmentEnds[segment - 1];
+  }
+  
+  /**
+   * Produces a new set with a range of segments replaced.  Segments before and after the range 
+   * are shared with the new set.
+   * 
+   * @param fromSegment first segment to replace (inclusive)
+   * @param toSegment last segment to replace (exclusive)
+   * @param replacement Segments to put in place of the range, must not contain empty segments
+   * @return A new {@link SegmentedDataSet} which represents the change
+   */
+  private SegmentedDataSet<T> replaceSegments(int fromSegment, int toSegment, 
+                                              Object[][] replacement) {
+    int newSegmentCount = segments.length - (toSegment - fromSegment) + replacement.length;
+    Object[][] newSegments = new Object[newSegmentCount][];
+    int[] newSegmentEnds = new int[newSegmentCount];
+    
+    System.arraycopy(segments, 0, newSegments, 0, fromSegment);
+    System.arraycopy(segmentEnds, 0, newSegmentEnds, 0, fromSegment);
+    int i = fromSegment;
+    int end = segmentStart(fromSegment);
+    for (Object[] segment : replacement) {
+      end += segment.length;
+      newSegments[i] = segment;
+      newSegmentEnds[i++] = end;
+    }
+    int delta = end - segmentStart(toSegment);
+    for (int j = toSegment; j < segments.length; j++) {
+      newSegments[i] = segments[j];
+      newSegmentEnds[i++] = segmentEnds[j] + delta;
+    }
+    
+    return new SegmentedDataSet<T>(newSegments, newSegmentEnds, frontPadding, rearPadding);
+  }
+  
+  @Override
+  public SegmentedDataSet<T> makeEmptyCopy() {
+    return new SegmentedDataSet<T>(EMPTY_SEGMENTS, EMPTY_SEGMENT_ENDS, frontPadding, rearPadding);
+  }
+  
+  @Override
+  public SegmentedDataSet<T> subSet(int fromIndex, int toIndex) {
+    if (fromIndex >= toIndex) {
+      return makeEmptyCopy();
+    }
+    
+    int firstSegment = segmentIndex(fromIndex);
+    int lastSegment = segmentIndex(toIndex - 1);
+    Object[][] newSegments = new Object[lastSegment - firstSegment + 1][];
+    for (int i = firstSegment; i <= lastSegment; i++) {
+      Object[] segment = segments[i];
+      int start = segmentStart(i);
+      int segmentFrom = Math.max(fromIndex - start, 0);
+      int segmentTo = Math.min(toIndex - start, segment.length);
+      if (segmentFrom == 0 && segmentTo == segment.length) {
+        // segments are never modified, so they can be shared
+        newSegments[i - firstSegment] = segment;
+      } else {
+        newSegments[i - firstSegment] = Arrays.copyOfRange(segment, segmentFrom, segmentTo);
+      }
+    }
+    
+    return makeEmptyCopy().replaceSegments(0, 0, newSegments);
+  }
+  
+  @Override
+  public int getCapacity() {
+    // segments are always exactly sized
+    return size;
+  }
+  
+  @Override
+  public boolean hasFrontCapacity(int count) {
+    // padding is not used, a new segment is always created
+    return true;
+  }
+  
+  @Override
+  public boolean hasRearCapacity(int count) {
+    // padding is not used, a new segment is always created
+    return true;
+  }
+  
+  @Override
+  public SegmentedDataSet<T> compact() {
+    return this;
+  }
+  
+  @Override
+  public SegmentedDataSet<T> replaceAll(Object[] items) {
+    return makeEmptyCopy().replaceSegments(0, 0, toSegments(items));
+  }
+  
+  @Override
+  public void copyInto(Object[] destination) {
+    int position = 0;
+    for (Object[] segment : segments) {
+      System.arraycopy(segment, 0, destination, position, segment.length);
+      position += segment.length;
+    }
+  }
+  
+  @Override
+  public SegmentedDataSet<T> trimToSize() {
+    // segments are always exactly sized
+    return this;
+  }
+  
+  @Override
+  public SegmentedDataSet<T> reposition(int origCurrentIndex, int origNewIndex) {
+    if (size == 1 || origCurrentIndex == origNewIndex || 
+        (origNewIndex == size && origCurrentIndex == size - 1)) {
+      // no-op
+      return this;
+    }
+    
+    T item = get(origCurrentIndex);
+    if (origNewIndex > origCurrentIndex) {
+      // removal shifts the destination left
+      return remove(origCurrentIndex).add(origNewIndex - 1, item);
+    } else {
+      return remove(origCurrentIndex).add(origNewIndex, item);
+    }
+  }
+  
+  @SuppressWarnings("unchecked")
+  @Override
+  public T get(int index) {
+    if (index < 0 || index >= size) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    
+    int segment = segmentIndex(index);
+    return (T)segments[segment][index - segmentStart(segment)];
+  }
+  
+  @Override
+  public int indexOf(Object o) {
+    int start = 0;
+    for (Object[] segment : segments) {
+      for (int i = 0; i < segment.length; i++) {
+        if (segment[i].equals(o)) {
+          return start + i;
+        }
+      }
+      start += segment.length;
+    }
+    
+    return -1;
+  }
+  
+  @Override
+  public int lastIndexOf(Object o) {
+    for (int s = segments.length - 1; s >= 0; s--) {
+      Object[] segment = segments[s];
+      for (int i = segment.length - 1; i >= 0; i--) {
+        if (segment[i].equals(o)) {
+          return segmentStart(s) + i;
+        }
+      }
+    }
+    
+    return -1;
+  }
+  
+  @Override
+  public SegmentedDataSet<T> set(int index, T element) {
+    if (index == size) {
+      return addToEnd(element);
+    }
+    
+    int segment = segmentIndex(index);
+    Object[] newSegment = segments[segment].clone();
+    newSegment[index - segmentStart(segment)] = element;
+    
+    return replaceSegments(segment, segment + 1, new Object[][] { newSegment });
+  }
+  
+  @Override
+  public SegmentedDataSet<T> addToFront(T e) {
+    return add(0, e);
+  }
+  
+  @Override
+  public SegmentedDataSet<T> addToEnd(T e) {
+    return add(size, e);
+  }
+  
+  @Override
+  public SegmentedDataSet<T> add(int origIndex, T element) {
+    if (segments.length == 0) {
+      return replaceSegments(0, 0, new Object[][] { new Object[] { element } });
+    } else if (origIndex == size && segments[segments.length - 1].length >= MAX_SEGMENT_SIZE) {
+      // start a new segment rather than splitting the full one
+      return replaceSegments(segments.length, segments.length, 
+                             new Object[][] { new Object[] { element } });
+    } else if (origIndex == 0 && segments[0].length >= MAX_SEGMENT_SIZE) {
+      return replaceSegments(0, 0, new Object[][] { new Object[] { element } });
+    }
+    
+    int segment = origIndex == size ? segments.length - 1 : segmentIndex(origIndex);
+    Object[] source = segments[segment];
+    int offset = origIndex - segmentStart(segment);
+    Object[] newSegment = new Object[source.length + 1];
+    System.arraycopy(source, 0, newSegment, 0, offset);
+    newSegment[offset] = element;
+    System.arraycopy(source, offset, newSegment, offset + 1, source.length - offset);
+    
+    return replaceSegments(segment, segment + 1, toSegments(newSegment));
+  }
+  
+  @Override
+  public SegmentedDataSet<T> addAll(int origIndex, Collection<? extends T> c) {
+    if (c == null || c.isEmpty()) {
+      return this;
+    }
+    
+    Object[] toAdd = c.toArray();
+    if (segments.length == 0) {
+      return replaceSegments(0, 0, toSegments(toAdd));
+    }
+    
+    int segment = origIndex == size ? segments.length - 1 : segmentIndex(origIndex);
+    Object[] source = segments[segment];
+    int offset = origIndex - segmentStart(segment);
+    Object[] newItems = new Object[source.length + toAdd.length];
+    System.arraycopy(source, 0, newItems, 0, offset);
+    System.arraycopy(toAdd, 0, newItems, offset, toAdd.length);
+    System.arraycopy(source, offset, newItems, offset + toAdd.length, source.length - offset);
+    
+    return replaceSegments(segment, segment + 1, toSegments(newItems));
+  }
+  
+  @Override
+  public SegmentedDataSet<T> remove(int origIndex) {
+    int segment = segmentIndex(origIndex);
+    Object[] source = segments[segment];
+    int offset = origIndex - segmentStart(segment);
+    int fromSegment = segment;
+    int toSegment = segment + 1;
+    Object[] before = EMPTY_ARRAY;
+    Object[] after = EMPTY_ARRAY;
+    if (source.length - 1 < MERGE_SEGMENT_SIZE) {
+      // merge with a neighbor to avoid the set becoming fragmented into many small segments
+      if (toSegment < segments.length && 
+          segments[toSegment].length + source.length - 1 <= MAX_SEGMENT_SIZE) {
+        after = segments[toSegment++];
+      } else if (fromSegment > 0 && 
+                 segments[fromSegment - 1].length + source.length - 1 <= MAX_SEGMENT_SIZE) {
+        before = segments[--fromSegment];
+      }
+    }
+    
+    Object[] newItems = new Object[before.length + source.length - 1 + after.length];
+    System.arraycopy(before, 0, newItems, 0, before.length);
+    System.arraycopy(source, 0, newItems, before.length, offset);
+    System.arraycopy(source, offset + 1, 
+                     newItems, before.length + offset, source.length - offset - 1);
+    System.arraycopy(after, 0, newItems, before.length + source.length - 1, after.length);
+    
+    return replaceSegments(fromSegment, toSegment, toSegments(newItems));
+  }
+  
+  @Override
+  public SegmentedDataSet<T> removeRange(int fromIndex, int toIndex) {
+    if (fromIndex == toIndex) {
+      return this;
+    } else if (fromIndex == 0) {
+      return subSet(toIndex, size);
+    } else if (toIndex == size) {
+      return subSet(0, fromIndex);
+    }
+    
+    // only the segments the range starts and ends in need to be copied
+    int firstSegment = segmentIndex(fromIndex);
+    int lastSegment = segmentIndex(toIndex - 1);
+    Object[] first = segments[firstSegment];
+    Object[] last = segments[lastSegment];
+    int keptFront = fromIndex - segmentStart(firstSegment);
+    int keptRearStart = toIndex - segmentStart(lastSegment);
+    Object[] newItems = new Object[keptFront + last.length - keptRearStart];
+    System.arraycopy(first, 0, newItems, 0, keptFront);
+    System.arraycopy(last, keptRearStart, newItems, keptFront, last.length - keptRearStart);
+    
+    return replaceSegments(firstSegment, lastSegment + 1, toSegments(newItems));
+  }
+  
+  @Override
+  public SegmentedDataSet<T> mergeSorted(Object[] sortedToAdd, Comparator<? super T> comparator) {
+    Object[] newItems = new Object[size + sortedToAdd.length];
+    mergeSortedInto(sortedToAdd, comparator, newItems, 0);
+    
+    return replaceSegments(0, segments.length, toSegments(newItems));
+  }
+  
+  @Override
+  public SegmentedDataSet<T> removeAll(Collection<?> c) {
+    return filter(c, false);
+  }
+  
+  @Override
+  public SegmentedDataSet<T> retainAll(Collection<?> c) {
+    return filter(c, true);
+  }
+  
+  /**
+   * Produces a set which only contains items which are either contained or not contained in the 
+   * provided collection.
+   * 
+   * @param c Collection to check items against
+   * @param retain {@code true} to keep items contained in the collection
+   * @return A new {@link SegmentedDataSet} which represents the change, or this reference if unmodified
+   */
+  private SegmentedDataSet<T> filter(Collection<?> c, boolean retain) {
+    Object[] keptItems = new Object[size];
+    int keptCount = 0;
+    for (Object[] segment : segments) {
+      for (Object item : segment) {
+        if (c.contains(item) == retain) {
+          keptItems[keptCount++] = item;
+        }
+      }
+    }
+    
+    if (keptCount == size) {
+      return this;
+    } else {
+      return replaceSegments(0, segments.length, toSegments(Arrays.copyOf(keptItems, keptCount)));
+    }
+  }
+  
+  @SuppressWarnings("rawtypes")
+  @Override
+  public boolean equalsExactly(DataSet ds) {
+    if (this == ds) {
+      return true;
+    } else if (ds instanceof SegmentedDataSet) {
+      SegmentedDataSet sds = (SegmentedDataSet)ds;
+      return Arrays.equals(segmentEnds, sds.segmentEnds) && 
+               Arrays.deepEquals(segments, sds.segments);
+    } else {
+      return false;
+    }
+  }
+  
+  @Override
+  public int hashCode() {
+    int hashCode = 1;
+    for (Object[] segment : segments) {
+      for (Object obj : segment) {
+        hashCode = HASH_CODE_PRIME_NUMBER * hashCode + (obj == null ? 0 : obj.hashCode());
+      }
+    }
+    
+    return hashCode;
+  }
+  
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    
+    result.append('[');
+    for (int i = 0; i < segments.length; i++) {
+      if (i != 0) {
+        result.append(", ");
+      }
+      result.append(segmentStart(i)).append('-').append(Arrays.toString(segments[i]));
+    }
+    result.append(']');
+    
+    return result.toString();
+  }
+}
@@ -1,5 +1,10 @@
 package org.threadly.concurrent.future;
 
+import java.util.concurrent.Executor;
+
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
+
 /**
  * <p>Abstract class for futures that can't be canceled.</p>
  * 
@@ -23,4 +28,62 @@ abstract class AbstractNoncancelableListenableFuture<T> implements ListenableFut
   public boolean isCancelled() {
     return false;
   }
+
+  @Override
+  public <R> ListenableFuture<R> map(Function<? super T, ? extends R> mapper) {
+    return map(mapper, null);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> map(Function<? super T, ? extends R> mapper, Executor executor) {
+    return InternalFutureUtils.map(this, mapper, executor);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> flatMap(Function<? super T, ? extends ListenableFuture<R>> mapper) {
+    return flatMap(mapper, null);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> flatMap(Function<? super T, ? extends ListenableFuture<R>> mapper, 
+                                         Executor executor) {
+    return InternalFutureUtils.flatMap(this, mapper, executor);
+  }
+
+  @Override
+  public <TT extends Throwable> ListenableFuture<T> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends T> mapper) {
+    return mapFailure(throwableType, mapper, null);
+  }
+
+  @Override
+  public <TT extends Throwable> ListenableFuture<T> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends T> mapper, 
+                                                               Executor executor) {
+    return InternalFutureUtils.mapFailure(this, throwableType, mapper, executor);
+  }
+
+  @Override
+  public ListenableFuture<T> resultCallback(Consumer<? super T> callback) {
+    return resultCallback(callback, null);
+  }
+
+  @Override
+  public ListenableFuture<T> resultCallback(Consumer<? super T> callback, Executor executor) {
+    InternalFutureUtils.resultCallback(this, callback, executor);
+    
+    return this;
+  }
+
+  @Override
+  public ListenableFuture<T> failureCallback(Consumer<Throwable> callback) {
+    return failureCallback(callback, null);
+  }
+
+  @Override
+  public ListenableFuture<T> failureCallback(Consumer<Throwable> callback, Executor executor) {
+    InternalFutureUtils.failureCallback(this, callback, executor);
+    
+    return this;
+  }
 }
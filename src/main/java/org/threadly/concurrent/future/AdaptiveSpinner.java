@@ -0,0 +1,112 @@
+package org.threadly.concurrent.future;
+
+import java.util.concurrent.Future;
+
+/**
+ * <p>Bounded busy spin used before a thread blocks waiting on a future.  For request / response 
+ * style usage the result is often set only microseconds after {@code get()} is invoked, at which 
+ * point parking (and the unpark from the completing thread) is much more expensive than a short 
+ * spin.</p>
+ * 
+ * <p>The spin length adapts to how futures are actually completing.  Each time a spin observes 
+ * the future complete the allowed spin is doubled (up to {@link #MAXIMUM_SPIN_COUNT}), each time 
+ * a spin fails and the thread must block the allowed spin is halved.  This state is shared by 
+ * all futures, and is only written when it changes.  On single processor systems spinning can 
+ * only delay the completing thread, so no spinning will be done.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ */
+final class AdaptiveSpinner {
+  /**
+   * Most iterations a thread will spin checking for completion before blocking.
+   */
+  static final int MAXIMUM_SPIN_COUNT;
+  /**
+   * Lowest the spin will adapt down to, so that it is still possible to adapt back up.
+   */
+  static final int MINIMUM_SPIN_COUNT = 16;
+  /**
+   * Timed waits shorter than this will not spin, but instead go directly to blocking.
+   */
+  static final long SPIN_FOR_TIMEOUT_THRESHOLD_NANOS = 1000L;
+  private static volatile int maxSpinCount;
+  private static volatile int currentSpinCount;
+  
+  static {
+    MAXIMUM_SPIN_COUNT = Runtime.getRuntime().availableProcessors() > 1 ? 1 << 10 : 0;
+    maxSpinCount = MAXIMUM_SPIN_COUNT;
+    currentSpinCount = Math.min(MINIMUM_SPIN_COUNT, MAXIMUM_SPIN_COUNT);
+  }
+  
+  private AdaptiveSpinner() {
+    // don't construct
+  }
+  
+  /**
+   * Changes the maximum spin.  Setting this to zero disables spinning.  This is primarily for 
+   * testing and benchmarking.
+   * 
+   * @param maximumSpinCount Maximum spin iterations, zero or greater
+   */
+  static void setMaximumSpinCount(int maximumSpinCount) {
+    maxSpinCount = Math.max(0, maximumSpinCount);
+    currentSpinCount = Math.min(MINIMUM_SPIN_COUNT, maxSpinCount);
+  }
+  
+  /**
+   * Spins for a bounded time waiting for the future to complete.  The spin is short enough that 
+   * interrupts do not need to be checked.
+   * 
+   * @param future Future to check for completion
+   * @return {@code true} if the future is done
+   */
+  static boolean spinTillDone(Future<?> future) {
+    if (future.isDone()) {
+      return true;
+    }
+    int spinCount = currentSpinCount;
+    if (spinCount == 0) {
+      return false;
+    }
+    
+    for (int i = 0; i < spinCount; i++) {
+      if (future.isDone()) {
+        if (spinCount < maxSpinCount) {
+          currentSpinCount = Math.min(maxSpinCount, spinCount * 2);
+        }
+        return true;
+      }
+    }
+    
+    if (spinCount > MINIMUM_SPIN_COUNT) {
+      currentSpinCount = Math.max(MINIMUM_SPIN_COUNT, spinCount / 2);
+    }
+    return future.isDone();
+  }
+  
+  /**
+   * Spins for a bounded time waiting for the future to complete, only if the timeout is long 
+   * enough to make a spin worthwhile.
+   * 
+   * @param future Future to check for completion
+   * @param timeoutNanos Maximum time the caller is willing to wait
+   * @return {@code true} if the future is done
+   */
+  static boolean spinTillDone(Future<?> future, long timeoutNanos) {
+    if (timeoutNanos < SPIN_FOR_TIMEOUT_THRESHOLD_NANOS) {
+      return future.isDone();
+    } else {
+      return spinTillDone(future);
+    }
+  }
+  
+  /**
+   * Returns the current amount a waiting thread will spin before blocking.
+   * 
+   * @return Current spin iterations
+   */
+  static int getCurrentSpinCount() {
+    return currentSpinCount;
+  }
+}
@@ -170,6 +170,11 @@ public class ChainedRunnableListenableFuture<T> extends AbstractNoncancelableLis
     return settableFuture.isDone();
   }
 
+  @Override
+  public boolean isCompletedNormally() {
+    return settableFuture.isCompletedNormally();
+  }
+
   @Override
   public T get() throws InterruptedException, ExecutionException {
     return settableFuture.get();
@@ -76,12 +76,19 @@ public class ClearOnGetSettableListenableFuture<T> extends SettableListenableFut
    */
   @Override
   public T get() throws InterruptedException, ExecutionException {
+    boolean interruptThrown = false;
     try {
       T result = super.get();
     
       return result;
+    } catch (InterruptedException e) {
+      interruptThrown = true;
+      throw e;
     } finally {
-      clearResult();
+      // we can't clear if we were interrupted, because the result may not have been set
+      if (! interruptThrown) {
+        clearResult();
+      }
     }
   }
 
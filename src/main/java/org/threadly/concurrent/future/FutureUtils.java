@@ -1,19 +1,27 @@
 package org.threadly.concurrent.future;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 
-import org.threadly.concurrent.collections.ConcurrentArrayList;
+import org.threadly.concurrent.HashedWheelTimer;
+import org.threadly.concurrent.SubmitterScheduler;
+import org.threadly.util.ArgumentVerifier;
 import org.threadly.util.Clock;
+import org.threadly.util.Consumer;
 
 /**
  * <p>A collection of small utilities for handling futures.</p>
@@ -22,6 +30,10 @@ import org.threadly.util.Clock;
  * @since 1.0.0
  */
 public class FutureUtils {
+  private static final Map<SubmitterScheduler, TimeoutTimerReference> TIMEOUT_TIMERS = 
+      new WeakHashMap<SubmitterScheduler, TimeoutTimerReference>();
+  private static volatile TimeoutTimerReference lastTimeoutTimer = null;
+  
   /**
    * This call blocks till all futures in the list have completed.  If the future completed with 
    * an error, the {@link ExecutionException} is swallowed.  Meaning that this does not attempt to 
@@ -258,24 +270,7 @@ public class FutureUtils {
    */
   public static <T> ListenableFuture<T> makeCompleteFuture(Iterable<? extends ListenableFuture<?>> futures, 
                                                            final T result) {
-    final EmptyFutureCollection efc = new EmptyFutureCollection(futures);
-    final SettableListenableFuture<T> resultFuture = new CancelDelegateSettableListenableFuture<T>(efc);
-    efc.addCallback(new FutureCallback<Object>() {
-      @Override
-      public void handleResult(Object ignored) {
-        resultFuture.setResult(result);
-      }
-
-      @Override
-      public void handleFailure(Throwable t) {
-        if (t instanceof CancellationException) {
-          // should be canceled via CancelDelegateSettableListenableFuture
-        } else {
-          resultFuture.setFailure(t);
-        }
-      }
-    });
-    return resultFuture;
+    return new CompleteFutureCollection<T>(futures, result);
   }
   
   /**
@@ -364,46 +359,280 @@ public class FutureUtils {
    */
   public static <T> ListenableFuture<List<T>> 
       makeResultListFuture(Iterable<? extends ListenableFuture<? extends T>> futures, 
-                           final boolean ignoreFailedFutures) {
+                           boolean ignoreFailedFutures) {
     if (futures == null) {
       return immediateResultFuture(Collections.<T>emptyList());
     }
     
-    ListenableFuture<List<ListenableFuture<? extends T>>> completeFuture = makeCompleteListFuture(futures);
-    final SettableListenableFuture<List<T>> result;
-    result = new CancelDelegateSettableListenableFuture<List<T>>(completeFuture);
+    return new ResultListFutureCollection<T>(futures, ignoreFailedFutures);
+  }
+  
+  /**
+   * Returns a future which will complete with the result of the first provided future to 
+   * complete.  This call does NOT block, and the cost of watching each future is constant, so it 
+   * is cheap to race a large number of futures.  
+   * 
+   * If called with {@code true} for {@code ignoreFailedFutures} then futures which fail (or are 
+   * canceled) will be ignored, and the returned future will complete with the first successful 
+   * result.  Only if every future fails will the returned future fail, with the last failure 
+   * as the cause.  If called with {@code false} the returned future will complete with whatever 
+   * the first future to complete produced, result or failure.  
+   * 
+   * If {@code cancelRemaining} is {@code true}, once a result is produced any futures which are 
+   * still not done will be canceled (without interruption).  If {@link ListenableFuture#cancel(boolean)} 
+   * is invoked on the returned future, all provided futures will attempt to be canceled in the 
+   * same way.
+   * 
+   * @since 4.6.0
+   * 
+   * @param <T> The result object type returned from the futures
+   * @param futures Structure of futures to race, must contain at least one future
+   * @param ignoreFailedFutures {@code true} to only complete with the first successful result
+   * @param cancelRemaining {@code true} to cancel the remaining futures once a result is produced
+   * @return A {@link ListenableFuture} which will provide the first result from the provided futures
+   */
+  public static <T> ListenableFuture<T> 
+      makeFirstResultFuture(Iterable<? extends ListenableFuture<? extends T>> futures, 
+                            boolean ignoreFailedFutures, boolean cancelRemaining) {
+    if (futures == null || ! futures.iterator().hasNext()) {
+      throw new IllegalArgumentException("Must provide at least one future");
+    }
     
-    completeFuture.addCallback(new FutureCallback<List<ListenableFuture<? extends T>>>() {
-      @Override
-      public void handleResult(List<ListenableFuture<? extends T>> resultFutures) {
-        ArrayList<T> results = new ArrayList<T>(resultFutures.size());
-        Iterator<ListenableFuture<? extends T>> it = resultFutures.iterator();
-        while (it.hasNext()) {
-          try {
-            results.add(it.next().get());
-          } catch (Exception e) {
-            if (! ignoreFailedFutures) {
-              result.setFailure(e);
-              return;
-            }
-          }
-        }
-        result.setResult(results);
-      }
-
-      @Override
-      public void handleFailure(Throwable t) {
-        if (t instanceof CancellationException) {
-          // should be canceled via CancelDelegateSettableListenableFuture
-        } else {
-          result.setFailure(t);
-        }
-      }
-    });
+    return new FirstResultFuture<T>(futures, ignoreFailedFutures, cancelRemaining);
+  }
+  
+  /**
+   * Provides the results of the provided futures to a {@link Consumer} as each future completes, 
+   * rather than waiting for all futures to complete and collecting the results into a list.  
+   * This call does NOT block, instead the returned future will complete once all the provided 
+   * futures have completed and their results have been provided to the consumer.  
+   * 
+   * The consumer is invoked on the thread which completes each future, and thus may be invoked 
+   * concurrently.  If the consumer throws an exception, the returned future will fail with that 
+   * exception and no further results will be provided.  
+   * 
+   * If called with {@code true} for {@code ignoreFailedFutures} futures which fail (or are 
+   * canceled) will be skipped.  If called with {@code false}, the first failure will complete 
+   * the returned future with that failure as the cause, and no further results will be provided.  
+   * 
+   * If {@link ListenableFuture#cancel(boolean)} is invoked on the returned future, all provided 
+   * futures will attempt to be canceled in the same way.
+   * 
+   * @since 4.6.0
+   * 
+   * @param <T> The result object type returned from the futures
+   * @param futures Structure of futures to iterate over and stream results from
+   * @param resultConsumer Consumer to be provided each result as it becomes available
+   * @param ignoreFailedFutures {@code true} to ignore any future failures
+   * @return A {@link ListenableFuture} which will be done once all results have been consumed
+   */
+  public static <T> ListenableFuture<?> 
+      makeStreamingResultFuture(Iterable<? extends ListenableFuture<? extends T>> futures, 
+                                Consumer<? super T> resultConsumer, boolean ignoreFailedFutures) {
+    ArgumentVerifier.assertNotNull(resultConsumer, "resultConsumer");
+    if (futures == null) {
+      return immediateResultFuture(null);
+    }
+    
+    return new StreamingFutureCollection<T>(futures, resultConsumer, ignoreFailedFutures);
+  }
+  
+  /**
+   * Returns a future which will complete with the result of the provided future, unless the 
+   * timeout elapses first.  In that case the returned future will fail with a 
+   * {@link TimeoutException} as the cause, and the provided future will be canceled (without 
+   * interruption).  If the provided future is already done it will be returned directly.  
+   * 
+   * Timeouts are tracked on a {@link HashedWheelTimer} shared by all calls which provide the same 
+   * scheduler.  Registering the timeout is {@code O(1)}, and it is removed as soon as the future 
+   * completes, so it is cheap to attach a timeout to a large number of futures.  Timeouts may 
+   * fire up to {@link HashedWheelTimer#DEFAULT_TICK_MILLIS} late.  If the returned future is 
+   * canceled the provided future will be canceled as well.
+   * 
+   * @since 4.6.0
+   * 
+   * @param <T> The result object type returned from the future
+   * @param future Future to apply a timeout to
+   * @param timeoutInMillis Time in milliseconds to wait for the future to complete
+   * @param scheduler Scheduler to run the timer on
+   * @return A future which completes with the result, or fails with a {@link TimeoutException}
+   */
+  public static <T> ListenableFuture<T> withTimeout(ListenableFuture<T> future, long timeoutInMillis, 
+                                                    SubmitterScheduler scheduler) {
+    ArgumentVerifier.assertNotNull(future, "future");
+    if (future.isDone()) {
+      return future;
+    }
+    
+    return makeTimeoutFuture(future, timeoutInMillis, true, null, null, true, scheduler);
+  }
+  
+  /**
+   * Returns a future which will complete with the result of the provided future, or with the 
+   * provided default result if the timeout elapses first.  The provided future is NOT canceled 
+   * on timeout, so its result may still be used by other listeners.  See 
+   * {@link #withTimeout(ListenableFuture, long, SubmitterScheduler)} for details on how the 
+   * timeout is tracked.
+   * 
+   * @since 4.6.0
+   * 
+   * @param <T> The result object type returned from the future
+   * @param future Future to apply a timeout to
+   * @param timeoutInMillis Time in milliseconds to wait for the future to complete
+   * @param defaultResult Result to provide if the timeout elapses
+   * @param scheduler Scheduler to run the timer on
+   * @return A future which completes with the result from the provided future or the default
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> ListenableFuture<T> orDefaultAfter(ListenableFuture<? extends T> future, 
+                                                       long timeoutInMillis, T defaultResult, 
+                                                       SubmitterScheduler scheduler) {
+    ArgumentVerifier.assertNotNull(future, "future");
+    if (future.isDone()) {
+      return (ListenableFuture<T>)future;
+    }
+    
+    return makeTimeoutFuture(future, timeoutInMillis, false, null, defaultResult, false, scheduler);
+  }
+  
+  /**
+   * Returns a future which will complete with the result of the provided future, or fail with 
+   * the provided failure if the timeout elapses first.  The provided future is NOT canceled on 
+   * timeout.  See {@link #withTimeout(ListenableFuture, long, SubmitterScheduler)} for details 
+   * on how the timeout is tracked.
+   * 
+   * @since 4.6.0
+   * 
+   * @param <T> The result object type returned from the future
+   * @param future Future to apply a timeout to
+   * @param timeoutInMillis Time in milliseconds to wait for the future to complete
+   * @param failure Failure to provide if the timeout elapses, or {@code null} for a {@link TimeoutException}
+   * @param scheduler Scheduler to run the timer on
+   * @return A future which completes with the result from the provided future or the failure
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> ListenableFuture<T> failAfter(ListenableFuture<? extends T> future, 
+                                                  long timeoutInMillis, Throwable failure, 
+                                                  SubmitterScheduler scheduler) {
+    ArgumentVerifier.assertNotNull(future, "future");
+    if (future.isDone()) {
+      return (ListenableFuture<T>)future;
+    }
+    
+    return makeTimeoutFuture(future, timeoutInMillis, true, failure, null, false, scheduler);
+  }
+  
+  private static <T> ListenableFuture<T> makeTimeoutFuture(ListenableFuture<? extends T> future, 
+                                                           long timeoutInMillis, boolean failOnTimeout, 
+                                                           Throwable failure, T defaultResult, 
+                                                           boolean cancelSource, 
+                                                           SubmitterScheduler scheduler) {
+    ArgumentVerifier.assertNotNegative(timeoutInMillis, "timeoutInMillis");
+    
+    InternalFutureUtils.TimeoutListenableFuture<T> result = 
+        new InternalFutureUtils.TimeoutListenableFuture<T>(future, getTimeoutTimer(scheduler), 
+                                                           timeoutInMillis, failOnTimeout, failure, 
+                                                           defaultResult, cancelSource);
+    future.addListener(result);
+    return result;
+  }
+  
+  /**
+   * Runs the provided task on the scheduler, retrying it if it fails.  Retries are scheduled 
+   * after a delay which grows exponentially with each failure, with random jitter applied (see 
+   * {@link RetryPolicy}).  The returned future will complete with the first successful result, or 
+   * with the last failure once the policy stops retrying.  Canceling the returned future will 
+   * prevent any further attempts, and cancel the current attempt.
+   * 
+   * @since 4.6.0
+   * 
+   * @param <T> The result object type returned from the task
+   * @param scheduler Scheduler to run the task on
+   * @param task Task to run, and retry on failure
+   * @param policy Policy for how many times, and how quickly, to retry
+   * @return A future which will complete once the task succeeds or stops being retried
+   */
+  public static <T> ListenableFuture<T> scheduleWithRetry(SubmitterScheduler scheduler, 
+                                                          Callable<? extends T> task, 
+                                                          RetryPolicy policy) {
+    ArgumentVerifier.assertNotNull(scheduler, "scheduler");
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNull(policy, "policy");
     
+    InternalFutureUtils.RetryListenableFuture<T> result = 
+        new InternalFutureUtils.RetryListenableFuture<T>(scheduler, task, policy);
+    result.startAttempt(0);
     return result;
   }
   
+  /**
+   * Runs the provided task on the scheduler, starting an additional (hedged) attempt each time 
+   * the hedge delay passes without a result.  The first attempt to succeed provides the result, 
+   * and all other attempts will then be canceled (with interruption).  This reduces tail 
+   * latency for idempotent tasks where a single slow execution (for example a request to an 
+   * overloaded server) should not hold up the caller.  
+   * 
+   * If an attempt fails, another attempt will be started immediately (if any remain).  The 
+   * returned future will only fail once all attempts have failed, with the last failure as the 
+   * cause.  Canceling the returned future will cancel all attempts.
+   * 
+   * @since 4.6.0
+   * 
+   * @param <T> The result object type returned from the task
+   * @param scheduler Scheduler to run the task on
+   * @param task Task to run, must be safe to run multiple times concurrently
+   * @param hedgeDelayInMillis Time in milliseconds to wait for a result before starting another attempt
+   * @param maxAttempts Maximum number of times the task may be started
+   * @return A future which will complete with the first successful result
+   */
+  public static <T> ListenableFuture<T> hedge(SubmitterScheduler scheduler, 
+                                              Callable<? extends T> task, 
+                                              long hedgeDelayInMillis, int maxAttempts) {
+    ArgumentVerifier.assertNotNull(scheduler, "scheduler");
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(hedgeDelayInMillis, "hedgeDelayInMillis");
+    ArgumentVerifier.assertGreaterThanZero(maxAttempts, "maxAttempts");
+    
+    InternalFutureUtils.HedgeListenableFuture<T> result = 
+        new InternalFutureUtils.HedgeListenableFuture<T>(scheduler, task, 
+                                                         hedgeDelayInMillis, maxAttempts);
+    result.startAttempt();
+    return result;
+  }
+  
+  /**
+   * Returns the {@link HashedWheelTimer} shared for timeouts on the provided scheduler.  Timers 
+   * are only weakly referenced, since an idle timer has no state it can be recreated if needed.
+   * 
+   * @param scheduler Scheduler the timer should run on
+   * @return Timer for the provided scheduler
+   */
+  protected static HashedWheelTimer getTimeoutTimer(SubmitterScheduler scheduler) {
+    ArgumentVerifier.assertNotNull(scheduler, "scheduler");
+    
+    // fast path for the common case of a single scheduler used for timeouts
+    TimeoutTimerReference lastTimer = lastTimeoutTimer;
+    if (lastTimer != null && lastTimer.scheduler.get() == scheduler) {
+      HashedWheelTimer timer = lastTimer.get();
+      if (timer != null) {
+        return timer;
+      }
+    }
+    
+    HashedWheelTimer timer;
+    synchronized (TIMEOUT_TIMERS) {
+      TimeoutTimerReference ref = TIMEOUT_TIMERS.get(scheduler);
+      timer = ref == null ? null : ref.get();
+      if (timer == null) {
+        timer = new HashedWheelTimer(scheduler);
+        ref = new TimeoutTimerReference(scheduler, timer);
+        TIMEOUT_TIMERS.put(scheduler, ref);
+      }
+      lastTimeoutTimer = ref;
+    }
+    return timer;
+  }
+  
   /**
    * Invoked {@link Future#cancel(boolean)} for every future in this collection.  Thus if there 
    * are any futures which have not already completed, they will now be marked as canceled.
@@ -427,7 +656,9 @@ public class FutureUtils {
    * Thus the resulting future can not error, block, or be canceled.  
    * 
    * If {@code null} is provided here the static instance of 
-   * {@link ImmediateResultListenableFuture#NULL_RESULT} will be returned to reduce GC overhead.
+   * {@link ImmediateResultListenableFuture#NULL_RESULT} will be returned to reduce GC overhead.  
+   * Similarly {@link Boolean} results and {@link Collections#emptyList()} will return the 
+   * matching static instances (for example {@link ImmediateResultListenableFuture#BOOLEAN_TRUE_RESULT}).
    * 
    * @since 1.2.0
    * 
@@ -439,6 +670,14 @@ public class FutureUtils {
   public static <T> ListenableFuture<T> immediateResultFuture(T result) {
     if (result == null) {
       return (ListenableFuture<T>)ImmediateResultListenableFuture.NULL_RESULT;
+    } else if (result instanceof Boolean) {
+      if ((Boolean)result) {
+        return (ListenableFuture<T>)ImmediateResultListenableFuture.BOOLEAN_TRUE_RESULT;
+      } else {
+        return (ListenableFuture<T>)ImmediateResultListenableFuture.BOOLEAN_FALSE_RESULT;
+      }
+    } else if (result == Collections.EMPTY_LIST) {
+      return (ListenableFuture<T>)ImmediateResultListenableFuture.EMPTY_LIST_RESULT;
     } else {
       return new ImmediateResultListenableFuture<T>(result);
     }
@@ -459,6 +698,23 @@ public class FutureUtils {
     return new ImmediateFailureListenableFuture<T>(failure);
   }
   
+  /**
+   * <p>Weak reference to a timer used for timeouts, along with a weak reference to the scheduler 
+   * it runs on.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  private static class TimeoutTimerReference extends WeakReference<HashedWheelTimer> {
+    private final WeakReference<SubmitterScheduler> scheduler;
+    
+    public TimeoutTimerReference(SubmitterScheduler scheduler, HashedWheelTimer timer) {
+      super(timer);
+      
+      this.scheduler = new WeakReference<SubmitterScheduler>(scheduler);
+    }
+  }
+  
   /**
    * <p>Implementation of {@link SettableListenableFuture} which delegates it's cancel operation 
    * to a parent future.</p>
@@ -486,59 +742,91 @@ public class FutureUtils {
   }
   
   /**
-   * <p>A future implementation that will return a List of futures as the result.  The future will 
-   * not be satisfied till all provided futures have completed.</p>
+   * <p>Base class for futures which complete based off a collection of other futures.  The 
+   * provided futures are collected once at construction, and completion is tracked with a single 
+   * atomic countdown.  Watching a future costs a single listener, with no locking or shared 
+   * structure which could become contended for large collections.</p>
    * 
-   * @author jent - Mike Jensn
-   * @since 1.2.0
-   * @param <T> The result object type returned from the futures
+   * <p>Implementations must invoke {@link #listenToSourceFutures()} at the end of construction, 
+   * after any state needed by {@link #handleFutureDone(ListenableFuture)} has been initialized.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> The result object type returned from the source futures
+   * @param <R> The result object type returned from this future
    */
-  protected abstract static class FutureCollection<T> 
-      extends SettableListenableFuture<List<ListenableFuture<? extends T>>> {
+  protected abstract static class AbstractFutureCollection<T, R> extends SettableListenableFuture<R> {
     protected final AtomicInteger remainingResult;
-    private final AtomicReference<ConcurrentArrayList<ListenableFuture<? extends T>>> buildingResult;
-    private ArrayList<ListenableFuture<? extends T>> futures;
+    protected final int futureCount;
+    private volatile ArrayList<ListenableFuture<? extends T>> futures;
     
-    protected FutureCollection(Iterable<? extends ListenableFuture<? extends T>> source) {
+    protected AbstractFutureCollection(Iterable<? extends ListenableFuture<? extends T>> source) {
       super(false);
-      remainingResult = new AtomicInteger(0); // may go negative if results finish before all are added
-      buildingResult = new AtomicReference<ConcurrentArrayList<ListenableFuture<? extends T>>>(null);
-      futures = new ArrayList<ListenableFuture<? extends T>>();
       
-      if (source != null) {
+      ArrayList<ListenableFuture<? extends T>> futures;
+      if (source == null) {
+        futures = new ArrayList<ListenableFuture<? extends T>>(0);
+      } else if (source instanceof Collection) {
+        futures = new ArrayList<ListenableFuture<? extends T>>(
+                      (Collection<? extends ListenableFuture<? extends T>>)source);
+      } else {
+        futures = new ArrayList<ListenableFuture<? extends T>>();
         Iterator<? extends ListenableFuture<? extends T>> it = source.iterator();
         while (it.hasNext()) {
-          final ListenableFuture<? extends T> f = it.next();
-          futures.add(f);
+          futures.add(it.next());
+        }
+        futures.trimToSize();
+      }
+      this.futures = futures;
+      this.futureCount = futures.size();
+      this.remainingResult = new AtomicInteger(futureCount);
+    }
+    
+    /**
+     * Adds the listeners to the source futures.  This must be invoked once, after construction 
+     * has otherwise completed.
+     */
+    protected void listenToSourceFutures() {
+      ArrayList<ListenableFuture<? extends T>> futures = this.futures;
+      if (futureCount == 0) {
+        handleAllFuturesDone();
+      } else {
+        for (int i = 0; i < futureCount; i++) {
+          final ListenableFuture<? extends T> f = futures.get(i);
           f.addListener(new Runnable() {
             @Override
             public void run() {
-              handleFutureDone(f);
+              if (! isDone()) {
+                handleFutureDone(f);
+              }
               
               // all futures are now done
               if (remainingResult.decrementAndGet() == 0) {
-                setResult(getFinalResultList());
+                handleAllFuturesDone();
               }
             }
           });
         }
       }
       
-      futures.trimToSize();
-      
-      // we need to verify that all futures have not already completed
-      if (remainingResult.addAndGet(futures.size()) == 0) {
-        setResult(getFinalResultList());
-      }
-      
       this.addListener(new Runnable() {
         @Override
         public void run() {
-          futures = null;
+          AbstractFutureCollection.this.futures = null;
         }
       });
     }
     
+    /**
+     * Returns the source futures this future was constructed with.  This will return 
+     * {@code null} once this future has completed.
+     * 
+     * @return List of source futures or {@code null}
+     */
+    protected List<ListenableFuture<? extends T>> getSourceFutures() {
+      return futures;
+    }
+    
     @Override
     public boolean cancel(boolean interrupt) {
       // we need a copy in case canceling clears out the futures
@@ -552,58 +840,47 @@ public class FutureUtils {
     }
     
     /**
-     * Adds item to the result list.  This list may be lazily constructed and thus why you must add 
-     * through this function rather than directly on to the list.
-     */
-    protected void addResult(ListenableFuture<? extends T> f) {
-      List<ListenableFuture<? extends T>> list = buildingResult.get();
-      
-      if (list == null) {
-        int rearPadding = remainingResult.get();
-        if (rearPadding < 0) {
-          rearPadding *= -1;
-        }
-        
-        ConcurrentArrayList<ListenableFuture<? extends T>> newList;
-        newList = new ConcurrentArrayList<ListenableFuture<? extends T>>(0, rearPadding);
-        
-        if (buildingResult.compareAndSet(null, newList)) {
-          list = newList;
-          list.add(f);  // must add before updating the rear padding
-          if (rearPadding > 2) {
-            // set back to reasonable number after construction in hopes that we wont have to expand much
-            newList.setRearPadding(2);
-          }
-          return; // return so we don't add again
-        } else {
-          list = buildingResult.get();
-        }
-      }
-      
-      list.add(f);
-    }
-    
-    /**
-     * Gives the implementing class the option to save or check the completed future.
+     * Invoked as each source future completes.  This may be invoked concurrently.  Once this 
+     * future has completed (for example by failing early), this will no longer be invoked.
      * 
      * @param f {@link ListenableFuture} that has completed
      */
     protected abstract void handleFutureDone(ListenableFuture<? extends T> f);
-
+    
     /**
-     * Will only be called once, and all allocated resources can be freed after this point.
-     * 
-     * @return List to satisfy ListenableFuture result with
+     * Invoked once after every source future has completed (and been provided to 
+     * {@link #handleFutureDone(ListenableFuture)}).  Implementations are expected to complete 
+     * this future if they have not already.
      */
-    protected List<ListenableFuture<? extends T>> getFinalResultList() {
-      ConcurrentArrayList<ListenableFuture<? extends T>> resultsList = buildingResult.get();
-      if (resultsList == null) {
-        return Collections.emptyList();
-      } else {
-        buildingResult.lazySet(null);
-        resultsList.trimToSize();
-        return Collections.unmodifiableList(resultsList);
-      }
+    protected abstract void handleAllFuturesDone();
+  }
+  
+  /**
+   * <p>A future implementation that will complete with a provided result once all provided 
+   * futures have completed.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> The result object type returned from this future
+   */
+  protected static class CompleteFutureCollection<T> extends AbstractFutureCollection<Object, T> {
+    private final T result;
+    
+    protected CompleteFutureCollection(Iterable<? extends ListenableFuture<?>> source, T result) {
+      super(source);
+      
+      this.result = result;
+      listenToSourceFutures();
+    }
+
+    @Override
+    protected void handleFutureDone(ListenableFuture<?> f) {
+      // ignored
+    }
+
+    @Override
+    protected void handleAllFuturesDone() {
+      setResult(result);
     }
   }
   
@@ -614,19 +891,66 @@ public class FutureUtils {
    * @author jent - Mike Jensn
    * @since 1.2.0
    */
-  protected static class EmptyFutureCollection extends FutureCollection<Object> {
+  protected static class EmptyFutureCollection extends CompleteFutureCollection<Object> {
     protected EmptyFutureCollection(Iterable<? extends ListenableFuture<?>> source) {
+      super(source, null);
+    }
+  }
+  
+  /**
+   * <p>A future implementation that will return a List of futures as the result.  The future will 
+   * not be satisfied till all provided futures have completed.</p>
+   * 
+   * <p>Accepted futures are stored into an array which is allocated once for the maximum possible 
+   * size, the position to store into is reserved with an atomic increment.  The resulting list is 
+   * a view of that array, so no copying is done.</p>
+   * 
+   * @author jent - Mike Jensn
+   * @since 1.2.0
+   * @param <T> The result object type returned from the futures
+   */
+  protected abstract static class FutureCollection<T> 
+      extends AbstractFutureCollection<T, List<ListenableFuture<? extends T>>> {
+    private final AtomicInteger resultCount;
+    private ListenableFuture<? extends T>[] results;
+    
+    @SuppressWarnings("unchecked")
+    protected FutureCollection(Iterable<? extends ListenableFuture<? extends T>> source) {
       super(source);
+      
+      resultCount = new AtomicInteger(0);
+      results = (ListenableFuture<? extends T>[])new ListenableFuture<?>[futureCount];
+      listenToSourceFutures();
+    }
+    
+    /**
+     * Adds item to the result list.  This must be invoked at most once per source future.
+     * 
+     * @param f Future to include in the result
+     */
+    protected void addResult(ListenableFuture<? extends T> f) {
+      results[resultCount.getAndIncrement()] = f;
     }
 
     @Override
-    protected void handleFutureDone(ListenableFuture<?> f) {
-      // ignored
+    protected void handleAllFuturesDone() {
+      setResult(getFinalResultList());
     }
-    
-    @Override
-    protected List<ListenableFuture<?>> getFinalResultList() {
-      return null;
+
+    /**
+     * Will only be called once, and all allocated resources can be freed after this point.
+     * 
+     * @return List to satisfy ListenableFuture result with
+     */
+    protected List<ListenableFuture<? extends T>> getFinalResultList() {
+      ListenableFuture<? extends T>[] results = this.results;
+      this.results = null;
+      int count = resultCount.get();
+      if (count == 0) {
+        return Collections.emptyList();
+      } else {
+        return Collections.unmodifiableList(Arrays.asList(results).subList(0, count));
+      }
     }
   }
   
@@ -721,4 +1045,180 @@ public class FutureUtils {
       }
     }
   }
+  
+  /**
+   * <p>A future implementation which provides the results of the source futures as a list.  
+   * Results are stored directly into an array allocated for the maximum possible size, so no 
+   * intermediate future list or copying is needed.  Unless failures are ignored, this future 
+   * will fail as soon as any source future fails.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> The result object type returned from the futures
+   */
+  protected static class ResultListFutureCollection<T> extends AbstractFutureCollection<T, List<T>> {
+    private final boolean ignoreFailedFutures;
+    private final AtomicInteger resultCount;
+    private Object[] results;
+    
+    protected ResultListFutureCollection(Iterable<? extends ListenableFuture<? extends T>> source, 
+                                         boolean ignoreFailedFutures) {
+      super(source);
+      
+      this.ignoreFailedFutures = ignoreFailedFutures;
+      this.resultCount = new AtomicInteger(0);
+      this.results = new Object[futureCount];
+      listenToSourceFutures();
+    }
+
+    @Override
+    protected void handleFutureDone(ListenableFuture<? extends T> f) {
+      try {
+        T result = f.get();
+        results[resultCount.getAndIncrement()] = result;
+      } catch (InterruptedException e) {
+        /* should not be possible since this should only 
+         * be called once the future is already done
+         */
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        if (! ignoreFailedFutures) {
+          setFailure(e.getCause());
+        }
+      } catch (CancellationException e) {
+        if (! ignoreFailedFutures) {
+          setFailure(e);
+        }
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void handleAllFuturesDone() {
+      Object[] results = this.results;
+      this.results = null;
+      int count = resultCount.get();
+      if (count == 0) {
+        setResult(Collections.<T>emptyList());
+      } else {
+        setResult((List<T>)Arrays.asList(results).subList(0, count));
+      }
+    }
+  }
+  
+  /**
+   * <p>A future implementation which completes with the first result from the source 
+   * futures.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> The result object type returned from the futures
+   */
+  protected static class FirstResultFuture<T> extends AbstractFutureCollection<T, T> {
+    private final boolean ignoreFailedFutures;
+    private final boolean cancelRemaining;
+    private volatile Throwable lastFailure;
+    
+    protected FirstResultFuture(Iterable<? extends ListenableFuture<? extends T>> source, 
+                                boolean ignoreFailedFutures, boolean cancelRemaining) {
+      super(source);
+      
+      this.ignoreFailedFutures = ignoreFailedFutures;
+      this.cancelRemaining = cancelRemaining;
+      this.lastFailure = null;
+      listenToSourceFutures();
+    }
+
+    @Override
+    protected void handleFutureDone(ListenableFuture<? extends T> f) {
+      // must get a reference before completion clears it
+      List<ListenableFuture<? extends T>> futures = getSourceFutures();
+      try {
+        if (setResult(f.get()) && cancelRemaining) {
+          FutureUtils.cancelIncompleteFutures(futures, false);
+        }
+      } catch (InterruptedException e) {
+        /* should not be possible since this should only 
+         * be called once the future is already done
+         */
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        handleSourceFailure(e.getCause());
+      } catch (CancellationException e) {
+        handleSourceFailure(e);
+      }
+    }
+    
+    private void handleSourceFailure(Throwable t) {
+      if (ignoreFailedFutures) {
+        lastFailure = t;
+      } else {
+        setFailure(t);
+      }
+    }
+
+    @Override
+    protected void handleAllFuturesDone() {
+      // only possible to not be done if all futures failed
+      setFailure(lastFailure);
+    }
+  }
+  
+  /**
+   * <p>A future implementation which provides each source result to a {@link Consumer} as it 
+   * becomes available.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> The result object type returned from the futures
+   */
+  protected static class StreamingFutureCollection<T> extends AbstractFutureCollection<T, Object> {
+    private final Consumer<? super T> resultConsumer;
+    private final boolean ignoreFailedFutures;
+    
+    protected StreamingFutureCollection(Iterable<? extends ListenableFuture<? extends T>> source, 
+                                        Consumer<? super T> resultConsumer, 
+                                        boolean ignoreFailedFutures) {
+      super(source);
+      
+      this.resultConsumer = resultConsumer;
+      this.ignoreFailedFutures = ignoreFailedFutures;
+      listenToSourceFutures();
+    }
+
+    @Override
+    protected void handleFutureDone(ListenableFuture<? extends T> f) {
+      T result;
+      try {
+        result = f.get();
+      } catch (InterruptedException e) {
+        /* should not be possible since this should only 
+         * be called once the future is already done
+         */
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        if (! ignoreFailedFutures) {
+          setFailure(e.getCause());
+        }
+        return;
+      } catch (CancellationException e) {
+        if (! ignoreFailedFutures) {
+          setFailure(e);
+        }
+        return;
+      }
+      
+      try {
+        resultConsumer.accept(result);
+      } catch (Throwable t) {
+        setFailure(t);
+      }
+    }
+
+    @Override
+    protected void handleAllFuturesDone() {
+      setResult(null);
+    }
+  }
 }
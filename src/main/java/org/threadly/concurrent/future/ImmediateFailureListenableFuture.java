@@ -4,12 +4,21 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
+
 /**
  * <p>Completed implementation of {@link ListenableFuture} that will immediately provide a failure 
  * condition.  Meaning listeners added will immediately be ran/executed, {@link FutureCallback}'s 
  * will immediately get called with the throwable provided, and {@link #get()} will immediately 
  * throw an {@link ExecutionException}.</p>
  * 
+ * <p>Transformations (like {@link #mapFailure(Class, Function)}) which are not provided an 
+ * {@link Executor} are applied synchronously, returning an already completed future without 
+ * needing to add a listener.  Transformations of a result (like {@link #map(Function)}) will 
+ * return this same instance, since the failure will be the same.</p>
+ * 
  * @author jent - Mike Jensen
  * @since 1.3.0
  * @param <T> The result object type returned by this future
@@ -50,6 +59,70 @@ public class ImmediateFailureListenableFuture<T> extends AbstractImmediateListen
     }
   }
 
+  @Override
+  @SuppressWarnings("unchecked")
+  public <R> ListenableFuture<R> map(Function<? super T, ? extends R> mapper, Executor executor) {
+    ArgumentVerifier.assertNotNull(mapper, "mapper");
+    
+    // no result will ever be provided, so we can return ourselves as any type
+    return (ListenableFuture<R>)this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <R> ListenableFuture<R> flatMap(Function<? super T, ? extends ListenableFuture<R>> mapper, 
+                                         Executor executor) {
+    ArgumentVerifier.assertNotNull(mapper, "mapper");
+    
+    // no result will ever be provided, so we can return ourselves as any type
+    return (ListenableFuture<R>)this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <TT extends Throwable> ListenableFuture<T> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends T> mapper, 
+                                                               Executor executor) {
+    if (executor != null) {
+      return super.mapFailure(throwableType, mapper, executor);
+    }
+    ArgumentVerifier.assertNotNull(mapper, "mapper");
+    
+    if (throwableType != null && ! throwableType.isInstance(failure)) {
+      return this;
+    }
+    try {
+      return FutureUtils.<T>immediateResultFuture(mapper.apply((TT)failure));
+    } catch (Throwable t) {
+      return FutureUtils.immediateFailureFuture(t);
+    }
+  }
+
+  @Override
+  public ListenableFuture<T> resultCallback(Consumer<? super T> callback, Executor executor) {
+    ArgumentVerifier.assertNotNull(callback, "callback");
+    
+    // will never have a result
+    return this;
+  }
+
+  @Override
+  public ListenableFuture<T> failureCallback(Consumer<Throwable> callback, Executor executor) {
+    if (executor != null) {
+      return super.failureCallback(callback, executor);
+    }
+    ArgumentVerifier.assertNotNull(callback, "callback");
+    
+    callback.accept(failure);
+    
+    return this;
+  }
+
+  @Override
+  public boolean isCompletedNormally() {
+    return false;
+  }
+
   @Override
   public T get() throws ExecutionException {
     throw new ExecutionException(failure);
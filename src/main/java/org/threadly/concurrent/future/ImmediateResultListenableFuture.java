@@ -1,13 +1,23 @@
 package org.threadly.concurrent.future;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
+
 /**
  * <p>Completed implementation of {@link ListenableFuture} that will immediately return a result.  
  * Meaning listeners added will immediately be ran/executed, {@link FutureCallback}'s will 
  * immediately get called with the result provided, and {@link #get()} calls will never block.</p>
  * 
+ * <p>Transformations (like {@link #map(Function)}) which are not provided an {@link Executor} 
+ * are applied synchronously, returning an already completed future without needing to add a 
+ * listener.</p>
+ * 
  * @author jent - Mike Jensen
  * @since 1.3.0
  * @param <T> The result object type returned by this future
@@ -22,9 +32,37 @@ public class ImmediateResultListenableFuture<T> extends AbstractImmediateListena
    * @since 4.2.0
    */
   public static final ImmediateResultListenableFuture<?> NULL_RESULT;
+  /**
+   * Static instance of {@link ImmediateResultListenableFuture} which provides a 
+   * {@link Boolean#TRUE} result.  {@link FutureUtils#immediateResultFuture(Object)} will return 
+   * this instance when provided any {@code true} {@link Boolean}.
+   * 
+   * @since 4.6.0
+   */
+  public static final ImmediateResultListenableFuture<Boolean> BOOLEAN_TRUE_RESULT;
+  /**
+   * Static instance of {@link ImmediateResultListenableFuture} which provides a 
+   * {@link Boolean#FALSE} result.  {@link FutureUtils#immediateResultFuture(Object)} will return 
+   * this instance when provided any {@code false} {@link Boolean}.
+   * 
+   * @since 4.6.0
+   */
+  public static final ImmediateResultListenableFuture<Boolean> BOOLEAN_FALSE_RESULT;
+  /**
+   * Static instance of {@link ImmediateResultListenableFuture} which provides the immutable 
+   * {@link Collections#emptyList()} as a result.  {@link FutureUtils#immediateResultFuture(Object)} 
+   * will return this instance when provided {@link Collections#emptyList()}.  Other empty lists 
+   * are not substituted, since they may be modified after being provided.
+   * 
+   * @since 4.6.0
+   */
+  public static final ImmediateResultListenableFuture<? extends List<?>> EMPTY_LIST_RESULT;
   
   static {
     NULL_RESULT = new ImmediateResultListenableFuture<Object>(null);
+    BOOLEAN_TRUE_RESULT = new ImmediateResultListenableFuture<Boolean>(Boolean.TRUE);
+    BOOLEAN_FALSE_RESULT = new ImmediateResultListenableFuture<Boolean>(Boolean.FALSE);
+    EMPTY_LIST_RESULT = new ImmediateResultListenableFuture<List<?>>(Collections.emptyList());
   }
   
   protected final T result;
@@ -57,6 +95,76 @@ public class ImmediateResultListenableFuture<T> extends AbstractImmediateListena
     }
   }
   
+  @Override
+  public <R> ListenableFuture<R> map(Function<? super T, ? extends R> mapper, Executor executor) {
+    if (executor != null) {
+      return super.map(mapper, executor);
+    }
+    ArgumentVerifier.assertNotNull(mapper, "mapper");
+    
+    try {
+      return FutureUtils.<R>immediateResultFuture(mapper.apply(result));
+    } catch (Throwable t) {
+      return FutureUtils.immediateFailureFuture(t);
+    }
+  }
+
+  @Override
+  public <R> ListenableFuture<R> flatMap(Function<? super T, ? extends ListenableFuture<R>> mapper, 
+                                         Executor executor) {
+    if (executor != null) {
+      return super.flatMap(mapper, executor);
+    }
+    ArgumentVerifier.assertNotNull(mapper, "mapper");
+    
+    ListenableFuture<R> mappedFuture;
+    try {
+      mappedFuture = mapper.apply(result);
+    } catch (Throwable t) {
+      return FutureUtils.immediateFailureFuture(t);
+    }
+    if (mappedFuture == null) {
+      return FutureUtils.immediateFailureFuture(new NullPointerException("mapper returned null future"));
+    } else {
+      return mappedFuture;
+    }
+  }
+
+  @Override
+  public <TT extends Throwable> ListenableFuture<T> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends T> mapper, 
+                                                               Executor executor) {
+    ArgumentVerifier.assertNotNull(mapper, "mapper");
+    
+    // no failure to map
+    return this;
+  }
+
+  @Override
+  public ListenableFuture<T> resultCallback(Consumer<? super T> callback, Executor executor) {
+    if (executor != null) {
+      return super.resultCallback(callback, executor);
+    }
+    ArgumentVerifier.assertNotNull(callback, "callback");
+    
+    callback.accept(result);
+    
+    return this;
+  }
+
+  @Override
+  public ListenableFuture<T> failureCallback(Consumer<Throwable> callback, Executor executor) {
+    ArgumentVerifier.assertNotNull(callback, "callback");
+    
+    // will never fail
+    return this;
+  }
+  
+  @Override
+  public boolean isCompletedNormally() {
+    return true;
+  }
+  
   @Override
   public T get() {
     return result;
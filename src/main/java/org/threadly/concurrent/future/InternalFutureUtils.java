@@ -0,0 +1,749 @@
+package org.threadly.concurrent.future;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+
+import org.threadly.concurrent.HashedWheelTimer;
+import org.threadly.concurrent.SubmitterScheduler;
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
+
+/**
+ * <p>Implementations of the composition functions of {@link ListenableFuture}, so that they can 
+ * be shared between the different future implementations.  Each transformation allocates a 
+ * single future, which is also the listener added to the source future.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ */
+final class InternalFutureUtils {
+  private InternalFutureUtils() {
+    // don't construct
+  }
+  
+  /**
+   * Implementation of {@link ListenableFuture#map(Function, Executor)}.
+   * 
+   * @param <T> Type of result from the source future
+   * @param <R> Type of result from the mapper
+   * @param source Future to transform the result of
+   * @param mapper Function to transform the result
+   * @param executor Executor to invoke mapper on, or {@code null}
+   * @return Future which will complete with the transformed result
+   */
+  public static <T, R> ListenableFuture<R> map(ListenableFuture<? extends T> source, 
+                                               Function<? super T, ? extends R> mapper, 
+                                               Executor executor) {
+    ArgumentVerifier.assertNotNull(mapper, "mapper");
+    
+    if (executor == null && source.isCompletedNormally()) {
+      // already have the result, no need to register a listener
+      try {
+        return FutureUtils.<R>immediateResultFuture(mapper.apply(source.get()));
+      } catch (Throwable t) {
+        return FutureUtils.immediateFailureFuture(t);
+      }
+    }
+    
+    MapListenableFuture<T, R> result = new MapListenableFuture<T, R>(source, mapper);
+    source.addListener(result, executor);
+    return result;
+  }
+  
+  /**
+   * Implementation of {@link ListenableFuture#flatMap(Function, Executor)}.
+   * 
+   * @param <T> Type of result from the source future
+   * @param <R> Type of result from the future the mapper returns
+   * @param source Future to transform the result of
+   * @param mapper Function to start the next operation from the result
+   * @param executor Executor to invoke mapper on, or {@code null}
+   * @return Future which will complete with the result of the future from the mapper
+   */
+  public static <T, R> ListenableFuture<R> flatMap(ListenableFuture<? extends T> source, 
+                                                   Function<? super T, ? extends ListenableFuture<R>> mapper, 
+                                                   Executor executor) {
+    ArgumentVerifier.assertNotNull(mapper, "mapper");
+    
+    FlatMapListenableFuture<T, R> result = new FlatMapListenableFuture<T, R>(source, mapper);
+    source.addListener(result, executor);
+    return result;
+  }
+  
+  /**
+   * Implementation of {@link ListenableFuture#mapFailure(Class, Function, Executor)}.
+   * 
+   * @param <T> Type of result from the source future
+   * @param <TT> Type of throwable to map
+   * @param source Future to transform the failure of
+   * @param throwableType Type of failure to map, or {@code null} to map any failure
+   * @param mapper Function to produce a result from the failure
+   * @param executor Executor to invoke mapper on, or {@code null}
+   * @return Future which will complete with the source result, or the mapped failure
+   */
+  public static <T, TT extends Throwable> ListenableFuture<T> 
+      mapFailure(ListenableFuture<? extends T> source, Class<TT> throwableType, 
+                 Function<? super TT, ? extends T> mapper, Executor executor) {
+    ArgumentVerifier.assertNotNull(mapper, "mapper");
+    
+    if (source.isCompletedNormally()) {
+      // no failure to map, and the result type is compatible
+      @SuppressWarnings("unchecked")
+      ListenableFuture<T> castSource = (ListenableFuture<T>)source;
+      return castSource;
+    }
+    
+    MapFailureListenableFuture<T, TT> result = 
+        new MapFailureListenableFuture<T, TT>(source, throwableType, mapper);
+    source.addListener(result, executor);
+    return result;
+  }
+  
+  /**
+   * Implementation of {@link ListenableFuture#resultCallback(Consumer, Executor)}.
+   * 
+   * @param <T> Type of result from the source future
+   * @param source Future to listen for a result from
+   * @param callback Consumer to be provided the result
+   * @param executor Executor to invoke callback on, or {@code null}
+   */
+  public static <T> void resultCallback(final ListenableFuture<? extends T> source, 
+                                        final Consumer<? super T> callback, Executor executor) {
+    ArgumentVerifier.assertNotNull(callback, "callback");
+    
+    source.addListener(new Runnable() {
+      @Override
+      public void run() {
+        T result;
+        try {
+          result = source.get();
+        } catch (InterruptedException e) {
+          // not possible since future is done
+          Thread.currentThread().interrupt();
+          return;
+        } catch (ExecutionException e) {
+          return;
+        } catch (CancellationException e) {
+          return;
+        }
+        callback.accept(result);
+      }
+    }, executor);
+  }
+  
+  /**
+   * Implementation of {@link ListenableFuture#failureCallback(Consumer, Executor)}.
+   * 
+   * @param source Future to listen for a failure from
+   * @param callback Consumer to be provided the failure
+   * @param executor Executor to invoke callback on, or {@code null}
+   */
+  public static void failureCallback(final ListenableFuture<?> source, 
+                                     final Consumer<Throwable> callback, Executor executor) {
+    ArgumentVerifier.assertNotNull(callback, "callback");
+    
+    source.addListener(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          source.get();
+        } catch (InterruptedException e) {
+          // not possible since future is done
+          Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+          callback.accept(e.getCause());
+        } catch (CancellationException e) {
+          callback.accept(e);
+        }
+      }
+    }, executor);
+  }
+  
+  /**
+   * Invoked when a dependent future has been canceled, and thus no longer needs the result of 
+   * the provided future.  The dependent's listener is removed from the future so that it can be 
+   * garbage collected, and if no other listeners remain the future will be canceled as well.  
+   * Only futures which are owned by threadly are canceled ({@link ListenableFutureTask}'s, and 
+   * futures returned from the transformation functions).  Other futures are likely going to be 
+   * completed by user code which would not expect the future to be canceled out from under it.
+   * 
+   * Canceling a {@link ListenableFutureTask} will also remove it from the queue of the 
+   * scheduler it was submitted to when the scheduler supports it.
+   * 
+   * @param future Future the dependent was listening to
+   * @param dependentListener Listener which the dependent added to the future
+   * @param interruptThread Value to provide to {@link ListenableFuture#cancel(boolean)}
+   */
+  private static void cancelIfUnused(ListenableFuture<?> future, Runnable dependentListener, 
+                                     boolean interruptThread) {
+    ListenerStack listeners;
+    boolean owned;
+    if (future instanceof ListenableFutureTask) {
+      ListenableFutureTask<?> lft = (ListenableFutureTask<?>)future;
+      listeners = lft.listeners;
+      owned = ! lft.recurring;
+    } else if (future instanceof SettableListenableFuture) {
+      listeners = ((SettableListenableFuture<?>)future).listeners;
+      owned = future instanceof TransformListenableFuture;
+    } else {
+      return;
+    }
+    
+    if (listeners.removeListener(dependentListener) && owned && 
+        listeners.registeredListenerCount() == 0) {
+      future.cancel(interruptThread);
+    }
+  }
+  
+  /**
+   * <p>Base class for futures which complete from the result of a source future.  This future is 
+   * added as the listener to the source, so that a transformation only needs a single object.  
+   * Results set after this future has been canceled are ignored.  Canceling this future will 
+   * cancel the source as well if nothing else is listening to it.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> Type of result from the source future
+   * @param <R> Type of result from this future
+   */
+  protected abstract static class TransformListenableFuture<T, R> extends SettableListenableFuture<R> 
+                                                                  implements Runnable {
+    protected final ListenableFuture<? extends T> source;
+    private volatile CompleteFromListener completeFromListener;
+    
+    protected TransformListenableFuture(ListenableFuture<? extends T> source) {
+      super(false);
+      
+      this.source = source;
+      this.completeFromListener = null;
+    }
+    
+    @Override
+    public void run() {
+      T sourceResult;
+      try {
+        sourceResult = source.get();
+      } catch (InterruptedException e) {
+        // not possible since future is done
+        Thread.currentThread().interrupt();
+        setFailure(e);
+        return;
+      } catch (ExecutionException e) {
+        handleSourceFailure(e.getCause());
+        return;
+      } catch (CancellationException e) {
+        handleSourceCancel(e);
+        return;
+      }
+      handleSourceResult(sourceResult);
+    }
+    
+    /**
+     * Invoked when the source future completes with a result.
+     * 
+     * @param sourceResult Result from the source future
+     */
+    protected abstract void handleSourceResult(T sourceResult);
+    
+    /**
+     * Invoked when the source future completes with a failure.  By default this future will fail 
+     * with the same cause.
+     * 
+     * @param t Cause of the source failure
+     */
+    protected void handleSourceFailure(Throwable t) {
+      setFailure(t);
+    }
+    
+    /**
+     * Invoked when the source future was canceled.  By default this future will also be canceled.
+     * 
+     * @param e Exception thrown from the source's {@code get()} call
+     */
+    protected void handleSourceCancel(CancellationException e) {
+      cancel(false);
+    }
+    
+    /**
+     * Completes this future once the provided future completes, with the same result, failure, or 
+     * cancellation.
+     * 
+     * @param future Future to complete from, can not be {@code null}
+     */
+    protected void completeFrom(ListenableFuture<? extends R> future) {
+      CompleteFromListener listener = new CompleteFromListener(future);
+      completeFromListener = listener;
+      future.addListener(listener);
+      if (isCancelled()) {
+        // canceled before the listener was visible, make sure the cancel still propagates
+        cancelIfUnused(future, listener, false);
+      }
+    }
+    
+    /**
+     * Cancels this future, and then cancels the source future (and the future provided to 
+     * {@link #completeFrom(ListenableFuture)}) if they no longer have any other listeners.  This 
+     * allows canceling the end of a chain to prevent work further up the chain which no one is 
+     * waiting on anymore.
+     */
+    @Override
+    public boolean cancel(boolean interruptThread) {
+      if (super.cancel(interruptThread)) {
+        cancelIfUnused(source, this, interruptThread);
+        CompleteFromListener listener = completeFromListener;
+        if (listener != null) {
+          cancelIfUnused(listener.future, listener, interruptThread);
+        }
+        return true;
+      } else {
+        return false;
+      }
+    }
+    
+    /**
+     * <p>Listener which completes this future with the state of another future.</p>
+     * 
+     * @author jent - Mike Jensen
+     * @since 4.6.0
+     */
+    protected class CompleteFromListener implements Runnable {
+      protected final ListenableFuture<? extends R> future;
+      
+      protected CompleteFromListener(ListenableFuture<? extends R> future) {
+        this.future = future;
+      }
+      
+      @Override
+      public void run() {
+        R result;
+        try {
+          result = future.get();
+        } catch (InterruptedException e) {
+          // not possible since future is done
+          Thread.currentThread().interrupt();
+          setFailure(e);
+          return;
+        } catch (ExecutionException e) {
+          setFailure(e.getCause());
+          return;
+        } catch (CancellationException e) {
+          cancel(false);
+          return;
+        }
+        setResult(result);
+      }
+    }
+  }
+  
+  /**
+   * <p>Future which completes with the result of a {@link Function} applied to the source result.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> Type of result from the source future
+   * @param <R> Type of result from the mapper
+   */
+  protected static class MapListenableFuture<T, R> extends TransformListenableFuture<T, R> {
+    private final Function<? super T, ? extends R> mapper;
+    
+    protected MapListenableFuture(ListenableFuture<? extends T> source, 
+                                  Function<? super T, ? extends R> mapper) {
+      super(source);
+      
+      this.mapper = mapper;
+    }
+    
+    @Override
+    protected void handleSourceResult(T sourceResult) {
+      R result;
+      try {
+        result = mapper.apply(sourceResult);
+      } catch (Throwable t) {
+        setFailure(t);
+        return;
+      }
+      setResult(result);
+    }
+  }
+  
+  /**
+   * <p>Future which completes with the result of the future returned from a {@link Function} 
+   * applied to the source result.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> Type of result from the source future
+   * @param <R> Type of result from the future the mapper returns
+   */
+  protected static class FlatMapListenableFuture<T, R> extends TransformListenableFuture<T, R> {
+    private final Function<? super T, ? extends ListenableFuture<R>> mapper;
+    
+    protected FlatMapListenableFuture(ListenableFuture<? extends T> source, 
+                                      Function<? super T, ? extends ListenableFuture<R>> mapper) {
+      super(source);
+      
+      this.mapper = mapper;
+    }
+    
+    @Override
+    protected void handleSourceResult(T sourceResult) {
+      ListenableFuture<R> result;
+      try {
+        result = mapper.apply(sourceResult);
+      } catch (Throwable t) {
+        setFailure(t);
+        return;
+      }
+      if (result == null) {
+        setFailure(new NullPointerException("mapper returned null future"));
+      } else {
+        completeFrom(result);
+      }
+    }
+  }
+  
+  /**
+   * <p>Future which completes with the source result, or the result of a {@link Function} 
+   * applied to the source failure.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> Type of result from the source future
+   * @param <TT> Type of throwable to map
+   */
+  protected static class MapFailureListenableFuture<T, TT extends Throwable> 
+      extends TransformListenableFuture<T, T> {
+    private final Class<TT> throwableType;
+    private final Function<? super TT, ? extends T> mapper;
+    
+    protected MapFailureListenableFuture(ListenableFuture<? extends T> source, 
+                                         Class<TT> throwableType, 
+                                         Function<? super TT, ? extends T> mapper) {
+      super(source);
+      
+      this.throwableType = throwableType;
+      this.mapper = mapper;
+    }
+    
+    @Override
+    protected void handleSourceResult(T sourceResult) {
+      setResult(sourceResult);
+    }
+    
+    @Override
+    protected void handleSourceFailure(Throwable t) {
+      if (! mapFailure(t)) {
+        setFailure(t);
+      }
+    }
+    
+    @Override
+    protected void handleSourceCancel(CancellationException e) {
+      if (! mapFailure(e)) {
+        cancel(false);
+      }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private boolean mapFailure(Throwable t) {
+      if (throwableType != null && ! throwableType.isInstance(t)) {
+        return false;
+      }
+      
+      T result;
+      try {
+        result = mapper.apply((TT)t);
+      } catch (Throwable mapperFailure) {
+        setFailure(mapperFailure);
+        return true;
+      }
+      setResult(result);
+      return true;
+    }
+  }
+  
+  /**
+   * <p>Future which completes from the source future, unless a timeout elapses first.  On timeout 
+   * this future will either fail or complete with a default result, and may cancel the source.  
+   * The timeout is registered on a {@link HashedWheelTimer}, and is canceled as soon as the 
+   * source completes (or this future is canceled).</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> Type of result from the source future
+   */
+  protected static class TimeoutListenableFuture<T> extends TransformListenableFuture<T, T> {
+    private final long timeoutInMillis;
+    private final boolean failOnTimeout;
+    private final Throwable timeoutFailure;
+    private final T timeoutResult;
+    private final boolean cancelSourceOnTimeout;
+    private final HashedWheelTimer.Timeout timeout;
+    
+    /**
+     * Constructs a new future, registering the timeout.  This future must then be added as a 
+     * listener to the source.
+     * 
+     * @param source Future to complete from
+     * @param timer Timer to register the timeout on
+     * @param timeoutInMillis Timeout in milliseconds
+     * @param failOnTimeout {@code true} to fail on timeout, {@code false} to provide a result
+     * @param timeoutFailure Failure to provide on timeout, or {@code null} for a {@link TimeoutException}
+     * @param timeoutResult Result to provide on timeout if not failing
+     * @param cancelSourceOnTimeout {@code true} to cancel the source future on timeout
+     */
+    protected TimeoutListenableFuture(ListenableFuture<? extends T> source, HashedWheelTimer timer, 
+                                      long timeoutInMillis, boolean failOnTimeout, 
+                                      Throwable timeoutFailure, T timeoutResult, 
+                                      boolean cancelSourceOnTimeout) {
+      super(source);
+      
+      this.timeoutInMillis = timeoutInMillis;
+      this.failOnTimeout = failOnTimeout;
+      this.timeoutFailure = timeoutFailure;
+      this.timeoutResult = timeoutResult;
+      this.cancelSourceOnTimeout = cancelSourceOnTimeout;
+      this.timeout = timer.schedule(new Runnable() {
+        @Override
+        public void run() {
+          handleTimeout();
+        }
+      }, timeoutInMillis);
+    }
+    
+    private void handleTimeout() {
+      boolean completed;
+      if (failOnTimeout) {
+        if (timeoutFailure == null) {
+          completed = setFailure(new TimeoutException("Timeout of " + timeoutInMillis + "ms exceeded"));
+        } else {
+          completed = setFailure(timeoutFailure);
+        }
+      } else {
+        completed = setResult(timeoutResult);
+      }
+      if (completed && cancelSourceOnTimeout) {
+        source.cancel(false);
+      }
+    }
+    
+    @Override
+    public void run() {
+      timeout.cancel();
+      
+      super.run();
+    }
+    
+    @Override
+    protected void handleSourceResult(T sourceResult) {
+      setResult(sourceResult);
+    }
+    
+    @Override
+    public boolean cancel(boolean interruptThread) {
+      if (super.cancel(interruptThread)) {
+        timeout.cancel();
+        if (cancelSourceOnTimeout) {
+          source.cancel(interruptThread);
+        }
+        return true;
+      } else {
+        return false;
+      }
+    }
+  }
+  
+  /**
+   * <p>Future which runs a task on a scheduler, scheduling the task again after a backoff if it 
+   * fails.  This future is provided as the callback to each attempt, completing with the first 
+   * successful result, or the last failure once the {@link RetryPolicy} stops retrying.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> Type of result from the task
+   */
+  protected static class RetryListenableFuture<T> extends SettableListenableFuture<T> {
+    private final SubmitterScheduler scheduler;
+    private final Callable<? extends T> task;
+    private final RetryPolicy policy;
+    private int failedAttempts; // only modified from attempt callbacks, which can not run concurrently
+    private volatile ListenableFuture<? extends T> currentAttempt;
+    
+    protected RetryListenableFuture(SubmitterScheduler scheduler, Callable<? extends T> task, 
+                                    RetryPolicy policy) {
+      super(false);
+      
+      this.scheduler = scheduler;
+      this.task = task;
+      this.policy = policy;
+      this.failedAttempts = 0;
+      this.currentAttempt = null;
+    }
+    
+    /**
+     * Schedules the next attempt of the task.
+     * 
+     * @param delayInMillis Delay before running the task
+     */
+    protected void startAttempt(long delayInMillis) {
+      ListenableFuture<? extends T> attempt = scheduler.submitScheduled(task, delayInMillis);
+      currentAttempt = attempt;
+      if (isCancelled()) {
+        // canceled before we set the attempt, so make sure it does not run
+        attempt.cancel(false);
+      } else {
+        attempt.addCallback(this);
+      }
+    }
+    
+    @Override
+    public void handleFailure(Throwable t) {
+      if (isDone()) {
+        return;
+      } else if (t instanceof CancellationException) {
+        // attempt was canceled outside of our control, so no point in retrying
+        cancel(false);
+        return;
+      }
+      
+      failedAttempts++;
+      if (failedAttempts < policy.getMaxAttempts() && policy.shouldRetry(t)) {
+        try {
+          startAttempt(policy.getBackoffMillis(failedAttempts));
+        } catch (Throwable scheduleFailure) {
+          setFailure(scheduleFailure);
+        }
+      } else {
+        setFailure(t);
+      }
+    }
+    
+    @Override
+    public boolean cancel(boolean interruptThread) {
+      if (super.cancel(interruptThread)) {
+        ListenableFuture<?> attempt = currentAttempt;
+        if (attempt != null) {
+          attempt.cancel(interruptThread);
+        }
+        return true;
+      } else {
+        return false;
+      }
+    }
+  }
+  
+  /**
+   * <p>Future which runs a task on a scheduler, starting additional attempts if earlier attempts 
+   * are slow to complete (or fail).  The first successful attempt provides the result, and any 
+   * other attempts still running are canceled.  This future is provided as the callback to every 
+   * attempt, and is also the task scheduled to start the next hedged attempt.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> Type of result from the task
+   */
+  protected static class HedgeListenableFuture<T> extends SettableListenableFuture<T> 
+                                                  implements Runnable {
+    private final SubmitterScheduler scheduler;
+    private final Callable<? extends T> task;
+    private final long hedgeDelayInMillis;
+    private final int maxAttempts;
+    private final ArrayList<ListenableFuture<? extends T>> attempts;
+    private int failedAttempts; // guarded by attempts
+    
+    protected HedgeListenableFuture(SubmitterScheduler scheduler, Callable<? extends T> task, 
+                                    long hedgeDelayInMillis, int maxAttempts) {
+      super(false);
+      
+      this.scheduler = scheduler;
+      this.task = task;
+      this.hedgeDelayInMillis = hedgeDelayInMillis;
+      this.maxAttempts = maxAttempts;
+      this.attempts = new ArrayList<ListenableFuture<? extends T>>(maxAttempts);
+      this.failedAttempts = 0;
+    }
+    
+    /**
+     * Starts another attempt of the task, if this future is not done and there are attempts 
+     * remaining.  If more attempts are allowed after this one, the next hedge is scheduled.
+     */
+    protected void startAttempt() {
+      ListenableFuture<? extends T> attempt;
+      boolean scheduleHedge;
+      synchronized (attempts) {
+        if (isDone() || attempts.size() >= maxAttempts) {
+          return;
+        }
+        attempt = scheduler.submit(task);
+        attempts.add(attempt);
+        scheduleHedge = attempts.size() < maxAttempts;
+      }
+      
+      attempt.addCallback(this);
+      if (scheduleHedge && ! isDone()) {
+        scheduler.schedule(this, hedgeDelayInMillis);
+      }
+    }
+    
+    @Override
+    public void run() {
+      startAttempt();
+    }
+    
+    @Override
+    public void handleResult(T result) {
+      if (setResult(result)) {
+        cancelAttempts(true);
+      }
+    }
+    
+    @Override
+    public void handleFailure(Throwable t) {
+      if (isDone()) {
+        return;
+      }
+      
+      boolean allFailed;
+      synchronized (attempts) {
+        allFailed = ++failedAttempts >= maxAttempts;
+      }
+      if (allFailed) {
+        setFailure(t);
+      } else {
+        // don't wait for the hedge delay, there is nothing to wait on
+        try {
+          startAttempt();
+        } catch (Throwable scheduleFailure) {
+          if (setFailure(scheduleFailure)) {
+            cancelAttempts(true);
+          }
+        }
+      }
+    }
+    
+    @Override
+    public boolean cancel(boolean interruptThread) {
+      if (super.cancel(interruptThread)) {
+        cancelAttempts(interruptThread);
+        return true;
+      } else {
+        return false;
+      }
+    }
+    
+    private void cancelAttempts(boolean interruptThread) {
+      synchronized (attempts) {
+        for (ListenableFuture<?> attempt : attempts) {
+          if (! attempt.isDone()) {
+            attempt.cancel(interruptThread);
+          }
+        }
+      }
+    }
+  }
+}
@@ -3,11 +3,22 @@ package org.threadly.concurrent.future;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
+
 /**
  * <p>Future where you can add a listener which is called once the future has completed.  The 
  * runnable will be called once the future completes either as a cancel, with result, or with an 
  * exception.</p>
  * 
+ * <p>Futures can also be composed without needing to construct intermediate futures manually.  
+ * {@link #map(Function)}, {@link #flatMap(Function)} and {@link #mapFailure(Class, Function)} 
+ * return a new future which completes from the transformation of this future's result or failure, 
+ * while {@link #resultCallback(Consumer)} and {@link #failureCallback(Consumer)} are a lighter 
+ * weight alternative to {@link #addCallback(FutureCallback)} when only one outcome is of 
+ * interest.  Like listeners, if no {@link Executor} is provided these will execute on the thread 
+ * which completes the future (or the invoking thread if the future is already complete).</p>
+ * 
  * @author jent - Mike Jensen
  * @since 1.0.0
  * @param <T> The result object type returned by this future
@@ -67,4 +78,157 @@ public interface ListenableFuture<T> extends Future<T> {
    * @param executor {@link Executor} the callback should be ran on, or {@code null}
    */
   public void addCallback(FutureCallback<? super T> callback, Executor executor);
+  
+  /**
+   * Transform the result of this future into a new future.  Once this future completes with a 
+   * result, the mapper will be invoked with it, and the returned future will complete with the 
+   * value the mapper returns.  If this future fails, the returned future will fail with the same 
+   * cause.  If the mapper throws, the returned future will fail with the thrown exception.  If 
+   * this future is canceled, the returned future will also be canceled.
+   * 
+   * The mapper will execute on the thread which completes this future, or on the invoking thread 
+   * if this future is already complete.  If the mapper has high complexity, consider using 
+   * {@link #map(Function, Executor)}.
+   * 
+   * @since 4.6.0
+   * @param <R> The type of the result from the mapper
+   * @param mapper Function to transform the result
+   * @return Future which will complete with the transformed result
+   */
+  public <R> ListenableFuture<R> map(Function<? super T, ? extends R> mapper);
+  
+  /**
+   * Transform the result of this future into a new future, invoking the mapper on the provided 
+   * {@link Executor}.  This behaves the same as {@link #map(Function)}, except if the executor is 
+   * not {@code null} the mapper will be executed on it.
+   * 
+   * @since 4.6.0
+   * @param <R> The type of the result from the mapper
+   * @param mapper Function to transform the result
+   * @param executor {@link Executor} the mapper should be ran on, or {@code null}
+   * @return Future which will complete with the transformed result
+   */
+  public <R> ListenableFuture<R> map(Function<? super T, ? extends R> mapper, Executor executor);
+  
+  /**
+   * Transform the result of this future into another asynchronous operation.  Once this future 
+   * completes with a result, the mapper will be invoked with it, and the returned future will 
+   * complete once the future returned from the mapper completes (with its result, failure, or 
+   * cancellation).  If this future fails, or the mapper throws, the returned future will fail in 
+   * the same way as {@link #map(Function)}.  If the mapper returns {@code null} the returned 
+   * future will fail with a {@link NullPointerException}.
+   * 
+   * @since 4.6.0
+   * @param <R> The type of the result from the future the mapper returns
+   * @param mapper Function to start the next operation from the result
+   * @return Future which will complete with the result of the future from the mapper
+   */
+  public <R> ListenableFuture<R> flatMap(Function<? super T, ? extends ListenableFuture<R>> mapper);
+  
+  /**
+   * Transform the result of this future into another asynchronous operation, invoking the mapper 
+   * on the provided {@link Executor}.  This behaves the same as {@link #flatMap(Function)}, 
+   * except if the executor is not {@code null} the mapper will be executed on it.
+   * 
+   * @since 4.6.0
+   * @param <R> The type of the result from the future the mapper returns
+   * @param mapper Function to start the next operation from the result
+   * @param executor {@link Executor} the mapper should be ran on, or {@code null}
+   * @return Future which will complete with the result of the future from the mapper
+   */
+  public <R> ListenableFuture<R> flatMap(Function<? super T, ? extends ListenableFuture<R>> mapper, 
+                                         Executor executor);
+  
+  /**
+   * Transform a failure of this future into a result.  If this future fails with a cause which 
+   * is an instance of the provided type, the mapper will be invoked with the cause and the 
+   * returned future will complete with the value the mapper returns.  Otherwise the returned 
+   * future will complete with the same result or failure as this future.  If the mapper throws, 
+   * the returned future will fail with the thrown exception.  
+   * 
+   * A cancellation of this future is treated as a failure with a 
+   * {@link java.util.concurrent.CancellationException}.  If the provided type does not match 
+   * that, the returned future will be canceled.
+   * 
+   * @since 4.6.0
+   * @param <TT> The type of throwable to handle
+   * @param throwableType Type of failure to map, or {@code null} to map any failure
+   * @param mapper Function to produce a result from the failure
+   * @return Future which will complete with this future's result, or the mapped failure
+   */
+  public <TT extends Throwable> ListenableFuture<T> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends T> mapper);
+  
+  /**
+   * Transform a failure of this future into a result, invoking the mapper on the provided 
+   * {@link Executor}.  This behaves the same as {@link #mapFailure(Class, Function)}, except if 
+   * the executor is not {@code null} the mapper will be executed on it.
+   * 
+   * @since 4.6.0
+   * @param <TT> The type of throwable to handle
+   * @param throwableType Type of failure to map, or {@code null} to map any failure
+   * @param mapper Function to produce a result from the failure
+   * @param executor {@link Executor} the mapper should be ran on, or {@code null}
+   * @return Future which will complete with this future's result, or the mapped failure
+   */
+  public <TT extends Throwable> ListenableFuture<T> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends T> mapper, 
+                                                               Executor executor);
+  
+  /**
+   * Add a callback to be invoked only if this future completes with a result.  If this future 
+   * fails or is canceled the callback will not be invoked.
+   * 
+   * @since 4.6.0
+   * @param callback Consumer to be provided the result
+   * @return This future to allow chaining of calls
+   */
+  public ListenableFuture<T> resultCallback(Consumer<? super T> callback);
+  
+  /**
+   * Add a callback to be invoked only if this future completes with a result, executing it on 
+   * the provided {@link Executor}.  If the executor is {@code null} this behaves the same as 
+   * {@link #resultCallback(Consumer)}.
+   * 
+   * @since 4.6.0
+   * @param callback Consumer to be provided the result
+   * @param executor {@link Executor} the callback should be ran on, or {@code null}
+   * @return This future to allow chaining of calls
+   */
+  public ListenableFuture<T> resultCallback(Consumer<? super T> callback, Executor executor);
+  
+  /**
+   * Add a callback to be invoked only if this future fails.  If this future is canceled the 
+   * callback will be provided a {@link java.util.concurrent.CancellationException}.  If this 
+   * future completes with a result, the callback will not be invoked.
+   * 
+   * @since 4.6.0
+   * @param callback Consumer to be provided the failure
+   * @return This future to allow chaining of calls
+   */
+  public ListenableFuture<T> failureCallback(Consumer<Throwable> callback);
+  
+  /**
+   * Add a callback to be invoked only if this future fails, executing it on the provided 
+   * {@link Executor}.  If the executor is {@code null} this behaves the same as 
+   * {@link #failureCallback(Consumer)}.
+   * 
+   * @since 4.6.0
+   * @param callback Consumer to be provided the failure
+   * @param executor {@link Executor} the callback should be ran on, or {@code null}
+   * @return This future to allow chaining of calls
+   */
+  public ListenableFuture<T> failureCallback(Consumer<Throwable> callback, Executor executor);
+  
+  /**
+   * Check if this future has completed with a result.  If this returns {@code true} then 
+   * {@link #get()} will return the result without blocking or throwing.  This is a cheap check, 
+   * which allows callers who most often find futures already complete to use the result 
+   * directly, rather than registering a listener or callback.  Unlike checking {@link #isDone()} 
+   * this will return {@code false} if the future failed or was canceled.
+   * 
+   * @since 4.6.0
+   * @return {@code true} if the future is done and completed with a result
+   */
+  public boolean isCompletedNormally();
 }
@@ -1,17 +1,25 @@
 package org.threadly.concurrent.future;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.threadly.concurrent.CallableContainer;
 import org.threadly.concurrent.RunnableCallableAdapter;
-import org.threadly.concurrent.event.RunnableListenerHelper;
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
 
 /**
  * <p>This is a future which can be executed.  Allowing you to construct the future with the 
  * interior work, submit it to an {@link Executor}, and then return this future.</p>
  * 
+ * <p>Listeners are held in a lock free stack, so adding listeners and completing the future never 
+ * requires acquiring a monitor.  Calls to {@link #get()} will spin briefly before blocking, 
+ * since for request / response usage the result is often provided only moments later.</p>
+ * 
  * @author jent - Mike Jensen
  * @since 1.0.0
  * @param <T> The result object type returned by this future
@@ -19,9 +27,10 @@ import org.threadly.concurrent.event.RunnableListenerHelper;
 public class ListenableFutureTask<T> extends FutureTask<T> 
                                      implements ListenableRunnableFuture<T>, 
                                                 CallableContainer<T> {
-  protected final RunnableListenerHelper listenerHelper;
+  protected final ListenerStack listeners;
   protected final boolean recurring;
   protected final Callable<T> callable;
+  private volatile boolean failed;
   
   /**
    * Constructs a runnable future with a runnable work unit.
@@ -53,9 +62,10 @@ public class ListenableFutureTask<T> extends FutureTask<T>
   public ListenableFutureTask(boolean recurring, Callable<T> task) {
     super(task);
 
-    this.listenerHelper = new RunnableListenerHelper(true);
+    this.listeners = new ListenerStack();
     this.recurring = recurring;
     this.callable = task;
+    this.failed = false;
   }
   
   @Override
@@ -67,14 +77,29 @@ public class ListenableFutureTask<T> extends FutureTask<T>
     }
   }
 
+  @Override
+  public T get() throws InterruptedException, ExecutionException {
+    AdaptiveSpinner.spinTillDone(this);
+    
+    return super.get();
+  }
+
+  @Override
+  public T get(long timeout, TimeUnit unit) throws InterruptedException, 
+                                                   ExecutionException, TimeoutException {
+    AdaptiveSpinner.spinTillDone(this, unit.toNanos(timeout));
+    
+    return super.get(timeout, unit);
+  }
+
   @Override
   public void addListener(Runnable listener) {
-    listenerHelper.addListener(listener);
+    listeners.addListener(listener, null);
   }
 
   @Override
   public void addListener(Runnable listener, Executor executor) {
-    listenerHelper.addListener(listener, executor);
+    listeners.addListener(listener, executor);
   }
 
   @Override
@@ -87,16 +112,87 @@ public class ListenableFutureTask<T> extends FutureTask<T>
     addListener(new RunnableFutureCallbackAdapter<T>(this, callback), executor);
   }
   
+  @Override
+  protected void setException(Throwable t) {
+    // set before completing, so it is visible once the future is done
+    failed = true;
+    
+    super.setException(t);
+  }
+  
+  @Override
+  public boolean isCompletedNormally() {
+    return isDone() && ! failed && ! isCancelled();
+  }
+  
   /**
    * Can not be overridden, please use {@link #addListener(Runnable)} as an alternative.
    */
   @Override
   protected final void done() {
-    listenerHelper.callListeners();
+    listeners.callListeners();
   }
 
   @Override
   public Callable<T> getContainedCallable() {
     return callable;
   }
+
+  @Override
+  public <R> ListenableFuture<R> map(Function<? super T, ? extends R> mapper) {
+    return map(mapper, null);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> map(Function<? super T, ? extends R> mapper, Executor executor) {
+    return InternalFutureUtils.map(this, mapper, executor);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> flatMap(Function<? super T, ? extends ListenableFuture<R>> mapper) {
+    return flatMap(mapper, null);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> flatMap(Function<? super T, ? extends ListenableFuture<R>> mapper, 
+                                         Executor executor) {
+    return InternalFutureUtils.flatMap(this, mapper, executor);
+  }
+
+  @Override
+  public <TT extends Throwable> ListenableFuture<T> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends T> mapper) {
+    return mapFailure(throwableType, mapper, null);
+  }
+
+  @Override
+  public <TT extends Throwable> ListenableFuture<T> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends T> mapper, 
+                                                               Executor executor) {
+    return InternalFutureUtils.mapFailure(this, throwableType, mapper, executor);
+  }
+
+  @Override
+  public ListenableFuture<T> resultCallback(Consumer<? super T> callback) {
+    return resultCallback(callback, null);
+  }
+
+  @Override
+  public ListenableFuture<T> resultCallback(Consumer<? super T> callback, Executor executor) {
+    InternalFutureUtils.resultCallback(this, callback, executor);
+    
+    return this;
+  }
+
+  @Override
+  public ListenableFuture<T> failureCallback(Consumer<Throwable> callback) {
+    return failureCallback(callback, null);
+  }
+
+  @Override
+  public ListenableFuture<T> failureCallback(Consumer<Throwable> callback, Executor executor) {
+    InternalFutureUtils.failureCallback(this, callback, executor);
+    
+    return this;
+  }
 }
\ No newline at end of file
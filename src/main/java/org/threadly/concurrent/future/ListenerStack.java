@@ -0,0 +1,193 @@
+package org.threadly.concurrent.future;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import org.threadly.util.ExceptionUtils;
+
+/**
+ * <p>Lock free holder of listeners for a future which will only complete once.  Listeners are 
+ * pushed onto a stack (a single node allocation per listener), and when the future completes the 
+ * stack is swapped for a completed marker so that any listeners added after that point are 
+ * invoked immediately.  Listeners are invoked in the order they were added.</p>
+ * 
+ * <p>This replaces the use of {@link org.threadly.concurrent.event.RunnableListenerHelper} in 
+ * the future implementations, which required a lock both to add and to call listeners.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ */
+final class ListenerStack {
+  private static final ListenerNode COMPLETED = new ListenerNode(null, null);
+  private static final AtomicReferenceFieldUpdater<ListenerStack, ListenerNode> HEAD_UPDATER = 
+      AtomicReferenceFieldUpdater.newUpdater(ListenerStack.class, ListenerNode.class, "head");
+  private static final AtomicReferenceFieldUpdater<ListenerNode, Runnable> LISTENER_UPDATER = 
+      AtomicReferenceFieldUpdater.newUpdater(ListenerNode.class, Runnable.class, "listener");
+  private static final AtomicIntegerFieldUpdater<ListenerStack> COUNT_UPDATER = 
+      AtomicIntegerFieldUpdater.newUpdater(ListenerStack.class, "listenerCount");
+  
+  private volatile ListenerNode head = null;
+  // may briefly over count while a listener is being added or removed, never under counts
+  private volatile int listenerCount = 0;
+  
+  /**
+   * Adds a listener to be called once {@link #callListeners()} is invoked.  If listeners have 
+   * already been called, this listener will be invoked immediately.  In that case any exception 
+   * thrown from the listener (or executor) will be thrown out of this call.
+   * 
+   * @param listener Listener to invoke, if {@code null} this call has no effect
+   * @param executor Executor to invoke listener on, or {@code null} to invoke on completing thread
+   */
+  public void addListener(Runnable listener, Executor executor) {
+    if (listener == null) {
+      return;
+    }
+    
+    ListenerNode node = null;
+    COUNT_UPDATER.incrementAndGet(this);
+    while (true) {
+      ListenerNode current = head;
+      if (current == COMPLETED) {
+        COUNT_UPDATER.decrementAndGet(this);
+        runListener(listener, executor, true);
+        return;
+      }
+      if (node == null) {
+        node = new ListenerNode(listener, executor);
+      }
+      node.next = current;
+      if (HEAD_UPDATER.compareAndSet(this, current, node)) {
+        return;
+      }
+    }
+  }
+  
+  /**
+   * Invokes all listeners which have been added.  Listeners added after this call will be 
+   * invoked immediately.  Exceptions thrown from listeners will be provided to 
+   * {@link ExceptionUtils#handleException(Throwable)}.  This may only be invoked once.
+   * 
+   * @throws IllegalStateException Thrown if listeners have already been called
+   */
+  public void callListeners() {
+    ListenerNode current = HEAD_UPDATER.getAndSet(this, COMPLETED);
+    if (current == COMPLETED) {
+      throw new IllegalStateException("Already called listeners");
+    }
+    
+    // reverse the stack so listeners run in the order they were added
+    ListenerNode ordered = null;
+    while (current != null) {
+      ListenerNode next = current.next;
+      current.next = ordered;
+      ordered = current;
+      current = next;
+    }
+    while (ordered != null) {
+      Runnable listener = ordered.listener;
+      if (listener != null) {
+        runListener(listener, ordered.executor, false);
+      }
+      ordered = ordered.next;
+    }
+  }
+  
+  /**
+   * Check if {@link #callListeners()} has been invoked.
+   * 
+   * @return {@code true} if listeners have been called
+   */
+  public boolean isCompleted() {
+    return head == COMPLETED;
+  }
+  
+  /**
+   * Removes a listener which was previously added, so that it will not be invoked once 
+   * {@link #callListeners()} is invoked.  The listener is matched by reference, and if it was 
+   * added multiple times only one instance is removed.  Removed nodes at the top of the stack 
+   * are unlinked, others remain until listeners are called and are just skipped at that point.
+   * 
+   * @param listener Listener to remove
+   * @return {@code true} if the listener was found and removed before listeners were called
+   */
+  public boolean removeListener(Runnable listener) {
+    if (listener == null) {
+      return false;
+    }
+    
+    ListenerNode current = head;
+    while (current != null && current != COMPLETED) {
+      if (current.listener == listener && LISTENER_UPDATER.compareAndSet(current, listener, null)) {
+        COUNT_UPDATER.decrementAndGet(this);
+        unlinkRemovedHead();
+        return ! isCompleted();
+      }
+      current = current.next;
+    }
+    return false;
+  }
+  
+  /**
+   * Pops any removed nodes from the top of the stack.  Nodes below a live listener can not be 
+   * safely unlinked without a lock, since {@link #callListeners()} may be reordering them.
+   */
+  private void unlinkRemovedHead() {
+    ListenerNode current = head;
+    while (current != null && current != COMPLETED && current.listener == null) {
+      if (HEAD_UPDATER.compareAndSet(this, current, current.next)) {
+        current = current.next;
+      } else {
+        current = head;
+      }
+    }
+  }
+  
+  /**
+   * Returns how many listeners are waiting to be called.  This will always be zero after 
+   * {@link #callListeners()} has been invoked.  While a listener is concurrently being added or 
+   * removed this may briefly still include it.
+   * 
+   * @return number of listeners registered to be called
+   */
+  public int registeredListenerCount() {
+    if (head == COMPLETED) {
+      return 0;
+    }
+    return listenerCount;
+  }
+  
+  private static void runListener(Runnable listener, Executor executor, boolean throwException) {
+    try {
+      if (executor != null) {
+        executor.execute(listener);
+      } else {
+        listener.run();
+      }
+    } catch (Throwable t) {
+      if (throwException) {
+        throw ExceptionUtils.makeRuntime(t);
+      } else {
+        ExceptionUtils.handleException(t);
+      }
+    }
+  }
+  
+  /**
+   * <p>Single listener entry in the stack.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  private static class ListenerNode {
+    volatile Runnable listener; // set to null once removed, not private for updater access
+    private final Executor executor;
+    private ListenerNode next;
+    
+    private ListenerNode(Runnable listener, Executor executor) {
+      this.listener = listener;
+      this.executor = executor;
+      this.next = null;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package org.threadly.concurrent.future;
+
+import java.util.Random;
+
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Clock;
+
+/**
+ * <p>Describes how a task should be retried when used with 
+ * {@link FutureUtils#scheduleWithRetry(org.threadly.concurrent.SubmitterScheduler, 
+ * java.util.concurrent.Callable, RetryPolicy)}.  The delay before each retry grows exponentially 
+ * from the initial backoff (up to the maximum backoff).  A random amount of jitter is then 
+ * removed from the delay, so that many tasks which failed at the same time (for example from a 
+ * remote service being unavailable) do not all retry at the same moment.</p>
+ * 
+ * <p>By default any failure will be retried (until the maximum attempts is reached). 
+ * {@link #shouldRetry(Throwable)} can be overridden to only retry specific failures.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ */
+public class RetryPolicy {
+  /**
+   * Default amount the backoff is multiplied by after each failed attempt.
+   */
+  public static final double DEFAULT_BACKOFF_MULTIPLIER = 2;
+  /**
+   * Default maximum portion of the backoff which may be randomly removed.
+   */
+  public static final double DEFAULT_JITTER_FACTOR = .5;
+  private static final Random RANDOM = new Random(Clock.lastKnownTimeMillis());
+  
+  protected final int maxAttempts;
+  protected final long initialBackoffMillis;
+  protected final long maxBackoffMillis;
+  protected final double backoffMultiplier;
+  protected final double jitterFactor;
+  
+  /**
+   * Constructs a new policy using {@link #DEFAULT_BACKOFF_MULTIPLIER} and 
+   * {@link #DEFAULT_JITTER_FACTOR}.
+   * 
+   * @param maxAttempts Maximum times the task will be run (including the first attempt)
+   * @param initialBackoffMillis Delay in milliseconds before the first retry
+   * @param maxBackoffMillis Maximum delay in milliseconds between retries
+   */
+  public RetryPolicy(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis) {
+    this(maxAttempts, initialBackoffMillis, maxBackoffMillis, 
+         DEFAULT_BACKOFF_MULTIPLIER, DEFAULT_JITTER_FACTOR);
+  }
+  
+  /**
+   * Constructs a new policy.  A jitter factor of {@code 0} will result in no randomness, while a 
+   * factor of {@code 1} will result in a delay anywhere between zero and the computed backoff.
+   * 
+   * @param maxAttempts Maximum times the task will be run (including the first attempt)
+   * @param initialBackoffMillis Delay in milliseconds before the first retry
+   * @param maxBackoffMillis Maximum delay in milliseconds between retries
+   * @param backoffMultiplier Amount to multiply the backoff by after each retry, must be at least {@code 1}
+   * @param jitterFactor Portion of the backoff which may be randomly removed, between {@code 0} and {@code 1}
+   */
+  public RetryPolicy(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis, 
+                     double backoffMultiplier, double jitterFactor) {
+    ArgumentVerifier.assertGreaterThanZero(maxAttempts, "maxAttempts");
+    ArgumentVerifier.assertNotNegative(initialBackoffMillis, "initialBackoffMillis");
+    if (maxBackoffMillis < initialBackoffMillis) {
+      throw new IllegalArgumentException("maxBackoffMillis can not be less than initialBackoffMillis");
+    } else if (backoffMultiplier < 1) {
+      throw new IllegalArgumentException("backoffMultiplier must be at least 1");
+    } else if (jitterFactor < 0 || jitterFactor > 1) {
+      throw new IllegalArgumentException("jitterFactor must be between 0 and 1");
+    }
+    
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+    this.backoffMultiplier = backoffMultiplier;
+    this.jitterFactor = jitterFactor;
+  }
+  
+  /**
+   * Returns the maximum times the task will be run, including the first attempt.
+   * 
+   * @return Maximum attempts allowed
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+  
+  /**
+   * Check if a failure should be retried.  This is only invoked if there are attempts remaining. 
+   * By default all failures will be retried, this can be overridden to restrict that.
+   * 
+   * @param failure Cause of the failed attempt
+   * @return {@code true} if the task should be attempted again
+   */
+  public boolean shouldRetry(Throwable failure) {
+    return true;
+  }
+  
+  /**
+   * Returns the delay before the next attempt, with jitter applied.
+   * 
+   * @param failedAttempts Number of attempts which have failed so far (starting at {@code 1})
+   * @return Delay in milliseconds before the next attempt
+   */
+  public long getBackoffMillis(int failedAttempts) {
+    double backoff = initialBackoffMillis * Math.pow(backoffMultiplier, failedAttempts - 1);
+    if (backoff > maxBackoffMillis) {
+      backoff = maxBackoffMillis;
+    }
+    if (jitterFactor > 0) {
+      backoff -= backoff * jitterFactor * RANDOM.nextDouble();
+    }
+    return Math.round(backoff);
+  }
+}
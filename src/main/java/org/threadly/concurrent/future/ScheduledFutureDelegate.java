@@ -6,6 +6,9 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
+
 /**
  * <p>Implementation of the {@link ListenableScheduledFuture} interface.  This design delegates 
  * between a {@link Delayed} instance and {@link ListenableFuture} instance..</p>
@@ -55,6 +58,11 @@ public class ScheduledFutureDelegate<T> implements ListenableScheduledFuture<T>
     return futureImp.isDone();
   }
 
+  @Override
+  public boolean isCompletedNormally() {
+    return futureImp.isCompletedNormally();
+  }
+
   @Override
   public T get() throws InterruptedException, ExecutionException {
     return futureImp.get();
@@ -85,4 +93,62 @@ public class ScheduledFutureDelegate<T> implements ListenableScheduledFuture<T>
   public void addCallback(FutureCallback<? super T> callback, Executor executor) {
     futureImp.addCallback(callback, executor);
   }
+
+  @Override
+  public <R> ListenableFuture<R> map(Function<? super T, ? extends R> mapper) {
+    return map(mapper, null);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> map(Function<? super T, ? extends R> mapper, Executor executor) {
+    return InternalFutureUtils.map(this, mapper, executor);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> flatMap(Function<? super T, ? extends ListenableFuture<R>> mapper) {
+    return flatMap(mapper, null);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> flatMap(Function<? super T, ? extends ListenableFuture<R>> mapper, 
+                                         Executor executor) {
+    return InternalFutureUtils.flatMap(this, mapper, executor);
+  }
+
+  @Override
+  public <TT extends Throwable> ListenableFuture<T> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends T> mapper) {
+    return mapFailure(throwableType, mapper, null);
+  }
+
+  @Override
+  public <TT extends Throwable> ListenableFuture<T> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends T> mapper, 
+                                                               Executor executor) {
+    return InternalFutureUtils.mapFailure(this, throwableType, mapper, executor);
+  }
+
+  @Override
+  public ListenableFuture<T> resultCallback(Consumer<? super T> callback) {
+    return resultCallback(callback, null);
+  }
+
+  @Override
+  public ListenableFuture<T> resultCallback(Consumer<? super T> callback, Executor executor) {
+    InternalFutureUtils.resultCallback(this, callback, executor);
+    
+    return this;
+  }
+
+  @Override
+  public ListenableFuture<T> failureCallback(Consumer<Throwable> callback) {
+    return failureCallback(callback, null);
+  }
+
+  @Override
+  public ListenableFuture<T> failureCallback(Consumer<Throwable> callback, Executor executor) {
+    InternalFutureUtils.failureCallback(this, callback, executor);
+    
+    return this;
+  }
 }
@@ -5,29 +5,50 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
-import org.threadly.concurrent.event.RunnableListenerHelper;
 import org.threadly.util.Clock;
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
 
 /**
  * <p>This class is designed to be a helper when returning a single result asynchronously.  This 
  * is particularly useful if this result is produced over multiple threads (and thus the scheduler 
  * returned future is not useful).</p>
  * 
+ * <p>This implementation is lock free.  Completion is a single compare and swap on an internal 
+ * state, listeners are held in a lock free stack, and threads blocking on {@link #get()} are 
+ * parked with {@link LockSupport} until the result is set.  A thread calling {@link #get()} will 
+ * first spin briefly, since for request / response usage the result is often provided only 
+ * moments later.</p>
+ * 
  * @author jent - Mike Jensen
  * @since 1.2.0
  * @param <T> The result object type returned by this future
  */
 public class SettableListenableFuture<T> implements ListenableFuture<T>, FutureCallback<T> {
-  protected final RunnableListenerHelper listenerHelper;
-  protected final Object resultLock;
+  private static final int STATE_NEW = 0;
+  private static final int STATE_COMPLETING = 1;
+  private static final int STATE_RESULT = 2;
+  private static final int STATE_FAILURE = 3;
+  private static final int STATE_CANCELED = 4;
+  @SuppressWarnings("rawtypes")
+  private static final AtomicIntegerFieldUpdater<SettableListenableFuture> STATE_UPDATER = 
+      AtomicIntegerFieldUpdater.newUpdater(SettableListenableFuture.class, "state");
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<SettableListenableFuture, WaitNode> WAITERS_UPDATER = 
+      AtomicReferenceFieldUpdater.newUpdater(SettableListenableFuture.class, WaitNode.class, "waiters");
+  
+  protected final ListenerStack listeners;
   protected final boolean throwIfAlreadyComplete;
+  private volatile int state;
+  private volatile WaitNode waiters;
   private volatile Thread runningThread;
-  private volatile boolean done;
-  private volatile boolean canceled;
-  private boolean resultCleared;
-  private T result;
-  private Throwable failure;
+  private volatile boolean resultCleared;
+  private T result; // visibility provided by state
+  private Throwable failure; // visibility provided by state
   
   /**
    * Constructs a new {@link SettableListenableFuture}.  You can return this immediately and 
@@ -58,10 +79,11 @@ public class SettableListenableFuture<T> implements ListenableFuture<T>, FutureC
    * @param throwIfAlreadyComplete Defines the behavior when result or failure is set on a completed future
    */
   public SettableListenableFuture(boolean throwIfAlreadyComplete) {
-    this.listenerHelper = new RunnableListenerHelper(true);
-    this.resultLock = new Object();
+    this.listeners = new ListenerStack();
     this.throwIfAlreadyComplete = throwIfAlreadyComplete;
-    done = false;
+    state = STATE_NEW;
+    waiters = null;
+    runningThread = null;
     resultCleared = false;
     result = null;
     failure = null;
@@ -69,12 +91,12 @@ public class SettableListenableFuture<T> implements ListenableFuture<T>, FutureC
 
   @Override
   public void addListener(Runnable listener) {
-    listenerHelper.addListener(listener);
+    listeners.addListener(listener, null);
   }
 
   @Override
   public void addListener(Runnable listener, Executor executor) {
-    listenerHelper.addListener(listener, executor);
+    listeners.addListener(listener, executor);
   }
 
   @Override
@@ -138,16 +160,12 @@ public class SettableListenableFuture<T> implements ListenableFuture<T>, FutureC
    * @return {@code true} if the result was set (ie future did not complete in failure or cancel}
    */
   public boolean setResult(T result) {
-    synchronized (resultLock) {
-      if (! setDone(null)) {
-        return false;
-      }
-      
-      this.result = result;
+    if (! startCompletion(null)) {
+      return false;
     }
     
-    // call outside of lock
-    listenerHelper.callListeners();
+    this.result = result;
+    finishCompletion(STATE_RESULT);
     
     return true;
   }
@@ -167,19 +185,15 @@ public class SettableListenableFuture<T> implements ListenableFuture<T>, FutureC
    * @return {@code true} if the failure was set (ie future did not complete with result or cancel}
    */
   public boolean setFailure(Throwable failure) {
-    synchronized (resultLock) {
-      if (! setDone(failure)) { // if failure is null, there is no point to have the stack twice
-        return false;
-      }
-
-      if (failure == null) {
-        failure = new Exception();
-      }
-      this.failure = failure;
+    if (! startCompletion(failure)) { // if failure is null, there is no point to have the stack twice
+      return false;
     }
     
-    // call outside of lock
-    listenerHelper.callListeners();
+    if (failure == null) {
+      failure = new Exception();
+    }
+    this.failure = failure;
+    finishCompletion(STATE_FAILURE);
     
     return true;
   }
@@ -195,45 +209,31 @@ public class SettableListenableFuture<T> implements ListenableFuture<T>, FutureC
    * @param thread Thread that is generating the result for this future
    */
   public void setRunningThread(Thread thread) {
-    if (! done) {
+    if (state == STATE_NEW) {
       this.runningThread = thread;
     }
   }
 
   @Override
   public boolean cancel(boolean interruptThread) {
-    if (done) {
+    if (state != STATE_NEW || ! STATE_UPDATER.compareAndSet(this, STATE_NEW, STATE_COMPLETING)) {
       return false;
     }
     
-    boolean canceled;
-    synchronized (resultLock) {
-      canceled = ! done;
-      if (canceled) {
-        this.canceled = true;
-        
-        if (interruptThread) {
-          Thread runningThread = this.runningThread;
-          if (runningThread != null) {
-            runningThread.interrupt();
-          }
-        }
-        
-        setDone(null);
+    if (interruptThread) {
+      Thread runningThread = this.runningThread;
+      if (runningThread != null) {
+        runningThread.interrupt();
       }
     }
+    finishCompletion(STATE_CANCELED);
     
-    if (canceled) {
-      // call outside of lock
-      listenerHelper.callListeners();
-    }
-    
-    return canceled;
+    return true;
   }
 
   @Override
   public boolean isCancelled() {
-    return canceled;
+    return state == STATE_CANCELED;
   }
   
   /**
@@ -247,82 +247,253 @@ public class SettableListenableFuture<T> implements ListenableFuture<T>, FutureC
    * useful in very specific instances.
    */
   public void clearResult() {
-    synchronized (resultLock) {
-      if (! done) {
-        throw new IllegalStateException("Result not set yet");
-      }
-      resultCleared = true;
-      result = null;
-      failure = null;
+    if (state == STATE_NEW) {
+      throw new IllegalStateException("Result not set yet");
     }
+    resultCleared = true;
+    result = null;
+    failure = null;
   }
   
-  // should be synchronized on resultLock before calling
-  private boolean setDone(Throwable cause) {
-    if (done) {
-      if (throwIfAlreadyComplete) {
-        throw new IllegalStateException("Future already done", cause);
-      }
-      
+  /**
+   * Attempts to move this future into a completing state.  Once this returns {@code true} the 
+   * result or failure must be set, followed by a call to {@link #finishCompletion(int)}.
+   * 
+   * @param cause Cause to attach to the exception if thrown, or {@code null}
+   * @return {@code true} if this thread is the one which should complete the future
+   */
+  private boolean startCompletion(Throwable cause) {
+    if (STATE_UPDATER.compareAndSet(this, STATE_NEW, STATE_COMPLETING)) {
+      return true;
+    } else if (throwIfAlreadyComplete) {
+      throw new IllegalStateException("Future already done", cause);
+    } else {
       return false;
     }
-    
-    done = true;
+  }
+  
+  /**
+   * Publishes the final state, then wakes any blocked threads and invokes the listeners.
+   * 
+   * @param finalState State representing how the future completed
+   */
+  private void finishCompletion(int finalState) {
     runningThread = null;
+    state = finalState;  // volatile write publishes result / failure
     
-    resultLock.notifyAll();
-    return true;
+    WaitNode waiter = WAITERS_UPDATER.getAndSet(this, null);
+    while (waiter != null) {
+      Thread t = waiter.thread;
+      if (t != null) {
+        waiter.thread = null;
+        LockSupport.unpark(t);
+      }
+      waiter = waiter.next;
+    }
+    
+    listeners.callListeners();
   }
 
   @Override
   public boolean isDone() {
-    return done;
+    return state != STATE_NEW;
+  }
+  
+  @Override
+  public boolean isCompletedNormally() {
+    return state == STATE_RESULT;
   }
 
   @Override
   public T get() throws InterruptedException, ExecutionException {
-    synchronized (resultLock) {
-      while (! done) {
-        resultLock.wait();
-      }
-      if (resultCleared) {
-        throw new IllegalStateException("Result cleared, future get's not possible");
-      }
-      
-      if (failure != null) {
-        throw new ExecutionException(failure);
-      } else if (canceled) {
-        throw new CancellationException();
-      } else {
-        return result;
-      }
-    }
+    return reportResult(awaitDone(false, 0L));
   }
 
   @Override
   public T get(long timeout, TimeUnit unit) throws InterruptedException, 
                                                    ExecutionException, TimeoutException {
-    long startTime = Clock.accurateForwardProgressingMillis();
-    long timeoutInMs = unit.toMillis(timeout);
-    synchronized (resultLock) {
-      long remainingInMs;
-      while (! done && 
-             (remainingInMs = timeoutInMs - (Clock.accurateForwardProgressingMillis() - startTime)) > 0) {
-        resultLock.wait(remainingInMs);
-      }
-      if (resultCleared) {
-        throw new IllegalStateException("Result cleared, future get's not possible");
-      }
-      
-      if (failure != null) {
-        throw new ExecutionException(failure);
-      } else if (canceled) {
-        throw new CancellationException();
-      } else if (done) {
-        return result;
+    int s = awaitDone(true, unit.toNanos(timeout));
+    if (s <= STATE_COMPLETING) {
+      throw new TimeoutException();
+    }
+    return reportResult(s);
+  }
+  
+  /**
+   * Blocks until the future has completed, or the timeout has elapsed.  Before blocking the 
+   * calling thread will spin for a short (adaptive) period, see {@link AdaptiveSpinner}.  The 
+   * timeout is tracked in nanoseconds so that short timeouts are not rounded.
+   * 
+   * @param timed {@code true} if the wait should be limited to {@code timeoutNanos}
+   * @param timeoutNanos Maximum time to wait if timed
+   * @return The state at the point of returning, may still be incomplete if timed
+   * @throws InterruptedException Thrown if the thread is interrupted while waiting
+   */
+  private int awaitDone(boolean timed, long timeoutNanos) throws InterruptedException {
+    long startNanos = timed ? Clock.accurateTimeNanos() : 0L;
+    // results are often set moments after a get call, so try to avoid the cost of parking
+    if (timed) {
+      AdaptiveSpinner.spinTillDone(this, timeoutNanos);
+    } else {
+      AdaptiveSpinner.spinTillDone(this);
+    }
+    WaitNode waiter = null;
+    boolean queued = false;
+    while (true) {
+      int s = state;
+      if (s > STATE_COMPLETING) {
+        if (waiter != null) {
+          waiter.thread = null;
+        }
+        return s;
+      } else if (s == STATE_COMPLETING) {
+        // value is being set, will only be a moment
+        Thread.yield();
+      } else if (Thread.interrupted()) {
+        removeWaiter(waiter);
+        throw new InterruptedException();
+      } else if (waiter == null) {
+        waiter = new WaitNode();
+      } else if (! queued) {
+        WaitNode head = waiters;
+        waiter.next = head;
+        queued = WAITERS_UPDATER.compareAndSet(this, head, waiter);
+      } else if (timed) {
+        long remainingNanos = timeoutNanos - (Clock.accurateTimeNanos() - startNanos);
+        if (remainingNanos <= 0) {
+          removeWaiter(waiter);
+          return state;
+        }
+        LockSupport.parkNanos(this, remainingNanos);
       } else {
-        throw new TimeoutException();
+        LockSupport.park(this);
       }
     }
   }
+  
+  /**
+   * Unlinks a waiter which timed out or was interrupted, along with any other abandoned waiters.
+   * 
+   * @param waiter Waiter which is no longer waiting, or {@code null}
+   */
+  private void removeWaiter(WaitNode waiter) {
+    if (waiter == null) {
+      return;
+    }
+    waiter.thread = null;
+    
+    boolean restart = true;
+    while (restart) {
+      restart = false;
+      WaitNode previous = null;
+      WaitNode current = waiters;
+      while (current != null) {
+        WaitNode next = current.next;
+        if (current.thread != null) {
+          previous = current;
+        } else if (previous != null) {
+          previous.next = next;
+          if (previous.thread == null) {
+            // previous removed concurrently, start over
+            restart = true;
+            break;
+          }
+        } else if (! WAITERS_UPDATER.compareAndSet(this, current, next)) {
+          restart = true;
+          break;
+        }
+        current = next;
+      }
+    }
+  }
+  
+  /**
+   * Produces the result (or throws the exception) for a completed state.
+   * 
+   * @param s Final state of the future
+   * @return Result of the future
+   * @throws ExecutionException Thrown if the future completed with a failure
+   */
+  private T reportResult(int s) throws ExecutionException {
+    if (resultCleared) {
+      throw new IllegalStateException("Result cleared, future get's not possible");
+    }
+    
+    if (s == STATE_RESULT) {
+      return result;
+    } else if (s == STATE_FAILURE) {
+      throw new ExecutionException(failure);
+    } else {
+      throw new CancellationException();
+    }
+  }
+
+  @Override
+  public <R> ListenableFuture<R> map(Function<? super T, ? extends R> mapper) {
+    return map(mapper, null);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> map(Function<? super T, ? extends R> mapper, Executor executor) {
+    return InternalFutureUtils.map(this, mapper, executor);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> flatMap(Function<? super T, ? extends ListenableFuture<R>> mapper) {
+    return flatMap(mapper, null);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> flatMap(Function<? super T, ? extends ListenableFuture<R>> mapper, 
+                                         Executor executor) {
+    return InternalFutureUtils.flatMap(this, mapper, executor);
+  }
+
+  @Override
+  public <TT extends Throwable> ListenableFuture<T> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends T> mapper) {
+    return mapFailure(throwableType, mapper, null);
+  }
+
+  @Override
+  public <TT extends Throwable> ListenableFuture<T> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends T> mapper, 
+                                                               Executor executor) {
+    return InternalFutureUtils.mapFailure(this, throwableType, mapper, executor);
+  }
+
+  @Override
+  public ListenableFuture<T> resultCallback(Consumer<? super T> callback) {
+    return resultCallback(callback, null);
+  }
+
+  @Override
+  public ListenableFuture<T> resultCallback(Consumer<? super T> callback, Executor executor) {
+    InternalFutureUtils.resultCallback(this, callback, executor);
+    
+    return this;
+  }
+
+  @Override
+  public ListenableFuture<T> failureCallback(Consumer<Throwable> callback) {
+    return failureCallback(callback, null);
+  }
+
+  @Override
+  public ListenableFuture<T> failureCallback(Consumer<Throwable> callback, Executor executor) {
+    InternalFutureUtils.failureCallback(this, callback, executor);
+    
+    return this;
+  }
+  
+  /**
+   * <p>Node for a thread blocked waiting for the result.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  private static class WaitNode {
+    private volatile Thread thread = Thread.currentThread();
+    private volatile WaitNode next = null;
+  }
 }
@@ -1,15 +1,15 @@
 package org.threadly.concurrent.future;
 
-import java.util.Iterator;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.threadly.concurrent.AbstractSubmitterScheduler;
+import org.threadly.concurrent.HashedWheelTimer;
 import org.threadly.concurrent.SimpleSchedulerInterface;
 import org.threadly.concurrent.SingleThreadScheduler;
 import org.threadly.concurrent.SubmitterScheduler;
 import org.threadly.util.Clock;
+import org.threadly.util.TimeSource;
 
 /**
  * <p>This class is to guarantee that a given {@link ListenableFuture} is completed within a 
@@ -17,6 +17,11 @@ import org.threadly.util.Clock;
  * attempt to invoke {@link ListenableFuture#cancel(boolean)}.  The future should then throw a 
  * {@link java.util.concurrent.CancellationException} on a {@link ListenableFuture#get()} call.</p>
  * 
+ * <p>Timeouts are tracked on a {@link HashedWheelTimer}, so watching a future, and the cleanup 
+ * when that future completes, are both constant time operations no matter how many futures are 
+ * being watched.  Because of the timer's tick, a future may be canceled slightly after the 
+ * timeout (at most {@link HashedWheelTimer#DEFAULT_TICK_MILLIS} late).</p>
+ * 
  * @author jent - Mike Jensen
  * @since 4.0.0
  */
@@ -44,10 +49,9 @@ public class Watchdog {
   protected final SimpleSchedulerInterface scheduler;
   protected final long timeoutInMillis;
   protected final boolean sendInterruptToTrackedThreads;
-  protected final Runnable checkRunner;
-  protected final Queue<FutureWrapper> futures;
-  // -1 = not scheduled, 0 = scheduled, 1 = running, 2 = more added while running
-  private final AtomicInteger checkRunnerStatus;
+  protected final TimeSource timeSource;
+  protected final HashedWheelTimer timer;
+  protected final AtomicInteger watchedCount;
   
   /**
    * Constructs a new {@link Watchdog}.  This constructor will use a default static scheduler 
@@ -76,12 +80,75 @@ public class Watchdog {
    */
   public Watchdog(SimpleSchedulerInterface scheduler, long timeoutInMillis, 
                   boolean sendInterruptOnFutureCancel) {
+    this(scheduler, timeoutInMillis, sendInterruptOnFutureCancel, null);
+  }
+  
+  /**
+   * Constructs a new {@link Watchdog} with a scheduler and {@link TimeSource} of your choosing.  
+   * The time source is used to determine when a future has expired.  It should generally be the 
+   * same source the scheduler uses, for example a 
+   * {@link org.threadly.concurrent.NoThreadScheduler} constructed with a manually advanced 
+   * source can be used to run a simulation of timeouts without waiting for them in real time.
+   * 
+   * @since 4.6.0
+   * @param scheduler Scheduler to schedule task to look for expired futures
+   * @param timeoutInMillis Time in milliseconds that futures will be set to error if they are not done
+   * @param sendInterruptOnFutureCancel If {@code true}, and a thread is provided with the future, 
+   *                                      an interrupt will be sent on timeout
+   * @param timeSource Source for time, or {@code null} to use {@link Clock}
+   */
+  public Watchdog(SimpleSchedulerInterface scheduler, long timeoutInMillis, 
+                  boolean sendInterruptOnFutureCancel, TimeSource timeSource) {
+    this(scheduler, makeTimer(scheduler, 
+                              // no reason for the tick to be longer than our only timeout
+                              Math.max(1, Math.min(timeoutInMillis, 
+                                                   HashedWheelTimer.DEFAULT_TICK_MILLIS)), 
+                              timeSource), 
+         timeoutInMillis, sendInterruptOnFutureCancel, timeSource);
+  }
+  
+  /**
+   * Constructs a new {@link Watchdog} which tracks timeouts on an existing timer.  This allows 
+   * the timer to be shared between multiple instances, as done by {@link WatchdogCache}.
+   * 
+   * @since 4.6.0
+   * @param scheduler Scheduler the timer runs on
+   * @param timer Timer to schedule timeouts on
+   * @param timeoutInMillis Time in milliseconds that futures will be set to error if they are not done
+   * @param sendInterruptOnFutureCancel If {@code true}, and a thread is provided with the future, 
+   *                                      an interrupt will be sent on timeout
+   * @param timeSource Source for time the timer was constructed with, or {@code null} for {@link Clock}
+   */
+  protected Watchdog(SimpleSchedulerInterface scheduler, HashedWheelTimer timer, 
+                     long timeoutInMillis, boolean sendInterruptOnFutureCancel, 
+                     TimeSource timeSource) {
     this.scheduler = scheduler;
     this.timeoutInMillis = timeoutInMillis;
     this.sendInterruptToTrackedThreads = sendInterruptOnFutureCancel;
-    this.checkRunner = new CheckRunner();
-    this.futures = new ConcurrentLinkedQueue<FutureWrapper>();
-    this.checkRunnerStatus = new AtomicInteger(-1);
+    this.timeSource = timeSource;
+    this.timer = timer;
+    this.watchedCount = new AtomicInteger(0);
+  }
+  
+  /**
+   * Constructs a {@link HashedWheelTimer} to run on the provided scheduler.  If the scheduler 
+   * is not a {@link SubmitterScheduler} it will be adapted to one.
+   * 
+   * @param scheduler Scheduler for the timer to run on
+   * @param tickMillis Time in milliseconds each bucket in the wheel represents
+   * @param timeSource Source for time, or {@code null} to use {@link Clock}
+   * @return A new timer
+   */
+  protected static HashedWheelTimer makeTimer(SimpleSchedulerInterface scheduler, long tickMillis, 
+                                              TimeSource timeSource) {
+    SubmitterScheduler submitterScheduler;
+    if (scheduler instanceof SubmitterScheduler) {
+      submitterScheduler = (SubmitterScheduler)scheduler;
+    } else {
+      submitterScheduler = new SimpleSchedulerAdapter(scheduler);
+    }
+    return new HashedWheelTimer(submitterScheduler, tickMillis, 
+                                HashedWheelTimer.DEFAULT_WHEEL_SIZE, timeSource);
   }
   
   /**
@@ -97,14 +164,13 @@ public class Watchdog {
   
   /**
    * Checks to see if this watchdog is currently active.  Meaning there are futures on it which 
-   * either have not been completed yet, or have not been inspected for completion.  If this 
-   * returns false, it means that there are no futures waiting to complete, and no scheduled tasks 
-   * currently scheduled to inspect them.
+   * have not been completed or canceled yet.  If this returns false, it means that there are no 
+   * futures waiting to complete.
    * 
    * @return {@code true} if this watchdog is currently in use
    */
   public boolean isActive() {
-    return ! futures.isEmpty() || checkRunnerStatus.get() != -1;
+    return watchedCount.get() > 0;
   }
   
   /**
@@ -117,106 +183,69 @@ public class Watchdog {
    * @param future Future to inspect to ensure completion
    */
   public void watch(ListenableFuture<?> future) {
+    watch(future, timeoutInMillis);
+  }
+  
+  /**
+   * Watch a given {@link ListenableFuture} with a timeout other than the one this instance was 
+   * constructed with.  This is used by {@link WatchdogCache} so that a single timer can be used 
+   * for all timeouts.
+   * 
+   * @since 4.6.0
+   * @param future Future to inspect to ensure completion
+   * @param timeoutInMillis Time in milliseconds that future should be completed within
+   */
+  protected void watch(final ListenableFuture<?> future, long timeoutInMillis) {
     if (future == null || future.isDone()) {
       return;
     }
     
-    final FutureWrapper fw = new FutureWrapper(future);
-    futures.add(fw);
-    // we attempt to remove the future on completion to reduce inspection needed
-    future.addListener(new Runnable() {
+    watchedCount.incrementAndGet();
+    final HashedWheelTimer.Timeout timeout = timer.schedule(new Runnable() {
       @Override
       public void run() {
-        futures.remove(fw);
+        watchedCount.decrementAndGet();
+        future.cancel(sendInterruptToTrackedThreads);
       }
-    });
-    
-    while (true) {
-      if (checkRunnerStatus.get() == -1) {
-        if (checkRunnerStatus.compareAndSet(-1, 0)) {
-          scheduler.schedule(checkRunner, timeoutInMillis);
-          return;
-        }
-      } else if (checkRunnerStatus.get() == 1) {
-        if (checkRunnerStatus.compareAndSet(1, 2)) {
-          return;
+    }, timeoutInMillis);
+    // canceling the timeout is constant time, and allows the future to be garbage collected
+    future.addListener(new Runnable() {
+      @Override
+      public void run() {
+        if (timeout.cancel()) {
+          watchedCount.decrementAndGet();
         }
-      } else {
-        // either already scheduled, or already marked as more added
-        return;
       }
-    }
+    });
   }
-
+  
   /**
-   * <p>Just a simple wrapper class so we can hold not just the future, but what time the future 
-   * will expire at.</p>
+   * <p>Adapts a {@link SimpleSchedulerInterface} so that it can be provided to a 
+   * {@link HashedWheelTimer}.</p>
    * 
    * @author jent - Mike Jensen
-   * @since 4.0.0
+   * @since 4.6.0
    */
-  private class FutureWrapper {
-    public final long expireTime;
-    private final ListenableFuture<?> future;
+  protected static class SimpleSchedulerAdapter extends AbstractSubmitterScheduler {
+    protected final SimpleSchedulerInterface scheduler;
+    
+    protected SimpleSchedulerAdapter(SimpleSchedulerInterface scheduler) {
+      this.scheduler = scheduler;
+    }
 
-    public FutureWrapper(ListenableFuture<?> future) {
-      this.expireTime = Clock.accurateForwardProgressingMillis() + timeoutInMillis;
-      this.future = future;
+    @Override
+    protected void doSchedule(Runnable task, long delayInMillis) {
+      scheduler.schedule(task, delayInMillis);
     }
-  }
 
-  /**
-   * <p>This runnable inspects over the queue looking for futures which have expired and need to 
-   * be canceled.  It may reschedule itself if it is not able to fully examine the queue (because 
-   * not all items are currently ready for inspection).</p>
-   * 
-   * @author jent - Mike Jensen
-   * @since 4.0.0
-   */
-  private class CheckRunner implements Runnable {
     @Override
-    public void run() {
-      checkRunnerStatus.set(1);
-      
-      Clock.accurateTimeNanos(); // update for accurate time checking
-      Iterator<FutureWrapper> it = futures.iterator();
-      FutureWrapper fw = null;
-      while (it.hasNext()) {
-        fw = it.next();
-        if (Clock.lastKnownForwardProgressingMillis() >= fw.expireTime) {
-          it.remove();
-          try {
-            fw.future.cancel(sendInterruptToTrackedThreads);
-          } finally {
-            fw = null;
-          }
-        } else {
-          /* since futures are added in order of expiration, 
-          we know at this point we don't need to inspect any more items*/
-          break;
-        }
-      }
-      
-      if (fw != null) {
-        long nextRunDelay = fw.expireTime - Clock.lastKnownForwardProgressingMillis();
-        if (nextRunDelay <= 0) {
-          scheduler.execute(this);
-        } else {
-          scheduler.schedule(this, nextRunDelay);
-        }
-      } else {
-        while (true) {
-          if (checkRunnerStatus.get() == 1) {
-            if (checkRunnerStatus.compareAndSet(1, -1)) {
-              return;
-            }
-          } else if (checkRunnerStatus.get() == 2) {
-            // will be set back to 1 when this restarts
-            scheduler.execute(this);
-            return;
-          }
-        }
-      }
+    public void scheduleWithFixedDelay(Runnable task, long initialDelay, long recurringDelay) {
+      scheduler.scheduleWithFixedDelay(task, initialDelay, recurringDelay);
+    }
+
+    @Override
+    public void scheduleAtFixedRate(Runnable task, long initialDelay, long period) {
+      scheduler.scheduleAtFixedRate(task, initialDelay, period);
     }
   }
 }
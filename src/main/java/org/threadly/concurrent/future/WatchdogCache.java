@@ -1,29 +1,25 @@
 package org.threadly.concurrent.future;
 
-import java.util.Iterator;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicBoolean;
-
+import org.threadly.concurrent.HashedWheelTimer;
 import org.threadly.concurrent.SimpleSchedulerInterface;
 
 /**
- * <p>A class which handles a collection of  {@link Watchdog} instances.  Because the timeout for 
+ * <p>A class which handles watching futures with different timeouts.  Because the timeout for 
  * {@link Watchdog} is set in the constructor {@link Watchdog#Watchdog(long, boolean)}, you can 
  * use this class to be more flexible and set the timeout at the time of watching the future.</p>
  * 
+ * <p>All timeouts are tracked on a single {@link HashedWheelTimer}, so only one task is 
+ * scheduled (and only while there are futures being watched) no matter how many distinct 
+ * timeouts are used.</p>
+ * 
  * @author jent - Mike Jensen
  * @since 4.0.0
  */
 @SuppressWarnings("deprecation")
 public class WatchdogCache {
-  protected static final int INSPECTION_INTERVAL_MILLIS = 1000 * 10;
-  
   protected final SimpleSchedulerInterface scheduler;
   protected final boolean sendInterruptOnFutureCancel;
-  protected final ConcurrentMap<Long, Watchdog> cachedDogs;
-  protected final Runnable cacheCleaner;
-  private final AtomicBoolean cleanerScheduled;
+  protected final Watchdog watchdog;
   
   /**
    * Constructs a new {@link WatchdogCache}.  This constructor will use a default static scheduler 
@@ -51,9 +47,10 @@ public class WatchdogCache {
   public WatchdogCache(SimpleSchedulerInterface scheduler, boolean sendInterruptOnFutureCancel) {
     this.scheduler = scheduler;
     this.sendInterruptOnFutureCancel = sendInterruptOnFutureCancel;
-    cachedDogs = new ConcurrentHashMap<Long, Watchdog>();
-    cacheCleaner = new CleanRunner();
-    cleanerScheduled = new AtomicBoolean(false);
+    // timeout is provided with each watch call, so the constructed timeout is never used
+    watchdog = new Watchdog(scheduler, 
+                            Watchdog.makeTimer(scheduler, HashedWheelTimer.DEFAULT_TICK_MILLIS, null), 
+                            0, sendInterruptOnFutureCancel, null);
   }
   
   /**
@@ -67,55 +64,6 @@ public class WatchdogCache {
    * @param timeoutInMillis Time in milliseconds that future should be completed within
    */
   public void watch(ListenableFuture<?> future, long timeoutInMillis) {
-    // attempt around a cheap shortcut
-    if (future == null || future.isDone()) {
-      return;
-    }
-    
-    Watchdog dog = cachedDogs.get(timeoutInMillis);
-    if (dog == null) {
-      dog = new Watchdog(scheduler, timeoutInMillis, sendInterruptOnFutureCancel);
-      Watchdog exisiting = cachedDogs.putIfAbsent(timeoutInMillis, dog);
-      if (exisiting != null) {
-        dog = exisiting;
-      }
-    }
-    
-    dog.watch(future);
-    
-    maybeScheduleCleaner();
-  }
-  
-  private void maybeScheduleCleaner() {
-    if (! cleanerScheduled.get() && cleanerScheduled.compareAndSet(false, true)) {
-      scheduler.schedule(cacheCleaner, INSPECTION_INTERVAL_MILLIS);
-    }
-  }
-  
-  /**
-   * <p>Runnable which looks over all cached {@link Watchdog} instances to see if any are no 
-   * longer active.  Removing the inactive ones as they are found.  This also handles rescheduling 
-   * itself if future inspection may be needed.</p>
-   * 
-   * @author jent - Mike Jensen
-   * @since 4.0.0
-   */
-  private class CleanRunner implements Runnable {
-    @Override
-    public void run() {
-      Iterator<Watchdog> it = cachedDogs.values().iterator();
-      while (it.hasNext()) {
-        if (! it.next().isActive()) {
-          it.remove();
-        }
-      }
-      
-      // must set unscheduled before checking if we need to reschedule
-      cleanerScheduled.set(false);
-      
-      if (! cachedDogs.isEmpty()) {
-        maybeScheduleCleaner();
-      }
-    }
+    watchdog.watch(future, timeoutInMillis);
   }
 }
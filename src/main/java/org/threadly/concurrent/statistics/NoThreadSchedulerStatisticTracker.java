@@ -5,7 +5,6 @@ import java.util.Map;
 
 import org.threadly.concurrent.NoThreadScheduler;
 import org.threadly.concurrent.TaskPriority;
-import org.threadly.concurrent.collections.ConcurrentArrayList;
 import org.threadly.concurrent.statistics.PriorityStatisticManager.TaskStatWrapper;
 import org.threadly.util.Clock;
 import org.threadly.util.Pair;
@@ -214,6 +213,35 @@ public class NoThreadSchedulerStatisticTracker extends NoThreadScheduler
     return statsManager.getLongRunningTasksQty(durationLimitMillis);
   }
   
+  /**
+   * Changes if the percentile functions ({@link #getExecutionDelayPercentiles(double...)} and 
+   * {@link #getExecutionDurationPercentiles(double...)} and their priority variants) are 
+   * calculated from the sample window, or from histograms.  By default the sample window is 
+   * used, which provides exact values, but only over the most recent samples, and requires a 
+   * sort for each call.  Histograms use a fixed amount of memory, cover every execution since 
+   * they were enabled (or since {@link #resetCollectedStats()}), and are cheap to query.  But 
+   * reported values may be up to about 3% lower than the real samples.
+   * 
+   * The sample lists and averages are always provided from the sample window.
+   * 
+   * @since 4.6.0
+   * @param useHistograms {@code true} to calculate percentiles from histograms
+   */
+  public void setUseHistogramPercentiles(boolean useHistograms) {
+    statsManager.setUseHistogramPercentiles(useHistograms);
+  }
+  
+  /**
+   * Check if percentiles are currently calculated from histograms.  See 
+   * {@link #setUseHistogramPercentiles(boolean)}.
+   * 
+   * @since 4.6.0
+   * @return {@code true} if histograms are used for percentile calculations
+   */
+  public boolean isUsingHistogramPercentiles() {
+    return statsManager.isUsingHistogramPercentiles();
+  }
+  
   @Override
   public void resetCollectedStats() {
     statsManager.resetCollectedStats();
@@ -237,13 +265,7 @@ public class NoThreadSchedulerStatisticTracker extends NoThreadScheduler
     if (result != null && result.getContainedRunnable() instanceof TaskStatWrapper) {
       long taskDelay = Clock.lastKnownForwardProgressingMillis() - result.getPureRunTime();
       TaskStatWrapper statWrapper = (TaskStatWrapper)result.getContainedRunnable();
-      ConcurrentArrayList<Long> priorityStats = 
-          statsManager.getExecutionDelaySamplesInternal(statWrapper.priority);
-
-      synchronized (priorityStats.getModificationLock()) {
-        priorityStats.add(taskDelay);
-        statsManager.trimWindow(priorityStats);
-      }
+      statsManager.trackTaskDelay(statWrapper.priority, taskDelay);
     }
     
     return result;
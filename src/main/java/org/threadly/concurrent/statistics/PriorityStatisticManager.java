@@ -1,7 +1,7 @@
 package org.threadly.concurrent.statistics;
 
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -11,9 +11,11 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.threadly.concurrent.RunnableCallableAdapter;
 import org.threadly.concurrent.RunnableContainer;
 import org.threadly.concurrent.TaskPriority;
-import org.threadly.concurrent.collections.ConcurrentArrayList;
+import org.threadly.concurrent.collections.ConcurrentLongRingBuffer;
 import org.threadly.concurrent.future.ListenableFutureTask;
 import org.threadly.util.Clock;
+import org.threadly.util.LogBucketHistogram;
+import org.threadly.util.LongArrayList;
 import org.threadly.util.Pair;
 import org.threadly.util.StatisticsUtils;
 
@@ -34,12 +36,15 @@ class PriorityStatisticManager {
   protected final AtomicLong totalLowPriorityExecutions;
   protected final AtomicLong totalStarvablePriorityExecutions;
   protected final ConcurrentHashMap<Pair<Thread, TaskStatWrapper>, Long> runningTasks;
-  protected final ConcurrentArrayList<Long> starvablePriorityRunDurations;
-  protected final ConcurrentArrayList<Long> lowPriorityRunDurations;
-  protected final ConcurrentArrayList<Long> highPriorityRunDurations;
-  protected final ConcurrentArrayList<Long> starvablePriorityExecutionDelay;
-  protected final ConcurrentArrayList<Long> lowPriorityExecutionDelay;
-  protected final ConcurrentArrayList<Long> highPriorityExecutionDelay;
+  protected final ConcurrentLongRingBuffer starvablePriorityRunDurations;
+  protected final ConcurrentLongRingBuffer lowPriorityRunDurations;
+  protected final ConcurrentLongRingBuffer highPriorityRunDurations;
+  protected final ConcurrentLongRingBuffer starvablePriorityExecutionDelay;
+  protected final ConcurrentLongRingBuffer lowPriorityExecutionDelay;
+  protected final ConcurrentLongRingBuffer highPriorityExecutionDelay;
+  // histograms are indexed by TaskPriority ordinal, and are null unless enabled
+  protected volatile LogBucketHistogram[] executionDelayHistograms;
+  protected volatile LogBucketHistogram[] executionDurationHistograms;
   
   protected PriorityStatisticManager(int maxWindowSize, boolean accurateTime) {
     this.maxWindowSize = maxWindowSize;
@@ -48,12 +53,49 @@ class PriorityStatisticManager {
     totalLowPriorityExecutions = new AtomicLong(0);
     totalStarvablePriorityExecutions = new AtomicLong(0);
     runningTasks = new ConcurrentHashMap<Pair<Thread, TaskStatWrapper>, Long>();
-    starvablePriorityRunDurations = new ConcurrentArrayList<Long>(0, maxWindowSize);
-    lowPriorityRunDurations = new ConcurrentArrayList<Long>(0, maxWindowSize);
-    highPriorityRunDurations = new ConcurrentArrayList<Long>(0, maxWindowSize);
-    starvablePriorityExecutionDelay = new ConcurrentArrayList<Long>(0, maxWindowSize);
-    lowPriorityExecutionDelay = new ConcurrentArrayList<Long>(0, maxWindowSize);
-    highPriorityExecutionDelay = new ConcurrentArrayList<Long>(0, maxWindowSize);
+    starvablePriorityRunDurations = new ConcurrentLongRingBuffer(maxWindowSize);
+    lowPriorityRunDurations = new ConcurrentLongRingBuffer(maxWindowSize);
+    highPriorityRunDurations = new ConcurrentLongRingBuffer(maxWindowSize);
+    starvablePriorityExecutionDelay = new ConcurrentLongRingBuffer(maxWindowSize);
+    lowPriorityExecutionDelay = new ConcurrentLongRingBuffer(maxWindowSize);
+    highPriorityExecutionDelay = new ConcurrentLongRingBuffer(maxWindowSize);
+    executionDelayHistograms = null;
+    executionDurationHistograms = null;
+  }
+  
+  /**
+   * Changes if percentiles should be calculated from histograms or the sample windows.  
+   * Histograms have a fixed memory cost, and are able to provide percentiles over every 
+   * execution since they were enabled (or since {@link #resetCollectedStats()}).  Enabling 
+   * histograms when they are already enabled has no effect.
+   * 
+   * @param useHistograms {@code true} to use histograms for percentile calculations
+   */
+  public synchronized void setUseHistogramPercentiles(boolean useHistograms) {
+    if (! useHistograms) {
+      executionDelayHistograms = null;
+      executionDurationHistograms = null;
+    } else if (executionDelayHistograms == null) {
+      executionDelayHistograms = makeHistograms();
+      executionDurationHistograms = makeHistograms();
+    }
+  }
+  
+  private static LogBucketHistogram[] makeHistograms() {
+    LogBucketHistogram[] result = new LogBucketHistogram[TaskPriority.values().length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = new LogBucketHistogram();
+    }
+    return result;
+  }
+  
+  /**
+   * Check if percentiles are currently being calculated from histograms.
+   * 
+   * @return {@code true} if histograms are being used for percentile calculations
+   */
+  public boolean isUsingHistogramPercentiles() {
+    return executionDelayHistograms != null;
   }
   
   /**
@@ -62,7 +104,7 @@ class PriorityStatisticManager {
    * @param priority TaskPriority to look up against, can not be {@code null}
    * @return Collection of execution duration statistics
    */
-  ConcurrentArrayList<Long> getExecutionDurationSamplesInternal(TaskPriority priority) {
+  ConcurrentLongRingBuffer getExecutionDurationSamplesInternal(TaskPriority priority) {
     switch (priority) {
       case High:
         return highPriorityRunDurations;
@@ -81,7 +123,7 @@ class PriorityStatisticManager {
    * @param priority TaskPriority to look up against, can not be {@code null}
    * @return Collection of execution delay statistics
    */
-  ConcurrentArrayList<Long> getExecutionDelaySamplesInternal(TaskPriority priority) {
+  ConcurrentLongRingBuffer getExecutionDelaySamplesInternal(TaskPriority priority) {
     switch (priority) {
       case High:
         return highPriorityExecutionDelay;
@@ -134,130 +176,204 @@ class PriorityStatisticManager {
                         Clock.accurateForwardProgressingMillis() : 
                         Clock.lastKnownForwardProgressingMillis();
     
-    ConcurrentArrayList<Long> runDurations = getExecutionDurationSamplesInternal(taskPair.getRight().priority);
-    
     Long startTime = runningTasks.remove(taskPair);
     
-    synchronized (runDurations.getModificationLock()) {
-      runDurations.add(finishTime - startTime);
-      trimWindow(runDurations);
+    long duration = finishTime - startTime;
+    TaskPriority priority = taskPair.getRight().priority;
+    getExecutionDurationSamplesInternal(priority).add(duration);
+    LogBucketHistogram[] histograms = executionDurationHistograms;
+    if (histograms != null) {
+      histograms[priority.ordinal()].record(duration);
     }
   }
   
   /**
-   * Reduces the list size to be within the max window size.
+   * Record the delay a task experienced from when it was ready to execute to when it started.
    * 
-   * Should have the list synchronized/locked before calling.
+   * @param priority Priority of the task which is about to start
+   * @param taskDelay Delay in milliseconds the task experienced
+   */
+  protected void trackTaskDelay(TaskPriority priority, long taskDelay) {
+    getExecutionDelaySamplesInternal(priority).add(taskDelay);
+    LogBucketHistogram[] histograms = executionDelayHistograms;
+    if (histograms != null) {
+      histograms[priority.ordinal()].record(taskDelay);
+    }
+  }
+  
+  /**
+   * Calculates the percentiles from the provided histograms.
    * 
-   * @param list Collection to check size of and ensure is under max size
+   * @param histograms Histograms indexed by priority ordinal
+   * @param priority Priority to get percentiles for, or {@code null} to combine all priorities
+   * @param percentiles Percentiles requested, any decimal values between 0 and 100 (inclusive)
+   * @return Map with keys being the requested percentiles
    */
-  @SuppressWarnings("rawtypes")
-  protected void trimWindow(Deque window) {
-    while (window.size() > maxWindowSize) {
-      window.removeFirst();
+  protected static Map<Double, Long> getPercentiles(LogBucketHistogram[] histograms, 
+                                                    TaskPriority priority, 
+                                                    double ... percentiles) {
+    LogBucketHistogram histogram;
+    if (priority == null) {
+      histogram = new LogBucketHistogram();
+      for (LogBucketHistogram h : histograms) {
+        histogram.add(h);
+      }
+    } else {
+      histogram = histograms[priority.ordinal()];
     }
+    if (histogram.getTotalCount() == 0) {
+      return getPercentiles(new long[0], percentiles);
+    }
+    return histogram.getPercentiles(percentiles);
   }
-
-  public List<Long> getExecutionDelaySamples() {
-    List<Long> resultList = new ArrayList<Long>(highPriorityExecutionDelay);
-    resultList.addAll(lowPriorityExecutionDelay);
-    resultList.addAll(starvablePriorityExecutionDelay);
-    
-    return resultList;
+  
+  /**
+   * Copies the samples from the provided buffers into a single new array.
+   * 
+   * @param buffers Sample buffers to copy from
+   * @return New array containing all samples from the provided buffers
+   */
+  protected static long[] collectSamples(ConcurrentLongRingBuffer ... buffers) {
+    if (buffers.length == 1) {
+      return buffers[0].toArray();
+    }
+    LongArrayList result = new LongArrayList(buffers[0].getCapacity() * buffers.length);
+    for (ConcurrentLongRingBuffer b : buffers) {
+      result.addAll(b.toArray());
+    }
+    return result.toArray();
   }
   
-  public List<Long> getExecutionDelaySamples(TaskPriority priority) {
+  /**
+   * Boxes the provided samples into a new list.
+   * 
+   * @param samples Samples to be copied
+   * @return New list containing the provided samples
+   */
+  protected static List<Long> toList(long[] samples) {
+    List<Long> result = new ArrayList<Long>(samples.length);
+    for (long l : samples) {
+      result.add(l);
+    }
+    return result;
+  }
+  
+  /**
+   * Calculates the average of the provided samples.
+   * 
+   * @param samples Samples to average
+   * @return Average of the samples, or {@code -1} if there are no samples
+   */
+  protected static double getAverage(long[] samples) {
+    if (samples.length == 0) {
+      return -1;
+    }
+    return StatisticsUtils.getAverage(samples);
+  }
+  
+  /**
+   * Calculates the percentiles of the provided samples.  The provided array will be sorted in 
+   * place.
+   * 
+   * @param samples Samples to look for percentiles from
+   * @param percentiles Percentiles requested, any decimal values between 0 and 100 (inclusive)
+   * @return Map with keys being the requested percentiles
+   */
+  protected static Map<Double, Long> getPercentiles(long[] samples, double ... percentiles) {
+    if (samples.length == 0) {
+      samples = new long[] { 0 };
+    } else {
+      Arrays.sort(samples);
+    }
+    return StatisticsUtils.getPercentilesFromSorted(samples, percentiles);
+  }
+  
+  /**
+   * Get a copy of the execution delay samples.
+   * 
+   * @param priority Priority to get samples for, or {@code null} for all samples
+   * @return New array containing execution delay samples
+   */
+  protected long[] getExecutionDelaySampleArray(TaskPriority priority) {
     if (priority == null) {
-      return getExecutionDelaySamples();
+      return collectSamples(highPriorityExecutionDelay, lowPriorityExecutionDelay, 
+                            starvablePriorityExecutionDelay);
+    } else {
+      return collectSamples(getExecutionDelaySamplesInternal(priority));
     }
+  }
+  
+  /**
+   * Get a copy of the execution duration samples.
+   * 
+   * @param priority Priority to get samples for, or {@code null} for all samples
+   * @return New array containing execution duration samples
+   */
+  protected long[] getExecutionDurationSampleArray(TaskPriority priority) {
+    if (priority == null) {
+      return collectSamples(highPriorityRunDurations, lowPriorityRunDurations, 
+                            starvablePriorityRunDurations);
+    } else {
+      return collectSamples(getExecutionDurationSamplesInternal(priority));
+    }
+  }
 
-    return new ArrayList<Long>(getExecutionDelaySamplesInternal(priority));
+  public List<Long> getExecutionDelaySamples() {
+    return getExecutionDelaySamples(null);
+  }
+  
+  public List<Long> getExecutionDelaySamples(TaskPriority priority) {
+    return toList(getExecutionDelaySampleArray(priority));
   }
 
   public double getAverageExecutionDelay() {
-    List<Long> resultList = getExecutionDelaySamples();
-    
-    if (resultList.isEmpty()) {
-      return -1;
-    }
-    return StatisticsUtils.getAverage(resultList);
+    return getAverageExecutionDelay(null);
   }
 
   public double getAverageExecutionDelay(TaskPriority priority) {
-    if (priority == null) {
-      return getAverageExecutionDelay();
-    }
-    List<Long> stats = getExecutionDelaySamples(priority);
-    if (stats.isEmpty()) {
-      return -1;
-    }
-    return StatisticsUtils.getAverage(stats);
+    return getAverage(getExecutionDelaySampleArray(priority));
   }
 
   public Map<Double, Long> getExecutionDelayPercentiles(double... percentiles) {
-    List<Long> samples = getExecutionDelaySamples();
-    if (samples.isEmpty()) {
-      samples.add(0L);
-    }
-    return StatisticsUtils.getPercentiles(samples, percentiles);
+    return getExecutionDelayPercentiles(null, percentiles);
   }
 
   public Map<Double, Long> getExecutionDelayPercentiles(TaskPriority priority, 
                                                         double... percentiles) {
-    List<Long> samples = getExecutionDelaySamples(priority);
-    if (samples.isEmpty()) {
-      samples.add(0L);
+    LogBucketHistogram[] histograms = executionDelayHistograms;
+    if (histograms != null) {
+      return getPercentiles(histograms, priority, percentiles);
     }
-    return StatisticsUtils.getPercentiles(samples, percentiles);
+    return getPercentiles(getExecutionDelaySampleArray(priority), percentiles);
   }
 
   public List<Long> getExecutionDurationSamples() {
-    List<Long> resultList = new ArrayList<Long>(highPriorityRunDurations);
-    resultList.addAll(lowPriorityRunDurations);
-    resultList.addAll(starvablePriorityRunDurations);
-    
-    return resultList;
+    return getExecutionDurationSamples(null);
   }
 
   public List<Long> getExecutionDurationSamples(TaskPriority priority) {
-    if (priority == null) {
-      return getExecutionDurationSamples();
-    }
-    
-    return new ArrayList<Long>(getExecutionDurationSamplesInternal(priority));
+    return toList(getExecutionDurationSampleArray(priority));
   }
 
   public double getAverageExecutionDuration() {
-    List<Long> runDurations = getExecutionDurationSamples();
-    if (runDurations.isEmpty()) {
-      return -1;
-    }
-    return StatisticsUtils.getAverage(runDurations);
+    return getAverageExecutionDuration(null);
   }
 
   public double getAverageExecutionDuration(TaskPriority priority) {
-    List<Long> runDurations = getExecutionDurationSamples(priority);
-    if (runDurations.isEmpty()) {
-      return -1;
-    }
-    return StatisticsUtils.getAverage(runDurations);
+    return getAverage(getExecutionDurationSampleArray(priority));
   }
 
   public Map<Double, Long> getExecutionDurationPercentiles(double... percentiles) {
-    List<Long> samples = getExecutionDurationSamples();
-    if (samples.isEmpty()) {
-      samples.add(0L);
-    }
-    return StatisticsUtils.getPercentiles(samples, percentiles);
+    return getExecutionDurationPercentiles(null, percentiles);
   }
 
   public Map<Double, Long> getExecutionDurationPercentiles(TaskPriority priority, 
                                                            double... percentiles) {
-    List<Long> samples = getExecutionDurationSamples(priority);
-    if (samples.isEmpty()) {
-      samples.add(0L);
+    LogBucketHistogram[] histograms = executionDurationHistograms;
+    if (histograms != null) {
+      return getPercentiles(histograms, priority, percentiles);
     }
-    return StatisticsUtils.getPercentiles(samples, percentiles);
+    return getPercentiles(getExecutionDurationSampleArray(priority), percentiles);
   }
 
   public List<Pair<Runnable, StackTraceElement[]>> getLongRunningTasks(long durationLimitMillis) {
@@ -309,6 +425,16 @@ class PriorityStatisticManager {
       getExecutionDelaySamplesInternal(p).clear();
       getExecutionDurationSamplesInternal(p).clear();
     }
+    resetHistograms(executionDelayHistograms);
+    resetHistograms(executionDurationHistograms);
+  }
+  
+  private static void resetHistograms(LogBucketHistogram[] histograms) {
+    if (histograms != null) {
+      for (LogBucketHistogram h : histograms) {
+        h.reset();
+      }
+    }
   }
   
   public long getTotalExecutionCount() {
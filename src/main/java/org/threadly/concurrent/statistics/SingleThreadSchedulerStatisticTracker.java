@@ -411,6 +411,35 @@ public class SingleThreadSchedulerStatisticTracker extends SingleThreadScheduler
     return statisticTracker.getLongRunningTasksQty(durationLimitMillis);
   }
   
+  /**
+   * Changes if the percentile functions ({@link #getExecutionDelayPercentiles(double...)} and 
+   * {@link #getExecutionDurationPercentiles(double...)} and their priority variants) are 
+   * calculated from the sample window, or from histograms.  By default the sample window is 
+   * used, which provides exact values, but only over the most recent samples, and requires a 
+   * sort for each call.  Histograms use a fixed amount of memory, cover every execution since 
+   * they were enabled (or since {@link #resetCollectedStats()}), and are cheap to query.  But 
+   * reported values may be up to about 3% lower than the real samples.
+   * 
+   * The sample lists and averages are always provided from the sample window.
+   * 
+   * @since 4.6.0
+   * @param useHistograms {@code true} to calculate percentiles from histograms
+   */
+  public void setUseHistogramPercentiles(boolean useHistograms) {
+    statisticTracker.setUseHistogramPercentiles(useHistograms);
+  }
+  
+  /**
+   * Check if percentiles are currently calculated from histograms.  See 
+   * {@link #setUseHistogramPercentiles(boolean)}.
+   * 
+   * @since 4.6.0
+   * @return {@code true} if histograms are used for percentile calculations
+   */
+  public boolean isUsingHistogramPercentiles() {
+    return statisticTracker.isUsingHistogramPercentiles();
+  }
+  
   @Override
   public void resetCollectedStats() {
     statisticTracker.resetCollectedStats();
@@ -0,0 +1,233 @@
+package org.threadly.concurrent.wrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.threadly.concurrent.SubmitterScheduler;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.concurrent.future.SettableListenableFuture;
+import org.threadly.util.ArgumentVerifier;
+
+/**
+ * <p>Groups submitted items into batches, so that work which is much cheaper in bulk (for example 
+ * a database write or a network flush) can be done once per batch rather than once per item.  A 
+ * batch is handed to the {@link BatchHandler} on the provided scheduler once it reaches the 
+ * max batch size, or once the max linger time has passed since the first item was added to it, 
+ * whichever happens first.  The future returned from {@link #submit(Object)} will complete with 
+ * that item's result from the batch.</p>
+ * 
+ * <p>A batch only requires a single task on the scheduler, which is used both for the linger 
+ * delay and to run the handler.  If a batch fills before the linger time, the batch is 
+ * executed immediately and the delayed execution will have no effect once it runs.  Items and 
+ * futures are released once the batch is handled, so only an empty batch remains queued.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ * @param <T> Type of item which is submitted
+ * @param <R> Type of result for each item
+ */
+public class BatchingExecutor<T, R> {
+  // avoid allocating huge lists when batches are expected to be limited by linger time
+  private static final int MAX_INITIAL_BATCH_CAPACITY = 64;
+  
+  protected final SubmitterScheduler scheduler;
+  protected final int maxBatchSize;
+  protected final long maxLingerInMillis;
+  protected final BatchHandler<T, ? extends R> batchHandler;
+  protected final Object batchLock;
+  private Batch currentBatch; // guarded by batchLock
+  
+  /**
+   * Constructs a new {@link BatchingExecutor}.
+   * 
+   * @param scheduler Scheduler to run the batch handler on, and to schedule the linger delay
+   * @param maxBatchSize Maximum items to include in a single batch
+   * @param maxLingerInMillis Maximum time in milliseconds to wait for a batch to fill
+   * @param batchHandler Handler to process each batch
+   */
+  public BatchingExecutor(SubmitterScheduler scheduler, int maxBatchSize, long maxLingerInMillis, 
+                          BatchHandler<T, ? extends R> batchHandler) {
+    ArgumentVerifier.assertNotNull(scheduler, "scheduler");
+    ArgumentVerifier.assertGreaterThanZero(maxBatchSize, "maxBatchSize");
+    ArgumentVerifier.assertNotNegative(maxLingerInMillis, "maxLingerInMillis");
+    ArgumentVerifier.assertNotNull(batchHandler, "batchHandler");
+    
+    this.scheduler = scheduler;
+    this.maxBatchSize = maxBatchSize;
+    this.maxLingerInMillis = maxLingerInMillis;
+    this.batchHandler = batchHandler;
+    this.batchLock = new Object();
+    this.currentBatch = null;
+  }
+  
+  /**
+   * Adds an item to the current batch.  The returned future will complete with the result the 
+   * {@link BatchHandler} provides for this item, or fail if the handler throws an exception.
+   * 
+   * @param item Item to add to the batch
+   * @return Future which will complete once the batch containing the item has been handled
+   */
+  public ListenableFuture<R> submit(T item) {
+    SettableListenableFuture<R> result = new SettableListenableFuture<R>(false);
+    Batch dispatchBatch = null;
+    Batch lingerBatch = null;
+    synchronized (batchLock) {
+      if (currentBatch == null) {
+        currentBatch = new Batch();
+        lingerBatch = currentBatch;
+      }
+      currentBatch.items.add(item);
+      currentBatch.futures.add(result);
+      if (currentBatch.items.size() >= maxBatchSize) {
+        dispatchBatch = currentBatch;
+        currentBatch = null;
+        lingerBatch = null;
+      }
+    }
+    
+    if (dispatchBatch != null) {
+      dispatch(dispatchBatch, 0);
+    } else if (lingerBatch != null) {
+      dispatch(lingerBatch, maxLingerInMillis);
+    }
+    
+    return result;
+  }
+  
+  /**
+   * Dispatches any items currently waiting for a batch to fill, without waiting for the linger 
+   * time to pass.
+   */
+  public void flush() {
+    Batch batch;
+    synchronized (batchLock) {
+      batch = currentBatch;
+      currentBatch = null;
+    }
+    
+    if (batch != null) {
+      dispatch(batch, 0);
+    }
+  }
+  
+  private void dispatch(Batch batch, long delayInMillis) {
+    try {
+      if (delayInMillis == 0) {
+        scheduler.execute(batch);
+      } else {
+        scheduler.schedule(batch, delayInMillis);
+      }
+    } catch (RuntimeException e) {
+      // likely shutdown, make sure futures don't remain incomplete
+      if (batch.start()) {
+        batch.fail(e);
+      }
+      throw e;
+    }
+  }
+  
+  /**
+   * <p>Handler to process a batch of items.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   * @param <T> Type of item in the batch
+   * @param <R> Type of result for each item
+   */
+  public interface BatchHandler<T, R> {
+    /**
+     * Handles a batch of items.  The returned list must contain one result for each item, in the 
+     * same order as the items were provided.  Alternatively {@code null} may be returned if all 
+     * results are {@code null}.  If an exception is thrown the future for every item in the batch 
+     * will fail with that exception.
+     * 
+     * @param items Unmodifiable list of items in the batch
+     * @return Results for each item, or {@code null}
+     */
+    public List<R> handleBatch(List<T> items);
+  }
+  
+  /**
+   * <p>A group of items, and the futures for their results.  This is both the task which waits 
+   * for the linger delay and the task which handles the batch.  Whichever runs first handles 
+   * the batch, and later executions have no effect.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  protected class Batch implements Runnable {
+    protected List<T> items; // set to null once handled
+    protected List<SettableListenableFuture<R>> futures; // set to null once handled
+    private boolean started; // guarded by batchLock
+    
+    protected Batch() {
+      int initialCapacity = Math.min(maxBatchSize, MAX_INITIAL_BATCH_CAPACITY);
+      items = new ArrayList<T>(initialCapacity);
+      futures = new ArrayList<SettableListenableFuture<R>>(initialCapacity);
+      started = false;
+    }
+    
+    /**
+     * Marks the batch as started, removing it as the current batch if necessary.
+     * 
+     * @return {@code true} if this invocation started the batch
+     */
+    protected boolean start() {
+      synchronized (batchLock) {
+        if (started) {
+          return false;
+        }
+        started = true;
+        if (currentBatch == this) {
+          currentBatch = null;
+        }
+        return true;
+      }
+    }
+    
+    protected void fail(Throwable t) {
+      for (SettableListenableFuture<R> f : futures) {
+        f.setFailure(t);
+      }
+    }
+    
+    @Override
+    public void run() {
+      if (! start()) {
+        return;
+      }
+      
+      try {
+        handleBatch();
+      } finally {
+        // the linger task may remain queued long after a full batch runs, so release references
+        items = null;
+        futures = null;
+      }
+    }
+    
+    private void handleBatch() {
+      List<? extends R> results;
+      try {
+        results = batchHandler.handleBatch(Collections.unmodifiableList(items));
+      } catch (Throwable t) {
+        fail(t);
+        return;
+      }
+      
+      if (results == null) {
+        for (SettableListenableFuture<R> f : futures) {
+          f.setResult(null);
+        }
+      } else if (results.size() != futures.size()) {
+        fail(new IllegalStateException("Batch handler returned " + results.size() + 
+                                         " results for " + futures.size() + " items"));
+      } else {
+        for (int i = 0; i < futures.size(); i++) {
+          futures.get(i).setResult(results.get(i));
+        }
+      }
+    }
+  }
+}
@@ -10,6 +10,7 @@ import org.threadly.concurrent.future.ListenableFuture;
 import org.threadly.concurrent.future.ListenableFutureTask;
 import org.threadly.util.ArgumentVerifier;
 import org.threadly.util.Clock;
+import org.threadly.util.TimeSource;
 
 /**
  * <p>Another way to limit executions on a scheduler.  Unlike the {@link ExecutorLimiter} this 
@@ -34,6 +35,7 @@ public class RateLimiterExecutor extends AbstractSubmitterExecutor {
   protected final SimpleSchedulerInterface scheduler;
   protected final double permitsPerSecond;
   protected final Object permitLock;
+  protected final TimeSource timeSource;
   private double lastScheduleTime;
   
   /**
@@ -45,13 +47,41 @@ public class RateLimiterExecutor extends AbstractSubmitterExecutor {
    * @param permitsPerSecond how many permits should be allowed per second
    */
   public RateLimiterExecutor(SimpleSchedulerInterface scheduler, double permitsPerSecond) {
+    this(scheduler, permitsPerSecond, null);
+  }
+  
+  /**
+   * Constructs a new {@link RateLimiterExecutor} which tracks the rate against the provided 
+   * {@link TimeSource}.  The source should generally be the same one the scheduler uses, for 
+   * example a {@link org.threadly.concurrent.NoThreadScheduler} constructed with a manually 
+   * advanced source can be used to simulate a rate without waiting for it in real time.
+   * 
+   * @since 4.6.0
+   * @param scheduler scheduler to schedule/execute tasks on
+   * @param permitsPerSecond how many permits should be allowed per second
+   * @param timeSource Source for time, or {@code null} to use {@link Clock}
+   */
+  public RateLimiterExecutor(SimpleSchedulerInterface scheduler, double permitsPerSecond, 
+                             TimeSource timeSource) {
     ArgumentVerifier.assertNotNull(scheduler, "scheduler");
     ArgumentVerifier.assertGreaterThanZero(permitsPerSecond, "permitsPerSecond");
     
     this.scheduler = scheduler;
     this.permitsPerSecond = permitsPerSecond;
     this.permitLock = new Object();
-    this.lastScheduleTime = Clock.lastKnownForwardProgressingMillis();
+    this.timeSource = timeSource;
+    this.lastScheduleTime = nowInMillis(false);
+  }
+  
+  /**
+   * Returns the current forward progressing time in milliseconds from the {@link TimeSource} 
+   * provided at construction, or from {@link Clock} if none was provided.
+   * 
+   * @param accurate If {@code true} then time estimates are not acceptable
+   * @return current time in milliseconds
+   */
+  protected long nowInMillis(boolean accurate) {
+    return Clock.forwardProgressingMillis(timeSource, accurate);
   }
   
   /**
@@ -63,7 +93,7 @@ public class RateLimiterExecutor extends AbstractSubmitterExecutor {
    */
   public int getMinimumDelay() {
     synchronized (permitLock) {
-      return (int)Math.max(0, lastScheduleTime - Clock.lastKnownForwardProgressingMillis());
+      return (int)Math.max(0, lastScheduleTime - nowInMillis(false));
     }
   }
   
@@ -184,10 +214,11 @@ public class RateLimiterExecutor extends AbstractSubmitterExecutor {
   protected void doExecute(double permits, Runnable task) {
     double effectiveDelay = (permits / permitsPerSecond) * 1000;
     synchronized (permitLock) {
-      double scheduleDelay = lastScheduleTime - Clock.accurateForwardProgressingMillis();
+      long now = nowInMillis(true);
+      double scheduleDelay = lastScheduleTime - now;
       if (scheduleDelay < 1) {
         if (scheduleDelay < 0) {
-          lastScheduleTime = Clock.lastKnownForwardProgressingMillis() + effectiveDelay;
+          lastScheduleTime = now + effectiveDelay;
         } else {
           lastScheduleTime += effectiveDelay;
         }
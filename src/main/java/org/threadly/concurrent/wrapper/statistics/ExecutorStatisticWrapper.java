@@ -1,8 +1,7 @@
 package org.threadly.concurrent.wrapper.statistics;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -13,6 +12,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.threadly.concurrent.AbstractSubmitterExecutor;
 import org.threadly.concurrent.RunnableCallableAdapter;
 import org.threadly.concurrent.RunnableContainer;
+import org.threadly.concurrent.collections.ConcurrentLongRingBuffer;
 import org.threadly.concurrent.future.ListenableFutureTask;
 import org.threadly.concurrent.statistics.StatisticExecutor;
 import org.threadly.util.ArgumentVerifier;
@@ -102,56 +102,32 @@ public class ExecutorStatisticWrapper extends AbstractSubmitterExecutor
   
   @Override
   public List<Long> getExecutionDelaySamples() {
-    ArrayList<Long> runDelays;
-    synchronized (statsContainer.runDelays) {
-      runDelays = new ArrayList<Long>(statsContainer.runDelays);
-    }
-    return runDelays;
+    return StatsContainer.collectSamples(statsContainer.runDelays);
   }
   
   @Override
   public double getAverageExecutionDelay() {
-    List<Long> delaySamples = getExecutionDelaySamples();
-    if (delaySamples.isEmpty()) {
-      return -1;
-    }
-    return StatisticsUtils.getAverage(delaySamples);
+    return StatsContainer.getAverage(statsContainer.runDelays.toArray());
   }
 
   @Override
   public Map<Double, Long> getExecutionDelayPercentiles(double ... percentiles) {
-    List<Long> samples = getExecutionDelaySamples();
-    if (samples.isEmpty()) {
-      samples.add(0L);
-    }
-    return StatisticsUtils.getPercentiles(samples, percentiles);
+    return StatsContainer.getPercentiles(statsContainer.runDelays.toArray(), percentiles);
   }
 
   @Override
   public List<Long> getExecutionDurationSamples() {
-    ArrayList<Long> runDurations;
-    synchronized (statsContainer.runDurations) {
-      runDurations = new ArrayList<Long>(statsContainer.runDurations);
-    }
-    return runDurations;
+    return StatsContainer.collectSamples(statsContainer.runDurations);
   }
 
   @Override
   public double getAverageExecutionDuration() {
-    List<Long> durationSamples = getExecutionDurationSamples();
-    if (durationSamples.isEmpty()) {
-      return -1;
-    }
-    return StatisticsUtils.getAverage(durationSamples);
+    return StatsContainer.getAverage(statsContainer.runDurations.toArray());
   }
 
   @Override
   public Map<Double, Long> getExecutionDurationPercentiles(double ... percentiles) {
-    List<Long> samples = getExecutionDurationSamples();
-    if (samples.isEmpty()) {
-      samples.add(0L);
-    }
-    return StatisticsUtils.getPercentiles(samples, percentiles);
+    return StatsContainer.getPercentiles(statsContainer.runDurations.toArray(), percentiles);
   }
   
   @Override
@@ -219,12 +195,8 @@ public class ExecutorStatisticWrapper extends AbstractSubmitterExecutor
   
   @Override
   public void resetCollectedStats() {
-    synchronized (statsContainer.runDelays) {
-      statsContainer.runDelays.clear();
-    }
-    synchronized (statsContainer.runDurations) {
-      statsContainer.runDurations.clear();
-    }
+    statsContainer.runDelays.clear();
+    statsContainer.runDurations.clear();
   }
   
   /**
@@ -273,8 +245,8 @@ public class ExecutorStatisticWrapper extends AbstractSubmitterExecutor
     protected final AtomicLong totalExecutionCount;
     protected final AtomicInteger queuedTaskCount;
     protected final Map<Pair<Thread, Runnable>, Long> runningTasks;
-    protected final Deque<Long> runDurations;
-    protected final Deque<Long> runDelays;
+    protected final ConcurrentLongRingBuffer runDurations;
+    protected final ConcurrentLongRingBuffer runDelays;
     
     public StatsContainer(int maxStatisticWindowSize, boolean accurateTime) {
       this.maxStatisticWindowSize = maxStatisticWindowSize;
@@ -282,8 +254,53 @@ public class ExecutorStatisticWrapper extends AbstractSubmitterExecutor
       this.totalExecutionCount = new AtomicLong();
       this.queuedTaskCount = new AtomicInteger();
       this.runningTasks = new ConcurrentHashMap<Pair<Thread, Runnable>, Long>();
-      this.runDurations = new ArrayDeque<Long>();
-      this.runDelays = new ArrayDeque<Long>();
+      this.runDurations = new ConcurrentLongRingBuffer(maxStatisticWindowSize);
+      this.runDelays = new ConcurrentLongRingBuffer(maxStatisticWindowSize);
+    }
+    
+    /**
+     * Copies the samples from the provided buffer into a new list.
+     * 
+     * @param buffer Sample buffer to copy from
+     * @return New list containing all samples from the provided buffer
+     */
+    protected static List<Long> collectSamples(ConcurrentLongRingBuffer buffer) {
+      long[] samples = buffer.toArray();
+      List<Long> result = new ArrayList<Long>(samples.length);
+      for (long sample : samples) {
+        result.add(sample);
+      }
+      return result;
+    }
+    
+    /**
+     * Calculates the average of the provided samples.
+     * 
+     * @param samples Samples to average
+     * @return Average of the samples, or {@code -1} if there are no samples
+     */
+    protected static double getAverage(long[] samples) {
+      if (samples.length == 0) {
+        return -1;
+      }
+      return StatisticsUtils.getAverage(samples);
+    }
+    
+    /**
+     * Calculates the percentiles of the provided samples.  The provided array will be sorted in 
+     * place.
+     * 
+     * @param samples Samples to look for percentiles from
+     * @param percentiles Percentiles requested, any decimal values between 0 and 100 (inclusive)
+     * @return Map with keys being the requested percentiles
+     */
+    protected static Map<Double, Long> getPercentiles(long[] samples, double ... percentiles) {
+      if (samples.length == 0) {
+        samples = new long[] { 0 };
+      } else {
+        Arrays.sort(samples);
+      }
+      return StatisticsUtils.getPercentilesFromSorted(samples, percentiles);
     }
     
     public void trackStart(Pair<Thread, Runnable> taskPair, long expectedRunTime) {
@@ -293,12 +310,7 @@ public class ExecutorStatisticWrapper extends AbstractSubmitterExecutor
       queuedTaskCount.decrementAndGet();
       totalExecutionCount.incrementAndGet();
       
-      synchronized (runDelays) {
-        runDelays.addLast(startTime - expectedRunTime);
-        if (runDelays.size() > maxStatisticWindowSize) {
-          runDelays.removeFirst();
-        }
-      }
+      runDelays.add(startTime - expectedRunTime);
       
       // get possibly newer time so we don't penalize stats tracking as duration
       runningTasks.put(taskPair, Clock.lastKnownForwardProgressingMillis());
@@ -309,12 +321,7 @@ public class ExecutorStatisticWrapper extends AbstractSubmitterExecutor
                            Clock.accurateForwardProgressingMillis() : Clock.lastKnownForwardProgressingMillis()) - 
                            runningTasks.remove(taskPair);
 
-      synchronized (runDurations) {
-        runDurations.addLast(runDuration);
-        if (runDurations.size() > maxStatisticWindowSize) {
-          runDurations.removeFirst();
-        }
-      }
+      runDurations.add(runDuration);
     }
   }
 }
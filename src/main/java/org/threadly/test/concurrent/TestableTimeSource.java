@@ -0,0 +1,78 @@
+package org.threadly.test.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Clock;
+import org.threadly.util.TimeSource;
+
+/**
+ * <p>A {@link TimeSource} where time only progresses when explicitly advanced.  This can be 
+ * provided to {@link Clock#setTimeSource(TimeSource)}, or to a component which accepts a 
+ * {@link TimeSource} directly (for example {@link org.threadly.concurrent.NoThreadScheduler}), 
+ * in order to run a deterministic simulation which progresses faster than real time.</p>
+ * 
+ * <p>The nano time starts at {@code 0}, and the millisecond time starts at the wall clock time 
+ * when constructed.  Both progress together on calls to {@link #advance(long)} or 
+ * {@link #advanceNanos(long)}.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ */
+public class TestableTimeSource implements TimeSource {
+  private final long startTimeMillis;
+  private final AtomicLong nanoTime;
+  
+  /**
+   * Constructs a new {@link TestableTimeSource} with the millisecond time starting at the current 
+   * wall clock time.
+   */
+  public TestableTimeSource() {
+    this(Clock.accurateTimeMillis());
+  }
+  
+  /**
+   * Constructs a new {@link TestableTimeSource} with the millisecond time starting at the 
+   * provided time.
+   * 
+   * @param startTimeMillis Time in milliseconds that {@link #currentTimeMillis()} should start at
+   */
+  public TestableTimeSource(long startTimeMillis) {
+    this.startTimeMillis = startTimeMillis;
+    this.nanoTime = new AtomicLong(0);
+  }
+  
+  /**
+   * Advance time forward by the provided number of milliseconds.
+   * 
+   * @param timeInMillis Time in milliseconds to move forward, can not be negative
+   * @return The nano time after advancing
+   */
+  public long advance(long timeInMillis) {
+    ArgumentVerifier.assertNotNegative(timeInMillis, "timeInMillis");
+    
+    return nanoTime.addAndGet(timeInMillis * Clock.NANOS_IN_MILLISECOND);
+  }
+  
+  /**
+   * Advance time forward by the provided number of nanoseconds.
+   * 
+   * @param timeInNanos Time in nanoseconds to move forward, can not be negative
+   * @return The nano time after advancing
+   */
+  public long advanceNanos(long timeInNanos) {
+    ArgumentVerifier.assertNotNegative(timeInNanos, "timeInNanos");
+    
+    return nanoTime.addAndGet(timeInNanos);
+  }
+  
+  @Override
+  public long nanoTime() {
+    return nanoTime.get();
+  }
+  
+  @Override
+  public long currentTimeMillis() {
+    return startTimeMillis + (nanoTime.get() / Clock.NANOS_IN_MILLISECOND);
+  }
+}
@@ -13,7 +13,24 @@ import java.util.concurrent.locks.LockSupport;
  * 
  * <p>In order to ensure a minimum level of accuracy, by default a thread is started to call 
  * {@link #accurateTimeMillis()} every 100 milliseconds.  This can be disabled by calling 
- * {@link #stopClockUpdateThread()}.</p>
+ * {@link #stopClockUpdateThread()}, or the frequency can be changed with 
+ * {@link #setAutomaticUpdateFrequency(int)}.</p>
+ * 
+ * <p>The update thread adapts to how the clock is being used.  If none of the {@code lastKnown} 
+ * times are read between updates, the thread will progressively back off (up to 
+ * {@link #MAXIMUM_IDLE_UPDATE_FREQUENCY_IN_MS}), so that an idle application is not woken up 
+ * regularly.  The first read after the thread has backed off will update the time, and wake the 
+ * thread back up to run at the configured frequency.  Calls to {@link #accurateTimeNanos()} or 
+ * {@link #accurateTimeMillis()} (which the schedulers invoke regularly) also refresh the stored 
+ * times, but the update thread still performs its own update each time it wakes.</p>
+ * 
+ * <p>The stored times are each padded onto their own cache line.  Because the nano time is 
+ * written by every call to {@link #accurateTimeNanos()}, this avoids those writes invalidating 
+ * the cache line the millisecond time is read from (and vice versa).</p>
+ * 
+ * <p>By default time is read from {@link System#nanoTime()} and 
+ * {@link System#currentTimeMillis()}.  An alternative {@link TimeSource} can be provided with 
+ * {@link #setTimeSource(TimeSource)}, for example to run a simulation faster than real time.</p>
  * 
  * @author jent - Mike Jensen
  * @since 1.0.0
@@ -26,22 +43,47 @@ public class Clock {
    */
   public static final int NANOS_IN_MILLISECOND = 1000000;
   /**
-   * This is the frequency at which the thread which regularly updates the clock wakes up and 
-   * updates the time.  Invocations to {@link #accurateForwardProgressingMillis()} and 
+   * This is the default frequency at which the thread which regularly updates the clock wakes up 
+   * and updates the time.  Invocations to {@link #accurateForwardProgressingMillis()} and 
    * {@link #accurateTimeMillis()} both update their respective times, but this will make sure 
    * that even if those calls are not made requests to {@link #lastKnownForwardProgressingMillis()} 
-   * and {@link #lastKnownTimeMillis()} have at least some level of accuracy.
+   * and {@link #lastKnownTimeMillis()} have at least some level of accuracy.  The frequency can 
+   * be changed with {@link #setAutomaticUpdateFrequency(int)}.
    *  
    * @since 4.0.0
    */
   public static final short AUTOMATIC_UPDATE_FREQUENCY_IN_MS = 100;
+  /**
+   * The maximum frequency the automatic update thread will back off to when the clock is not 
+   * being read.  If the frequency set by {@link #setAutomaticUpdateFrequency(int)} is larger than 
+   * this, then no back off will occur.
+   * 
+   * @since 4.6.0
+   */
+  public static final short MAXIMUM_IDLE_UPDATE_FREQUENCY_IN_MS = 10000;
+  /**
+   * {@link TimeSource} which reads time directly from {@link System#nanoTime()} and 
+   * {@link System#currentTimeMillis()}.  This is the source used unless one is provided to 
+   * {@link #setTimeSource(TimeSource)}.
+   * 
+   * @since 4.6.0
+   */
+  public static final TimeSource SYSTEM_TIME_SOURCE = new SystemTimeSource();
   protected static final short STOP_PARK_TIME_NANOS = 25000;
   
   protected static final Object UPDATE_LOCK = new Object();
-  protected static ClockUpdater clockUpdater = null;
+  protected static volatile ClockUpdater clockUpdater = null;
+  protected static volatile int updateFrequencyMillis = AUTOMATIC_UPDATE_FREQUENCY_IN_MS;
+  // set by readers, reset by the update thread each time it updates
+  private static volatile boolean readSinceUpdate = true;
+  // set while the update thread has backed off, so that a reader can wake it
+  private static volatile Thread idleUpdaterThread = null;
+  private static volatile OffsetTimeSource timeSource = new OffsetTimeSource(SYSTEM_TIME_SOURCE, 0);
   protected static final long CLOCK_STARTUP_TIME_NANOS = System.nanoTime();
-  private static volatile long nowNanos = CLOCK_STARTUP_TIME_NANOS;
-  private static volatile long nowMillis = System.currentTimeMillis();
+  private static final PaddedVolatileLong NOW_NANOS = 
+      new PaddedVolatileLong(CLOCK_STARTUP_TIME_NANOS);
+  private static final PaddedVolatileLong NOW_MILLIS = 
+      new PaddedVolatileLong(System.currentTimeMillis());
   
   static {
     startClockUpdateThread();
@@ -58,6 +100,7 @@ public class Clock {
         clockUpdater = new ClockUpdater();
         
         Thread thread = new Thread(clockUpdater);
+        clockUpdater.thread = thread;
         
         thread.setName("Threadly clock updater");
         thread.setDaemon(true);
@@ -66,6 +109,84 @@ public class Clock {
     }
   }
 
+  /**
+   * Sets how frequently the automatic update thread updates the clock.  A lower frequency 
+   * increases the accuracy of {@link #lastKnownTimeMillis()} and 
+   * {@link #lastKnownForwardProgressingMillis()}, at the cost of waking the update thread more 
+   * often.  This takes effect immediately if the update thread is running.
+   * 
+   * @since 4.6.0
+   * @param frequencyMillis Milliseconds between automatic updates, must be at least {@code 1}
+   */
+  public static void setAutomaticUpdateFrequency(int frequencyMillis) {
+    ArgumentVerifier.assertGreaterThanZero(frequencyMillis, "frequencyMillis");
+    
+    synchronized (UPDATE_LOCK) {
+      updateFrequencyMillis = frequencyMillis;
+      
+      if (clockUpdater != null) {
+        LockSupport.unpark(clockUpdater.thread);
+      }
+    }
+  }
+  
+  /**
+   * Returns the frequency the automatic update thread updates the clock at.  By default this is 
+   * {@link #AUTOMATIC_UPDATE_FREQUENCY_IN_MS}.
+   * 
+   * @since 4.6.0
+   * @return Milliseconds between automatic updates
+   */
+  public static int getAutomaticUpdateFrequency() {
+    return updateFrequencyMillis;
+  }
+  
+  /**
+   * Changes the source {@link Clock} reads time from.  Providing {@code null} will restore the 
+   * default {@link #SYSTEM_TIME_SOURCE}.  
+   * 
+   * In order to preserve the guarantee that forward progressing time never goes backwards, if 
+   * the new source's nano time is behind the current time, an offset will be added to every 
+   * value read from it.  If the new source is ahead, the time will jump forward to it.  Because 
+   * of this, after a source has been changed {@link #accurateTimeNanos()} may no longer be equal 
+   * to the value returned from the source directly.  The millisecond time is NOT adjusted, it 
+   * will return exactly what the source provides.  
+   * 
+   * Reads which happen concurrently with this call may briefly observe time from the previous 
+   * source.  Since the source impacts every scheduler which relies on {@link Clock}, this is 
+   * generally something to set at startup (or within a controlled simulation).
+   * 
+   * @since 4.6.0
+   * @param source Source to read time from, or {@code null} to use the system time
+   */
+  public static void setTimeSource(TimeSource source) {
+    if (source == null) {
+      source = SYSTEM_TIME_SOURCE;
+    }
+    
+    synchronized (UPDATE_LOCK) {
+      long currentNanos = accurateTimeNanos();
+      long sourceNanos = source.nanoTime();
+      // compare with subtraction so that a nano time overflow is handled
+      long offset = currentNanos - sourceNanos;
+      timeSource = new OffsetTimeSource(source, offset > 0 ? offset : 0);
+      
+      accurateTimeNanos();
+      accurateTimeMillis();
+    }
+  }
+  
+  /**
+   * Returns the source which {@link Clock} is currently reading time from.  Unless changed by 
+   * {@link #setTimeSource(TimeSource)} this will be {@link #SYSTEM_TIME_SOURCE}.
+   * 
+   * @since 4.6.0
+   * @return Source currently in use
+   */
+  public static TimeSource getTimeSource() {
+    return timeSource.source;
+  }
+  
   /**
    * Stops the clock from updating automatically.  
    * 
@@ -77,11 +198,11 @@ public class Clock {
       oldUpdater = clockUpdater;
       
       clockUpdater = null;
-      
-      UPDATE_LOCK.notifyAll();
     }
     
     if (oldUpdater != null) {
+      LockSupport.unpark(oldUpdater.thread);
+      
       Thread currentThread = Thread.currentThread();
       while (! oldUpdater.runnableFinished && 
              ! currentThread.isInterrupted()) {
@@ -122,7 +243,8 @@ public class Clock {
    * @return a long which is a constantly forward moving representation of nano seconds
    */
   public static long accurateTimeNanos() {
-    return nowNanos = System.nanoTime();
+    OffsetTimeSource ts = timeSource;
+    return NOW_NANOS.value = ts.source.nanoTime() + ts.nanoOffset;
   }
   
   /**
@@ -138,7 +260,30 @@ public class Clock {
    * @return a long which is a constantly forward moving representation of nano seconds
    */
   public static long lastKnownTimeNanos() {
-    return nowNanos;
+    recordRead();
+    
+    return NOW_NANOS.value;
+  }
+  
+  /**
+   * Records that one of the {@code lastKnown} times has been read, so that the automatic update 
+   * thread knows it needs to keep updating.  If the update thread has backed off, this will 
+   * update the time and wake the thread back up.  Once recorded, further reads only require a 
+   * single volatile read until the next automatic update.
+   */
+  private static void recordRead() {
+    if (! readSinceUpdate) {
+      readSinceUpdate = true;
+      
+      Thread updaterThread = idleUpdaterThread;
+      if (updaterThread != null) {
+        idleUpdaterThread = null;
+        // the update thread may have been parked for a while, so update before returning
+        accurateTimeMillis();
+        accurateTimeNanos();
+        LockSupport.unpark(updaterThread);
+      }
+    }
   }
   
   /**
@@ -157,10 +302,26 @@ public class Clock {
    * @return Amount of time in milliseconds since Clock class was loaded
    */
   public static long lastKnownForwardProgressingMillis() {
+    return lastKnownForwardProgressingNanos() / NANOS_IN_MILLISECOND;
+  }
+  
+  /**
+   * Returns a fuzzy time for how much time in nanoseconds since this class has loaded (starting 
+   * at {@code 0}).  This is the same as {@link #lastKnownForwardProgressingMillis()}, but 
+   * without losing the precision of the stored nano time.  
+   * 
+   * This only reads the last stored time, it does not invoke {@link System#nanoTime()} or write 
+   * to the shared time.  That makes it ideal for hot paths which can tolerate the time being as 
+   * old as the last call to {@link #accurateTimeNanos()} (or the last automatic update).
+   * 
+   * @since 4.6.0
+   * @return Amount of time in nanoseconds since Clock class was loaded
+   */
+  public static long lastKnownForwardProgressingNanos() {
     /* We can not guarantee that nowNanos is > CLOCK_STARTUP_TIME_NANOS, since the nano time may 
      * overflow.  But subtracting after an overflow, will still produce a positive result.
      */
-    return (nowNanos - CLOCK_STARTUP_TIME_NANOS) / NANOS_IN_MILLISECOND;
+    return lastKnownTimeNanos() - CLOCK_STARTUP_TIME_NANOS;
   }
   
   /**
@@ -176,9 +337,30 @@ public class Clock {
    * @return Amount of time in milliseconds since Clock class was loaded
    */
   public static long accurateForwardProgressingMillis() {
-    accurateTimeNanos();
-    
-    return lastKnownForwardProgressingMillis();
+    // calculated directly so that this is not recorded as a read of the last known time
+    return (accurateTimeNanos() - CLOCK_STARTUP_TIME_NANOS) / NANOS_IN_MILLISECOND;
+  }
+
+  /**
+   * Returns the current forward progressing time in milliseconds from the provided 
+   * {@link TimeSource}.  If no source is provided then this will return either 
+   * {@link #accurateForwardProgressingMillis()} or {@link #lastKnownForwardProgressingMillis()} 
+   * depending on the accuracy requested.  This is used by components which can be provided a 
+   * {@link TimeSource} at construction, so that all time comparisons are against the same source.
+   * 
+   * @since 4.6.0
+   * @param timeSource Source to read time from, or {@code null} to use this clock
+   * @param accurate If {@code true} then time estimates are not acceptable
+   * @return current time in milliseconds
+   */
+  public static long forwardProgressingMillis(TimeSource timeSource, boolean accurate) {
+    if (timeSource != null) {
+      return timeSource.nanoTime() / NANOS_IN_MILLISECOND;
+    } else if (accurate) {
+      return accurateForwardProgressingMillis();
+    } else {
+      return lastKnownForwardProgressingMillis();
+    }
   }
 
   /**
@@ -196,7 +378,9 @@ public class Clock {
    * @return last known time in milliseconds
    */
   public static long lastKnownTimeMillis() {
-    return nowMillis;
+    recordRead();
+    
+    return NOW_MILLIS.value;
   }
 
   /**
@@ -211,36 +395,157 @@ public class Clock {
    * @return accurate time in milliseconds
    */
   public static long accurateTimeMillis() {
-    return nowMillis = System.currentTimeMillis();
+    return NOW_MILLIS.value = timeSource.source.currentTimeMillis();
+  }
+  
+  /**
+   * <p>{@link TimeSource} implementation which reads from {@link System}.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  private static class SystemTimeSource implements TimeSource {
+    @Override
+    public long nanoTime() {
+      return System.nanoTime();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+      return System.currentTimeMillis();
+    }
+    
+    @Override
+    public String toString() {
+      return "SystemTimeSource";
+    }
+  }
+  
+  /**
+   * <p>Immutable pairing of a {@link TimeSource} and the offset which must be added to its nano 
+   * time.  Keeping both in one object allows them to be swapped atomically.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  private static class OffsetTimeSource {
+    protected final TimeSource source;
+    protected final long nanoOffset;
+    
+    protected OffsetTimeSource(TimeSource source, long nanoOffset) {
+      this.source = source;
+      this.nanoOffset = nanoOffset;
+    }
+  }
+  
+  /**
+   * <p>Padding which is placed before the value in {@link PaddedVolatileLong}.  Super class 
+   * fields are laid out before sub class fields, so this can not be reordered by the JVM.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  @SuppressWarnings("unused")
+  private static class LeftPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+  }
+  
+  /**
+   * <p>Holds the volatile value for {@link PaddedVolatileLong}.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  private static class PaddedValue extends LeftPadding {
+    protected volatile long value;
+  }
+  
+  /**
+   * <p>A volatile {@code long} which is padded so that it will not share a cache line with other 
+   * frequently accessed values.</p>
+   * 
+   * @author jent - Mike Jensen
+   * @since 4.6.0
+   */
+  @SuppressWarnings("unused")
+  private static class PaddedVolatileLong extends PaddedValue {
+    protected long p9, p10, p11, p12, p13, p14, p15;
+    
+    protected PaddedVolatileLong(long initialValue) {
+      value = initialValue;
+    }
+  }
+  
+  /**
+   * Calculates how long the automatic update thread should wait before its next update.  If the 
+   * time was read since the last update, this will return the configured frequency.  Otherwise 
+   * the current delay will be doubled, up to {@link #MAXIMUM_IDLE_UPDATE_FREQUENCY_IN_MS}.
+   * 
+   * @param currentDelayMillis Delay used before the most recent update
+   * @param readSinceUpdate {@code true} if the time was read since the previous update
+   * @return Delay in milliseconds before the next update
+   */
+  protected static int nextUpdateDelay(int currentDelayMillis, boolean readSinceUpdate) {
+    int frequencyMillis = updateFrequencyMillis;
+    if (readSinceUpdate || frequencyMillis >= MAXIMUM_IDLE_UPDATE_FREQUENCY_IN_MS) {
+      return frequencyMillis;
+    } else {
+      return Math.max(frequencyMillis, 
+                      (int)Math.min(MAXIMUM_IDLE_UPDATE_FREQUENCY_IN_MS, currentDelayMillis * 2L));
+    }
   }
   
   /**
    * <p>Runnable which will regularly update the stored clock time.  This runnable is designed to 
-   * run in its own dedicated thread.</p>
+   * run in its own dedicated thread.  The time between updates adapts depending on if the time 
+   * is being read, see {@link #nextUpdateDelay(int, boolean)}.</p>
    * 
    * @author jent - Mike Jensen
    * @since 1.0.0
    */
-  private static class ClockUpdater implements Runnable {
+  protected static class ClockUpdater implements Runnable {
+    protected volatile Thread thread = null;
+    protected volatile int currentDelayMillis = updateFrequencyMillis;
     private volatile boolean runnableFinished = false;
     
     @Override
     public void run() {
+      Thread currentThread = Thread.currentThread();
       try {
-        synchronized (UPDATE_LOCK) {
-          while (clockUpdater == this) {
-            try {
-              accurateTimeMillis();
-              accurateTimeNanos();
-              
-              UPDATE_LOCK.wait(AUTOMATIC_UPDATE_FREQUENCY_IN_MS);
-            } catch (InterruptedException e) {
-              clockUpdater = null;  // let thread exit
-              Thread.currentThread().interrupt();
+        while (clockUpdater == this) {
+          accurateTimeNanos();
+          accurateTimeMillis();
+          readSinceUpdate = false;
+          
+          int delayMillis = currentDelayMillis;
+          if (delayMillis > updateFrequencyMillis) {
+            idleUpdaterThread = currentThread;
+            if (readSinceUpdate) {
+              // reader may have missed seeing us as idle
+              idleUpdaterThread = null;
+              currentDelayMillis = delayMillis = updateFrequencyMillis;
             }
           }
+          
+          LockSupport.parkNanos(delayMillis * (long)NANOS_IN_MILLISECOND);
+          
+          if (idleUpdaterThread == currentThread) {
+            idleUpdaterThread = null;
+          }
+          if (currentThread.isInterrupted()) {
+            synchronized (UPDATE_LOCK) {
+              if (clockUpdater == this) {
+                clockUpdater = null;  // let thread exit
+              }
+            }
+          } else {
+            currentDelayMillis = nextUpdateDelay(delayMillis, readSinceUpdate);
+          }
         }
       } finally {
+        if (idleUpdaterThread == currentThread) {
+          idleUpdaterThread = null;
+        }
         runnableFinished = true;
       }
     }
@@ -0,0 +1,19 @@
+package org.threadly.util;
+
+/**
+ * <p>An operation which accepts one argument and returns no result.  This is used where threadly 
+ * needs to accept a single argument callback, for example {@link 
+ * org.threadly.concurrent.future.ListenableFuture#resultCallback(Consumer)}.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ * @param <T> Type of the argument to the operation
+ */
+public interface Consumer<T> {
+  /**
+   * Performs this operation on the given argument.
+   * 
+   * @param t Argument to the operation
+   */
+  public void accept(T t);
+}
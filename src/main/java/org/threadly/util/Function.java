@@ -0,0 +1,21 @@
+package org.threadly.util;
+
+/**
+ * <p>A function which accepts one argument and produces a result.  This is used where threadly 
+ * needs to accept a transformation, for example {@link 
+ * org.threadly.concurrent.future.ListenableFuture#map(Function)}.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ * @param <T> Type of the argument to the function
+ * @param <R> Type of the result of the function
+ */
+public interface Function<T, R> {
+  /**
+   * Applies this function to the given argument.
+   * 
+   * @param t Argument to the function
+   * @return The function result
+   */
+  public R apply(T t);
+}
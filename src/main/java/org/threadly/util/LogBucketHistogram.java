@@ -0,0 +1,218 @@
+package org.threadly.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A fixed memory histogram for collecting a distribution of non-negative {@code long} values. 
+ * Values are counted into logarithmic buckets (similar to an HDR histogram), so the memory used 
+ * does not depend on how many values are recorded or how large they are.  Percentiles can be 
+ * calculated over every value ever recorded (or since the last {@link #reset()}), rather than 
+ * just a recent window of samples.</p>
+ * 
+ * <p>Small values (less than {@code 2 ^ precisionBits}) are counted exactly.  Larger values are 
+ * counted into buckets whose width grows with the magnitude of the value, so that the reported 
+ * value is never more than {@code 1 / 2 ^ (precisionBits - 1)} smaller than the recorded value. 
+ * With the default precision this is a maximum error of about 3%.</p>
+ * 
+ * <p>Recording a value is lock free and does not allocate, it is an index calculation followed 
+ * by a single atomic increment.  Calculating percentiles iterates the buckets, so the cost does 
+ * not depend on how many values have been recorded.  A percentile calculation which runs 
+ * concurrently with recording may or may not include the values being recorded.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ */
+public class LogBucketHistogram {
+  /**
+   * The default precision used by {@link #LogBucketHistogram()}.
+   */
+  public static final int DEFAULT_PRECISION_BITS = 6;
+  private static final int MAX_PRECISION_BITS = 14;
+  
+  protected final int precisionBits;
+  protected final int subBucketCount;
+  protected final int subBucketHalfCount;
+  protected final AtomicLongArray buckets;
+  
+  /**
+   * Constructs a new histogram with the default precision of {@value #DEFAULT_PRECISION_BITS} 
+   * bits.
+   */
+  public LogBucketHistogram() {
+    this(DEFAULT_PRECISION_BITS);
+  }
+  
+  /**
+   * Constructs a new histogram with the provided precision.  Each additional bit of precision 
+   * halves the maximum error of reported values, but doubles the memory used.
+   * 
+   * @param precisionBits Number of significant bits to track for each value, between 1 and 14
+   */
+  public LogBucketHistogram(int precisionBits) {
+    if (precisionBits < 1 || precisionBits > MAX_PRECISION_BITS) {
+      throw new IllegalArgumentException("precisionBits must be between 1 and " + 
+                                           MAX_PRECISION_BITS + ": " + precisionBits);
+    }
+    
+    this.precisionBits = precisionBits;
+    this.subBucketCount = 1 << precisionBits;
+    this.subBucketHalfCount = subBucketCount / 2;
+    // one bucket per value under subBucketCount, then half that many for each larger magnitude
+    this.buckets = 
+        new AtomicLongArray(subBucketCount + (Long.SIZE - 1 - precisionBits) * subBucketHalfCount);
+  }
+  
+  /**
+   * Returns the precision this histogram was constructed with.
+   * 
+   * @return The number of significant bits tracked for each value
+   */
+  public int getPrecisionBits() {
+    return precisionBits;
+  }
+  
+  /**
+   * Returns the number of buckets used to count values.  This is fixed at construction.
+   * 
+   * @return Quantity of buckets in this histogram
+   */
+  public int getBucketCount() {
+    return buckets.length();
+  }
+  
+  /**
+   * Records a value into the histogram.  Negative values are recorded as zero.
+   * 
+   * @param value Value to be recorded
+   */
+  public void record(long value) {
+    buckets.incrementAndGet(bucketIndex(value));
+  }
+  
+  /**
+   * Adds all the values recorded in the provided histogram into this histogram.  The provided 
+   * histogram is not modified.
+   * 
+   * @param other Histogram to copy counts from, must have the same precision as this histogram
+   */
+  public void add(LogBucketHistogram other) {
+    if (other.precisionBits != precisionBits) {
+      throw new IllegalArgumentException("Histogram precision does not match: " + 
+                                           other.precisionBits + " != " + precisionBits);
+    }
+    
+    for (int i = 0; i < buckets.length(); i++) {
+      long count = other.buckets.get(i);
+      if (count != 0) {
+        buckets.addAndGet(i, count);
+      }
+    }
+  }
+  
+  /**
+   * Removes all recorded values from the histogram.  Values recorded concurrently with this 
+   * call may or may not be retained.
+   */
+  public void reset() {
+    for (int i = 0; i < buckets.length(); i++) {
+      buckets.set(i, 0);
+    }
+  }
+  
+  /**
+   * Returns the total number of values recorded into the histogram.
+   * 
+   * @return Quantity of recorded values
+   */
+  public long getTotalCount() {
+    long result = 0;
+    for (int i = 0; i < buckets.length(); i++) {
+      result += buckets.get(i);
+    }
+    return result;
+  }
+  
+  /**
+   * Gets percentile values from the recorded values.  This behaves similar to 
+   * {@link StatisticsUtils#getPercentiles(long[], double...)}, except that the value returned is 
+   * the lowest value which would be counted in the same bucket as the real sample.
+   * 
+   * The returned map's keys correspond exactly to the percentiles provided.  Iterating over the 
+   * returned map will iterate in order of the requested percentiles as well.
+   * 
+   * @param percentiles Percentiles requested, any decimal values between 0 and 100 (inclusive)
+   * @return Map with keys being the percentiles requested
+   */
+  public Map<Double, Long> getPercentiles(double ... percentiles) {
+    if (percentiles.length == 0) {
+      throw new IllegalArgumentException("No percentiles requested");
+    }
+    // copy counts so that concurrent recording does not change the result as we iterate
+    long[] counts = new long[buckets.length()];
+    long totalCount = 0;
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = buckets.get(i);
+      totalCount += counts[i];
+    }
+    if (totalCount == 0) {
+      throw new IllegalArgumentException("No values recorded to calculate against");
+    }
+    
+    Map<Double, Long> result = new LinkedHashMap<Double, Long>();
+    for (double p : percentiles) {
+      if (p > 100 || p < 0) {
+        throw new IllegalArgumentException("Percentile not in range of 0 to 100: " + p);
+      }
+      
+      long index;
+      if (p == 100) {
+        index = totalCount - 1;
+      } else {
+        index = (long)((p / 100.) * totalCount);
+      }
+      long seenCount = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seenCount += counts[i];
+        if (seenCount > index) {
+          result.put(p, bucketLowValue(i));
+          break;
+        }
+      }
+    }
+    return result;
+  }
+  
+  /**
+   * Calculates the bucket index a value should be counted in.
+   * 
+   * @param value Value to find bucket for
+   * @return Index into {@link #buckets} for the value
+   */
+  protected int bucketIndex(long value) {
+    if (value < subBucketCount) {
+      return value < 0 ? 0 : (int)value;
+    }
+    int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int)(value >>> (magnitude - precisionBits + 1));
+    return subBucketCount + ((magnitude - precisionBits) * subBucketHalfCount) + 
+             (subBucket - subBucketHalfCount);
+  }
+  
+  /**
+   * Calculates the lowest value which would be counted into the provided bucket.
+   * 
+   * @param index Index of bucket
+   * @return Lowest value counted in the bucket
+   */
+  protected long bucketLowValue(int index) {
+    if (index < subBucketCount) {
+      return index;
+    }
+    int offset = index - subBucketCount;
+    int magnitude = precisionBits + (offset / subBucketHalfCount);
+    long subBucket = subBucketHalfCount + (offset % subBucketHalfCount);
+    return subBucket << (magnitude - precisionBits + 1);
+  }
+}
@@ -0,0 +1,142 @@
+package org.threadly.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>A simple growable list of primitive {@code long} values.  This is used where many numeric 
+ * values need to be collected (for example statistic samples), and creating a {@link Long} for 
+ * every value would be wasteful.  This is NOT thread safe, for a concurrent structure see 
+ * {@link org.threadly.concurrent.collections.ConcurrentLongRingBuffer}.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ */
+public class LongArrayList {
+  private static final int DEFAULT_INITIAL_CAPACITY = 16;
+  
+  private long[] values;
+  private int size;
+  
+  /**
+   * Constructs a new empty list with a default initial capacity.
+   */
+  public LongArrayList() {
+    this(DEFAULT_INITIAL_CAPACITY);
+  }
+  
+  /**
+   * Constructs a new empty list which can hold the provided number of values before it needs to 
+   * grow.
+   * 
+   * @param initialCapacity Number of values which can be added before the list has to grow
+   */
+  public LongArrayList(int initialCapacity) {
+    ArgumentVerifier.assertNotNegative(initialCapacity, "initialCapacity");
+    
+    values = new long[initialCapacity];
+    size = 0;
+  }
+  
+  /**
+   * Returns the number of values contained in the list.
+   * 
+   * @return Quantity of values in the list
+   */
+  public int size() {
+    return size;
+  }
+  
+  /**
+   * Check if there are any values contained in the list.
+   * 
+   * @return {@code true} if the list has no values
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+  
+  /**
+   * Removes all values from the list.  The capacity of the list is retained.
+   */
+  public void clear() {
+    size = 0;
+  }
+  
+  /**
+   * Get the value at a given index.
+   * 
+   * @param index Index of the value to return
+   * @return The value at the provided index
+   */
+  public long get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    
+    return values[index];
+  }
+  
+  /**
+   * Adds a value to the end of the list.
+   * 
+   * @param value Value to be added
+   */
+  public void add(long value) {
+    ensureCapacity(size + 1);
+    values[size++] = value;
+  }
+  
+  /**
+   * Adds all the values in the provided array to the end of the list.
+   * 
+   * @param toAdd Values to be added
+   */
+  public void addAll(long[] toAdd) {
+    ensureCapacity(size + toAdd.length);
+    System.arraycopy(toAdd, 0, values, size, toAdd.length);
+    size += toAdd.length;
+  }
+  
+  private void ensureCapacity(int capacity) {
+    if (capacity > values.length) {
+      values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+    }
+  }
+  
+  /**
+   * Sorts the values in the list into ascending numerical order.
+   */
+  public void sort() {
+    Arrays.sort(values, 0, size);
+  }
+  
+  /**
+   * Copies the values of the list into a new array.
+   * 
+   * @return A new array containing the values of this list
+   */
+  public long[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+  
+  /**
+   * Copies the values of the list into a new {@link List} of {@link Long} objects.  This is for 
+   * when the values need to be provided to an API which does not accept primitives.
+   * 
+   * @return A new list containing the values of this list
+   */
+  public List<Long> toList() {
+    List<Long> result = new ArrayList<Long>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(values[i]);
+    }
+    return result;
+  }
+  
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+}
@@ -0,0 +1,20 @@
+package org.threadly.util;
+
+/**
+ * <p>A test against a single argument.  This is used where threadly needs to accept a 
+ * condition, for example {@link org.threadly.concurrent.Pipeline#filter(java.util.concurrent.Executor, 
+ * Predicate)}.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ * @param <T> Type of the argument to test
+ */
+public interface Predicate<T> {
+  /**
+   * Evaluates this predicate against the given argument.
+   * 
+   * @param t Argument to test
+   * @return {@code true} if the argument matches the predicate
+   */
+  public boolean test(T t);
+}
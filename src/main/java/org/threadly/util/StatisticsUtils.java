@@ -1,6 +1,7 @@
 package org.threadly.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -36,6 +37,27 @@ public class StatisticsUtils {
     return totalTime / list.size();
   }
   
+  /**
+   * Calculates the average from an array of primitive values.  This avoids the boxing and 
+   * iteration costs of {@link #getAverage(Collection)}.
+   * 
+   * @param values Array of numbers to average against
+   * @return Zero if the array is empty, otherwise the average of the values inside the array
+   * @since 4.6.0
+   */
+  public static double getAverage(long[] values) {
+    if (values.length == 0) {
+      return 0;
+    }
+    
+    double totalTime = 0;
+    for (long l : values) {
+      totalTime += l;
+    }
+    
+    return totalTime / values.length;
+  }
+  
   /**
    * Gets percentile values from a collection of numeric values.  This function is NOT dependent 
    * on the collection already being sorted.  This function accepts any decimal percentile between 
@@ -90,4 +112,56 @@ public class StatisticsUtils {
     }
     return result;
   }
+  
+  /**
+   * Gets percentile values from an array of primitive values.  This behaves the same as 
+   * {@link #getPercentiles(Collection, double...)}, but the values are sorted as primitives so 
+   * no {@link Long} objects need to be created for the samples.  The provided array is not 
+   * modified.
+   * 
+   * @param values A non-empty array of numbers to examine for percentiles
+   * @param percentiles Percentiles requested, any decimal values between 0 and 100 (inclusive)
+   * @return Map with keys being the percentiles requested in the second argument
+   * @since 4.6.0
+   */
+  public static Map<Double, Long> getPercentiles(long[] values, double ... percentiles) {
+    long[] valuesCopy = Arrays.copyOf(values, values.length);
+    Arrays.sort(valuesCopy);
+    return getPercentilesFromSorted(valuesCopy, percentiles);
+  }
+  
+  /**
+   * Gets percentile values from an array of primitive values which is already sorted in 
+   * ascending order.  Because no copy or sort needs to be done this is the cheapest way to get 
+   * percentiles, but if the array is not sorted the results will be incorrect.
+   * 
+   * @param sortedValues A non-empty array of numbers, sorted in ascending order
+   * @param percentiles Percentiles requested, any decimal values between 0 and 100 (inclusive)
+   * @return Map with keys being the percentiles requested in the second argument
+   * @since 4.6.0
+   */
+  public static Map<Double, Long> getPercentilesFromSorted(long[] sortedValues, 
+                                                           double ... percentiles) {
+    if (percentiles.length == 0) {
+      throw new IllegalArgumentException("No percentiles requested");
+    } else if (sortedValues.length == 0) {
+      throw new IllegalArgumentException("No values provided to calculate against");
+    }
+    
+    Map<Double, Long> result = new LinkedHashMap<Double, Long>();
+    for (double p : percentiles) {
+      if (p > 100 || p < 0) {
+        throw new IllegalArgumentException("Percentile not in range of 0 to 100: " + p);
+      }
+      
+      int index;
+      if (p == 100) {
+        index = sortedValues.length - 1;
+      } else {
+        index = (int)((p / 100.) * sortedValues.length);
+      }
+      result.put(p, sortedValues[index]);
+    }
+    return result;
+  }
 }
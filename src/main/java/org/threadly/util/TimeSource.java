@@ -0,0 +1,36 @@
+package org.threadly.util;
+
+/**
+ * <p>Source of raw time values.  By default {@link Clock} reads time directly from 
+ * {@link System#nanoTime()} and {@link System#currentTimeMillis()}, but an alternative source can 
+ * be provided with {@link Clock#setTimeSource(TimeSource)}.  Some components (for example 
+ * {@link org.threadly.concurrent.NoThreadScheduler}) also accept a source directly, so that they 
+ * can run against a different time than the rest of the application.</p>
+ * 
+ * <p>Providing a source can be useful for simulations which need to control how time progresses 
+ * (see {@link org.threadly.test.concurrent.TestableTimeSource}), or on platforms where 
+ * {@link System#nanoTime()} is expensive and a cheaper (but less precise) time is acceptable.</p>
+ * 
+ * <p>Implementations must be thread safe, and are expected to be cheap to invoke.</p>
+ * 
+ * @author jent - Mike Jensen
+ * @since 4.6.0
+ */
+public interface TimeSource {
+  /**
+   * Returns the current value of a forward progressing time in nanoseconds.  Like 
+   * {@link System#nanoTime()} the start point of this value is arbitrary, it is only useful for 
+   * measuring elapsed time.  The returned value must never go backwards.
+   * 
+   * @return Current time in nanoseconds from an arbitrary origin
+   */
+  public long nanoTime();
+  
+  /**
+   * Returns the current wall clock time in milliseconds.  This has the same meaning as 
+   * {@link System#currentTimeMillis()}, and similarly may go backwards if the wall clock changes.
+   * 
+   * @return Current time in milliseconds since the epoch
+   */
+  public long currentTimeMillis();
+}
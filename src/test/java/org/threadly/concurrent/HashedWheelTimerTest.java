@@ -0,0 +1,246 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+import static org.threadly.TestConstants.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.test.concurrent.TestRunnable;
+import org.threadly.test.concurrent.TestableTimeSource;
+import org.threadly.util.ExceptionHandler;
+
+@SuppressWarnings("javadoc")
+public class HashedWheelTimerTest {
+  private static final int TICK_MILLIS = 10;
+  private static final int WHEEL_SIZE = 8;
+  
+  private TestableTimeSource timeSource;
+  private NoThreadScheduler scheduler;
+  private HashedWheelTimer timer;
+  
+  @Before
+  public void setup() {
+    timeSource = new TestableTimeSource();
+    scheduler = new NoThreadScheduler(null, 500, timeSource);
+    timer = new HashedWheelTimer(scheduler, TICK_MILLIS, WHEEL_SIZE, timeSource);
+  }
+  
+  @After
+  public void cleanup() {
+    timeSource = null;
+    scheduler = null;
+    timer = null;
+  }
+  
+  private void advanceAndTick(long millis) {
+    timeSource.advance(millis);
+    scheduler.tick(null);
+  }
+  
+  @Test
+  @SuppressWarnings("unused")
+  public void constructorFail() {
+    try {
+      new HashedWheelTimer(null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new HashedWheelTimer(scheduler, 0, WHEEL_SIZE, null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new HashedWheelTimer(scheduler, TICK_MILLIS, 0, null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void wheelSizeRoundedUpTest() {
+    assertEquals(128, new HashedWheelTimer(scheduler, TICK_MILLIS, 100, null).wheel.length);
+    assertEquals(WHEEL_SIZE, timer.wheel.length);
+  }
+  
+  @Test
+  public void scheduleFail() {
+    try {
+      timer.schedule(null, 1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      timer.schedule(new TestRunnable(), -1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void scheduleTest() {
+    TestRunnable tr = new TestRunnable();
+    HashedWheelTimer.Timeout timeout = timer.schedule(tr, 25);
+    assertEquals(1, timer.getPendingCount());
+    
+    advanceAndTick(20);
+    assertFalse(tr.ranOnce());
+    assertFalse(timeout.isExpired());
+    
+    advanceAndTick(TICK_MILLIS);
+    assertTrue(tr.ranOnce());
+    assertTrue(timeout.isExpired());
+    assertFalse(timeout.isCanceled());
+    assertEquals(0, timer.getPendingCount());
+  }
+  
+  @Test
+  public void scheduleZeroDelayTest() {
+    TestRunnable tr = new TestRunnable();
+    timer.schedule(tr, 0);
+    
+    advanceAndTick(TICK_MILLIS);
+    assertTrue(tr.ranOnce());
+  }
+  
+  @Test
+  public void scheduleBeyondWheelRotationTest() {
+    TestRunnable tr = new TestRunnable();
+    long delay = TICK_MILLIS * WHEEL_SIZE * 3 + 5;
+    timer.schedule(tr, delay);
+    
+    long elapsed = 0;
+    while (elapsed < delay - TICK_MILLIS) {
+      advanceAndTick(TICK_MILLIS);
+      elapsed += TICK_MILLIS;
+      assertFalse(tr.ranOnce());
+    }
+    advanceAndTick(TICK_MILLIS * 2);
+    assertTrue(tr.ranOnce());
+  }
+  
+  @Test
+  public void scheduleManyInOrderTest() {
+    final List<Integer> runOrder = new ArrayList<Integer>();
+    for (int i = TEST_QTY - 1; i >= 0; i--) {
+      final int value = i;
+      timer.schedule(new Runnable() {
+        @Override
+        public void run() {
+          runOrder.add(value);
+        }
+      }, (i + 1) * TICK_MILLIS * 2);
+    }
+    
+    for (int i = 0; i < TEST_QTY; i++) {
+      advanceAndTick(TICK_MILLIS * 2);
+      assertEquals(i + 1, runOrder.size());
+      assertEquals(i, (int)runOrder.get(i));
+    }
+    assertEquals(0, timer.getPendingCount());
+  }
+  
+  @Test
+  public void cancelTest() {
+    TestRunnable tr = new TestRunnable();
+    HashedWheelTimer.Timeout timeout = timer.schedule(tr, 25);
+    advanceAndTick(TICK_MILLIS);
+    
+    assertTrue(timeout.cancel());
+    assertTrue(timeout.isCanceled());
+    assertFalse(timeout.cancel());
+    assertEquals(0, timer.getPendingCount());
+    
+    advanceAndTick(TICK_MILLIS * WHEEL_SIZE * 2);
+    assertFalse(tr.ranOnce());
+    assertFalse(timeout.isExpired());
+  }
+  
+  @Test
+  public void cancelBeforeTickTest() {
+    TestRunnable tr = new TestRunnable();
+    HashedWheelTimer.Timeout timeout = timer.schedule(tr, TICK_MILLIS);
+    assertTrue(timeout.cancel());
+    
+    advanceAndTick(TICK_MILLIS * 2);
+    assertFalse(tr.ranOnce());
+  }
+  
+  @Test
+  public void cancelAfterExpiredTest() {
+    TestRunnable tr = new TestRunnable();
+    HashedWheelTimer.Timeout timeout = timer.schedule(tr, TICK_MILLIS);
+    advanceAndTick(TICK_MILLIS * 2);
+    
+    assertTrue(tr.ranOnce());
+    assertFalse(timeout.cancel());
+    assertFalse(timeout.isCanceled());
+  }
+  
+  @Test
+  public void cancelOneOfManyTest() {
+    TestRunnable tr1 = new TestRunnable();
+    TestRunnable tr2 = new TestRunnable();
+    TestRunnable tr3 = new TestRunnable();
+    timer.schedule(tr1, TICK_MILLIS);
+    HashedWheelTimer.Timeout timeout = timer.schedule(tr2, TICK_MILLIS);
+    timer.schedule(tr3, TICK_MILLIS);
+    advanceAndTick(1);  // get all timeouts into the same bucket
+    
+    timeout.cancel();
+    advanceAndTick(TICK_MILLIS * 2);
+    
+    assertTrue(tr1.ranOnce());
+    assertFalse(tr2.ranOnce());
+    assertTrue(tr3.ranOnce());
+  }
+  
+  @Test
+  public void tickStopsWhenIdleTest() {
+    assertEquals(0, scheduler.getQueuedTaskCount());
+    
+    timer.schedule(new TestRunnable(), TICK_MILLIS);
+    assertEquals(1, scheduler.getQueuedTaskCount());
+    
+    advanceAndTick(TICK_MILLIS * 2);
+    assertEquals(0, scheduler.getQueuedTaskCount());
+    
+    // verify it restarts
+    TestRunnable tr = new TestRunnable();
+    timer.schedule(tr, TICK_MILLIS);
+    assertEquals(1, scheduler.getQueuedTaskCount());
+    advanceAndTick(TICK_MILLIS * 2);
+    assertTrue(tr.ranOnce());
+  }
+  
+  @Test
+  public void taskExceptionTest() {
+    TestRunnable tr = new TestRunnable();
+    timer.schedule(new Runnable() {
+      @Override
+      public void run() {
+        throw new RuntimeException();
+      }
+    }, TICK_MILLIS);
+    timer.schedule(tr, TICK_MILLIS);
+    
+    timeSource.advance(TICK_MILLIS * 2);
+    scheduler.tick(new ExceptionHandler() {
+      @Override
+      public void handleException(Throwable thrown) {
+        fail("Exception should not escape timer");
+      }
+    });
+    
+    assertTrue(tr.ranOnce());
+  }
+}
@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 import static org.threadly.TestConstants.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -19,8 +20,10 @@ import org.threadly.concurrent.AbstractPriorityScheduler.OneTimeTaskWrapper;
 import org.threadly.concurrent.future.ListenableFuture;
 import org.threadly.test.concurrent.AsyncVerifier;
 import org.threadly.test.concurrent.TestRunnable;
+import org.threadly.test.concurrent.TestableTimeSource;
 import org.threadly.util.Clock;
 import org.threadly.util.ExceptionHandler;
+import org.threadly.util.Function;
 
 @SuppressWarnings("javadoc")
 public class NoThreadSchedulerTest {
@@ -54,6 +57,72 @@ public class NoThreadSchedulerTest {
     return result;
   }
   
+  private static class OrderRecordingRunnable implements Runnable {
+    private final List<String> runOrder;
+    private final String name;
+    
+    private OrderRecordingRunnable(List<String> runOrder, String name) {
+      this.runOrder = runOrder;
+      this.name = name;
+    }
+    
+    @Override
+    public void run() {
+      runOrder.add(name);
+    }
+  }
+  
+  @Test
+  public void timeSourceTest() {
+    TestableTimeSource timeSource = new TestableTimeSource();
+    scheduler = new NoThreadScheduler(null, 500, timeSource);
+    TestRunnable tr = new TestRunnable();
+    scheduler.schedule(tr, DELAY_TIME * 10);
+    
+    assertEquals(0, scheduler.tick(null));
+    timeSource.advance((DELAY_TIME * 10) - 1);
+    assertEquals(0, scheduler.tick(null));
+    timeSource.advance(1);
+    assertEquals(1, scheduler.tick(null));
+    assertTrue(tr.ranOnce());
+  }
+  
+  @Test
+  public void timeSourceRecurringTest() {
+    TestableTimeSource timeSource = new TestableTimeSource();
+    scheduler = new NoThreadScheduler(null, 500, timeSource);
+    TestRunnable tr = new TestRunnable();
+    scheduler.scheduleAtFixedRate(tr, 0, DELAY_TIME);
+    
+    for (int i = 1; i <= TEST_QTY; i++) {
+      assertEquals(1, scheduler.tick(null));
+      assertEquals(0, scheduler.tick(null));
+      assertEquals(i, tr.getRunCount());
+      timeSource.advance(DELAY_TIME);
+    }
+  }
+  
+  @Test
+  public void timeSourceLowPriorityWaitTest() {
+    TestableTimeSource timeSource = new TestableTimeSource();
+    scheduler = new NoThreadScheduler(null, DELAY_TIME, timeSource);
+    final List<String> runOrder = new ArrayList<String>(4);
+    // low priority has not waited past the max wait according to the time source
+    scheduler.execute(new OrderRecordingRunnable(runOrder, "low1"), TaskPriority.Low);
+    timeSource.advance(DELAY_TIME / 2);
+    scheduler.execute(new OrderRecordingRunnable(runOrder, "high1"), TaskPriority.High);
+    
+    assertEquals(2, scheduler.tick(null));
+    
+    // low priority has now waited longer than the max wait, so should run first
+    scheduler.execute(new OrderRecordingRunnable(runOrder, "low2"), TaskPriority.Low);
+    timeSource.advance(DELAY_TIME + 1);
+    scheduler.execute(new OrderRecordingRunnable(runOrder, "high2"), TaskPriority.High);
+    
+    assertEquals(2, scheduler.tick(null));
+    assertEquals(Arrays.asList("high1", "low1", "low2", "high2"), runOrder);
+  }
+  
   @Test
   public void isShutdownTest() {
     assertFalse(scheduler.isShutdown());
@@ -466,6 +535,57 @@ public class NoThreadSchedulerTest {
     assertTrue(delayRun.isDone());
   }
   
+  @Test
+  public void cancelSubmittedTaskSkippedTest() {
+    TestRunnable immediateRun = new TestRunnable();
+    TestRunnable delayRun = new TestRunnable();
+    ListenableFuture<?> immediateFuture = scheduler.submit(immediateRun);
+    ListenableFuture<?> delayFuture = scheduler.submitScheduled(delayRun, DELAY_TIME);
+    
+    assertTrue(immediateFuture.cancel(false));
+    assertTrue(delayFuture.cancel(false));
+    
+    scheduler.tick(null);
+    assertFalse(immediateRun.ranOnce());
+    assertFalse(delayRun.ranOnce());
+  }
+  
+  @Test
+  public void canceledTasksCompactedTest() {
+    int taskCount = AbstractPriorityScheduler.QueueSet.MIN_CANCELED_TASKS_BEFORE_COMPACT * 2;
+    List<ListenableFuture<?>> futures = new ArrayList<ListenableFuture<?>>(taskCount);
+    for (int i = 0; i < taskCount; i++) {
+      if (i % 2 == 0) {
+        futures.add(scheduler.submit(DoNothingRunnable.instance()));
+      } else {
+        futures.add(scheduler.submitScheduled(DoNothingRunnable.instance(), 1000 * 10));
+      }
+    }
+    assertEquals(taskCount, scheduler.getQueuedTaskCount());
+    
+    for (ListenableFuture<?> lf : futures) {
+      assertTrue(lf.cancel(false));
+    }
+    
+    assertEquals(0, scheduler.getQueuedTaskCount());
+  }
+  
+  @Test
+  public void cancelMappedTaskSkippedTest() {
+    TestRunnable tr = new TestRunnable();
+    ListenableFuture<?> mapped = scheduler.submit(tr).map(new Function<Object, Object>() {
+      @Override
+      public Object apply(Object o) {
+        return o;
+      }
+    });
+    
+    assertTrue(mapped.cancel(false));
+    
+    scheduler.tick(null);
+    assertFalse(tr.ranOnce());
+  }
+  
   @Test
   public void removeWhileRunningTest() {
     TestRunnable tr = new TestRunnable() {
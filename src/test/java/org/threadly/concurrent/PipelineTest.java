@@ -0,0 +1,420 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+import static org.threadly.TestConstants.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.threadly.concurrent.future.FutureUtils;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.concurrent.future.SettableListenableFuture;
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
+import org.threadly.util.Predicate;
+
+@SuppressWarnings("javadoc")
+public class PipelineTest {
+  private static final Executor SAME_THREAD = SameThreadSubmitterExecutor.instance();
+  
+  private static class CollectingConsumer<T> implements Consumer<T> {
+    private final List<T> items = Collections.synchronizedList(new ArrayList<T>());
+    
+    @Override
+    public void accept(T t) {
+      items.add(t);
+    }
+  }
+  
+  private static final Function<Integer, String> TO_STRING = new Function<Integer, String>() {
+    @Override
+    public String apply(Integer t) {
+      return t.toString();
+    }
+  };
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void sourceFail() {
+    Pipeline.source(0);
+  }
+  
+  @Test (expected = IllegalStateException.class)
+  public void pushBeforeEndedFail() {
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY);
+    source.map(SAME_THREAD, TO_STRING);
+    
+    source.push(1);
+  }
+  
+  @Test (expected = IllegalStateException.class)
+  public void addStageTwiceFail() {
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY);
+    source.map(SAME_THREAD, TO_STRING);
+    source.map(SAME_THREAD, TO_STRING);
+  }
+  
+  @Test (expected = IllegalStateException.class)
+  public void addStageAfterEndedFail() {
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY);
+    Pipeline<String> p = source.map(SAME_THREAD, TO_STRING);
+    p.consume(SAME_THREAD, new CollectingConsumer<String>());
+    
+    p.map(SAME_THREAD, new Function<String, String>() {
+      @Override
+      public String apply(String t) {
+        return t;
+      }
+    });
+  }
+  
+  @Test
+  @SuppressWarnings("unused")
+  public void stageArgumentFail() {
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY);
+    try {
+      source.map(null, TO_STRING);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      source.map(SAME_THREAD, null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      source.batch(new NoThreadScheduler(), 0, 1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      source.flatMapAsync(SAME_THREAD, 0, 
+                          new Function<Integer, ListenableFuture<Integer>>() {
+        @Override
+        public ListenableFuture<Integer> apply(Integer t) {
+          return null;
+        }
+      });
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void mapAndFilterTest() {
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY);
+    CollectingConsumer<String> consumer = new CollectingConsumer<String>();
+    ListenableFuture<?> done = source.filter(SAME_THREAD, new Predicate<Integer>() {
+      @Override
+      public boolean test(Integer t) {
+        return t % 2 == 0;
+      }
+    }).map(SAME_THREAD, TO_STRING).consume(SAME_THREAD, consumer);
+    
+    for (int i = 0; i < TEST_QTY * 2; i++) {
+      assertTrue(source.push(i).isDone());
+    }
+    assertFalse(done.isDone());
+    source.complete();
+    
+    assertTrue(done.isDone());
+    assertEquals(TEST_QTY, consumer.items.size());
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertEquals(Integer.toString(i * 2), consumer.items.get(i));
+    }
+  }
+  
+  @Test
+  public void nullItemTest() {
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY);
+    CollectingConsumer<Integer> consumer = new CollectingConsumer<Integer>();
+    source.consume(SAME_THREAD, consumer);
+    
+    source.push(null);
+    
+    assertEquals(1, consumer.items.size());
+    assertNull(consumer.items.get(0));
+  }
+  
+  @Test
+  public void backpressureTest() {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    Pipeline.Source<Integer> source = Pipeline.source(2);
+    CollectingConsumer<Integer> consumer = new CollectingConsumer<Integer>();
+    source.consume(scheduler, consumer);
+    
+    assertTrue(source.push(1).isDone());
+    ListenableFuture<?> pushFuture = source.push(2);
+    assertFalse(pushFuture.isDone());
+    
+    scheduler.tick(null);
+    
+    assertTrue(pushFuture.isDone());
+    assertEquals(2, consumer.items.size());
+  }
+  
+  @Test
+  public void backpressurePropagatesTest() {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    Pipeline.Source<Integer> source = Pipeline.source(2);
+    CollectingConsumer<String> consumer = new CollectingConsumer<String>();
+    source.map(SAME_THREAD, TO_STRING).consume(scheduler, consumer);
+    
+    // first two fill the consumer stage, which blocks the map stage
+    source.push(1);
+    source.push(2);
+    assertTrue(source.push(3).isDone());
+    ListenableFuture<?> pushFuture = source.push(4);
+    assertFalse(pushFuture.isDone());
+    
+    while (! pushFuture.isDone()) {
+      scheduler.tick(null);
+    }
+    source.complete();
+    scheduler.tick(null);
+    
+    assertEquals(4, consumer.items.size());
+  }
+  
+  @Test
+  public void flatMapAsyncTest() {
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY * 2);
+    final List<SettableListenableFuture<Integer>> started = 
+        new ArrayList<SettableListenableFuture<Integer>>();
+    CollectingConsumer<Integer> consumer = new CollectingConsumer<Integer>();
+    ListenableFuture<?> done = 
+        source.flatMapAsync(SAME_THREAD, 2, new Function<Integer, ListenableFuture<Integer>>() {
+          @Override
+          public ListenableFuture<Integer> apply(Integer t) {
+            SettableListenableFuture<Integer> slf = new SettableListenableFuture<Integer>();
+            started.add(slf);
+            return slf;
+          }
+        }).consume(SAME_THREAD, consumer);
+    
+    for (int i = 0; i < TEST_QTY; i++) {
+      source.push(i);
+    }
+    source.complete();
+    assertEquals(2, started.size());
+    
+    for (int i = 0; i < TEST_QTY; i++) {
+      started.get(i).setResult(i);
+      assertEquals(i + 1, consumer.items.size());
+      assertEquals(Math.min(i + 3, TEST_QTY), started.size());
+    }
+    
+    assertTrue(done.isDone());
+  }
+  
+  @Test
+  public void flatMapAsyncBackpressureTest() {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    Pipeline.Source<Integer> source = Pipeline.source(2);
+    CollectingConsumer<Integer> consumer = new CollectingConsumer<Integer>();
+    ListenableFuture<?> done = 
+        source.flatMapAsync(SAME_THREAD, 2, new Function<Integer, ListenableFuture<Integer>>() {
+          @Override
+          public ListenableFuture<Integer> apply(Integer t) {
+            return FutureUtils.immediateResultFuture(t);
+          }
+        }).consume(scheduler, consumer);
+    
+    // first two fill the consumer stage, next two hold the concurrency slots, then the buffer fills
+    for (int i = 1; i < 5; i++) {
+      assertTrue(source.push(i).isDone());
+    }
+    ListenableFuture<?> pushFuture = source.push(5);
+    assertFalse(pushFuture.isDone());
+    
+    while (! pushFuture.isDone()) {
+      scheduler.tick(null);
+    }
+    source.complete();
+    while (! done.isDone()) {
+      scheduler.tick(null);
+    }
+    
+    assertEquals(5, consumer.items.size());
+  }
+  
+  @Test
+  public void flatMapAsyncFailureTest() throws InterruptedException {
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY);
+    final Exception failure = new Exception();
+    ListenableFuture<?> done = 
+        source.flatMapAsync(SAME_THREAD, 2, new Function<Integer, ListenableFuture<Integer>>() {
+          @Override
+          public ListenableFuture<Integer> apply(Integer t) {
+            SettableListenableFuture<Integer> slf = new SettableListenableFuture<Integer>();
+            slf.setFailure(failure);
+            return slf;
+          }
+        }).consume(SAME_THREAD, new CollectingConsumer<Integer>());
+    
+    source.push(1);
+    
+    assertTrue(done.isDone());
+    try {
+      done.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(failure == e.getCause());
+    }
+  }
+  
+  @Test
+  public void batchSizeTest() {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY * 10);
+    CollectingConsumer<List<Integer>> consumer = new CollectingConsumer<List<Integer>>();
+    ListenableFuture<?> done = source.batch(scheduler, 3, 1000 * 10).consume(SAME_THREAD, consumer);
+    
+    for (int i = 0; i < 7; i++) {
+      source.push(i);
+    }
+    scheduler.tick(null);
+    
+    assertEquals(2, consumer.items.size());
+    assertEquals(3, consumer.items.get(0).size());
+    assertEquals(3, consumer.items.get(1).size());
+    
+    source.complete();
+    scheduler.tick(null);
+    
+    assertTrue(done.isDone());
+    assertEquals(3, consumer.items.size());
+    assertEquals(1, consumer.items.get(2).size());
+    assertEquals(6, (int)consumer.items.get(2).get(0));
+  }
+  
+  @Test
+  public void batchDelayTest() throws InterruptedException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY * 10);
+    CollectingConsumer<List<Integer>> consumer = new CollectingConsumer<List<Integer>>();
+    source.batch(scheduler, TEST_QTY, DELAY_TIME).consume(SAME_THREAD, consumer);
+    
+    source.push(1);
+    source.push(2);
+    scheduler.tick(null);
+    assertTrue(consumer.items.isEmpty());
+    
+    while (consumer.items.isEmpty()) {
+      scheduler.blockingTick(null);
+    }
+    
+    assertEquals(1, consumer.items.size());
+    assertEquals(2, consumer.items.get(0).size());
+  }
+  
+  @Test
+  public void stageFailureTest() throws InterruptedException {
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY);
+    final RuntimeException failure = new RuntimeException();
+    CollectingConsumer<Integer> consumer = new CollectingConsumer<Integer>();
+    ListenableFuture<?> done = source.map(SAME_THREAD, new Function<Integer, Integer>() {
+      @Override
+      public Integer apply(Integer t) {
+        if (t == 1) {
+          throw failure;
+        }
+        return t;
+      }
+    }).consume(SAME_THREAD, consumer);
+    
+    source.push(0);
+    source.push(1);
+    assertTrue(done == source.push(2));
+    
+    assertEquals(1, consumer.items.size());
+    try {
+      done.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(failure == e.getCause());
+    }
+  }
+  
+  @Test
+  public void sourceFailTest() {
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY);
+    ListenableFuture<?> done = source.consume(SAME_THREAD, new CollectingConsumer<Integer>());
+    
+    source.fail(new Exception());
+    
+    assertTrue(done.isDone());
+    assertTrue(done == source.push(1));
+  }
+  
+  @Test
+  public void cancelTest() {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY);
+    CollectingConsumer<Integer> consumer = new CollectingConsumer<Integer>();
+    ListenableFuture<?> done = source.consume(scheduler, consumer);
+    
+    source.push(1);
+    assertTrue(done.cancel(false));
+    scheduler.tick(null);
+    
+    assertTrue(consumer.items.isEmpty());
+  }
+  
+  @Test
+  public void multiThreadedTest() throws InterruptedException, ExecutionException, TimeoutException {
+    final PriorityScheduler scheduler = new StrictPriorityScheduler(4);
+    try {
+      Pipeline.Source<Integer> source = Pipeline.source(TEST_QTY);
+      final AtomicLong sum = new AtomicLong();
+      ListenableFuture<?> done = 
+          source.map(scheduler, new Function<Integer, Long>() {
+            @Override
+            public Long apply(Integer t) {
+              return t.longValue() * 2;
+            }
+          }).flatMapAsync(scheduler, 4, new Function<Long, ListenableFuture<Long>>() {
+            @Override
+            public ListenableFuture<Long> apply(final Long t) {
+              return scheduler.submit(new Callable<Long>() {
+                @Override
+                public Long call() {
+                  return t + 1;
+                }
+              });
+            }
+          }).batch(scheduler, TEST_QTY, 1).consume(scheduler, new Consumer<List<Long>>() {
+            @Override
+            public void accept(List<Long> batch) {
+              for (Long l : batch) {
+                sum.addAndGet(l);
+              }
+            }
+          });
+      
+      long expected = 0;
+      int count = TEST_QTY * 100;
+      for (int i = 0; i < count; i++) {
+        source.push(i).get(10 * 1000, TimeUnit.MILLISECONDS);
+        expected += (i * 2) + 1;
+      }
+      source.complete();
+      
+      done.get(10 * 1000, TimeUnit.MILLISECONDS);
+      assertEquals(expected, sum.get());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+}
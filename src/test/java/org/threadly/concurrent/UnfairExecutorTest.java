@@ -10,13 +10,15 @@ import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.Test;
 import org.threadly.BlockingTestRunnable;
+import org.threadly.test.concurrent.TestCondition;
 import org.threadly.test.concurrent.TestRunnable;
+import org.threadly.test.concurrent.TestUtils;
 import org.threadly.util.Clock;
 
 @SuppressWarnings("javadoc")
-public class UnfairExecutorTest extends SubmitterExecutorInterfaceTest {
+public class UnfairExecutorTest extends SubmitterSchedulerInterfaceTest {
   @Override
-  protected SubmitterExecutorFactory getSubmitterExecutorFactory() {
+  protected SubmitterSchedulerFactory getSubmitterSchedulerFactory() {
     return new UnfairExecutorFactory();
   }
   
@@ -126,6 +128,56 @@ public class UnfairExecutorTest extends SubmitterExecutorInterfaceTest {
     assertTrue(Clock.accurateForwardProgressingMillis() - start >= (DELAY_TIME - ALLOWED_VARIANCE));
   }
   
+  @Test
+  public void shutdownNowIncludesScheduledTest() {
+    UnfairExecutor ue = new UnfairExecutor(1);
+    // ensure worker has started so only our tasks are queued
+    TestRunnable started = new TestRunnable();
+    ue.execute(started);
+    started.blockTillFinished();
+    TestRunnable scheduled = new TestRunnable();
+    TestRunnable recurring = new TestRunnable();
+    ue.schedule(scheduled, 1000 * 10);
+    ue.scheduleWithFixedDelay(recurring, 1000 * 10, 1000);
+    
+    List<Runnable> canceledRunnables = ue.shutdownNow();
+    
+    assertEquals(2, canceledRunnables.size());
+    assertTrue(canceledRunnables.contains(scheduled));
+    assertTrue(canceledRunnables.contains(recurring));
+  }
+  
+  @Test
+  public void recurringTaskStopsAfterShutdownTest() throws InterruptedException {
+    UnfairExecutor ue = new UnfairExecutor(1);
+    TestRunnable tr = new TestRunnable();
+    ue.scheduleAtFixedRate(tr, 0, 1);
+    tr.blockTillStarted();
+    
+    ue.shutdown();
+    ue.awaitTermination();
+    int runCount = tr.getRunCount();
+    TestUtils.sleep(DELAY_TIME);
+    
+    assertEquals(runCount, tr.getRunCount());
+  }
+  
+  @Test (expected = RejectedExecutionException.class)
+  public void shutdownScheduleFail() {
+    UnfairExecutor ue = new UnfairExecutor(1);
+    ue.shutdown();
+    
+    ue.schedule(DoNothingRunnable.instance(), DELAY_TIME);
+  }
+  
+  @Test (expected = RejectedExecutionException.class)
+  public void shutdownRecurringFail() {
+    UnfairExecutor ue = new UnfairExecutor(1);
+    ue.shutdown();
+    
+    ue.scheduleWithFixedDelay(DoNothingRunnable.instance(), DELAY_TIME, DELAY_TIME);
+  }
+  
   @Test (expected = RejectedExecutionException.class)
   public void shutdownExecutionFail() {
     UnfairExecutor ue = new UnfairExecutor(1);
@@ -142,11 +194,118 @@ public class UnfairExecutorTest extends SubmitterExecutorInterfaceTest {
     ue.execute(DoNothingRunnable.instance());
   }
 
-  private static class UnfairExecutorFactory implements SubmitterExecutorFactory {
+  @Test
+  public void leastLoadedOfTwoStripeGeneratorExecuteTest() {
+    UnfairExecutor ue = new UnfairExecutor(3, UnfairExecutor.LeastLoadedOfTwoStripeGenerator.instance());
+    try {
+      List<TestRunnable> runnables = executeTestRunnables(ue, 0);
+      
+      for (TestRunnable tr : runnables) {
+        tr.blockTillFinished();
+        assertEquals(1, tr.getRunCount());
+      }
+    } finally {
+      ue.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void leastLoadedOfTwoStripeGeneratorPicksShorterQueueTest() {
+    UnfairExecutor.LeastLoadedOfTwoStripeGenerator generator = 
+        UnfairExecutor.LeastLoadedOfTwoStripeGenerator.instance();
+    ConfigurableThreadFactory threadFactory = new ConfigurableThreadFactory();
+    UnfairExecutor.Worker[] workers = new UnfairExecutor.Worker[2];
+    workers[0] = new UnfairExecutor.Worker(threadFactory);
+    workers[1] = new UnfairExecutor.Worker(threadFactory);
+    generator.setWorkers(workers);
+    
+    // with two workers both are always sampled, so the empty queue must be chosen
+    workers[0].queueSize.set(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertEquals(1, generator.getStripe(new TestRunnable()));
+    }
+    
+    workers[0].queueSize.set(0);
+    workers[1].queueSize.set(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertEquals(0, generator.getStripe(new TestRunnable()));
+    }
+  }
+  
+  @Test (expected = IllegalStateException.class)
+  public void leastLoadedOfTwoStripeGeneratorReuseFail() {
+    UnfairExecutor.LeastLoadedOfTwoStripeGenerator generator = 
+        UnfairExecutor.LeastLoadedOfTwoStripeGenerator.instance();
+    UnfairExecutor ue = new UnfairExecutor(1, generator);
+    try {
+      new UnfairExecutor(1, generator);
+    } finally {
+      ue.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void workerApproximateQueueSizeTest() {
+    UnfairExecutor.Worker w = new UnfairExecutor.Worker(new ConfigurableThreadFactory());
+    assertEquals(0, w.getApproximateQueueSize());
+    
+    // worker is not started or linked to neighbors, so add to queue directly
+    w.taskQueue.add(DoNothingRunnable.instance());
+    w.queueSize.incrementAndGet();
+    assertEquals(1, w.getApproximateQueueSize());
+    assertNotNull(w.pollTask());
+    assertEquals(0, w.getApproximateQueueSize());
+    assertNull(w.pollTask());
+    assertEquals(0, w.getApproximateQueueSize());
+  }
+
+  @Test
+  public void workerNotifyIfParkedTest() {
+    UnfairExecutor.Worker w = new UnfairExecutor.Worker(new ConfigurableThreadFactory());
+    
+    assertFalse(w.notifyIfParked());
+    assertEquals(0, w.getUnparkCount());
+    
+    w.state.set(UnfairExecutor.WORKER_STATE_PARKED);
+    assertTrue(w.notifyIfParked());
+    // already notified, should not unpark again
+    assertFalse(w.notifyIfParked());
+    assertEquals(1, w.getUnparkCount());
+    assertEquals(UnfairExecutor.WORKER_STATE_NOTIFIED, w.state.get());
+  }
+  
+  @Test
+  public void getExecutedTaskCountTest() {
+    UnfairExecutor ue = new UnfairExecutor(2);
+    try {
+      final List<TestRunnable> runnables = executeTestRunnables(ue, 0);
+      for (TestRunnable tr : runnables) {
+        tr.blockTillFinished();
+      }
+      final UnfairExecutor fUe = ue;
+      new TestCondition() {
+        @Override
+        public boolean get() {
+          // startup task is also counted
+          return fUe.getExecutedTaskCount() == runnables.size() + 1;
+        }
+      }.blockTillTrue();
+      assertTrue(ue.getUnparkCount() <= runnables.size() + 1);
+    } finally {
+      ue.shutdownNow();
+    }
+  }
+
+  private static class UnfairExecutorFactory implements SubmitterSchedulerFactory {
     private List<UnfairExecutor> executors = new ArrayList<UnfairExecutor>(1);
     
     @Override
     public UnfairExecutor makeSubmitterExecutor(int poolSize, boolean prestartIfAvailable) {
+      return makeSubmitterScheduler(poolSize, prestartIfAvailable);
+    }
+    
+    @Override
+    public UnfairExecutor makeSubmitterScheduler(int poolSize, boolean prestartIfAvailable) {
       UnfairExecutor result = new UnfairExecutor(poolSize);
       executors.add(result);
       
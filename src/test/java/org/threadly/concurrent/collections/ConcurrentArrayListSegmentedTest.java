@@ -0,0 +1,166 @@
+package org.threadly.concurrent.collections;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.concurrent.collections.ConcurrentArrayList.DataSet;
+
+@SuppressWarnings("javadoc")
+public class ConcurrentArrayListSegmentedTest extends ConcurrentArrayListTest {
+  @Before
+  @Override
+  public void setup() {
+    testList = new ConcurrentArrayList<String>(true);
+  }
+  
+  @Test
+  public void constructorTest() {
+    assertTrue(testList.currentData instanceof SegmentedDataSet);
+    assertFalse(new ConcurrentArrayList<String>(false).currentData instanceof SegmentedDataSet);
+  }
+  
+  @Test
+  @Override
+  public void trimToSizeTest() {
+    testList.add("foo");
+    DataSet<?> originalDS = testList.currentData;
+    testList.trimToSize();
+    // segments are always sized exactly, so should be a no-op
+    assertTrue(originalDS == testList.currentData);
+  }
+  
+  @Test
+  @Override
+  public void getCapacityTest() {
+    testList.setRearPadding(2);
+    testList.add("foo");
+    
+    // padding is not used for segmented storage
+    assertEquals(1, testList.getCapacity());
+  }
+  
+  @Test
+  @Override
+  public void adaptivePaddingGrowsOnInsertSideTest() {
+    testList.setAdaptivePadding(true);
+    for (int i = 0; i < 1000; i++) {
+      testList.addFirst(Integer.toString(i));
+    }
+    
+    // padding is not used for segmented storage
+    assertEquals(0, testList.getFrontPadding());
+    assertEquals(1000, testList.getCapacity());
+  }
+  
+  @Test
+  public void clearRetainsSegmentedStorageTest() {
+    testList.add("foo");
+    testList.clear();
+    
+    assertTrue(testList.isEmpty());
+    assertTrue(testList.currentData instanceof SegmentedDataSet);
+  }
+  
+  @Test
+  public void segmentsSplitTest() {
+    int itemCount = SegmentedDataSet.MAX_SEGMENT_SIZE * 4;
+    for (int i = 0; i < itemCount; i++) {
+      // add into the middle so that segments must be split
+      testList.add(testList.size() / 2, Integer.toString(i));
+    }
+    
+    SegmentedDataSet<String> sds = (SegmentedDataSet<String>)testList.currentData;
+    assertEquals(itemCount, sds.size);
+    assertTrue(sds.segments.length >= 4);
+    for (Object[] segment : sds.segments) {
+      assertTrue(segment.length <= SegmentedDataSet.MAX_SEGMENT_SIZE);
+    }
+  }
+  
+  @Test
+  public void modificationOnlyCopiesModifiedSegmentTest() {
+    List<String> items = new ArrayList<String>();
+    for (int i = 0; i < SegmentedDataSet.MAX_SEGMENT_SIZE * 4; i++) {
+      items.add(Integer.toString(i));
+    }
+    testList.addAll(items);
+    SegmentedDataSet<String> originalSet = (SegmentedDataSet<String>)testList.currentData;
+    
+    testList.remove(1);
+    
+    SegmentedDataSet<String> resultSet = (SegmentedDataSet<String>)testList.currentData;
+    assertEquals(originalSet.segments.length, resultSet.segments.length);
+    assertTrue(originalSet.segments[0] != resultSet.segments[0]);
+    for (int i = 1; i < originalSet.segments.length; i++) {
+      assertTrue(originalSet.segments[i] == resultSet.segments[i]);
+    }
+  }
+  
+  @Test
+  public void removeRangeSharesUnmodifiedSegmentsTest() {
+    List<String> items = new ArrayList<String>();
+    for (int i = 0; i < SegmentedDataSet.MAX_SEGMENT_SIZE * 4; i++) {
+      items.add(Integer.toString(i));
+    }
+    testList.addAll(items);
+    SegmentedDataSet<String> originalSet = (SegmentedDataSet<String>)testList.currentData;
+    int from = SegmentedDataSet.MAX_SEGMENT_SIZE / 2;
+    int to = SegmentedDataSet.MAX_SEGMENT_SIZE * 2 + 1;
+    
+    testList.removeRange(from, to);
+    items.subList(from, to).clear();
+    
+    SegmentedDataSet<String> resultSet = (SegmentedDataSet<String>)testList.currentData;
+    assertEquals(items, testList);
+    Object[] lastSegment = originalSet.segments[originalSet.segments.length - 1];
+    assertTrue(lastSegment == resultSet.segments[resultSet.segments.length - 1]);
+  }
+  
+  @Test
+  public void randomModificationsMatchArrayListTest() {
+    Random r = new Random(1);
+    List<String> expected = new ArrayList<String>();
+    for (int i = 0; i < SegmentedDataSet.MAX_SEGMENT_SIZE * 20; i++) {
+      String item = Integer.toString(i);
+      int op = r.nextInt(10);
+      if (op < 5 || expected.isEmpty()) {
+        int index = r.nextInt(expected.size() + 1);
+        expected.add(index, item);
+        testList.add(index, item);
+      } else if (op < 8) {
+        int index = r.nextInt(expected.size());
+        assertEquals(expected.remove(index), testList.remove(index));
+      } else if (op < 9) {
+        int from = r.nextInt(expected.size());
+        int to = r.nextInt(expected.size() + 1);
+        testList.reposition(from, to);
+        String moved = expected.remove(from);
+        expected.add(to > from ? to - 1 : to, moved);
+      } else {
+        int index = r.nextInt(expected.size());
+        expected.set(index, item);
+        testList.set(index, item);
+      }
+    }
+    
+    assertEquals(expected, testList);
+    assertEquals(expected.hashCode(), testList.hashCode());
+    assertEquals(expected.indexOf(expected.get(expected.size() / 2)), 
+                 testList.indexOf(expected.get(expected.size() / 2)));
+    int from = expected.size() / 3;
+    int to = from * 2;
+    assertEquals(expected.subList(from, to), testList.subList(from, to));
+    
+    List<String> toRemove = new ArrayList<String>(expected.subList(0, expected.size() / 2));
+    Collections.shuffle(toRemove, r);
+    expected.removeAll(toRemove);
+    testList.removeAll(toRemove);
+    assertEquals(expected, testList);
+  }
+}
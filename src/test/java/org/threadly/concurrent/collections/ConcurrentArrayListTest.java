@@ -4,6 +4,9 @@ import static org.junit.Assert.*;
 import static org.threadly.TestConstants.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -19,7 +22,7 @@ import org.threadly.util.StringUtils;
 
 @SuppressWarnings("javadoc")
 public class ConcurrentArrayListTest {
-  private ConcurrentArrayList<String> testList;
+  protected ConcurrentArrayList<String> testList;
   
   @Before
   public void setup() {
@@ -112,6 +115,78 @@ public class ConcurrentArrayListTest {
     assertTrue(originalDS == testList.currentData);
   }
 
+  @Test
+  public void getCapacityTest() {
+    testList.setRearPadding(2);
+    testList.add("foo");
+    
+    assertEquals(3, testList.getCapacity());
+  }
+  
+  @Test
+  public void setAdaptivePaddingTest() {
+    assertFalse(testList.isAdaptivePadding());
+    testList.setAdaptivePadding(true);
+    assertTrue(testList.isAdaptivePadding());
+    testList.setAdaptivePadding(false);
+    assertFalse(testList.isAdaptivePadding());
+  }
+  
+  @Test
+  public void adaptivePaddingGrowsOnInsertSideTest() {
+    testList.setAdaptivePadding(true);
+    int arrayCopies = 0;
+    Object[] lastArray = testList.currentData.dataArray;
+    for (int i = 0; i < 1000; i++) {
+      testList.addFirst(Integer.toString(i));
+      if (testList.currentData.dataArray != lastArray) {
+        arrayCopies++;
+        lastArray = testList.currentData.dataArray;
+      }
+    }
+    
+    assertEquals(1000, testList.size());
+    assertTrue(testList.getFrontPadding() > 0);
+    assertEquals(0, testList.getRearPadding());
+    // padding doubles, so copies should be logarithmic rather than one per add
+    assertTrue(arrayCopies < 20);
+    assertTrue(testList.getCapacity() <= testList.size() * 2 + 1);
+  }
+  
+  @Test
+  public void adaptivePaddingShrinkAfterDrainTest() {
+    testList.setAdaptivePadding(true);
+    for (int i = 0; i < 1000; i++) {
+      testList.add(Integer.toString(i));
+    }
+    
+    while (testList.size() > 10) {
+      testList.pollFirst();
+    }
+    
+    assertEquals("990", testList.getFirst());
+    assertTrue(testList.getCapacity() < 64);
+  }
+  
+  @Test
+  public void adaptivePaddingRetainsMinimumPaddingTest() {
+    testList.setFrontPadding(2);
+    testList.setRearPadding(100);
+    testList.setAdaptivePadding(true);
+    for (int i = 0; i < 1000; i++) {
+      testList.add(Integer.toString(i));
+    }
+    testList.removeRange(1, 1000);
+    
+    assertEquals(2, testList.getFrontPadding());
+    assertEquals(100, testList.getRearPadding());
+    
+    testList.setAdaptivePadding(false);
+    testList.add("foo");
+    testList.add("bar");
+    assertEquals(3, testList.size());
+  }
+  
   @Test
   public void sizeTest() {
     ListTests.sizeTest(testList);
@@ -724,6 +799,187 @@ public class ConcurrentArrayListTest {
     ListTests.subListFail(testList);
   }
   
+  @Test
+  public void subListWithFrontPaddingTest() {
+    testList.setFrontPadding(2);
+    testList.add("bar");
+    testList.addFirst("foo");
+    
+    assertEquals(Collections.singletonList("foo"), testList.subList(0, 1));
+    assertEquals(Collections.singletonList("bar"), testList.subList(1, 2));
+  }
+  
+  private void populateList(int count) {
+    for (int i = 0; i < count; i++) {
+      testList.add(Integer.toString(i));
+    }
+  }
+  
+  @Test
+  public void removeFirstCountTest() {
+    populateList(TEST_QTY + 2);
+    
+    List<String> removed = testList.removeFirst(2);
+    
+    assertEquals(Arrays.asList("0", "1"), removed);
+    assertEquals(TEST_QTY, testList.size());
+    assertEquals("2", testList.getFirst());
+  }
+  
+  @Test
+  public void removeFirstCountBeyondSizeTest() {
+    populateList(TEST_QTY);
+    
+    assertEquals(TEST_QTY, testList.removeFirst(TEST_QTY * 2).size());
+    assertTrue(testList.isEmpty());
+    assertTrue(testList.removeFirst(1).isEmpty());
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void removeFirstCountFail() {
+    testList.removeFirst(-1);
+  }
+  
+  @Test
+  public void removeRangeTest() {
+    populateList(TEST_QTY + 10);
+    List<String> expected = new ArrayList<String>(testList);
+    
+    // middle
+    testList.removeRange(2, 5);
+    expected.subList(2, 5).clear();
+    assertEquals(expected, testList);
+    // front
+    testList.removeRange(0, 2);
+    expected.subList(0, 2).clear();
+    assertEquals(expected, testList);
+    // end
+    testList.removeRange(testList.size() - 2, testList.size());
+    expected.subList(expected.size() - 2, expected.size()).clear();
+    assertEquals(expected, testList);
+    // empty range
+    testList.removeRange(1, 1);
+    assertEquals(expected, testList);
+    // everything
+    testList.removeRange(0, testList.size());
+    assertTrue(testList.isEmpty());
+  }
+  
+  @Test
+  public void removeRangeFail() {
+    populateList(2);
+    try {
+      testList.removeRange(-1, 1);
+      fail("Exception should have thrown");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+    try {
+      testList.removeRange(1, 0);
+      fail("Exception should have thrown");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+    try {
+      testList.removeRange(0, 3);
+      fail("Exception should have thrown");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void addAllSortedTest() {
+    Comparator<String> comparator = new Comparator<String>() {
+      @Override
+      public int compare(String s1, String s2) {
+        return Integer.parseInt(s1) - Integer.parseInt(s2);
+      }
+    };
+    for (int i = 0; i < TEST_QTY; i += 2) {
+      testList.add(Integer.toString(i));
+    }
+    List<String> toAdd = new ArrayList<String>();
+    for (int i = TEST_QTY + 1; i >= -1; i -= 2) {
+      toAdd.add(Integer.toString(i));
+    }
+    toAdd.add(null);
+    List<String> expected = new ArrayList<String>(testList);
+    expected.addAll(toAdd.subList(0, toAdd.size() - 1));
+    Collections.sort(expected, comparator);
+    
+    assertTrue(testList.addAllSorted(toAdd, comparator));
+    assertEquals(expected, testList);
+  }
+  
+  @Test
+  public void addAllSortedEqualItemsAfterExistingTest() {
+    Comparator<String> comparator = new Comparator<String>() {
+      @Override
+      public int compare(String s1, String s2) {
+        return s1.length() - s2.length();
+      }
+    };
+    testList.add("a");
+    testList.add("bb");
+    
+    assertTrue(testList.addAllSorted(Arrays.asList("cc", "d"), comparator));
+    assertEquals(Arrays.asList("a", "d", "bb", "cc"), testList);
+  }
+  
+  @Test
+  public void addAllSortedNoItemsTest() {
+    Comparator<String> comparator = Collections.reverseOrder();
+    
+    assertFalse(testList.addAllSorted(null, comparator));
+    assertFalse(testList.addAllSorted(Collections.<String>emptyList(), comparator));
+    assertFalse(testList.addAllSorted(Collections.<String>singletonList(null), comparator));
+    assertTrue(testList.isEmpty());
+  }
+  
+  @Test
+  public void batchModifyTest() {
+    populateList(TEST_QTY);
+    List<String> expected = new ArrayList<String>(testList);
+    expected.remove(0);
+    expected.add(2, "foo");
+    expected.add("bar");
+    
+    testList.batchModify(new ConcurrentArrayList.BatchModifier<String>() {
+      @Override
+      public void modify(List<String> items) {
+        items.remove(0);
+        items.add(2, "foo");
+        items.add("bar");
+      }
+    });
+    
+    assertEquals(expected, testList);
+    testList.addFirst("first");
+    assertEquals("first", testList.getFirst());
+  }
+  
+  @Test
+  public void batchModifyFailureLeavesListUnmodifiedTest() {
+    populateList(TEST_QTY);
+    List<String> expected = new ArrayList<String>(testList);
+    
+    try {
+      testList.batchModify(new ConcurrentArrayList.BatchModifier<String>() {
+        @Override
+        public void modify(List<String> items) {
+          items.clear();
+          items.add(null);
+        }
+      });
+      fail("Exception should have thrown");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    
+    assertEquals(expected, testList);
+  }
+  
   @Test
   public void makeEmptyDataSetTest() {
     DataSet<String> ds = ConcurrentArrayList.makeEmptyDataSet(0, 0);
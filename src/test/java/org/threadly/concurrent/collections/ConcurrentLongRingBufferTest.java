@@ -0,0 +1,132 @@
+package org.threadly.concurrent.collections;
+
+import static org.junit.Assert.*;
+import static org.threadly.TestConstants.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class ConcurrentLongRingBufferTest {
+  @SuppressWarnings("unused")
+  @Test (expected = IllegalArgumentException.class)
+  public void constructorFail() {
+    new ConcurrentLongRingBuffer(-1);
+    fail("Exception should have thrown");
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void addMinValueFail() {
+    new ConcurrentLongRingBuffer(1).add(Long.MIN_VALUE);
+    fail("Exception should have thrown");
+  }
+  
+  @Test
+  public void emptyTest() {
+    ConcurrentLongRingBuffer buffer = new ConcurrentLongRingBuffer(TEST_QTY);
+    
+    assertEquals(TEST_QTY, buffer.getCapacity());
+    assertTrue(buffer.isEmpty());
+    assertEquals(0, buffer.size());
+    assertEquals(0, buffer.toArray().length);
+    assertEquals(0, buffer.getTotalAddedCount());
+  }
+  
+  @Test
+  public void addUnderCapacityTest() {
+    ConcurrentLongRingBuffer buffer = new ConcurrentLongRingBuffer(TEST_QTY);
+    long[] expected = new long[TEST_QTY - 1];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = i - 1;
+      buffer.add(i - 1);
+    }
+    
+    assertFalse(buffer.isEmpty());
+    assertEquals(expected.length, buffer.size());
+    assertTrue(Arrays.equals(expected, buffer.toArray()));
+  }
+  
+  @Test
+  public void addOverCapacityTest() {
+    int capacity = 3;  // not a power of two
+    ConcurrentLongRingBuffer buffer = new ConcurrentLongRingBuffer(capacity);
+    for (int i = 0; i < TEST_QTY; i++) {
+      buffer.add(i);
+    }
+    
+    assertEquals(capacity, buffer.size());
+    assertEquals(TEST_QTY, buffer.getTotalAddedCount());
+    assertTrue(Arrays.equals(new long[] { TEST_QTY - 3, TEST_QTY - 2, TEST_QTY - 1 }, 
+                             buffer.toArray()));
+  }
+  
+  @Test
+  public void singleCapacityTest() {
+    ConcurrentLongRingBuffer buffer = new ConcurrentLongRingBuffer(1);
+    buffer.add(1);
+    buffer.add(2);
+    
+    assertEquals(1, buffer.size());
+    assertTrue(Arrays.equals(new long[] { 2 }, buffer.toArray()));
+  }
+  
+  @Test
+  public void zeroCapacityTest() {
+    ConcurrentLongRingBuffer buffer = new ConcurrentLongRingBuffer(0);
+    buffer.add(1);
+    buffer.add(2);
+    
+    assertTrue(buffer.isEmpty());
+    assertEquals(0, buffer.size());
+    assertEquals(0, buffer.toArray().length);
+    assertEquals(2, buffer.getTotalAddedCount());
+  }
+  
+  @Test
+  public void clearTest() {
+    ConcurrentLongRingBuffer buffer = new ConcurrentLongRingBuffer(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      buffer.add(i);
+    }
+    
+    buffer.clear();
+    
+    assertTrue(buffer.isEmpty());
+    assertEquals(0, buffer.size());
+    assertEquals(0, buffer.toArray().length);
+    assertEquals(TEST_QTY, buffer.getTotalAddedCount());
+    
+    buffer.add(Long.MAX_VALUE);
+    
+    assertEquals(1, buffer.size());
+    assertTrue(Arrays.equals(new long[] { Long.MAX_VALUE }, buffer.toArray()));
+  }
+  
+  @Test
+  public void concurrentAddTest() throws InterruptedException {
+    final ConcurrentLongRingBuffer buffer = new ConcurrentLongRingBuffer(TEST_QTY * 2);
+    Thread[] threads = new Thread[TEST_QTY];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < TEST_QTY * 10; i++) {
+            buffer.add(i);
+          }
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    
+    assertEquals(TEST_QTY * TEST_QTY * 10, buffer.getTotalAddedCount());
+    long[] values = buffer.toArray();
+    assertEquals(TEST_QTY * 2, values.length);
+    for (long l : values) {
+      assertTrue(l >= 0 && l < TEST_QTY * 10);
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package org.threadly.concurrent.collections;
+
+import static org.junit.Assert.*;
+import static org.threadly.TestConstants.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.concurrent.collections.ConcurrentRunTimeDeque.Entry;
+
+@SuppressWarnings("javadoc")
+public class ConcurrentRunTimeDequeTest {
+  private ConcurrentRunTimeDeque<String> deque;
+  
+  @Before
+  public void setup() {
+    deque = new ConcurrentRunTimeDeque<String>();
+  }
+  
+  @After
+  public void cleanup() {
+    deque = null;
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void addNullFail() {
+    deque.add(0, null);
+    fail("Exception should have thrown");
+  }
+  
+  @Test
+  public void emptyTest() {
+    assertTrue(deque.isEmpty());
+    assertEquals(0, deque.size());
+    assertNull(deque.peekFirst());
+    assertNull(deque.pollFirst());
+    assertNull(deque.pollFirst(Long.MAX_VALUE));
+    assertFalse(deque.iterator().hasNext());
+  }
+  
+  @Test
+  public void addSortedTest() {
+    deque.add(10, "10");
+    deque.add(5, "5");
+    deque.add(20, "20");
+    
+    assertFalse(deque.isEmpty());
+    assertEquals(3, deque.size());
+    assertEquals("5", deque.peekFirst().getValue());
+    assertEquals(5, deque.peekFirst().getRunTime());
+    assertEquals("5", deque.pollFirst().getValue());
+    assertEquals("10", deque.pollFirst().getValue());
+    assertEquals("20", deque.pollFirst().getValue());
+    assertTrue(deque.isEmpty());
+  }
+  
+  @Test
+  public void equalRunTimeStableTest() {
+    for (int i = 0; i < TEST_QTY; i++) {
+      deque.add(1, Integer.toString(i));
+    }
+    deque.add(0, "first");
+    
+    assertEquals("first", deque.pollFirst().getValue());
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertEquals(Integer.toString(i), deque.pollFirst().getValue());
+    }
+  }
+  
+  @Test
+  public void pollFirstMaxRunTimeTest() {
+    deque.add(10, "10");
+    
+    assertNull(deque.pollFirst(9));
+    assertEquals(1, deque.size());
+    assertEquals("10", deque.pollFirst(10).getValue());
+    assertTrue(deque.isEmpty());
+  }
+  
+  @Test
+  public void removeTest() {
+    Entry<String> e = deque.add(1, "1");
+    deque.add(2, "2");
+    
+    assertTrue(deque.remove(e));
+    assertFalse(deque.remove(e));
+    assertEquals(1, deque.size());
+    assertEquals("2", deque.peekFirst().getValue());
+  }
+  
+  @Test
+  public void removeValueTest() {
+    deque.add(1, "1");
+    deque.add(2, "2");
+    
+    assertFalse(deque.removeValue("3"));
+    assertTrue(deque.removeValue("2"));
+    assertEquals(1, deque.size());
+    assertEquals("1", deque.pollFirst().getValue());
+  }
+  
+  @Test
+  public void repositionTest() {
+    Entry<String> e = deque.add(1, "1");
+    deque.add(2, "2");
+    deque.add(3, "3");
+    
+    Entry<String> newEntry = deque.reposition(e, 2);
+    assertNotNull(newEntry);
+    assertEquals(2, newEntry.getRunTime());
+    assertNull(deque.reposition(e, 5));
+    assertEquals(3, deque.size());
+    // should be after the existing entry with an equal run time
+    assertEquals("2", deque.pollFirst().getValue());
+    assertEquals("1", deque.pollFirst().getValue());
+    assertEquals("3", deque.pollFirst().getValue());
+  }
+  
+  @Test
+  public void clearTest() {
+    for (int i = 0; i < TEST_QTY; i++) {
+      deque.add(i, Integer.toString(i));
+    }
+    
+    deque.clear();
+    
+    assertTrue(deque.isEmpty());
+    assertEquals(0, deque.size());
+  }
+  
+  @Test
+  public void iteratorTest() {
+    deque.add(3, "3");
+    deque.add(1, "1");
+    deque.add(2, "2");
+    
+    List<String> result = new ArrayList<String>();
+    Iterator<String> it = deque.iterator();
+    while (it.hasNext()) {
+      String s = it.next();
+      result.add(s);
+      if (s.equals("2")) {
+        it.remove();
+      }
+    }
+    
+    assertEquals(3, result.size());
+    assertEquals("1", result.get(0));
+    assertEquals("2", result.get(1));
+    assertEquals("3", result.get(2));
+    assertEquals(2, deque.size());
+    assertFalse(deque.removeValue("2"));
+  }
+  
+  @Test (expected = IllegalStateException.class)
+  public void iteratorRemoveFail() {
+    deque.add(1, "1");
+    deque.iterator().remove();
+  }
+  
+  @Test
+  public void concurrentPollTest() throws InterruptedException {
+    final int perThreadCount = TEST_QTY * 10;
+    for (int i = 0; i < TEST_QTY * perThreadCount; i++) {
+      deque.add(i % TEST_QTY, Integer.toString(i));
+    }
+    final List<String> polled = new ArrayList<String>();
+    Thread[] threads = new Thread[TEST_QTY];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          Entry<String> e;
+          while ((e = deque.pollFirst(Long.MAX_VALUE)) != null) {
+            synchronized (polled) {
+              polled.add(e.getValue());
+            }
+          }
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    
+    assertEquals(TEST_QTY * perThreadCount, polled.size());
+    assertTrue(deque.isEmpty());
+    assertEquals(0, deque.size());
+  }
+}
@@ -0,0 +1,222 @@
+package org.threadly.concurrent.collections;
+
+import static org.junit.Assert.*;
+import static org.threadly.TestConstants.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class ConcurrentTimerHeapTest {
+  private ConcurrentTimerHeap<String> heap;
+  
+  @Before
+  public void setup() {
+    heap = new ConcurrentTimerHeap<String>();
+  }
+  
+  @After
+  public void cleanup() {
+    heap = null;
+  }
+  
+  @SuppressWarnings("unused")
+  @Test (expected = IllegalArgumentException.class)
+  public void constructorFail() {
+    new ConcurrentTimerHeap<String>(0);
+    fail("Exception should have thrown");
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void addNullFail() {
+    heap.add(1, null);
+    fail("Exception should have thrown");
+  }
+  
+  @Test
+  public void emptyTest() {
+    assertTrue(heap.isEmpty());
+    assertEquals(0, heap.size());
+    assertNull(heap.peekFirst());
+    assertEquals(Long.MAX_VALUE, heap.peekFirstDeadline());
+    assertNull(heap.pollFirst());
+  }
+  
+  @Test
+  public void addAndPollOrderTest() {
+    heap.add(30, "c");
+    heap.add(10, "a");
+    heap.add(20, "b");
+    
+    assertEquals(3, heap.size());
+    assertEquals("a", heap.peekFirst());
+    assertEquals(10, heap.peekFirstDeadline());
+    assertEquals("a", heap.pollFirst());
+    assertEquals("b", heap.pollFirst());
+    assertEquals("c", heap.pollFirst());
+    assertTrue(heap.isEmpty());
+  }
+  
+  @Test
+  public void equalDeadlineInsertionOrderTest() {
+    for (int i = 0; i < TEST_QTY; i++) {
+      heap.add(1, Integer.toString(i));
+    }
+    
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertEquals(Integer.toString(i), heap.pollFirst());
+    }
+  }
+  
+  @Test
+  public void pollFirstMaxDeadlineTest() {
+    heap.add(10, "a");
+    heap.add(20, "b");
+    
+    assertNull(heap.pollFirst(5));
+    assertEquals("a", heap.pollFirst(10));
+    assertNull(heap.pollFirst(15));
+    assertEquals(1, heap.size());
+  }
+  
+  @Test
+  public void drainToTest() {
+    heap.add(30, "c");
+    heap.add(10, "a");
+    heap.add(20, "b");
+    List<String> result = new ArrayList<String>();
+    
+    assertEquals(2, heap.drainTo(20, result));
+    assertEquals(2, result.size());
+    assertEquals("a", result.get(0));
+    assertEquals("b", result.get(1));
+    assertEquals(1, heap.size());
+  }
+  
+  @Test
+  public void removeTest() {
+    long handle = heap.add(10, "a");
+    heap.add(20, "b");
+    
+    assertTrue(heap.contains(handle));
+    assertTrue(heap.remove(handle));
+    assertFalse(heap.contains(handle));
+    assertFalse(heap.remove(handle));
+    assertEquals("b", heap.pollFirst());
+  }
+  
+  @Test
+  public void pollInvalidatesHandleTest() {
+    long handle = heap.add(10, "a");
+    heap.pollFirst();
+    heap.add(10, "b");  // will reuse the slot
+    
+    assertFalse(heap.contains(handle));
+    assertFalse(heap.remove(handle));
+    assertFalse(heap.reschedule(handle, 1));
+    assertEquals(1, heap.size());
+  }
+  
+  @Test
+  public void rescheduleTest() {
+    long handle = heap.add(10, "a");
+    heap.add(20, "b");
+    heap.add(30, "c");
+    
+    assertTrue(heap.reschedule(handle, 25));
+    assertEquals("b", heap.pollFirst());
+    assertEquals("a", heap.pollFirst());
+    
+    long cHandle = heap.add(40, "d");
+    assertTrue(heap.reschedule(cHandle, 1));
+    assertEquals("d", heap.pollFirst());
+    assertEquals("c", heap.pollFirst());
+  }
+  
+  @Test
+  public void rescheduleEqualDeadlineMovesToEndTest() {
+    long handle = heap.add(10, "a");
+    heap.add(10, "b");
+    
+    assertTrue(heap.reschedule(handle, 10));
+    assertEquals("b", heap.pollFirst());
+    assertEquals("a", heap.pollFirst());
+  }
+  
+  @Test
+  public void clearTest() {
+    long handle = heap.add(10, "a");
+    for (int i = 0; i < 1000; i++) {
+      heap.add(i, Integer.toString(i));
+    }
+    
+    heap.clear();
+    
+    assertTrue(heap.isEmpty());
+    assertFalse(heap.contains(handle));
+    assertNull(heap.pollFirst());
+    heap.add(1, "foo");
+    assertEquals("foo", heap.pollFirst());
+  }
+  
+  @Test
+  public void growAndShrinkTest() {
+    int initialCapacity = heap.getCapacity();
+    for (int i = 0; i < 10000; i++) {
+      heap.add(i, Integer.toString(i));
+    }
+    assertTrue(heap.getCapacity() >= 10000);
+    
+    while (heap.size() > 10) {
+      heap.pollFirst();
+    }
+    
+    assertTrue(heap.getCapacity() < 100);
+    while (! heap.isEmpty()) {
+      heap.pollFirst();
+    }
+    assertTrue(heap.getCapacity() < 64);
+    assertTrue(heap.slotHeapPositions.length < 64);
+    assertTrue(heap.getCapacity() >= initialCapacity);
+  }
+  
+  @Test
+  public void randomOperationsTest() {
+    Random r = new Random(1);
+    List<Long> handles = new ArrayList<Long>();
+    List<Long> expectedDeadlines = new ArrayList<Long>();
+    List<Long> deadlines = new ArrayList<Long>();
+    for (int i = 0; i < 10000; i++) {
+      int op = r.nextInt(4);
+      if (op < 2 || handles.isEmpty()) {
+        long deadline = r.nextInt(1000);
+        handles.add(heap.add(deadline, Long.toString(deadline)));
+        deadlines.add(deadline);
+      } else if (op < 3) {
+        int index = r.nextInt(handles.size());
+        assertTrue(heap.remove(handles.remove(index)));
+        deadlines.remove(index);
+      } else {
+        int index = r.nextInt(handles.size());
+        long deadline = r.nextInt(1000);
+        assertTrue(heap.reschedule(handles.get(index), deadline));
+        deadlines.set(index, deadline);
+      }
+    }
+    expectedDeadlines.addAll(deadlines);
+    Collections.sort(expectedDeadlines);
+    
+    assertEquals(expectedDeadlines.size(), heap.size());
+    for (Long deadline : expectedDeadlines) {
+      assertEquals(deadline.longValue(), heap.peekFirstDeadline());
+      assertNotNull(heap.pollFirst());
+    }
+    assertTrue(heap.isEmpty());
+  }
+}
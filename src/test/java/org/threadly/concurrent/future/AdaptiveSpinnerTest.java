@@ -0,0 +1,80 @@
+package org.threadly.concurrent.future;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class AdaptiveSpinnerTest {
+  @After
+  public void cleanup() {
+    AdaptiveSpinner.setMaximumSpinCount(AdaptiveSpinner.MAXIMUM_SPIN_COUNT);
+  }
+  
+  @Test
+  public void spinDoneFutureTest() {
+    assertTrue(AdaptiveSpinner.spinTillDone(new ImmediateResultListenableFuture<Void>(null)));
+    assertTrue(AdaptiveSpinner.spinTillDone(new ImmediateResultListenableFuture<Void>(null), 0));
+  }
+  
+  @Test
+  public void spinIncompleteFutureTest() {
+    assertFalse(AdaptiveSpinner.spinTillDone(new SettableListenableFuture<Void>()));
+    assertFalse(AdaptiveSpinner.spinTillDone(new SettableListenableFuture<Void>(), Long.MAX_VALUE));
+  }
+  
+  @Test
+  public void spinDisabledTest() {
+    AdaptiveSpinner.setMaximumSpinCount(0);
+    CountingFuture future = new CountingFuture(Integer.MAX_VALUE);
+    
+    assertFalse(AdaptiveSpinner.spinTillDone(future));
+    assertEquals(1, future.isDoneCalls);
+    assertEquals(0, AdaptiveSpinner.getCurrentSpinCount());
+  }
+  
+  @Test
+  public void shortTimeoutDoesNotSpinTest() {
+    AdaptiveSpinner.setMaximumSpinCount(1000);
+    CountingFuture future = new CountingFuture(Integer.MAX_VALUE);
+    
+    assertFalse(AdaptiveSpinner.spinTillDone(future, 
+                                             AdaptiveSpinner.SPIN_FOR_TIMEOUT_THRESHOLD_NANOS - 1));
+    assertEquals(1, future.isDoneCalls);
+  }
+  
+  @Test
+  public void spinAdaptsTest() {
+    AdaptiveSpinner.setMaximumSpinCount(AdaptiveSpinner.MINIMUM_SPIN_COUNT * 4);
+    assertEquals(AdaptiveSpinner.MINIMUM_SPIN_COUNT, AdaptiveSpinner.getCurrentSpinCount());
+    
+    // completes during spin, should grow
+    assertTrue(AdaptiveSpinner.spinTillDone(new CountingFuture(2)));
+    assertEquals(AdaptiveSpinner.MINIMUM_SPIN_COUNT * 2, AdaptiveSpinner.getCurrentSpinCount());
+    assertTrue(AdaptiveSpinner.spinTillDone(new CountingFuture(2)));
+    assertEquals(AdaptiveSpinner.MINIMUM_SPIN_COUNT * 4, AdaptiveSpinner.getCurrentSpinCount());
+    assertTrue(AdaptiveSpinner.spinTillDone(new CountingFuture(2)));
+    assertEquals(AdaptiveSpinner.MINIMUM_SPIN_COUNT * 4, AdaptiveSpinner.getCurrentSpinCount());
+    
+    // never completes, should shrink but not below minimum
+    for (int i = 0; i < 4; i++) {
+      assertFalse(AdaptiveSpinner.spinTillDone(new CountingFuture(Integer.MAX_VALUE)));
+    }
+    assertEquals(AdaptiveSpinner.MINIMUM_SPIN_COUNT, AdaptiveSpinner.getCurrentSpinCount());
+  }
+  
+  private static class CountingFuture extends SettableListenableFuture<Void> {
+    private final int doneAfterCalls;
+    private int isDoneCalls = 0;
+    
+    public CountingFuture(int doneAfterCalls) {
+      this.doneAfterCalls = doneAfterCalls;
+    }
+    
+    @Override
+    public boolean isDone() {
+      return ++isDoneCalls > doneAfterCalls;
+    }
+  }
+}
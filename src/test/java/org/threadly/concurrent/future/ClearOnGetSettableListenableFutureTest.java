@@ -18,6 +18,11 @@ public class ClearOnGetSettableListenableFutureTest extends SettableListenableFu
     slf = new ClearOnGetSettableListenableFuture<String>();
   }
   
+  @Override
+  public void getMultipleWaitersTest() {
+    // ignored, only a single get is allowed
+  }
+  
   @Test (expected = IllegalStateException.class)
   public void addCallbackTwiceFail() {
     slf.addCallback(new TestFutureCallback());
@@ -0,0 +1,87 @@
+package org.threadly.concurrent.future;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.threadly.concurrent.PriorityScheduler;
+import org.threadly.util.Clock;
+
+/**
+ * Measures round trip latency for request / response usage, where a task is submitted to a 
+ * {@link PriorityScheduler} and the submitting thread immediately blocks on {@code get()}. 
+ * Results are reported with the adaptive spin in {@link AdaptiveSpinner} disabled and enabled.
+ * 
+ * This is not run as part of the unit tests, run the main function directly.
+ */
+@SuppressWarnings("javadoc")
+public class FutureRoundTripBenchmark {
+  private static final int WARMUP_ITERATIONS = 20000;
+  private static final int ITERATIONS = 200000;
+  private static final int RUNS = 3;
+  
+  public static void main(String[] args) throws InterruptedException, ExecutionException {
+    if (AdaptiveSpinner.MAXIMUM_SPIN_COUNT == 0) {
+      System.out.println("Single processor system, spinning is disabled so results should match");
+    }
+    PriorityScheduler scheduler = new PriorityScheduler(2);
+    try {
+      scheduler.prestartAllThreads();
+      for (int run = 0; run < RUNS; run++) {
+        for (boolean spin : new boolean[] { false, true }) {
+          AdaptiveSpinner.setMaximumSpinCount(spin ? AdaptiveSpinner.MAXIMUM_SPIN_COUNT : 0);
+          
+          settableRoundTrip(scheduler, WARMUP_ITERATIONS);
+          long settableNanos = settableRoundTrip(scheduler, ITERATIONS);
+          taskRoundTrip(scheduler, WARMUP_ITERATIONS);
+          long taskNanos = taskRoundTrip(scheduler, ITERATIONS);
+          
+          System.out.println((spin ? "spin   " : "no spin") + 
+                               " - SettableListenableFuture: " + (settableNanos / ITERATIONS) + 
+                               "ns, ListenableFutureTask: " + (taskNanos / ITERATIONS) + "ns");
+        }
+      }
+    } finally {
+      AdaptiveSpinner.setMaximumSpinCount(AdaptiveSpinner.MAXIMUM_SPIN_COUNT);
+      scheduler.shutdownNow();
+    }
+  }
+  
+  private static long settableRoundTrip(PriorityScheduler scheduler, 
+                                        int iterations) throws InterruptedException, 
+                                                               ExecutionException {
+    long start = Clock.accurateTimeNanos();
+    for (int i = 0; i < iterations; i++) {
+      final SettableListenableFuture<Integer> slf = new SettableListenableFuture<Integer>();
+      final int value = i;
+      scheduler.execute(new Runnable() {
+        @Override
+        public void run() {
+          slf.setResult(value);
+        }
+      });
+      if (slf.get() != value) {
+        throw new IllegalStateException();
+      }
+    }
+    return Clock.accurateTimeNanos() - start;
+  }
+  
+  private static long taskRoundTrip(PriorityScheduler scheduler, 
+                                    int iterations) throws InterruptedException, 
+                                                           ExecutionException {
+    long start = Clock.accurateTimeNanos();
+    for (int i = 0; i < iterations; i++) {
+      final int value = i;
+      ListenableFuture<Integer> lf = scheduler.submit(new Callable<Integer>() {
+        @Override
+        public Integer call() {
+          return value;
+        }
+      });
+      if (lf.get() != value) {
+        throw new IllegalStateException();
+      }
+    }
+    return Clock.accurateTimeNanos() - start;
+  }
+}
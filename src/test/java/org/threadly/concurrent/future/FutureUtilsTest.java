@@ -7,12 +7,20 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
+import org.threadly.concurrent.HashedWheelTimer;
+import org.threadly.concurrent.NoThreadScheduler;
+import org.threadly.concurrent.PriorityScheduler;
+import org.threadly.concurrent.StrictPriorityScheduler;
 import org.threadly.test.concurrent.AsyncVerifier;
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
 import org.threadly.util.StringUtils;
 
 @SuppressWarnings("javadoc")
@@ -681,6 +689,227 @@ public class FutureUtilsTest {
     assertTrue(expectedResults.containsAll(actualResults));
   }
   
+  @Test
+  public void makeResultListFutureFailureCauseTest() throws InterruptedException {
+    Exception failure = new Exception();
+    SettableListenableFuture<String> incompleteFuture = new SettableListenableFuture<String>();
+    List<ListenableFuture<String>> futures = new ArrayList<ListenableFuture<String>>(2);
+    futures.add(incompleteFuture);
+    futures.add(FutureUtils.<String>immediateFailureFuture(failure));
+    
+    ListenableFuture<List<String>> resultFuture = FutureUtils.makeResultListFuture(futures, false);
+    
+    // should fail without waiting for the incomplete future
+    assertTrue(resultFuture.isDone());
+    try {
+      resultFuture.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(failure == e.getCause());
+    }
+  }
+  
+  @Test
+  public void makeResultListFutureLargeTest() throws InterruptedException, ExecutionException {
+    int futureCount = 10000;
+    List<SettableListenableFuture<Integer>> futures = 
+        new ArrayList<SettableListenableFuture<Integer>>(futureCount);
+    for (int i = 0; i < futureCount; i++) {
+      futures.add(new SettableListenableFuture<Integer>());
+    }
+    
+    ListenableFuture<List<Integer>> resultFuture = FutureUtils.makeResultListFuture(futures, false);
+    for (int i = 0; i < futureCount; i++) {
+      assertFalse(resultFuture.isDone());
+      futures.get(i).setResult(i);
+    }
+    
+    List<Integer> result = resultFuture.get();
+    assertEquals(futureCount, result.size());
+    for (int i = 0; i < futureCount; i++) {
+      assertEquals(i, result.get(i).intValue());
+    }
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void makeFirstResultFutureEmptyFail() {
+    FutureUtils.makeFirstResultFuture(Collections.<ListenableFuture<String>>emptyList(), false, false);
+    fail("Exception should have thrown");
+  }
+  
+  @Test
+  public void makeFirstResultFutureTest() throws InterruptedException, ExecutionException {
+    List<SettableListenableFuture<String>> futures = new ArrayList<SettableListenableFuture<String>>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      futures.add(new SettableListenableFuture<String>());
+    }
+    
+    ListenableFuture<String> resultFuture = FutureUtils.makeFirstResultFuture(futures, false, false);
+    assertFalse(resultFuture.isDone());
+    
+    String result = StringUtils.makeRandomString(5);
+    futures.get(TEST_QTY / 2).setResult(result);
+    futures.get(0).setResult(StringUtils.makeRandomString(5));
+    
+    assertTrue(result == resultFuture.get());
+    assertFalse(futures.get(TEST_QTY - 1).isDone());
+  }
+  
+  @Test
+  public void makeFirstResultFutureCancelRemainingTest() {
+    List<SettableListenableFuture<String>> futures = new ArrayList<SettableListenableFuture<String>>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      futures.add(new SettableListenableFuture<String>(false));
+    }
+    
+    ListenableFuture<String> resultFuture = FutureUtils.makeFirstResultFuture(futures, false, true);
+    futures.get(0).setResult(null);
+    
+    assertTrue(resultFuture.isDone());
+    for (int i = 1; i < TEST_QTY; i++) {
+      assertTrue(futures.get(i).isCancelled());
+    }
+  }
+  
+  @Test
+  public void makeFirstResultFutureFailureTest() throws InterruptedException {
+    Exception failure = new Exception();
+    List<ListenableFuture<String>> futures = new ArrayList<ListenableFuture<String>>(2);
+    futures.add(FutureUtils.<String>immediateFailureFuture(failure));
+    futures.add(FutureUtils.immediateResultFuture(StringUtils.makeRandomString(5)));
+    
+    try {
+      FutureUtils.makeFirstResultFuture(futures, false, false).get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(failure == e.getCause());
+    }
+  }
+  
+  @Test
+  public void makeFirstResultFutureIgnoreFailureTest() throws InterruptedException, ExecutionException {
+    String result = StringUtils.makeRandomString(5);
+    List<ListenableFuture<String>> futures = new ArrayList<ListenableFuture<String>>(2);
+    futures.add(FutureUtils.<String>immediateFailureFuture(null));
+    futures.add(FutureUtils.immediateResultFuture(result));
+    
+    assertTrue(result == FutureUtils.makeFirstResultFuture(futures, true, false).get());
+  }
+  
+  @Test
+  public void makeFirstResultFutureAllFailedTest() throws InterruptedException {
+    Exception failure = new Exception();
+    List<ListenableFuture<String>> futures = new ArrayList<ListenableFuture<String>>(2);
+    futures.add(FutureUtils.<String>immediateFailureFuture(null));
+    futures.add(FutureUtils.<String>immediateFailureFuture(failure));
+    
+    try {
+      FutureUtils.makeFirstResultFuture(futures, true, false).get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(failure == e.getCause());
+    }
+  }
+  
+  @Test
+  public void makeFirstResultFutureCancelTest() {
+    SettableListenableFuture<?> slf = new SettableListenableFuture<Void>();
+    assertTrue(FutureUtils.makeFirstResultFuture(Collections.singletonList(slf), false, false).cancel(false));
+    
+    assertTrue(slf.isCancelled());
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void makeStreamingResultFutureNullConsumerFail() {
+    FutureUtils.makeStreamingResultFuture(makeFutures(TEST_QTY, -1), null, false);
+    fail("Exception should have thrown");
+  }
+  
+  @Test
+  public void makeStreamingResultFutureTest() throws InterruptedException, ExecutionException {
+    List<SettableListenableFuture<String>> futures = new ArrayList<SettableListenableFuture<String>>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      futures.add(new SettableListenableFuture<String>());
+    }
+    final List<String> results = new ArrayList<String>(TEST_QTY);
+    
+    ListenableFuture<?> resultFuture = 
+        FutureUtils.makeStreamingResultFuture(futures, new Consumer<String>() {
+          @Override
+          public void accept(String result) {
+            results.add(result);
+          }
+        }, false);
+    
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertFalse(resultFuture.isDone());
+      String result = StringUtils.makeRandomString(5);
+      futures.get(i).setResult(result);
+      assertTrue(result == results.get(i));
+    }
+    
+    assertTrue(resultFuture.isDone());
+    resultFuture.get();
+  }
+  
+  @Test
+  public void makeStreamingResultFutureFailureTest() throws InterruptedException {
+    final List<String> results = new ArrayList<String>(TEST_QTY);
+    ListenableFuture<?> resultFuture = 
+        FutureUtils.makeStreamingResultFuture(FutureUtilsTest.<String>makeFutures(TEST_QTY, 0), 
+                                              new Consumer<String>() {
+          @Override
+          public void accept(String result) {
+            results.add(result);
+          }
+        }, false);
+    
+    assertTrue(resultFuture.isDone());
+    assertTrue(results.isEmpty());
+    try {
+      resultFuture.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void makeStreamingResultFutureIgnoreFailureTest() throws InterruptedException, ExecutionException {
+    final List<String> results = new ArrayList<String>(TEST_QTY);
+    ListenableFuture<?> resultFuture = 
+        FutureUtils.makeStreamingResultFuture(FutureUtilsTest.<String>makeFutures(TEST_QTY, 0), 
+                                              new Consumer<String>() {
+          @Override
+          public void accept(String result) {
+            results.add(result);
+          }
+        }, true);
+    
+    assertTrue(resultFuture.isDone());
+    resultFuture.get();
+    assertEquals(TEST_QTY - 1, results.size());
+  }
+  
+  @Test
+  public void makeStreamingResultFutureConsumerExceptionTest() throws InterruptedException {
+    final RuntimeException failure = new RuntimeException();
+    ListenableFuture<?> resultFuture = 
+        FutureUtils.makeStreamingResultFuture(makeFutures(TEST_QTY, -1), new Consumer<Object>() {
+          @Override
+          public void accept(Object result) {
+            throw failure;
+          }
+        }, true);
+    
+    try {
+      resultFuture.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(failure == e.getCause());
+    }
+  }
+  
   @Test
   public void cancelIncompleteFuturesTest() throws InterruptedException, ExecutionException {
     List<SettableListenableFuture<?>> futures = new ArrayList<SettableListenableFuture<?>>(TEST_QTY);
@@ -714,6 +943,51 @@ public class FutureUtilsTest {
     assertTrue(testFuture == ImmediateResultListenableFuture.NULL_RESULT);
   }
   
+  @Test
+  @SuppressWarnings("deprecation")
+  public void immediateResultFutureBooleanResultTest() throws InterruptedException, ExecutionException, TimeoutException {
+    assertTrue(FutureUtils.immediateResultFuture(true) == ImmediateResultListenableFuture.BOOLEAN_TRUE_RESULT);
+    assertTrue(FutureUtils.immediateResultFuture(false) == ImmediateResultListenableFuture.BOOLEAN_FALSE_RESULT);
+    assertTrue(FutureUtils.immediateResultFuture(new Boolean(true)) == 
+                 ImmediateResultListenableFuture.BOOLEAN_TRUE_RESULT);
+    
+    ImmediateListenableFutureTest.resultTest(FutureUtils.immediateResultFuture(true), true);
+    ImmediateListenableFutureTest.resultTest(FutureUtils.immediateResultFuture(false), false);
+  }
+  
+  @Test
+  public void immediateResultFutureEmptyListResultTest() throws InterruptedException, ExecutionException, TimeoutException {
+    ListenableFuture<List<String>> testFuture = FutureUtils.immediateResultFuture(Collections.<String>emptyList());
+    
+    assertTrue(testFuture == ImmediateResultListenableFuture.EMPTY_LIST_RESULT);
+    assertTrue(testFuture.get().isEmpty());
+    // other empty lists may be modified later, so they can not be substituted
+    assertTrue(FutureUtils.immediateResultFuture(new ArrayList<String>(0)) != 
+                 ImmediateResultListenableFuture.EMPTY_LIST_RESULT);
+  }
+  
+  @Test
+  public void mapCompletedFutureTest() throws InterruptedException, ExecutionException {
+    SettableListenableFuture<String> slf = new SettableListenableFuture<String>();
+    slf.setResult("foo");
+    ListenableFuture<Integer> mapped = slf.map(new Function<String, Integer>() {
+      @Override
+      public Integer apply(String s) {
+        return s.length();
+      }
+    });
+    
+    assertTrue(mapped.isCompletedNormally());
+    assertEquals(3, (int)mapped.get());
+    assertTrue(slf.mapFailure(Exception.class, new Function<Exception, String>() {
+      @Override
+      public String apply(Exception e) {
+        return null;
+      }
+    }) == slf);
+  }
+  
+
   @Test
   public void immediateResultFutureTest() throws InterruptedException, ExecutionException, TimeoutException {
     Object result = new Object();
@@ -773,4 +1047,393 @@ public class FutureUtilsTest {
     
     ImmediateListenableFutureTest.failureAddCallbackTest(testFuture, failure);
   }
+  
+  private static void tickTillDone(NoThreadScheduler scheduler, 
+                                   ListenableFuture<?> future) throws InterruptedException {
+    while (! future.isDone()) {
+      scheduler.blockingTick(null);
+    }
+  }
+  
+  @Test
+  public void getTimeoutTimerTest() {
+    NoThreadScheduler scheduler1 = new NoThreadScheduler();
+    NoThreadScheduler scheduler2 = new NoThreadScheduler();
+    
+    HashedWheelTimer timer1 = FutureUtils.getTimeoutTimer(scheduler1);
+    HashedWheelTimer timer2 = FutureUtils.getTimeoutTimer(scheduler2);
+    
+    assertNotNull(timer1);
+    assertTrue(timer1 != timer2);
+    assertTrue(timer1 == FutureUtils.getTimeoutTimer(scheduler1));
+    assertTrue(timer2 == FutureUtils.getTimeoutTimer(scheduler2));
+  }
+  
+  @Test
+  public void withTimeoutAlreadyDoneTest() {
+    ListenableFuture<String> future = FutureUtils.immediateResultFuture(StringUtils.makeRandomString(5));
+    
+    assertTrue(future == FutureUtils.withTimeout(future, DELAY_TIME, new NoThreadScheduler()));
+  }
+  
+  @Test
+  public void withTimeoutResultTest() throws InterruptedException, ExecutionException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    SettableListenableFuture<String> slf = new SettableListenableFuture<String>();
+    ListenableFuture<String> lf = FutureUtils.withTimeout(slf, 1000 * 10, scheduler);
+    
+    assertFalse(lf.isDone());
+    String result = StringUtils.makeRandomString(5);
+    slf.setResult(result);
+    
+    assertTrue(lf.isDone());
+    assertEquals(result, lf.get());
+    assertEquals(0, FutureUtils.getTimeoutTimer(scheduler).getPendingCount());
+  }
+  
+  @Test
+  public void withTimeoutFailureTest() throws InterruptedException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    SettableListenableFuture<String> slf = new SettableListenableFuture<String>();
+    ListenableFuture<String> lf = FutureUtils.withTimeout(slf, 1000 * 10, scheduler);
+    
+    Exception failure = new Exception();
+    slf.setFailure(failure);
+    
+    try {
+      lf.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(failure == e.getCause());
+    }
+  }
+  
+  @Test
+  public void withTimeoutTimesOutTest() throws InterruptedException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    SettableListenableFuture<String> slf = new SettableListenableFuture<String>();
+    ListenableFuture<String> lf = FutureUtils.withTimeout(slf, DELAY_TIME, scheduler);
+    
+    tickTillDone(scheduler, lf);
+    
+    try {
+      lf.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof TimeoutException);
+    }
+    assertTrue(slf.isCancelled());
+  }
+  
+  @Test
+  public void withTimeoutCancelTest() {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    SettableListenableFuture<String> slf = new SettableListenableFuture<String>();
+    ListenableFuture<String> lf = FutureUtils.withTimeout(slf, 1000 * 10, scheduler);
+    
+    assertTrue(lf.cancel(false));
+    
+    assertTrue(slf.isCancelled());
+    assertEquals(0, FutureUtils.getTimeoutTimer(scheduler).getPendingCount());
+  }
+  
+  @Test
+  public void orDefaultAfterCancelTest() {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    SettableListenableFuture<String> slf = new SettableListenableFuture<String>();
+    ListenableFuture<String> lf = FutureUtils.orDefaultAfter(slf, 1000 * 10, "default", scheduler);
+    
+    assertTrue(lf.cancel(false));
+    
+    assertFalse(slf.isDone());
+    assertEquals(0, FutureUtils.getTimeoutTimer(scheduler).getPendingCount());
+  }
+  
+  @Test
+  public void failAfterCancelTest() {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    SettableListenableFuture<String> slf = new SettableListenableFuture<String>();
+    ListenableFuture<String> lf = FutureUtils.failAfter(slf, 1000 * 10, null, scheduler);
+    
+    assertTrue(lf.cancel(false));
+    
+    assertFalse(slf.isDone());
+    assertEquals(0, FutureUtils.getTimeoutTimer(scheduler).getPendingCount());
+  }
+  
+  @Test
+  public void orDefaultAfterResultTest() throws InterruptedException, ExecutionException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    SettableListenableFuture<String> slf = new SettableListenableFuture<String>();
+    ListenableFuture<String> lf = FutureUtils.orDefaultAfter(slf, 1000 * 10, "default", scheduler);
+    
+    String result = StringUtils.makeRandomString(5);
+    slf.setResult(result);
+    
+    assertEquals(result, lf.get());
+  }
+  
+  @Test
+  public void orDefaultAfterTimesOutTest() throws InterruptedException, ExecutionException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    SettableListenableFuture<String> slf = new SettableListenableFuture<String>();
+    String defaultResult = StringUtils.makeRandomString(5);
+    ListenableFuture<String> lf = FutureUtils.orDefaultAfter(slf, DELAY_TIME, defaultResult, scheduler);
+    
+    tickTillDone(scheduler, lf);
+    
+    assertEquals(defaultResult, lf.get());
+    assertFalse(slf.isDone());
+  }
+  
+  @Test
+  public void failAfterTimesOutTest() throws InterruptedException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    SettableListenableFuture<String> slf = new SettableListenableFuture<String>();
+    Exception failure = new Exception();
+    ListenableFuture<String> lf = FutureUtils.failAfter(slf, DELAY_TIME, failure, scheduler);
+    
+    tickTillDone(scheduler, lf);
+    
+    try {
+      lf.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(failure == e.getCause());
+    }
+    assertFalse(slf.isDone());
+  }
+  
+  @Test
+  public void failAfterDefaultFailureTest() throws InterruptedException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    SettableListenableFuture<String> slf = new SettableListenableFuture<String>();
+    ListenableFuture<String> lf = FutureUtils.failAfter(slf, DELAY_TIME, null, scheduler);
+    
+    tickTillDone(scheduler, lf);
+    
+    try {
+      lf.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof TimeoutException);
+    }
+  }
+  
+  private static class FailingCallable implements Callable<String> {
+    private final AtomicInteger callCount = new AtomicInteger();
+    private final int failCount;
+    private final String result;
+    
+    private FailingCallable(int failCount, String result) {
+      this.failCount = failCount;
+      this.result = result;
+    }
+    
+    @Override
+    public String call() throws Exception {
+      if (callCount.incrementAndGet() <= failCount) {
+        throw new IllegalStateException();
+      }
+      return result;
+    }
+  }
+  
+  @Test
+  public void scheduleWithRetryFail() {
+    try {
+      FutureUtils.scheduleWithRetry(null, new FailingCallable(0, null), new RetryPolicy(1, 0, 0));
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      FutureUtils.scheduleWithRetry(new NoThreadScheduler(), null, new RetryPolicy(1, 0, 0));
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      FutureUtils.scheduleWithRetry(new NoThreadScheduler(), new FailingCallable(0, null), null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void scheduleWithRetryFirstAttemptTest() throws InterruptedException, ExecutionException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    String result = StringUtils.makeRandomString(5);
+    FailingCallable fc = new FailingCallable(0, result);
+    ListenableFuture<String> lf = FutureUtils.scheduleWithRetry(scheduler, fc, new RetryPolicy(3, 0, 0));
+    
+    assertFalse(lf.isDone());
+    tickTillDone(scheduler, lf);
+    
+    assertEquals(result, lf.get());
+    assertEquals(1, fc.callCount.get());
+  }
+  
+  @Test
+  public void scheduleWithRetrySucceedsTest() throws InterruptedException, ExecutionException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    String result = StringUtils.makeRandomString(5);
+    FailingCallable fc = new FailingCallable(2, result);
+    ListenableFuture<String> lf = FutureUtils.scheduleWithRetry(scheduler, fc, new RetryPolicy(3, 1, 2));
+    
+    tickTillDone(scheduler, lf);
+    
+    assertEquals(result, lf.get());
+    assertEquals(3, fc.callCount.get());
+  }
+  
+  @Test
+  public void scheduleWithRetryExhaustedTest() throws InterruptedException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    FailingCallable fc = new FailingCallable(Integer.MAX_VALUE, null);
+    ListenableFuture<String> lf = FutureUtils.scheduleWithRetry(scheduler, fc, new RetryPolicy(3, 0, 0));
+    
+    tickTillDone(scheduler, lf);
+    
+    try {
+      lf.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+    assertEquals(3, fc.callCount.get());
+  }
+  
+  @Test
+  public void scheduleWithRetryNotRetriedTest() throws InterruptedException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    FailingCallable fc = new FailingCallable(Integer.MAX_VALUE, null);
+    ListenableFuture<String> lf = FutureUtils.scheduleWithRetry(scheduler, fc, new RetryPolicy(3, 0, 0) {
+      @Override
+      public boolean shouldRetry(Throwable failure) {
+        return false;
+      }
+    });
+    
+    tickTillDone(scheduler, lf);
+    
+    assertTrue(lf.isDone());
+    assertEquals(1, fc.callCount.get());
+  }
+  
+  @Test
+  public void scheduleWithRetryCancelTest() {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    FailingCallable fc = new FailingCallable(Integer.MAX_VALUE, null);
+    ListenableFuture<String> lf = FutureUtils.scheduleWithRetry(scheduler, fc, new RetryPolicy(3, 0, 0));
+    
+    assertTrue(lf.cancel(false));
+    scheduler.tick(null);
+    
+    assertEquals(0, fc.callCount.get());
+  }
+  
+  @Test
+  public void hedgeFail() {
+    try {
+      FutureUtils.hedge(null, new FailingCallable(0, null), 10, 2);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      FutureUtils.hedge(new NoThreadScheduler(), null, 10, 2);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      FutureUtils.hedge(new NoThreadScheduler(), new FailingCallable(0, null), -1, 2);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      FutureUtils.hedge(new NoThreadScheduler(), new FailingCallable(0, null), 10, 0);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void hedgeFirstAttemptTest() throws InterruptedException, ExecutionException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    String result = StringUtils.makeRandomString(5);
+    FailingCallable fc = new FailingCallable(0, result);
+    ListenableFuture<String> lf = FutureUtils.hedge(scheduler, fc, 1000 * 10, 3);
+    
+    tickTillDone(scheduler, lf);
+    
+    assertEquals(result, lf.get());
+    assertEquals(1, fc.callCount.get());
+  }
+  
+  @Test
+  public void hedgeAllFailTest() throws InterruptedException {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    FailingCallable fc = new FailingCallable(Integer.MAX_VALUE, null);
+    ListenableFuture<String> lf = FutureUtils.hedge(scheduler, fc, 1000 * 10, 3);
+    
+    tickTillDone(scheduler, lf);
+    
+    try {
+      lf.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+    assertEquals(3, fc.callCount.get());
+  }
+  
+  @Test
+  public void hedgeSlowAttemptTest() throws InterruptedException, ExecutionException, 
+                                            TimeoutException {
+    PriorityScheduler scheduler = new StrictPriorityScheduler(2);
+    try {
+      final String result = StringUtils.makeRandomString(5);
+      final AtomicInteger callCount = new AtomicInteger();
+      final AsyncVerifier av = new AsyncVerifier();
+      ListenableFuture<String> lf = FutureUtils.hedge(scheduler, new Callable<String>() {
+        @Override
+        public String call() {
+          if (callCount.incrementAndGet() == 1) {
+            // first attempt is slow, and should be interrupted once the hedge wins
+            try {
+              Thread.sleep(1000 * 10);
+              av.fail("Slow attempt was not interrupted");
+            } catch (InterruptedException e) {
+              av.signalComplete();
+            }
+            return null;
+          }
+          return result;
+        }
+      }, DELAY_TIME, 2);
+      
+      assertEquals(result, lf.get());
+      av.waitForTest();
+      assertEquals(2, callCount.get());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void hedgeCancelTest() {
+    NoThreadScheduler scheduler = new NoThreadScheduler();
+    FailingCallable fc = new FailingCallable(0, null);
+    ListenableFuture<String> lf = FutureUtils.hedge(scheduler, fc, 1000 * 10, 3);
+    
+    assertTrue(lf.cancel(false));
+    scheduler.tick(null);
+    
+    assertEquals(0, fc.callCount.get());
+  }
 }
@@ -1,6 +1,13 @@
 package org.threadly.concurrent.future;
 
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Test;
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
 
 @SuppressWarnings("javadoc")
 public class ImmediateFailureListenableFutureTest {
@@ -33,4 +40,74 @@ public class ImmediateFailureListenableFutureTest {
     
     ImmediateListenableFutureTest.failureAddCallbackTest(testFuture, failure);
   }
+  
+  @Test
+  public void mapTest() {
+    ListenableFuture<String> testFuture = new ImmediateFailureListenableFuture<String>(null);
+    ListenableFuture<Integer> mapped = testFuture.map(new Function<String, Integer>() {
+      @Override
+      public Integer apply(String s) {
+        fail("Should not have been called");
+        return null;
+      }
+    });
+    
+    assertTrue((Object)testFuture == mapped);
+  }
+  
+  @Test
+  public void mapFailureTest() throws InterruptedException, ExecutionException {
+    ListenableFuture<String> testFuture = 
+        new ImmediateFailureListenableFuture<String>(new IllegalStateException());
+    ListenableFuture<String> mapped = 
+        testFuture.mapFailure(IllegalStateException.class, new Function<IllegalStateException, String>() {
+          @Override
+          public String apply(IllegalStateException e) {
+            return "recovered";
+          }
+        });
+    
+    assertTrue(mapped instanceof ImmediateResultListenableFuture);
+    assertEquals("recovered", mapped.get());
+  }
+  
+  @Test
+  public void mapFailureUnmatchedTypeTest() {
+    ListenableFuture<String> testFuture = new ImmediateFailureListenableFuture<String>(new Exception());
+    ListenableFuture<String> mapped = 
+        testFuture.mapFailure(IllegalStateException.class, new Function<IllegalStateException, String>() {
+          @Override
+          public String apply(IllegalStateException e) {
+            return "recovered";
+          }
+        });
+    
+    assertTrue(testFuture == mapped);
+  }
+  
+  @Test
+  public void failureCallbackTest() {
+    final AtomicReference<Throwable> failureRef = new AtomicReference<Throwable>();
+    Exception failure = new Exception();
+    ListenableFuture<String> testFuture = new ImmediateFailureListenableFuture<String>(failure);
+    
+    testFuture.failureCallback(new Consumer<Throwable>() {
+      @Override
+      public void accept(Throwable t) {
+        failureRef.set(t);
+      }
+    }).resultCallback(new Consumer<String>() {
+      @Override
+      public void accept(String result) {
+        fail("Should not have been called");
+      }
+    });
+    
+    assertTrue(failure == failureRef.get());
+  }
+  
+  @Test
+  public void isCompletedNormallyTest() {
+    assertFalse(new ImmediateFailureListenableFuture<Void>(null).isCompletedNormally());
+  }
 }
@@ -1,9 +1,15 @@
 package org.threadly.concurrent.future;
 
+import static org.junit.Assert.*;
+
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
+import org.threadly.concurrent.NoThreadScheduler;
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
 
 @SuppressWarnings("javadoc")
 public class ImmediateResultListenableFutureTest {
@@ -43,4 +49,99 @@ public class ImmediateResultListenableFutureTest {
     
     ImmediateListenableFutureTest.resultAddCallbackTest(testFuture, result);
   }
+  
+  @Test
+  public void mapTest() throws InterruptedException, ExecutionException {
+    ListenableFuture<String> testFuture = new ImmediateResultListenableFuture<String>("foo");
+    ListenableFuture<Integer> mapped = testFuture.map(new Function<String, Integer>() {
+      @Override
+      public Integer apply(String s) {
+        return s.length();
+      }
+    });
+    
+    assertTrue(mapped instanceof ImmediateResultListenableFuture);
+    assertEquals(3, mapped.get().intValue());
+  }
+  
+  @Test
+  public void mapThrowsTest() {
+    ListenableFuture<String> testFuture = new ImmediateResultListenableFuture<String>("foo");
+    final RuntimeException failure = new RuntimeException();
+    ListenableFuture<Integer> mapped = testFuture.map(new Function<String, Integer>() {
+      @Override
+      public Integer apply(String s) {
+        throw failure;
+      }
+    });
+    
+    ImmediateListenableFutureTest.failureTest(mapped, failure);
+  }
+  
+  @Test
+  public void mapWithExecutorTest() throws InterruptedException, ExecutionException {
+    NoThreadScheduler executor = new NoThreadScheduler();
+    ListenableFuture<String> testFuture = new ImmediateResultListenableFuture<String>("foo");
+    ListenableFuture<Integer> mapped = testFuture.map(new Function<String, Integer>() {
+      @Override
+      public Integer apply(String s) {
+        return s.length();
+      }
+    }, executor);
+    
+    assertFalse(mapped.isDone());
+    assertEquals(1, executor.tick(null));
+    assertEquals(3, mapped.get().intValue());
+  }
+  
+  @Test
+  public void flatMapTest() {
+    ListenableFuture<String> testFuture = new ImmediateResultListenableFuture<String>("foo");
+    final ListenableFuture<Integer> resultFuture = new SettableListenableFuture<Integer>();
+    ListenableFuture<Integer> mapped = testFuture.flatMap(new Function<String, ListenableFuture<Integer>>() {
+      @Override
+      public ListenableFuture<Integer> apply(String s) {
+        return resultFuture;
+      }
+    });
+    
+    assertTrue(resultFuture == mapped);
+  }
+  
+  @Test
+  public void mapFailureTest() {
+    ListenableFuture<String> testFuture = new ImmediateResultListenableFuture<String>("foo");
+    
+    assertTrue(testFuture == testFuture.mapFailure(null, new Function<Throwable, String>() {
+      @Override
+      public String apply(Throwable t) {
+        return "bar";
+      }
+    }));
+  }
+  
+  @Test
+  public void resultCallbackTest() {
+    final AtomicReference<String> resultRef = new AtomicReference<String>();
+    ListenableFuture<String> testFuture = new ImmediateResultListenableFuture<String>("foo");
+    
+    testFuture.resultCallback(new Consumer<String>() {
+      @Override
+      public void accept(String result) {
+        resultRef.set(result);
+      }
+    }).failureCallback(new Consumer<Throwable>() {
+      @Override
+      public void accept(Throwable t) {
+        fail("Should not have been called");
+      }
+    });
+    
+    assertEquals("foo", resultRef.get());
+  }
+  
+  @Test
+  public void isCompletedNormallyTest() {
+    assertTrue(new ImmediateResultListenableFuture<Void>(null).isCompletedNormally());
+  }
 }
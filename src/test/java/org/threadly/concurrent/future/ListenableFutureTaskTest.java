@@ -19,6 +19,7 @@ import org.threadly.concurrent.RunnableContainer;
 import org.threadly.concurrent.TestCallable;
 import org.threadly.concurrent.TestRuntimeFailureRunnable;
 import org.threadly.test.concurrent.TestRunnable;
+import org.threadly.util.Function;
 
 @SuppressWarnings("javadoc")
 public class ListenableFutureTaskTest extends RunnableFutureTest {
@@ -55,25 +56,72 @@ public class ListenableFutureTaskTest extends RunnableFutureTest {
     // no exception should have been thrown
   }
   
+  @Test
+  public void mapTest() throws InterruptedException, ExecutionException {
+    ListenableFutureTask<String> future = 
+        new ListenableFutureTask<String>(false, DoNothingRunnable.instance(), "foo");
+    ListenableFuture<Integer> mapped = future.map(new Function<String, Integer>() {
+      @Override
+      public Integer apply(String s) {
+        return s.length();
+      }
+    });
+    assertFalse(mapped.isDone());
+    
+    future.run();
+    
+    assertEquals(3, mapped.get().intValue());
+  }
+  
+  @Test
+  public void isCompletedNormallyTest() {
+    ListenableFutureTask<Object> future = makeFutureTask(DoNothingRunnable.instance(), null);
+    assertFalse(future.isCompletedNormally());
+    
+    future.run();
+    
+    assertTrue(future.isCompletedNormally());
+  }
+  
+  @Test
+  public void isCompletedNormallyFailureTest() {
+    ListenableFutureTask<Object> future = makeFutureTask(new TestRuntimeFailureRunnable(), null);
+    
+    future.run();
+    
+    assertTrue(future.isDone());
+    assertFalse(future.isCompletedNormally());
+  }
+  
+  @Test
+  public void isCompletedNormallyCanceledTest() {
+    ListenableFutureTask<Object> future = makeFutureTask(DoNothingRunnable.instance(), null);
+    
+    future.cancel(false);
+    
+    assertTrue(future.isDone());
+    assertFalse(future.isCompletedNormally());
+  }
+  
   @Test
   public void listenerTest() {
     TestRunnable tr = new TestRunnable();
     
     ListenableFutureTask<Object> future = makeFutureTask(tr, null);
     
-    assertEquals(0, future.listenerHelper.registeredListenerCount()); // empty to start
+    assertEquals(0, future.listeners.registeredListenerCount()); // empty to start
     
     TestRunnable listener = new TestRunnable();
     
     future.addListener(listener);
     
-    assertEquals(1, future.listenerHelper.registeredListenerCount()); // should now have once now that the runnable has not run yet
+    assertEquals(1, future.listeners.registeredListenerCount()); // should now have once now that the runnable has not run yet
     
     future.run(); // this should call the listener
     
     assertTrue(listener.ranOnce()); // verify listener was called
     
-    assertEquals(0, future.listenerHelper.registeredListenerCount()); // empty after listener calls
+    assertEquals(0, future.listeners.registeredListenerCount()); // empty after listener calls
     
     TestRunnable postRunListener = new TestRunnable();
     
@@ -81,7 +129,7 @@ public class ListenableFutureTaskTest extends RunnableFutureTest {
     
     assertTrue(postRunListener.ranOnce()); // verify listener was called
     
-    assertEquals(0, future.listenerHelper.registeredListenerCount()); // still empty after future ran
+    assertEquals(0, future.listeners.registeredListenerCount()); // still empty after future ran
     
     // verify run on correct executor
     TestRunnable executorListener = new TestRunnable();
@@ -175,6 +223,47 @@ public class ListenableFutureTaskTest extends RunnableFutureTest {
     assertTrue(failure == tfc.getLastFailure());
   }
   
+  @Test
+  public void mapCancelPropagatesTest() {
+    TestRunnable tr = new TestRunnable();
+    ListenableFutureTask<Object> future = makeFutureTask(tr, null);
+    ListenableFuture<String> mapped = future.map(new Function<Object, String>() {
+      @Override
+      public String apply(Object o) {
+        return "";
+      }
+    });
+    
+    assertTrue(mapped.cancel(false));
+    assertTrue(future.isCancelled());
+    
+    future.run();
+    
+    assertFalse(tr.ranOnce());
+  }
+  
+  @Test
+  public void mapCancelWithOtherListenerTest() {
+    TestRunnable tr = new TestRunnable();
+    TestRunnable listener = new TestRunnable();
+    ListenableFutureTask<Object> future = makeFutureTask(tr, null);
+    future.addListener(listener);
+    ListenableFuture<String> mapped = future.map(new Function<Object, String>() {
+      @Override
+      public String apply(Object o) {
+        return "";
+      }
+    });
+    
+    assertTrue(mapped.cancel(false));
+    assertFalse(future.isCancelled());
+    
+    future.run();
+    
+    assertTrue(tr.ranOnce());
+    assertTrue(listener.ranOnce());
+  }
+  
   @Test (expected = ExecutionException.class)
   public void getExecutionExceptionTest() throws InterruptedException, ExecutionException {
     TestRunnable tr = new TestRuntimeFailureRunnable();
@@ -0,0 +1,255 @@
+package org.threadly.concurrent.future;
+
+import static org.junit.Assert.*;
+import static org.threadly.TestConstants.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.concurrent.PriorityScheduler;
+import org.threadly.concurrent.StrictPriorityScheduler;
+import org.threadly.test.concurrent.TestRunnable;
+import org.threadly.test.concurrent.TestableScheduler;
+import org.threadly.util.ExceptionUtils;
+import org.threadly.util.TestExceptionHandler;
+
+@SuppressWarnings("javadoc")
+public class ListenerStackTest {
+  private ListenerStack stack;
+  
+  @Before
+  public void setup() {
+    stack = new ListenerStack();
+  }
+  
+  @After
+  public void cleanup() {
+    stack = null;
+  }
+  
+  @Test
+  public void addNullListenerTest() {
+    stack.addListener(null, null);
+    
+    assertEquals(0, stack.registeredListenerCount());
+  }
+  
+  @Test
+  public void callListenersTest() {
+    List<TestRunnable> listeners = new ArrayList<TestRunnable>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      TestRunnable tr = new TestRunnable();
+      listeners.add(tr);
+      stack.addListener(tr, null);
+    }
+    assertEquals(TEST_QTY, stack.registeredListenerCount());
+    assertFalse(stack.isCompleted());
+    
+    stack.callListeners();
+    
+    assertTrue(stack.isCompleted());
+    assertEquals(0, stack.registeredListenerCount());
+    for (TestRunnable tr : listeners) {
+      assertTrue(tr.ranOnce());
+    }
+  }
+  
+  @Test
+  public void callListenersInOrderTest() {
+    final List<Integer> callOrder = new ArrayList<Integer>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      final int index = i;
+      stack.addListener(new Runnable() {
+        @Override
+        public void run() {
+          callOrder.add(index);
+        }
+      }, null);
+    }
+    
+    stack.callListeners();
+    
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertEquals(i, callOrder.get(i).intValue());
+    }
+  }
+  
+  @Test
+  public void callListenersWithExecutorTest() {
+    TestableScheduler executor = new TestableScheduler();
+    TestRunnable tr = new TestRunnable();
+    stack.addListener(tr, executor);
+    
+    stack.callListeners();
+    assertFalse(tr.ranOnce());
+    
+    assertEquals(1, executor.tick());
+    assertTrue(tr.ranOnce());
+  }
+  
+  @Test (expected = IllegalStateException.class)
+  public void callListenersTwiceFail() {
+    stack.callListeners();
+    stack.callListeners();
+    fail("Exception should have thrown");
+  }
+  
+  @Test
+  public void removeListenerTest() {
+    TestRunnable removed = new TestRunnable();
+    TestRunnable kept = new TestRunnable();
+    stack.addListener(removed, null);
+    stack.addListener(kept, null);
+    
+    assertTrue(stack.removeListener(removed));
+    assertEquals(1, stack.registeredListenerCount());
+    
+    stack.callListeners();
+    
+    assertFalse(removed.ranOnce());
+    assertTrue(kept.ranOnce());
+  }
+  
+  @Test
+  public void removeAllListenersTest() {
+    List<TestRunnable> listeners = new ArrayList<TestRunnable>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      TestRunnable tr = new TestRunnable();
+      listeners.add(tr);
+      stack.addListener(tr, null);
+    }
+    
+    // remove from both the top of the stack and below it
+    for (int i = 0; i < TEST_QTY; i++) {
+      int index = i % 2 == 0 ? 0 : listeners.size() - 1;
+      assertTrue(stack.removeListener(listeners.remove(index)));
+      assertEquals(TEST_QTY - i - 1, stack.registeredListenerCount());
+    }
+    TestRunnable added = new TestRunnable();
+    stack.addListener(added, null);
+    assertEquals(1, stack.registeredListenerCount());
+    
+    stack.callListeners();
+    
+    assertTrue(added.ranOnce());
+    assertEquals(0, stack.registeredListenerCount());
+  }
+  
+  @Test
+  public void removeListenerNotFoundTest() {
+    stack.addListener(new TestRunnable(), null);
+    
+    assertFalse(stack.removeListener(new TestRunnable()));
+    assertFalse(stack.removeListener(null));
+    assertEquals(1, stack.registeredListenerCount());
+  }
+  
+  @Test
+  public void removeListenerAfterCalledTest() {
+    TestRunnable tr = new TestRunnable();
+    stack.addListener(tr, null);
+    stack.callListeners();
+    
+    assertFalse(stack.removeListener(tr));
+    assertTrue(tr.ranOnce());
+  }
+  
+  @Test
+  public void addAfterCalledTest() {
+    stack.callListeners();
+    TestRunnable tr = new TestRunnable();
+    stack.addListener(tr, null);
+    
+    assertTrue(tr.ranOnce());
+    assertEquals(0, stack.registeredListenerCount());
+  }
+  
+  @Test
+  public void addFromListenerTest() {
+    final TestRunnable innerListener = new TestRunnable();
+    stack.addListener(new Runnable() {
+      @Override
+      public void run() {
+        stack.addListener(innerListener, null);
+      }
+    }, null);
+    
+    stack.callListeners();
+    
+    assertTrue(innerListener.ranOnce());
+  }
+  
+  @Test
+  public void listenerExceptionTest() {
+    TestExceptionHandler teh = new TestExceptionHandler();
+    ExceptionUtils.setThreadExceptionHandler(teh);
+    try {
+      final RuntimeException failure = new RuntimeException();
+      stack.addListener(new Runnable() {
+        @Override
+        public void run() {
+          throw failure;
+        }
+      }, null);
+      TestRunnable tr = new TestRunnable();
+      stack.addListener(tr, null);
+      
+      stack.callListeners();
+      
+      assertTrue(tr.ranOnce());
+      assertTrue(failure == teh.getLastThrowable());
+    } finally {
+      ExceptionUtils.setThreadExceptionHandler(null);
+    }
+  }
+  
+  @Test (expected = RuntimeException.class)
+  public void addAfterCalledExceptionFail() {
+    stack.callListeners();
+    stack.addListener(new Runnable() {
+      @Override
+      public void run() {
+        throw new RuntimeException();
+      }
+    }, null);
+    fail("Exception should have thrown");
+  }
+  
+  @Test
+  public void concurrentAddTest() throws InterruptedException, ExecutionException {
+    final int listenersPerThread = 100;
+    final List<TestRunnable> listeners = new ArrayList<TestRunnable>();
+    for (int i = 0; i < TEST_QTY * listenersPerThread; i++) {
+      listeners.add(new TestRunnable());
+    }
+    PriorityScheduler scheduler = new StrictPriorityScheduler(TEST_QTY);
+    try {
+      List<ListenableFuture<?>> futures = new ArrayList<ListenableFuture<?>>(TEST_QTY);
+      for (int i = 0; i < TEST_QTY; i++) {
+        final int startIndex = i * listenersPerThread;
+        futures.add(scheduler.submit(new Runnable() {
+          @Override
+          public void run() {
+            for (int j = startIndex; j < startIndex + listenersPerThread; j++) {
+              stack.addListener(listeners.get(j), null);
+            }
+          }
+        }));
+      }
+      
+      // listeners will be added both before and after being called
+      stack.callListeners();
+      FutureUtils.blockTillAllCompleteOrFirstError(futures);
+      
+      for (TestRunnable tr : listeners) {
+        assertEquals(1, tr.getRunCount());
+      }
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package org.threadly.concurrent.future;
+
+import static org.junit.Assert.*;
+import static org.threadly.TestConstants.*;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class RetryPolicyTest {
+  @Test
+  public void getMaxAttemptsTest() {
+    assertEquals(TEST_QTY, new RetryPolicy(TEST_QTY, 10, 100).getMaxAttempts());
+  }
+  
+  @Test
+  @SuppressWarnings("unused")
+  public void constructorFail() {
+    try {
+      new RetryPolicy(0, 10, 100);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new RetryPolicy(1, -1, 100);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new RetryPolicy(1, 100, 10);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new RetryPolicy(1, 10, 100, .5, 0);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new RetryPolicy(1, 10, 100, 2, -.1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new RetryPolicy(1, 10, 100, 2, 1.1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void shouldRetryTest() {
+    assertTrue(new RetryPolicy(1, 10, 100).shouldRetry(new Exception()));
+  }
+  
+  @Test
+  public void getBackoffMillisNoJitterTest() {
+    RetryPolicy policy = new RetryPolicy(10, 10, 100, 2, 0);
+    
+    assertEquals(10, policy.getBackoffMillis(1));
+    assertEquals(20, policy.getBackoffMillis(2));
+    assertEquals(40, policy.getBackoffMillis(3));
+    assertEquals(80, policy.getBackoffMillis(4));
+    assertEquals(100, policy.getBackoffMillis(5));
+    assertEquals(100, policy.getBackoffMillis(6));
+  }
+  
+  @Test
+  public void getBackoffMillisJitterTest() {
+    RetryPolicy policy = new RetryPolicy(10, 100, 1000, 2, .5);
+    
+    for (int i = 0; i < TEST_QTY * 10; i++) {
+      long backoff = policy.getBackoffMillis(1);
+      assertTrue(backoff >= 50);
+      assertTrue(backoff <= 100);
+      backoff = policy.getBackoffMillis(10);
+      assertTrue(backoff >= 500);
+      assertTrue(backoff <= 1000);
+    }
+  }
+}
@@ -179,4 +179,16 @@ public class ScheduledFutureDelegateTest<T> {
     
     assertEquals(1, future.listeners.size());
   }
+  
+  @Test
+  public void isCompletedNormallyTest() {
+    TestFutureImp future = new TestFutureImp(false);
+    ScheduledFutureDelegate<?> testItem = new ScheduledFutureDelegate<Object>(future, null);
+    
+    assertTrue(testItem.isCompletedNormally());
+    
+    future.cancel(true);
+    
+    assertFalse(testItem.isCompletedNormally());
+  }
 }
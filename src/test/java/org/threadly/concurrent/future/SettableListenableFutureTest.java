@@ -3,23 +3,49 @@ package org.threadly.concurrent.future;
 import static org.junit.Assert.*;
 import static org.threadly.TestConstants.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.threadly.BlockingTestRunnable;
+import org.threadly.concurrent.DoNothingRunnable;
+import org.threadly.concurrent.NoThreadScheduler;
 import org.threadly.concurrent.PriorityScheduler;
 import org.threadly.concurrent.StrictPriorityScheduler;
 import org.threadly.test.concurrent.TestRunnable;
 import org.threadly.util.Clock;
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
 import org.threadly.util.StringUtils;
 
 @SuppressWarnings("javadoc")
 public class SettableListenableFutureTest {
+  private static final Function<Integer, Integer> IDENTITY_FUNCTION = new Function<Integer, Integer>() {
+    @Override
+    public Integer apply(Integer i) {
+      return i;
+    }
+  };
+  private static final Function<String, Integer> LENGTH_FUNCTION = new Function<String, Integer>() {
+    @Override
+    public Integer apply(String s) {
+      return s.length();
+    }
+  };
+  private static final Function<String, Integer> THROWING_FUNCTION = new Function<String, Integer>() {
+    @Override
+    public Integer apply(String s) {
+      throw new IllegalStateException();
+    }
+  };
   protected SettableListenableFuture<String> slf;
   
   @Before
@@ -243,6 +269,31 @@ public class SettableListenableFutureTest {
     }
   }
   
+  @Test
+  public void isCompletedNormallyTest() {
+    assertFalse(slf.isCompletedNormally());
+    
+    slf.setResult(null);
+    
+    assertTrue(slf.isCompletedNormally());
+  }
+  
+  @Test
+  public void isCompletedNormallyFailureTest() {
+    slf.setFailure(null);
+    
+    assertTrue(slf.isDone());
+    assertFalse(slf.isCompletedNormally());
+  }
+  
+  @Test
+  public void isCompletedNormallyCanceledTest() {
+    slf.cancel(false);
+    
+    assertTrue(slf.isDone());
+    assertFalse(slf.isCompletedNormally());
+  }
+  
   @Test
   public void cancelTest() {
     assertTrue(slf.cancel(false));
@@ -335,6 +386,73 @@ public class SettableListenableFutureTest {
     assertTrue(endTime - startTime >= DELAY_TIME);
   }
   
+  @Test
+  public void getTimeoutThenResultTest() throws InterruptedException, ExecutionException {
+    for (int i = 0; i < TEST_QTY; i++) {
+      try {
+        slf.get(1, TimeUnit.MILLISECONDS);
+        fail("Exception should have thrown");
+      } catch (TimeoutException e) {
+        // expected
+      }
+    }
+    String result = StringUtils.makeRandomString(5);
+    slf.setResult(result);
+    
+    assertTrue(result == slf.get());
+  }
+  
+  @Test
+  public void getMultipleWaitersTest() throws InterruptedException, ExecutionException {
+    final String testResult = StringUtils.makeRandomString(5);
+    PriorityScheduler scheduler = new StrictPriorityScheduler(TEST_QTY);
+    try {
+      List<ListenableFuture<String>> futures = new ArrayList<ListenableFuture<String>>(TEST_QTY);
+      for (int i = 0; i < TEST_QTY; i++) {
+        futures.add(scheduler.submit(new Callable<String>() {
+          @Override
+          public String call() throws Exception {
+            return slf.get();
+          }
+        }));
+      }
+      
+      slf.setResult(testResult);
+      
+      for (ListenableFuture<String> f : futures) {
+        assertTrue(testResult == f.get());
+      }
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void getInterruptedTest() {
+    Thread.currentThread().interrupt();
+    try {
+      slf.get();
+      fail("Exception should have thrown");
+    } catch (InterruptedException e) {
+      // expected
+    } catch (ExecutionException e) {
+      fail("Unexpected exception: " + e);
+    }
+    assertFalse(Thread.interrupted());
+  }
+  
+  @Test
+  public void getInterruptedAlreadyDoneTest() throws InterruptedException, ExecutionException {
+    String result = StringUtils.makeRandomString(5);
+    slf.setResult(result);
+    Thread.currentThread().interrupt();
+    try {
+      assertTrue(result == slf.get());
+    } finally {
+      assertTrue(Thread.interrupted());
+    }
+  }
+  
   @Test (expected = ExecutionException.class)
   public void getNullExceptionTest() throws InterruptedException, 
                                             ExecutionException {
@@ -381,6 +499,302 @@ public class SettableListenableFutureTest {
     }
   }
   
+  @Test
+  public void mapResultTest() throws InterruptedException, ExecutionException {
+    ListenableFuture<Integer> mapped = slf.map(LENGTH_FUNCTION);
+    assertFalse(mapped.isDone());
+    
+    slf.setResult(StringUtils.makeRandomString(5));
+    
+    assertTrue(mapped.isDone());
+    assertEquals(5, mapped.get().intValue());
+  }
+  
+  @Test
+  public void mapAlreadyDoneTest() throws InterruptedException, ExecutionException {
+    slf.setResult(StringUtils.makeRandomString(5));
+    
+    assertEquals(5, slf.map(LENGTH_FUNCTION).get().intValue());
+  }
+  
+  @Test
+  public void mapFailurePropagatedTest() throws InterruptedException {
+    Exception failure = new Exception();
+    ListenableFuture<Integer> mapped = slf.map(LENGTH_FUNCTION);
+    slf.setFailure(failure);
+    
+    try {
+      mapped.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(failure == e.getCause());
+    }
+  }
+  
+  @Test
+  public void mapThrowsTest() throws InterruptedException {
+    ListenableFuture<Integer> mapped = slf.map(THROWING_FUNCTION);
+    slf.setResult(StringUtils.makeRandomString(5));
+    
+    try {
+      mapped.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+  
+  @Test
+  public void mapCanceledTest() {
+    ListenableFuture<Integer> mapped = slf.map(LENGTH_FUNCTION);
+    slf.cancel(false);
+    
+    assertTrue(mapped.isCancelled());
+  }
+  
+  @Test
+  public void mapCancelDoesNotCancelSettableTest() {
+    ListenableFuture<Integer> mapped = slf.map(LENGTH_FUNCTION);
+    
+    assertTrue(mapped.cancel(false));
+    // the settable future is expected to be completed by the user, so it should not be canceled
+    assertFalse(slf.isDone());
+    assertEquals(0, slf.listeners.registeredListenerCount());
+  }
+  
+  @Test
+  public void mapChainCancelTest() {
+    ListenableFuture<Integer> mapped = slf.map(LENGTH_FUNCTION);
+    ListenableFuture<Integer> doubleMapped = mapped.map(IDENTITY_FUNCTION);
+    
+    assertTrue(doubleMapped.cancel(false));
+    assertTrue(mapped.isCancelled());
+    assertFalse(slf.isDone());
+  }
+  
+  @Test
+  public void mapCancelWithOtherListenerTest() {
+    ListenableFuture<Integer> mapped = slf.map(LENGTH_FUNCTION);
+    ListenableFuture<Integer> otherMapped = mapped.map(IDENTITY_FUNCTION);
+    ListenableFuture<Integer> canceledMapped = mapped.map(IDENTITY_FUNCTION);
+    
+    assertTrue(canceledMapped.cancel(false));
+    assertFalse(mapped.isDone());
+    
+    slf.setResult(StringUtils.makeRandomString(5));
+    
+    assertTrue(otherMapped.isDone());
+    assertFalse(otherMapped.isCancelled());
+  }
+  
+  @Test
+  public void mapWithExecutorTest() throws InterruptedException, ExecutionException {
+    NoThreadScheduler executor = new NoThreadScheduler();
+    ListenableFuture<Integer> mapped = slf.map(LENGTH_FUNCTION, executor);
+    slf.setResult(StringUtils.makeRandomString(5));
+    
+    assertFalse(mapped.isDone());
+    assertEquals(1, executor.tick(null));
+    assertEquals(5, mapped.get().intValue());
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void mapNullFunctionFail() {
+    slf.map(null);
+    fail("Exception should have thrown");
+  }
+  
+  @Test
+  public void flatMapTest() throws InterruptedException, ExecutionException {
+    final SettableListenableFuture<Integer> innerFuture = new SettableListenableFuture<Integer>();
+    ListenableFuture<Integer> mapped = slf.flatMap(new Function<String, ListenableFuture<Integer>>() {
+      @Override
+      public ListenableFuture<Integer> apply(String s) {
+        return innerFuture;
+      }
+    });
+    slf.setResult(StringUtils.makeRandomString(5));
+    assertFalse(mapped.isDone());
+    
+    innerFuture.setResult(10);
+    assertEquals(10, mapped.get().intValue());
+  }
+  
+  @Test
+  public void flatMapInnerCanceledTest() {
+    final SettableListenableFuture<Integer> innerFuture = new SettableListenableFuture<Integer>();
+    ListenableFuture<Integer> mapped = slf.flatMap(new Function<String, ListenableFuture<Integer>>() {
+      @Override
+      public ListenableFuture<Integer> apply(String s) {
+        return innerFuture;
+      }
+    });
+    slf.setResult(StringUtils.makeRandomString(5));
+    innerFuture.cancel(false);
+    
+    assertTrue(mapped.isCancelled());
+  }
+  
+  @Test
+  public void flatMapCancelInnerTest() {
+    final ListenableFutureTask<Integer> innerFuture = 
+        new ListenableFutureTask<Integer>(false, DoNothingRunnable.instance(), 10);
+    ListenableFuture<Integer> mapped = slf.flatMap(new Function<String, ListenableFuture<Integer>>() {
+      @Override
+      public ListenableFuture<Integer> apply(String s) {
+        return innerFuture;
+      }
+    });
+    slf.setResult(StringUtils.makeRandomString(5));
+    
+    assertTrue(mapped.cancel(false));
+    assertTrue(innerFuture.isCancelled());
+  }
+  
+  @Test
+  public void flatMapNullFutureTest() throws InterruptedException {
+    ListenableFuture<Integer> mapped = slf.flatMap(new Function<String, ListenableFuture<Integer>>() {
+      @Override
+      public ListenableFuture<Integer> apply(String s) {
+        return null;
+      }
+    });
+    slf.setResult(StringUtils.makeRandomString(5));
+    
+    try {
+      mapped.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof NullPointerException);
+    }
+  }
+  
+  @Test
+  public void mapFailureTest() throws InterruptedException, ExecutionException {
+    ListenableFuture<String> mapped = 
+        slf.mapFailure(IllegalStateException.class, new Function<IllegalStateException, String>() {
+          @Override
+          public String apply(IllegalStateException e) {
+            return "recovered";
+          }
+        });
+    slf.setFailure(new IllegalStateException());
+    
+    assertEquals("recovered", mapped.get());
+  }
+  
+  @Test
+  public void mapFailureUnmatchedTypeTest() throws InterruptedException {
+    Exception failure = new Exception();
+    ListenableFuture<String> mapped = 
+        slf.mapFailure(IllegalStateException.class, new Function<IllegalStateException, String>() {
+          @Override
+          public String apply(IllegalStateException e) {
+            return "recovered";
+          }
+        });
+    slf.setFailure(failure);
+    
+    try {
+      mapped.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(failure == e.getCause());
+    }
+  }
+  
+  @Test
+  public void mapFailureResultTest() throws InterruptedException, ExecutionException {
+    ListenableFuture<String> mapped = slf.mapFailure(null, new Function<Throwable, String>() {
+      @Override
+      public String apply(Throwable t) {
+        return "recovered";
+      }
+    });
+    String result = StringUtils.makeRandomString(5);
+    slf.setResult(result);
+    
+    assertTrue(result == mapped.get());
+  }
+  
+  @Test
+  public void mapFailureCanceledTest() throws InterruptedException, ExecutionException {
+    ListenableFuture<String> mapped = 
+        slf.mapFailure(CancellationException.class, new Function<CancellationException, String>() {
+          @Override
+          public String apply(CancellationException e) {
+            return "recovered";
+          }
+        });
+    slf.cancel(false);
+    
+    assertEquals("recovered", mapped.get());
+  }
+  
+  @Test
+  public void resultCallbackTest() {
+    final AtomicReference<String> resultRef = new AtomicReference<String>();
+    Consumer<String> callback = new Consumer<String>() {
+      @Override
+      public void accept(String result) {
+        resultRef.set(result);
+      }
+    };
+    assertTrue(slf == slf.resultCallback(callback));
+    String result = StringUtils.makeRandomString(5);
+    slf.setResult(result);
+    
+    assertTrue(result == resultRef.get());
+  }
+  
+  @Test
+  public void resultCallbackNotCalledOnFailureTest() {
+    final AtomicReference<String> resultRef = new AtomicReference<String>("unset");
+    slf.resultCallback(new Consumer<String>() {
+      @Override
+      public void accept(String result) {
+        resultRef.set(result);
+      }
+    });
+    slf.setFailure(null);
+    
+    assertEquals("unset", resultRef.get());
+  }
+  
+  @Test
+  public void failureCallbackTest() {
+    final AtomicReference<Throwable> failureRef = new AtomicReference<Throwable>();
+    Consumer<Throwable> callback = new Consumer<Throwable>() {
+      @Override
+      public void accept(Throwable t) {
+        failureRef.set(t);
+      }
+    };
+    assertTrue(slf == slf.failureCallback(callback));
+    slf.setResult(null);
+    assertNull(failureRef.get());
+    
+    slf = new SettableListenableFuture<String>();
+    slf.failureCallback(callback);
+    Exception failure = new Exception();
+    slf.setFailure(failure);
+    assertTrue(failure == failureRef.get());
+  }
+  
+  @Test
+  public void failureCallbackCanceledTest() {
+    final AtomicReference<Throwable> failureRef = new AtomicReference<Throwable>();
+    slf.failureCallback(new Consumer<Throwable>() {
+      @Override
+      public void accept(Throwable t) {
+        failureRef.set(t);
+      }
+    });
+    slf.cancel(false);
+    
+    assertTrue(failureRef.get() instanceof CancellationException);
+  }
+  
   @Test
   public void getWithTimeoutCancellationTest() throws InterruptedException, ExecutionException, TimeoutException {
     slf.cancel(false);
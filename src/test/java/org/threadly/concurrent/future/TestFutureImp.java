@@ -8,6 +8,9 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import org.threadly.util.Consumer;
+import org.threadly.util.Function;
+
 @SuppressWarnings("javadoc")
 public class TestFutureImp implements ListenableFuture<Object> {
   public final Object result = new Object();
@@ -36,6 +39,11 @@ public class TestFutureImp implements ListenableFuture<Object> {
     return true;
   }
 
+  @Override
+  public boolean isCompletedNormally() {
+    return ! canceled;
+  }
+
   @Override
   public Object get() throws ExecutionException {
     if (canceled) {
@@ -75,4 +83,62 @@ public class TestFutureImp implements ListenableFuture<Object> {
   public void addCallback(FutureCallback<? super Object> callback, Executor executor) {
     addListener(new RunnableFutureCallbackAdapter<Object>(this, callback), executor);
   }
+
+  @Override
+  public <R> ListenableFuture<R> map(Function<? super Object, ? extends R> mapper) {
+    return map(mapper, null);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> map(Function<? super Object, ? extends R> mapper, Executor executor) {
+    return InternalFutureUtils.map(this, mapper, executor);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> flatMap(Function<? super Object, ? extends ListenableFuture<R>> mapper) {
+    return flatMap(mapper, null);
+  }
+
+  @Override
+  public <R> ListenableFuture<R> flatMap(Function<? super Object, ? extends ListenableFuture<R>> mapper, 
+                                         Executor executor) {
+    return InternalFutureUtils.flatMap(this, mapper, executor);
+  }
+
+  @Override
+  public <TT extends Throwable> ListenableFuture<Object> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends Object> mapper) {
+    return mapFailure(throwableType, mapper, null);
+  }
+
+  @Override
+  public <TT extends Throwable> ListenableFuture<Object> mapFailure(Class<TT> throwableType, 
+                                                               Function<? super TT, ? extends Object> mapper, 
+                                                               Executor executor) {
+    return InternalFutureUtils.mapFailure(this, throwableType, mapper, executor);
+  }
+
+  @Override
+  public ListenableFuture<Object> resultCallback(Consumer<? super Object> callback) {
+    return resultCallback(callback, null);
+  }
+
+  @Override
+  public ListenableFuture<Object> resultCallback(Consumer<? super Object> callback, Executor executor) {
+    InternalFutureUtils.resultCallback(this, callback, executor);
+    
+    return this;
+  }
+
+  @Override
+  public ListenableFuture<Object> failureCallback(Consumer<Throwable> callback) {
+    return failureCallback(callback, null);
+  }
+
+  @Override
+  public ListenableFuture<Object> failureCallback(Consumer<Throwable> callback, Executor executor) {
+    InternalFutureUtils.failureCallback(this, callback, executor);
+    
+    return this;
+  }
 }
\ No newline at end of file
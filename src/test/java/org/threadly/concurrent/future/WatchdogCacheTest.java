@@ -1,23 +1,23 @@
 package org.threadly.concurrent.future;
 
 import static org.junit.Assert.*;
+import static org.threadly.TestConstants.*;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
-import org.threadly.test.concurrent.TestUtils;
-import org.threadly.test.concurrent.TestableScheduler;
+import org.threadly.concurrent.NoThreadScheduler;
 
 @SuppressWarnings("javadoc")
 public class WatchdogCacheTest {
   private static final int TIMEOUT = 1;
   
-  private TestableScheduler scheduler;
+  private NoThreadScheduler scheduler;
   private WatchdogCache watchdog;
   
   @Before
   public void setup() {
-    scheduler = new TestableScheduler();
+    scheduler = new NoThreadScheduler();
     watchdog = new WatchdogCache(scheduler, true);
   }
   
@@ -39,31 +39,48 @@ public class WatchdogCacheTest {
     ListenableFuture<Object> future = FutureUtils.immediateResultFuture(null);
     watchdog.watch(future, TIMEOUT);
     
-    assertTrue(watchdog.cachedDogs.isEmpty());
+    assertFalse(watchdog.watchdog.isActive());
+    assertEquals(0, scheduler.getQueuedTaskCount());
   }
   
   @Test
-  public void expiredFutureTest() {
+  public void expiredFutureTest() throws InterruptedException {
     SettableListenableFuture<Object> slf = new SettableListenableFuture<Object>();
     watchdog.watch(slf, TIMEOUT);
     
-    TestUtils.blockTillClockAdvances();
-    
-    assertEquals(1, scheduler.tick());
+    assertEquals(1, scheduler.blockingTick(null));
     
     assertTrue(slf.isCancelled());
+    assertFalse(watchdog.watchdog.isActive());
   }
   
   @Test
-  public void cacheCleanTest() {
-    SettableListenableFuture<Object> slf = new SettableListenableFuture<Object>();
-    watchdog.watch(slf, TIMEOUT);
-    assertFalse(watchdog.cachedDogs.isEmpty());
+  public void sharedTimerTest() {
+    SettableListenableFuture<Object> slf1 = new SettableListenableFuture<Object>();
+    SettableListenableFuture<Object> slf2 = new SettableListenableFuture<Object>();
+    SettableListenableFuture<Object> slf3 = new SettableListenableFuture<Object>();
+    watchdog.watch(slf1, TIMEOUT);
+    watchdog.watch(slf2, DELAY_TIME);
+    watchdog.watch(slf3, DELAY_TIME * 2);
+    
+    // only a single tick task for all distinct timeouts
+    assertEquals(1, scheduler.getQueuedTaskCount());
+    assertEquals(3, watchdog.watchdog.timer.getPendingCount());
+    
+    slf3.setResult(null);
     
-    TestUtils.blockTillClockAdvances();
+    assertEquals(2, watchdog.watchdog.timer.getPendingCount());
+  }
+  
+  @Test
+  public void finishedFuturesStopTickTest() throws InterruptedException {
+    SettableListenableFuture<Object> slf = new SettableListenableFuture<Object>();
+    watchdog.watch(slf, DELAY_TIME);
+    slf.setResult(null);
     
-    assertEquals(2, scheduler.advance(WatchdogCache.INSPECTION_INTERVAL_MILLIS));
+    scheduler.blockingTick(null);
     
-    assertTrue(watchdog.cachedDogs.isEmpty());
+    assertFalse(watchdog.watchdog.isActive());
+    assertEquals(0, scheduler.getQueuedTaskCount());
   }
 }
@@ -3,11 +3,16 @@ package org.threadly.concurrent.future;
 import static org.junit.Assert.*;
 import static org.threadly.TestConstants.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.threadly.concurrent.HashedWheelTimer;
 import org.threadly.concurrent.NoThreadScheduler;
 import org.threadly.test.concurrent.TestUtils;
+import org.threadly.test.concurrent.TestableTimeSource;
 
 @SuppressWarnings("javadoc")
 public class WatchdogTest {
@@ -65,7 +70,8 @@ public class WatchdogTest {
     ListenableFuture<?> future = FutureUtils.immediateResultFuture(null);
     watchdog.watch(future);
     
-    assertTrue(watchdog.futures.isEmpty());
+    assertFalse(watchdog.isActive());
+    assertEquals(0, watchdog.timer.getPendingCount());
   }
   
   @Test
@@ -74,11 +80,13 @@ public class WatchdogTest {
     
     watchdog.watch(slf);
     
-    assertEquals(1, watchdog.futures.size());
+    assertEquals(1, watchdog.watchedCount.get());
+    assertEquals(1, watchdog.timer.getPendingCount());
     
     slf.setResult(null);
     
-    assertTrue(watchdog.futures.isEmpty());
+    assertFalse(watchdog.isActive());
+    assertEquals(0, watchdog.timer.getPendingCount());
   }
   
   @Test
@@ -91,24 +99,106 @@ public class WatchdogTest {
     assertEquals(1, scheduler.tick(null));
     
     assertTrue(slf.isCancelled());
-    assertTrue(watchdog.futures.isEmpty());
+    assertFalse(watchdog.isActive());
   }
   
   @Test
-  public void rescheduledFutureCheckTest() throws InterruptedException {
-    watchdog = new Watchdog(scheduler, DELAY_TIME * 2, true);
+  public void timeSourceExpiredFutureTest() {
+    TestableTimeSource timeSource = new TestableTimeSource();
+    scheduler = new NoThreadScheduler(null, 500, timeSource);
+    watchdog = new Watchdog(scheduler, DELAY_TIME, true, timeSource);
+    SettableListenableFuture<?> slf = new SettableListenableFuture<Void>();
+    watchdog.watch(slf);
+    
+    timeSource.advance(DELAY_TIME - 1);
+    scheduler.tick(null);
+    assertFalse(slf.isCancelled());
+    
+    timeSource.advance(HashedWheelTimer.DEFAULT_TICK_MILLIS);
+    scheduler.tick(null);
+    assertTrue(slf.isCancelled());
+    assertFalse(watchdog.isActive());
+  }
+  
+  @Test
+  public void rescheduledFutureCheckTest() {
+    TestableTimeSource timeSource = new TestableTimeSource();
+    scheduler = new NoThreadScheduler(null, 500, timeSource);
+    watchdog = new Watchdog(scheduler, DELAY_TIME * 2, true, timeSource);
     SettableListenableFuture<?> slf1 = new SettableListenableFuture<Void>();
     watchdog.watch(slf1);
-    TestUtils.sleep(DELAY_TIME);
+    timeSource.advance(DELAY_TIME);
+    scheduler.tick(null);
     SettableListenableFuture<?> slf2 = new SettableListenableFuture<Void>();
     watchdog.watch(slf2);
     
-    assertEquals(1, scheduler.blockingTick(null));
+    timeSource.advance(DELAY_TIME + HashedWheelTimer.DEFAULT_TICK_MILLIS);
+    scheduler.tick(null);
     assertTrue(slf1.isCancelled());
     assertFalse(slf2.isCancelled());
+    assertTrue(watchdog.isActive());
     
-    assertEquals(1, scheduler.blockingTick(null));
-    assertTrue(slf1.isCancelled());
+    timeSource.advance(DELAY_TIME);
+    scheduler.tick(null);
     assertTrue(slf2.isCancelled());
+    assertFalse(watchdog.isActive());
+  }
+  
+  @Test
+  public void manyFuturesTest() {
+    TestableTimeSource timeSource = new TestableTimeSource();
+    scheduler = new NoThreadScheduler(null, 500, timeSource);
+    watchdog = new Watchdog(scheduler, DELAY_TIME, true, timeSource);
+    List<SettableListenableFuture<?>> futures = new ArrayList<SettableListenableFuture<?>>();
+    for (int i = 0; i < TEST_QTY * 2; i++) {
+      SettableListenableFuture<?> slf = new SettableListenableFuture<Void>();
+      watchdog.watch(slf);
+      futures.add(slf);
+    }
+    for (int i = 0; i < TEST_QTY; i++) {
+      futures.get(i).setResult(null);
+    }
+    assertEquals(TEST_QTY, watchdog.watchedCount.get());
+    
+    timeSource.advance(DELAY_TIME + HashedWheelTimer.DEFAULT_TICK_MILLIS);
+    scheduler.tick(null);
+    
+    assertFalse(watchdog.isActive());
+    for (int i = 0; i < futures.size(); i++) {
+      assertEquals(i >= TEST_QTY, futures.get(i).isCancelled());
+    }
+  }
+  
+  @Test
+  @SuppressWarnings("deprecation")
+  public void simpleSchedulerAdaptedTest() {
+    watchdog = new Watchdog(new org.threadly.concurrent.SimpleSchedulerInterface() {
+      @Override
+      public void execute(Runnable task) {
+        scheduler.execute(task);
+      }
+
+      @Override
+      public void schedule(Runnable task, long delayInMs) {
+        scheduler.schedule(task, delayInMs);
+      }
+
+      @Override
+      public void scheduleWithFixedDelay(Runnable task, long initialDelay, long recurringDelay) {
+        scheduler.scheduleWithFixedDelay(task, initialDelay, recurringDelay);
+      }
+
+      @Override
+      public void scheduleAtFixedRate(Runnable task, long initialDelay, long period) {
+        scheduler.scheduleAtFixedRate(task, initialDelay, period);
+      }
+    }, TIMEOUT, true);
+    SettableListenableFuture<?> slf = new SettableListenableFuture<Void>();
+    watchdog.watch(slf);
+    
+    TestUtils.blockTillClockAdvances();
+    
+    assertEquals(1, scheduler.tick(null));
+    assertTrue(slf.isCancelled());
   }
 }
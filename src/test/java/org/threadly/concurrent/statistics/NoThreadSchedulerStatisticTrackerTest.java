@@ -24,6 +24,20 @@ public class NoThreadSchedulerStatisticTrackerTest extends NoThreadSchedulerTest
   
   // tests for statistics tracking
   
+  @Test
+  public void zeroStatisticWindowTest() {
+    NoThreadSchedulerStatisticTracker scheduler = new NoThreadSchedulerStatisticTracker(0);
+    TestRunnable tr = new TestRunnable();
+    scheduler.execute(tr);
+    
+    assertEquals(1, scheduler.tick(null));
+    
+    assertTrue(tr.ranOnce());
+    assertEquals(1, scheduler.getTotalExecutionCount());
+    assertTrue(scheduler.getExecutionDurationSamples().isEmpty());
+    assertEquals(-1, scheduler.getAverageExecutionDuration(), 0);
+  }
+  
   @Test
   public void resetCollectedStatsTest() {
     NoThreadSchedulerStatisticTracker scheduler = new NoThreadSchedulerStatisticTracker();
@@ -294,6 +308,38 @@ public class NoThreadSchedulerStatisticTrackerTest extends NoThreadSchedulerTest
     assertTrue(scheduler.getExecutionDurationPercentiles(90).get(90.) >= DELAY_TIME);
   }
 
+  @Test
+  public void setUseHistogramPercentilesTest() {
+    NoThreadSchedulerStatisticTracker scheduler = new NoThreadSchedulerStatisticTracker(2);
+    assertFalse(scheduler.isUsingHistogramPercentiles());
+    scheduler.setUseHistogramPercentiles(true);
+    assertTrue(scheduler.isUsingHistogramPercentiles());
+    scheduler.setUseHistogramPercentiles(false);
+    assertFalse(scheduler.isUsingHistogramPercentiles());
+  }
+
+  @Test
+  public void histogramExecutionDurationPercentilesTest() {
+    NoThreadSchedulerStatisticTracker scheduler = new NoThreadSchedulerStatisticTracker(2);
+    scheduler.setUseHistogramPercentiles(true);
+    assertEquals(0, scheduler.getExecutionDurationPercentiles(100).get(100.), 0);
+    scheduler.execute(new ClockUpdateRunnable(DELAY_TIME), TaskPriority.High);
+    scheduler.execute(new ClockUpdateRunnable(), TaskPriority.Low);
+    scheduler.execute(new ClockUpdateRunnable(), TaskPriority.Low);
+    scheduler.execute(new ClockUpdateRunnable(), TaskPriority.Low);
+    scheduler.tick(null);
+    
+    // histogram includes the sample which has fallen out of the window
+    assertEquals(2, scheduler.getExecutionDurationSamples(TaskPriority.Low).size());
+    assertTrue(scheduler.getExecutionDurationPercentiles(100).get(100.) >= DELAY_TIME);
+    assertTrue(scheduler.getExecutionDurationPercentiles(TaskPriority.High, 0).get(0.) >= DELAY_TIME);
+    assertEquals(1, scheduler.getExecutionDurationPercentiles(TaskPriority.Low, 100).get(100.), 1);
+    assertEquals(0, scheduler.getExecutionDelayPercentiles(TaskPriority.High, 50).get(50.), 2);
+    
+    scheduler.resetCollectedStats();
+    assertEquals(0, scheduler.getExecutionDurationPercentiles(100).get(100.), 0);
+  }
+
   @Test
   public void getWithPriorityExecutionDurationPercentilesTest() {
     NoThreadSchedulerStatisticTracker scheduler = new NoThreadSchedulerStatisticTracker();
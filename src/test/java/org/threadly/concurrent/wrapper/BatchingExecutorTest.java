@@ -0,0 +1,254 @@
+package org.threadly.concurrent.wrapper;
+
+import static org.junit.Assert.*;
+import static org.threadly.TestConstants.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.concurrent.NoThreadScheduler;
+import org.threadly.concurrent.SingleThreadScheduler;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.test.concurrent.TestableScheduler;
+
+@SuppressWarnings("javadoc")
+public class BatchingExecutorTest {
+  private NoThreadScheduler scheduler;
+  private TestBatchHandler handler;
+  private BatchingExecutor<Integer, String> executor;
+  
+  @Before
+  public void setup() {
+    scheduler = new NoThreadScheduler();
+    handler = new TestBatchHandler();
+    executor = new BatchingExecutor<Integer, String>(scheduler, TEST_QTY, 1000 * 10, handler);
+  }
+  
+  @After
+  public void cleanup() {
+    scheduler = null;
+    handler = null;
+    executor = null;
+  }
+  
+  @Test
+  @SuppressWarnings("unused")
+  public void constructorFail() {
+    try {
+      new BatchingExecutor<Integer, String>(null, TEST_QTY, 1, handler);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new BatchingExecutor<Integer, String>(scheduler, 0, 1, handler);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new BatchingExecutor<Integer, String>(scheduler, TEST_QTY, -1, handler);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new BatchingExecutor<Integer, String>(scheduler, TEST_QTY, 1, null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void batchBySizeTest() throws InterruptedException, ExecutionException {
+    List<ListenableFuture<String>> futures = new ArrayList<ListenableFuture<String>>();
+    for (int i = 0; i < TEST_QTY * 2; i++) {
+      futures.add(executor.submit(i));
+    }
+    
+    assertEquals(2, scheduler.tick(null));
+    
+    assertEquals(2, handler.batches.size());
+    assertEquals(TEST_QTY, handler.batches.get(0).size());
+    assertEquals(TEST_QTY, handler.batches.get(1).size());
+    for (int i = 0; i < futures.size(); i++) {
+      assertTrue(futures.get(i).isDone());
+      assertEquals(Integer.toString(i), futures.get(i).get());
+    }
+  }
+  
+  @Test
+  public void batchByLingerTest() throws InterruptedException, ExecutionException {
+    executor = new BatchingExecutor<Integer, String>(scheduler, TEST_QTY, DELAY_TIME, handler);
+    ListenableFuture<String> lf1 = executor.submit(1);
+    ListenableFuture<String> lf2 = executor.submit(2);
+    
+    assertEquals(0, scheduler.tick(null));
+    assertFalse(lf1.isDone());
+    
+    scheduler.blockingTick(null);
+    
+    assertEquals(1, handler.batches.size());
+    assertEquals(2, handler.batches.get(0).size());
+    assertEquals("1", lf1.get());
+    assertEquals("2", lf2.get());
+  }
+  
+  @Test
+  public void fullBatchLingerIgnoredTest() throws InterruptedException {
+    executor = new BatchingExecutor<Integer, String>(scheduler, 2, DELAY_TIME, handler);
+    executor.submit(1);
+    executor.submit(2);
+    ListenableFuture<String> lf = executor.submit(3);
+    
+    assertEquals(1, scheduler.tick(null));
+    assertEquals(1, handler.batches.size());
+    
+    // linger from first batch, then the linger for the second batch
+    scheduler.blockingTick(null);
+    while (! lf.isDone()) {
+      scheduler.blockingTick(null);
+    }
+    
+    assertEquals(2, handler.batches.size());
+    assertEquals(1, handler.batches.get(1).size());
+  }
+  
+  @Test
+  public void fullBatchReleasedBeforeLingerTest() {
+    TestableScheduler testScheduler = new TestableScheduler();
+    final List<List<Integer>> handledItems = new ArrayList<List<Integer>>(1);
+    executor = new BatchingExecutor<Integer, String>(testScheduler, 2, 1000 * 10, 
+                                                     new BatchingExecutor.BatchHandler<Integer, String>() {
+      @Override
+      public List<String> handleBatch(List<Integer> items) {
+        handledItems.add(items);
+        return null;
+      }
+    });
+    executor.submit(1);
+    executor.submit(2);
+    
+    assertEquals(1, testScheduler.tick(null));
+    
+    // handler keeps its items, but the still queued linger task should no longer reference them
+    assertEquals(Arrays.asList(1, 2), handledItems.get(0));
+    List<Runnable> queued = testScheduler.clearTasks();
+    assertEquals(1, queued.size());
+    BatchingExecutor<?, ?>.Batch lingerBatch = (BatchingExecutor<?, ?>.Batch)queued.get(0);
+    assertNull(lingerBatch.items);
+    assertNull(lingerBatch.futures);
+  }
+  
+  @Test
+  public void flushTest() throws InterruptedException, ExecutionException {
+    ListenableFuture<String> lf = executor.submit(1);
+    executor.flush();
+    
+    assertEquals(1, scheduler.tick(null));
+    
+    assertEquals("1", lf.get());
+    
+    // nothing pending, so flushing again has no effect
+    executor.flush();
+    assertEquals(1, handler.batches.size());
+  }
+  
+  @Test
+  public void handlerFailureTest() throws InterruptedException {
+    final RuntimeException failure = new RuntimeException();
+    executor = new BatchingExecutor<Integer, String>(scheduler, 2, 1000 * 10, 
+                                                     new BatchingExecutor.BatchHandler<Integer, String>() {
+      @Override
+      public List<String> handleBatch(List<Integer> items) {
+        throw failure;
+      }
+    });
+    ListenableFuture<String> lf1 = executor.submit(1);
+    ListenableFuture<String> lf2 = executor.submit(2);
+    scheduler.tick(null);
+    
+    List<ListenableFuture<String>> futures = new ArrayList<ListenableFuture<String>>(2);
+    futures.add(lf1);
+    futures.add(lf2);
+    for (ListenableFuture<String> lf : futures) {
+      try {
+        lf.get();
+        fail("Exception should have thrown");
+      } catch (ExecutionException e) {
+        assertTrue(failure == e.getCause());
+      }
+    }
+  }
+  
+  @Test
+  public void handlerWrongResultCountTest() throws InterruptedException {
+    executor = new BatchingExecutor<Integer, String>(scheduler, 2, 1000 * 10, 
+                                                     new BatchingExecutor.BatchHandler<Integer, String>() {
+      @Override
+      public List<String> handleBatch(List<Integer> items) {
+        return new ArrayList<String>(0);
+      }
+    });
+    executor.submit(1);
+    ListenableFuture<String> lf = executor.submit(2);
+    scheduler.tick(null);
+    
+    try {
+      lf.get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+  
+  @Test
+  public void handlerNullResultTest() throws InterruptedException, ExecutionException {
+    executor = new BatchingExecutor<Integer, String>(scheduler, 1, 1000 * 10, 
+                                                     new BatchingExecutor.BatchHandler<Integer, String>() {
+      @Override
+      public List<String> handleBatch(List<Integer> items) {
+        return null;
+      }
+    });
+    ListenableFuture<String> lf = executor.submit(1);
+    scheduler.tick(null);
+    
+    assertTrue(lf.isDone());
+    assertNull(lf.get());
+  }
+  
+  @Test
+  public void schedulerRejectedTest() throws InterruptedException {
+    SingleThreadScheduler sts = new SingleThreadScheduler();
+    sts.shutdown();
+    executor = new BatchingExecutor<Integer, String>(sts, 1, 1000 * 10, handler);
+    
+    try {
+      executor.submit(1);
+      fail("Exception should have thrown");
+    } catch (RuntimeException e) {
+      // expected
+    }
+  }
+  
+  private static class TestBatchHandler implements BatchingExecutor.BatchHandler<Integer, String> {
+    private final List<List<Integer>> batches = new ArrayList<List<Integer>>();
+    
+    @Override
+    public List<String> handleBatch(List<Integer> items) {
+      batches.add(new ArrayList<Integer>(items));
+      List<String> result = new ArrayList<String>(items.size());
+      for (Integer i : items) {
+        result.add(i.toString());
+      }
+      return result;
+    }
+  }
+}
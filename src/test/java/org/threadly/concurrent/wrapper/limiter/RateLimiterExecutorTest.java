@@ -11,6 +11,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.threadly.concurrent.DoNothingRunnable;
+import org.threadly.concurrent.NoThreadScheduler;
 import org.threadly.concurrent.PriorityScheduler;
 import org.threadly.concurrent.PrioritySchedulerTest.PrioritySchedulerFactory;
 import org.threadly.concurrent.StrictPriorityScheduler;
@@ -18,7 +19,9 @@ import org.threadly.concurrent.SubmitterExecutor;
 import org.threadly.concurrent.SubmitterExecutorInterfaceTest;
 import org.threadly.concurrent.TestCallable;
 import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.test.concurrent.TestRunnable;
 import org.threadly.test.concurrent.TestableScheduler;
+import org.threadly.test.concurrent.TestableTimeSource;
 import org.threadly.util.Clock;
 
 @SuppressWarnings("javadoc")
@@ -73,6 +76,27 @@ public class RateLimiterExecutorTest extends SubmitterExecutorInterfaceTest {
     assertEquals(20000, delay, 1000);
   }
   
+  @Test
+  public void timeSourceTest() {
+    TestableTimeSource timeSource = new TestableTimeSource();
+    NoThreadScheduler nts = new NoThreadScheduler(null, 500, timeSource);
+    limiter = new RateLimiterExecutor(nts, 1, timeSource);
+    TestRunnable tr = new TestRunnable();
+    
+    limiter.execute(tr);
+    limiter.execute(tr);
+    assertEquals(2000, limiter.getMinimumDelay());
+    assertEquals(1, nts.tick(null));
+    
+    timeSource.advance(500);
+    assertEquals(1500, limiter.getMinimumDelay());
+    assertEquals(0, nts.tick(null));
+    
+    timeSource.advance(500);
+    assertEquals(1, nts.tick(null));
+    assertEquals(2, tr.getRunCount());
+  }
+  
   @Test
   public void getFutureTillDelayTest() {
     // verify that an empty limiter returns a finished future
@@ -0,0 +1,62 @@
+package org.threadly.test.concurrent;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.util.Clock;
+
+@SuppressWarnings("javadoc")
+public class TestableTimeSourceTest {
+  private TestableTimeSource timeSource;
+  
+  @Before
+  public void setup() {
+    timeSource = new TestableTimeSource(1000);
+  }
+  
+  @Test
+  public void defaultConstructorTest() {
+    long before = Clock.accurateTimeMillis();
+    timeSource = new TestableTimeSource();
+    
+    assertTrue(timeSource.currentTimeMillis() >= before);
+    assertTrue(timeSource.currentTimeMillis() <= Clock.accurateTimeMillis());
+  }
+  
+  @Test
+  public void timeDoesNotAdvanceTest() {
+    assertEquals(0, timeSource.nanoTime());
+    assertEquals(1000, timeSource.currentTimeMillis());
+    
+    TestUtils.blockTillClockAdvances();
+    
+    assertEquals(0, timeSource.nanoTime());
+    assertEquals(1000, timeSource.currentTimeMillis());
+  }
+  
+  @Test
+  public void advanceTest() {
+    assertEquals(10L * Clock.NANOS_IN_MILLISECOND, timeSource.advance(10));
+    assertEquals(10L * Clock.NANOS_IN_MILLISECOND, timeSource.nanoTime());
+    assertEquals(1010, timeSource.currentTimeMillis());
+  }
+  
+  @Test
+  public void advanceNanosTest() {
+    assertEquals(Clock.NANOS_IN_MILLISECOND - 1, timeSource.advanceNanos(Clock.NANOS_IN_MILLISECOND - 1));
+    assertEquals(1000, timeSource.currentTimeMillis());
+    assertEquals(Clock.NANOS_IN_MILLISECOND, timeSource.advanceNanos(1));
+    assertEquals(1001, timeSource.currentTimeMillis());
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void advanceNegativeFail() {
+    timeSource.advance(-1);
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void advanceNanosNegativeFail() {
+    timeSource.advanceNanos(-1);
+  }
+}
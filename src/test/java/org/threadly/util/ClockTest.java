@@ -1,17 +1,20 @@
 package org.threadly.util;
 
 import static org.junit.Assert.*;
+import static org.threadly.TestConstants.*;
 
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Test;
 import org.threadly.test.concurrent.TestCondition;
 import org.threadly.test.concurrent.TestUtils;
+import org.threadly.test.concurrent.TestableTimeSource;
 
 @SuppressWarnings("javadoc")
 public class ClockTest {
   @AfterClass
   public static void cleanupClass() {
+    Clock.setAutomaticUpdateFrequency(Clock.AUTOMATIC_UPDATE_FREQUENCY_IN_MS);
     Clock.startClockUpdateThread();
   }
   
@@ -68,6 +71,145 @@ public class ClockTest {
     assertTrue(timeSinceClockStartMillis < 1000 * 60 * 15); // less than 15 min
   }
   
+  @Test
+  public void lastKnownForwardProgressingNanosTest() {
+    // verify clock is not updating
+    long before = Clock.lastKnownForwardProgressingNanos();
+    assertTrue(before >= 0);
+    
+    TestUtils.blockTillClockAdvances();
+    
+    Clock.accurateTimeNanos();
+    assertTrue(Clock.lastKnownForwardProgressingNanos() > before);
+    assertEquals(Clock.lastKnownForwardProgressingNanos() / Clock.NANOS_IN_MILLISECOND, 
+                 Clock.lastKnownForwardProgressingMillis());
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void setAutomaticUpdateFrequencyFail() {
+    Clock.setAutomaticUpdateFrequency(0);
+  }
+  
+  @Test
+  public void setAutomaticUpdateFrequencyTest() {
+    Clock.setAutomaticUpdateFrequency(1);
+    try {
+      assertEquals(1, Clock.getAutomaticUpdateFrequency());
+      Clock.startClockUpdateThread();
+      final long before = Clock.lastKnownTimeNanos();
+      
+      new TestCondition() {
+        @Override
+        public boolean get() {
+          return Clock.lastKnownTimeNanos() > before;
+        }
+      }.blockTillTrue(50);
+    } finally {
+      Clock.setAutomaticUpdateFrequency(Clock.AUTOMATIC_UPDATE_FREQUENCY_IN_MS);
+    }
+  }
+  
+  @Test
+  public void nextUpdateDelayTest() {
+    Clock.setAutomaticUpdateFrequency(10);
+    try {
+      assertEquals(10, Clock.nextUpdateDelay(10, true));
+      assertEquals(10, Clock.nextUpdateDelay(1000, true));
+      assertEquals(20, Clock.nextUpdateDelay(10, false));
+      assertEquals(10, Clock.nextUpdateDelay(1, false));
+      assertEquals(Clock.MAXIMUM_IDLE_UPDATE_FREQUENCY_IN_MS, 
+                   Clock.nextUpdateDelay(Clock.MAXIMUM_IDLE_UPDATE_FREQUENCY_IN_MS, false));
+      assertEquals(Clock.MAXIMUM_IDLE_UPDATE_FREQUENCY_IN_MS, 
+                   Clock.nextUpdateDelay(Integer.MAX_VALUE, false));
+    } finally {
+      Clock.setAutomaticUpdateFrequency(Clock.AUTOMATIC_UPDATE_FREQUENCY_IN_MS);
+    }
+  }
+  
+  @Test
+  public void nextUpdateDelayLargeFrequencyTest() {
+    Clock.setAutomaticUpdateFrequency(Clock.MAXIMUM_IDLE_UPDATE_FREQUENCY_IN_MS * 2);
+    try {
+      assertEquals(Clock.MAXIMUM_IDLE_UPDATE_FREQUENCY_IN_MS * 2, 
+                   Clock.nextUpdateDelay(Clock.MAXIMUM_IDLE_UPDATE_FREQUENCY_IN_MS * 2, false));
+    } finally {
+      Clock.setAutomaticUpdateFrequency(Clock.AUTOMATIC_UPDATE_FREQUENCY_IN_MS);
+    }
+  }
+  
+  @Test
+  public void readingTightensUpdateDelayTest() {
+    Clock.setAutomaticUpdateFrequency(1);
+    try {
+      Clock.startClockUpdateThread();
+      final Clock.ClockUpdater updater = Clock.clockUpdater;
+      
+      new TestCondition() {
+        @Override
+        public boolean get() {
+          Clock.lastKnownTimeMillis();
+          return updater.currentDelayMillis == 1;
+        }
+      }.blockTillTrue(1000);
+    } finally {
+      Clock.setAutomaticUpdateFrequency(Clock.AUTOMATIC_UPDATE_FREQUENCY_IN_MS);
+    }
+  }
+  
+  @Test
+  public void accurateForwardProgressingMillisDoesNotRecordReadTest() {
+    Clock.setAutomaticUpdateFrequency(1);
+    try {
+      Clock.startClockUpdateThread();
+      final Clock.ClockUpdater updater = Clock.clockUpdater;
+      
+      // without reads of the last known time the updater should back off
+      new TestCondition() {
+        @Override
+        public boolean get() {
+          Clock.accurateForwardProgressingMillis();
+          return updater.currentDelayMillis > 1;
+        }
+      }.blockTillTrue(1000);
+    } finally {
+      Clock.setAutomaticUpdateFrequency(Clock.AUTOMATIC_UPDATE_FREQUENCY_IN_MS);
+    }
+  }
+  
+  @Test
+  public void getTimeSourceDefaultTest() {
+    assertTrue(Clock.getTimeSource() == Clock.SYSTEM_TIME_SOURCE);
+  }
+  
+  @Test
+  public void setTimeSourceTest() {
+    TestableTimeSource source = new TestableTimeSource(1000);
+    long before = Clock.accurateForwardProgressingMillis();
+    Clock.setTimeSource(source);
+    try {
+      assertTrue(Clock.getTimeSource() == source);
+      assertTrue(Clock.lastKnownForwardProgressingMillis() >= before);
+      assertEquals(1000, Clock.lastKnownTimeMillis());
+      
+      long startNanos = Clock.accurateTimeNanos();
+      assertEquals(startNanos, Clock.accurateTimeNanos()); // time should not move on its own
+      
+      source.advanceNanos(DELAY_TIME);
+      assertEquals(startNanos + DELAY_TIME, Clock.accurateTimeNanos());
+      assertEquals(startNanos + DELAY_TIME, Clock.lastKnownTimeNanos());
+      source.advance(DELAY_TIME);
+      assertEquals(1000 + DELAY_TIME, Clock.accurateTimeMillis());
+    } finally {
+      Clock.setTimeSource(null);
+    }
+    
+    assertTrue(Clock.getTimeSource() == Clock.SYSTEM_TIME_SOURCE);
+    long restoredStart = Clock.lastKnownForwardProgressingMillis();
+    // time must not go backwards after the source is restored
+    assertTrue(Clock.accurateForwardProgressingMillis() >= restoredStart);
+    assertEquals(System.currentTimeMillis(), Clock.accurateTimeMillis(), 1000);
+  }
+  
   @Test
   public void accurateForwardProgressingMillisTest() {
     final long timeSinceClockStartMillis = Clock.accurateForwardProgressingMillis();
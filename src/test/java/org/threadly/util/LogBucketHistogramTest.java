@@ -0,0 +1,144 @@
+package org.threadly.util;
+
+import static org.junit.Assert.*;
+import static org.threadly.TestConstants.*;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class LogBucketHistogramTest {
+  private LogBucketHistogram histogram;
+  
+  @Before
+  public void setup() {
+    histogram = new LogBucketHistogram();
+  }
+  
+  @Test
+  public void constructorFail() {
+    try {
+      new LogBucketHistogram(0);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new LogBucketHistogram(15);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void getPrecisionBitsTest() {
+    assertEquals(LogBucketHistogram.DEFAULT_PRECISION_BITS, histogram.getPrecisionBits());
+    assertEquals(2, new LogBucketHistogram(2).getPrecisionBits());
+  }
+  
+  @Test
+  public void bucketIndexRoundTripTest() {
+    for (int bits = 1; bits < 10; bits++) {
+      LogBucketHistogram h = new LogBucketHistogram(bits);
+      int lastIndex = -1;
+      for (int i = 0; i < h.getBucketCount(); i++) {
+        long low = h.bucketLowValue(i);
+        assertEquals(i, h.bucketIndex(low));
+        assertTrue(h.bucketIndex(low - 1) <= i);
+        assertTrue(h.bucketIndex(low) > lastIndex);
+        lastIndex = i;
+      }
+      assertEquals(h.getBucketCount() - 1, h.bucketIndex(Long.MAX_VALUE));
+    }
+  }
+  
+  @Test
+  public void recordNegativeTest() {
+    histogram.record(-10);
+    
+    assertEquals(1, histogram.getTotalCount());
+    assertEquals(0, histogram.getPercentiles(100).get(100.).longValue());
+  }
+  
+  @Test
+  public void exactSmallValuePercentileTest() {
+    for (int i = 1; i <= 10; i++) {
+      histogram.record(i);
+    }
+    
+    Map<Double, Long> pResult = histogram.getPercentiles(0, 50, 99, 100);
+    assertEquals(1, pResult.get(0.).longValue());
+    assertEquals(6, pResult.get(50.).longValue());
+    assertEquals(10, pResult.get(99.).longValue());
+    assertEquals(10, pResult.get(100.).longValue());
+  }
+  
+  @Test
+  public void largeValuePrecisionTest() {
+    long value = 1;
+    while (value < Long.MAX_VALUE / 3) {
+      histogram.reset();
+      histogram.record(value);
+      
+      long reported = histogram.getPercentiles(50).get(50.);
+      assertTrue(reported <= value);
+      assertTrue((value - reported) <= value / (1L << (histogram.getPrecisionBits() - 1)));
+      
+      value = value * 3 + 1;
+    }
+  }
+  
+  @Test
+  public void addTest() {
+    LogBucketHistogram other = new LogBucketHistogram();
+    for (int i = 0; i < TEST_QTY; i++) {
+      histogram.record(i);
+      other.record(i + TEST_QTY);
+    }
+    
+    histogram.add(other);
+    
+    assertEquals(TEST_QTY * 2, histogram.getTotalCount());
+    assertEquals(TEST_QTY, other.getTotalCount());
+    assertEquals(TEST_QTY, histogram.getPercentiles(50).get(50.).longValue());
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void addPrecisionMismatchFail() {
+    histogram.add(new LogBucketHistogram(histogram.getPrecisionBits() + 1));
+  }
+  
+  @Test
+  public void resetTest() {
+    histogram.record(1);
+    histogram.reset();
+    
+    assertEquals(0, histogram.getTotalCount());
+  }
+  
+  @Test
+  public void percentileFail() {
+    try {
+      histogram.getPercentiles(50);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    histogram.record(1);
+    try {
+      histogram.getPercentiles();
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      histogram.getPercentiles(101);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+}
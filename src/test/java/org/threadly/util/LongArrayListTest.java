@@ -0,0 +1,88 @@
+package org.threadly.util;
+
+import static org.junit.Assert.*;
+import static org.threadly.TestConstants.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class LongArrayListTest {
+  private LongArrayList list;
+  
+  @Before
+  public void setup() {
+    list = new LongArrayList(0);
+  }
+  
+  @SuppressWarnings("unused")
+  @Test (expected = IllegalArgumentException.class)
+  public void constructorFail() {
+    new LongArrayList(-1);
+    fail("Exception should have thrown");
+  }
+  
+  @Test
+  public void emptyTest() {
+    assertTrue(list.isEmpty());
+    assertEquals(0, list.size());
+    assertEquals(0, list.toArray().length);
+    assertTrue(list.toList().isEmpty());
+  }
+  
+  @Test
+  public void addAndGetTest() {
+    for (int i = 0; i < TEST_QTY; i++) {
+      list.add(i);
+    }
+    
+    assertFalse(list.isEmpty());
+    assertEquals(TEST_QTY, list.size());
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertEquals(i, list.get(i));
+    }
+  }
+  
+  @Test (expected = IndexOutOfBoundsException.class)
+  public void getOutOfRangeFail() {
+    list.add(1);
+    list.get(1);
+  }
+  
+  @Test
+  public void addAllTest() {
+    list.add(1);
+    list.addAll(new long[] { 2, 3, 4 });
+    
+    assertTrue(Arrays.equals(new long[] { 1, 2, 3, 4 }, list.toArray()));
+  }
+  
+  @Test
+  public void clearTest() {
+    list.addAll(new long[] { 2, 3, 4 });
+    list.clear();
+    
+    assertTrue(list.isEmpty());
+    list.add(1);
+    assertTrue(Arrays.equals(new long[] { 1 }, list.toArray()));
+  }
+  
+  @Test
+  public void sortTest() {
+    list.addAll(new long[] { 3, -1, 2, 1 });
+    list.sort();
+    
+    assertTrue(Arrays.equals(new long[] { -1, 1, 2, 3 }, list.toArray()));
+  }
+  
+  @Test
+  public void toListTest() {
+    list.addAll(new long[] { 3, 2, 1 });
+    List<Long> result = list.toList();
+    
+    assertEquals(Arrays.asList(3L, 2L, 1L), result);
+  }
+}
@@ -47,4 +47,57 @@ public class StatisticsUtilsTest {
       // expected
     }
   }
+  
+  @Test
+  public void primitiveAverageTest() {
+    assertEquals(0, StatisticsUtils.getAverage(new long[0]), 0);
+    assertEquals(2, StatisticsUtils.getAverage(new long[]{ 2 }), 0);
+    assertEquals(2, StatisticsUtils.getAverage(new long[]{ 1, 3, 1, 3 }), 0);
+    assertEquals(0, StatisticsUtils.getAverage(new long[]{ -10, 10 }), 0);
+  }
+  
+  @Test
+  public void primitivePercentileTest() {
+    long[] values = new long[]{ 10, 9, 8, 7, 6, 5, 4, 3, 2, 1 };
+    Map<Double, Long> pResult = StatisticsUtils.getPercentiles(values, 0, 50, 99, 100);
+    assertEquals(1, pResult.get(0.).longValue());
+    assertEquals(6, pResult.get(50.).longValue());
+    assertEquals(10, pResult.get(99.).longValue());
+    assertEquals(10, pResult.get(100.).longValue());
+    // verify provided array was not sorted
+    assertEquals(10, values[0]);
+  }
+  
+  @Test
+  public void primitivePercentileFromSortedTest() {
+    Map<Double, Long> pResult = 
+        StatisticsUtils.getPercentilesFromSorted(new long[]{ 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }, 
+                                                 0, 50, 99, 100);
+    assertEquals(1, pResult.get(0.).longValue());
+    assertEquals(6, pResult.get(50.).longValue());
+    assertEquals(10, pResult.get(99.).longValue());
+    assertEquals(10, pResult.get(100.).longValue());
+  }
+  
+  @Test
+  public void primitivePercentileFail() {
+    try {
+      StatisticsUtils.getPercentiles(new long[0], 50, 99);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      StatisticsUtils.getPercentiles(new long[]{ 0, 10 });
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      StatisticsUtils.getPercentiles(new long[]{ 0, 10 }, 101);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
 }